@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aspirecsl.log.correlation.UlidGenerator;
+
+/**
+ * Measures the throughput of generating correlation ids on several threads at once; by the <tt>UlidGenerator</tt>, and by
+ * <tt>UUID.randomUUID()</tt>, whose <tt>SecureRandom</tt> is shared by the threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CorrelationIdBenchmark {
+
+    private final UlidGenerator ulidGenerator = new UlidGenerator();
+
+    @Benchmark
+    public String ulid() {
+        return ulidGenerator.nextId();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
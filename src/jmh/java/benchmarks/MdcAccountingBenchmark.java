@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aspirecsl.log.MdcAccounting;
+import com.aspirecsl.log.MdcSpecialized;
+import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * Measures the cost of accounting the CPU time and the allocated bytes of a call to its tenant; i.e. of reading the resources
+ * used by the current thread twice per call, compared with the same advice without <tt>MdcAccounting</tt>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MdcAccountingBenchmark {
+
+    private final Orders orders = new Orders();
+
+    private String tenant = "acme";
+
+    private long orderId = 7_340_032L;
+
+    @Benchmark
+    public long notAccounted() {
+        return orders.notAccounted(tenant, orderId);
+    }
+
+    @Benchmark
+    public long accounted() {
+        return orders.accounted(tenant, orderId);
+    }
+
+    /**
+     * The MDC aware methods being measured.
+     */
+    public static class Orders {
+
+        @Slf4jMdcAware
+        @MdcSpecialized
+        public long notAccounted(
+                @MdcValue(name = "tenant")
+                        String tenant,
+                long orderId) {
+            return orderId + 1;
+        }
+
+        @Slf4jMdcAware
+        @MdcSpecialized
+        @MdcAccounting(segmentKey = "tenant")
+        public long accounted(
+                @MdcValue(name = "tenant")
+                        String tenant,
+                long orderId) {
+            return orderId + 1;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aspirecsl.log.aspects.MdcLeakDetector;
+
+/**
+ * Measures the cost of checking a task for leaked MDC entries at its boundaries, when the task leaks nothing; i.e. of running
+ * a task wrapped by the <tt>MdcLeakDetector</tt>, compared with running the task itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MdcLeakDetectorBenchmark {
+
+    private final MdcLeakDetector detector = MdcLeakDetector.create(true);
+
+    private long counter;
+
+    private final Runnable task = () -> counter++;
+
+    private final Runnable checkedTask = detector.wrap(task);
+
+    @Benchmark
+    public long unchecked() {
+        task.run();
+        return counter;
+    }
+
+    @Benchmark
+    public long checked() {
+        checkedTask.run();
+        return counter;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.MdcSpecialized;
+import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * Measures the cost of adding primitive <tt>MdcValue</tt> arguments to the MDC; via the generic advice, via the advice
+ * specialized for the method, and by hand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MdcValueBenchmark {
+
+    private final Orders orders = new Orders();
+
+    private long orderId = 7_340_032L;
+
+    private int shard = 17;
+
+    @Benchmark
+    public long genericAdvice() {
+        return orders.generic(orderId, shard, true);
+    }
+
+    @Benchmark
+    public long specializedAdvice() {
+        return orders.specialized(orderId, shard, true);
+    }
+
+    @Benchmark
+    public long handWritten() {
+        MDC.put("orderId", Long.toString(orderId));
+        MDC.put("shard", Integer.toString(shard));
+        MDC.put("express", Boolean.toString(true));
+        try {
+            return orders.plain(orderId, shard, true);
+        } finally {
+            MDC.remove("orderId");
+            MDC.remove("shard");
+            MDC.remove("express");
+        }
+    }
+
+    /**
+     * The MDC aware methods being measured.
+     */
+    public static class Orders {
+
+        @Slf4jMdcAware
+        public long generic(
+                @MdcValue(name = "orderId")
+                        long orderId,
+                @MdcValue(name = "shard")
+                        int shard,
+                @MdcValue(name = "express")
+                        boolean express) {
+            return orderId + shard;
+        }
+
+        @Slf4jMdcAware
+        @MdcSpecialized
+        public long specialized(
+                @MdcValue(name = "orderId")
+                        long orderId,
+                @MdcValue(name = "shard")
+                        int shard,
+                @MdcValue(name = "express")
+                        boolean express) {
+            return orderId + shard;
+        }
+
+        public long plain(long orderId, int shard, boolean express) {
+            return orderId + shard;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.aspirecsl.log;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.aspirecsl.log.aspects.MdcAccountant;
+import com.aspirecsl.log.aspects.MdcAspect;
+
+/**
+ * Indicates that the CPU time consumed, and the bytes allocated, by the calls of an MDC aware method are accounted to the
+ * value of an MDC key; such as a tenant. For example:-
+ * <pre>
+ *
+ *     When specified as below:
+ *
+ *    {@literal @Slf4jMdcAware}
+ *    {@literal @MdcAccounting}(segmentKey = "tenant")
+ *     public void process({@literal @MdcValue}(name = "tenant") String tenant){
+ *         // do something
+ *     }
+ *
+ *     The CPU time and the allocated bytes of each call are added to the account of its <b>tenant</b>; which are published,
+ *     per method and tenant, by <tt>MdcMetrics</tt>.
+ * </pre>
+ * <p>The resources are read from the <tt>ThreadMXBean</tt> of the platform when the MDC is populated, and again just before the
+ * values added by the advice are removed; which costs in the order of a microsecond per call on most platforms. A resource
+ * that the platform cannot measure is accounted as <tt>0</tt>. Nothing is accounted if the metrics are disabled.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see Slf4jMdcAware
+ * @see Log4j2MdcAware
+ * @see MdcAccountant
+ * @see MdcAspect
+ * @since 1d
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MdcAccounting {
+
+    /**
+     * Returns the MDC key whose value, when the annotated method completes, selects the account that the resources used by the
+     * call are added to.
+     *
+     * @return the MDC key whose values are accounted.
+     */
+    String segmentKey();
+
+    /**
+     * Returns the number of distinct values of the {@link #segmentKey()} accounted; the calls with the other values are added
+     * to a single <em>overflow</em> account.
+     *
+     * @return the number of distinct values of the segment key accounted.
+     */
+    int maxSegments() default 32;
+}
@@ -0,0 +1,56 @@
+package com.aspirecsl.log;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.aspirecsl.log.aspects.MdcExtractor;
+import com.aspirecsl.log.processor.MdcExportProcessor;
+
+/**
+ * Indicates that a <tt>property</tt> of a domain type is added to the MDC of the logging framework wherever an object of the
+ * type is an <tt>MdcHolder</tt> annotated argument.
+ * <p>The mapping of a type to the MDC is declared once, on the type itself; instead of repeating the same <tt>MdcParams</tt>
+ * on every method taking the type. For example:-
+ * <pre>
+ *
+ *     public class Order {
+ *        {@literal @MdcExport(name = "orderId")}
+ *         private final String id;
+ *
+ *        {@literal @MdcExport}
+ *         public Tenant getTenant() {
+ *             // return the tenant
+ *         }
+ *     }
+ *
+ *    {@literal @Slf4jMdcAware}
+ *     public void process({@literal @MdcHolder} Order order) {
+ *         // the MDC holds the orderId and the getTenant of the order
+ *     }
+ * </pre>
+ * <p><tt>Properties</tt> can be <tt>fields</tt>, <tt>no-arg methods</tt> or <tt>record components</tt>. A <tt>private</tt>
+ * field is read through its accessor; i.e. a no-arg method named after the field, or its <em>getter</em>. The
+ * <tt>MdcExportProcessor</tt> annotation processor generates an {@link MdcExtractor} for each type declaring the
+ * <tt>properties</tt>; which reads them directly, without reflection. The <tt>properties</tt> of the superclasses are added
+ * as well.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcHolder
+ * @see MdcExtractor
+ * @see MdcExportProcessor
+ * @since 1d
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface MdcExport {
+    /**
+     * Returns the key for the value of the <tt>property</tt> stored in the MDC.
+     * <p>If not specified, then the name of the field or method is used as the key <em>(default behaviour)</em>.
+     *
+     * @return the key for the value of the <tt>property</tt> stored in the MDC.
+     */
+    String name() default "";
+}
@@ -9,6 +9,8 @@ import com.aspirecsl.log.aspects.MdcAspect;
 
 /**
  * Indicates that a <tt>HasDiagnosticContext</tt> implementation supplies to the MDC of the logging framework.
+ * <p>An object with <tt>MdcExport</tt> annotated members supplies its exported <tt>properties</tt>; through the
+ * <tt>MdcExtractor</tt> generated for its class.
  *
  * @author anoopr
  * @version 1c
@@ -16,6 +18,7 @@ import com.aspirecsl.log.aspects.MdcAspect;
  * @see MdcValue
  * @see MdcParam
  * @see MdcAspect
+ * @see MdcExport
  * @see HasDiagnosticContext
  * @since 1c
  */
@@ -26,6 +29,7 @@ public @interface MdcHolder {
      * Returns an <tt>Array</tt> of keys used to filter the values added to the MDC by a client.
      * <p>This allows a client to supply different values to the MDC from different contexts. All the values supplied by a
      * client are added to the MDC when this value is not overridden. <em>(default behaviour)</em>.
+     * <p>The keys are matched <em>ignoring case</em>; and can be globs or regular expressions, as in {@link MdcMap#filter()}.
      *
      * @return an <tt>Array</tt> containing header parameters from the request map to be added to the log context.
      */
@@ -0,0 +1,49 @@
+package com.aspirecsl.log;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.aspects.MdcScope;
+
+/**
+ * Indicates that the <tt>properties</tt> of each element of a batch are added to the MDC of the logging framework while the
+ * element is consumed by the method.
+ * <p>The annotated parameter is wrapped before the method is invoked; so that, as the method takes the next element of the
+ * batch, the <tt>properties</tt> of the element replace those of the previous element in the MDC. For example:-
+ * <pre>
+ *
+ *    {@literal @Slf4jMdcAware}
+ *     public void process({@literal @MdcIterate(@MdcParam(getter = "getId", label = "orderId")) List<Order> orders}) {
+ *         for (Order order : orders) {
+ *             LOGGER.info("processing");   // logged with the orderId of the order
+ *         }
+ *     }
+ * </pre>
+ * <p>The MDC is updated incrementally; only the keys whose values differ from those of the previous element are written, and
+ * the keys that the element does not supply are removed. The keys are removed from the MDC when the method completes.
+ * <p>The parameter must be declared as an <tt>Iterable</tt>, a <tt>Collection</tt>, a <tt>List</tt>, a <tt>Set</tt>, an
+ * <tt>Iterator</tt> or a <tt>Stream</tt>; the wrapper being of the same type. The elements are swapped into the MDC only when
+ * they are consumed on the thread that invoked the method, and only until the method completes; e.g. the elements of a
+ * parallel stream consumed by the other threads are not.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcParam
+ * @see MdcAspect
+ * @see MdcScope#iterate(com.aspirecsl.log.aspects.MdcSpec, Iterable)
+ * @since 1d
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface MdcIterate {
+    /**
+     * Returns the <tt>properties</tt> of each element that are added to the MDC; as for an <tt>MdcParam</tt> annotated
+     * parameter.
+     *
+     * @return the <tt>properties</tt> of each element that are added to the MDC.
+     */
+    MdcParam[] value();
+}
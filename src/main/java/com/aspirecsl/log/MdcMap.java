@@ -6,6 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.aspects.MdcBudget;
 
 /**
  * Indicates that a <tt>Map</tt> supplies to the MDC of the logging framework.
@@ -28,6 +29,13 @@ public @interface MdcMap {
      * Returns an <tt>Array</tt> of keys <em>(case-insensitive)</em> used to filter the values added to the MDC by a client.
      * <p>This allows a client to supply different values to the MDC from different contexts. All the values supplied by a
      * client are added to the MDC when this value is not overridden. <em>(default behaviour)</em>.
+     * <p>Besides a key, an element can be a glob; where <tt>*</tt> matches any sequence of characters and <tt>?</tt> matches
+     * any one character, e.g. <tt>x-b3-*</tt>. Or an anchored regular expression enclosed in slashes, e.g.
+     * <tt>/tenant\.(id|region)/</tt>; supporting the character classes, groups, alternations and quantifiers, but not the
+     * backreferences or lookarounds. The elements are compiled once into an automaton that matches each key in a single scan.
+     * <p>So the elements holding <tt>*</tt>, <tt>?</tt> or <tt>\</tt>, or enclosed in slashes, are not matched literally;
+     * unless those characters, or the leading slash, are escaped by a backslash, e.g. <tt>"what\\?"</tt> or
+     * <tt>"\\/path/"</tt>.
      *
      * @return an <tt>Array</tt> containing header parameters from the request map to be added to the log context.
      */
@@ -88,4 +96,24 @@ public @interface MdcMap {
      * @return a <tt>String</tt> that is prefixed to the keys stored in the MDC of the logging framework.
      */
     String mdcKeyPrefix() default "";
+
+    /**
+     * Returns the maximum number of entries added to the MDC from the <tt>Map</tt>; the entries beyond it are dropped.
+     * <p>If not specified, or not positive, then the entries are only limited by the budgets of the method and the thread
+     * <em>(default behaviour)</em>.
+     *
+     * @return the maximum number of entries added to the MDC from the <tt>Map</tt>.
+     * @see MdcBudget
+     */
+    int maxKeys() default 0;
+
+    /**
+     * Returns the maximum length of a value added to the MDC from the <tt>Map</tt>; a longer value is truncated.
+     * <p>If not specified, or not positive, then the values are only limited by the budgets of the method and the thread
+     * <em>(default behaviour)</em>.
+     *
+     * @return the maximum length of a value added to the MDC from the <tt>Map</tt>.
+     * @see MdcBudget
+     */
+    int maxValueLength() default 0;
 }
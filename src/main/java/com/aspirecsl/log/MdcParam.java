@@ -5,6 +5,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.format.MdcFormatter;
+import com.aspirecsl.log.format.MdcFormatters;
 
 import static java.lang.annotation.ElementType.PARAMETER;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
@@ -28,28 +30,73 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 public @interface MdcParam {
     /**
      * Returns the name of the field whose value is to be added to the MDC.
-     * <p>Only (and exactly) one of <tt>field()</tt> or <tt>getter()</tt> should be specified
+     * <p>Only (and exactly) one of <tt>field()</tt>, <tt>getter()</tt> or <tt>path()</tt> should be specified
      *
      * @return the name of the field whose value is to be added to the MDC.
      * @see #getter()
+     * @see #path()
      */
     String field() default "";
 
     /**
      * Returns the name of the <em>getter</em> method that supplies the value to be added to the MDC.
-     * <p>Only (and exactly) one of <tt>field()</tt> or <tt>getter()</tt> should be specified
+     * <p>Only (and exactly) one of <tt>field()</tt>, <tt>getter()</tt> or <tt>path()</tt> should be specified
      *
      * @return the name of the <em>getter</em> method that supplies the value to be added to the MDC.
      * @see #field()
+     * @see #path()
      */
     String getter() default "";
 
+    /**
+     * Returns the dot-separated path of the nested property whose value is to be added to the MDC; e.g.
+     * <tt>customer.address.postcode</tt>, or <tt>getCustomer.getAddress.getPostcode</tt>.
+     * <p>Each property on the path is resolved against the class of the object holding it, including its superclasses, as
+     * the first of:-
+     * <ol>
+     *     <li>a no-arg method with the name of the property; e.g. <tt>getCustomer()</tt> for <tt>getCustomer</tt></li>
+     *     <li>a no-arg <em>getter</em> method for the property; e.g. <tt>getCustomer()</tt> or <tt>isCustomer()</tt> for
+     *     <tt>customer</tt></li>
+     *     <li>a field with the name of the property</li>
+     * </ol>
+     * <p>Nothing is added to the MDC if a property on the path, other than the last one, is <tt>null</tt>; or cannot be
+     * resolved.
+     * <p>Only (and exactly) one of <tt>field()</tt>, <tt>getter()</tt> or <tt>path()</tt> should be specified
+     *
+     * @return the dot-separated path of the nested property whose value is to be added to the MDC.
+     * @see #field()
+     * @see #getter()
+     */
+    String path() default "";
+
     /**
      * Returns a <em>programmer-friendly</em> name that is used as a key for the value stored in the MDC.
-     * <p>If not specified, then uses the value from <tt>field()</tt> or <tt>getter()</tt> <em>(whichever is present)</em>
-     * as the key for the value stored in the MDC <em>(default behaviour)</em>.
+     * <p>If not specified, then uses the value from <tt>field()</tt>, <tt>getter()</tt> or <tt>path()</tt> <em>(whichever is
+     * present)</em> as the key for the value stored in the MDC <em>(default behaviour)</em>.
      *
      * @return a <em>programmer-friendly</em> name that is used as a key for the value stored in the MDC.
      */
     String label() default "";
+
+    /**
+     * Returns the type of the formatter that renders the property for the MDC.
+     * <p>If not specified, then the formatter registered with <tt>MdcFormatters</tt> for the class of the value is used
+     * <em>(default behaviour)</em>. The formatter type must have a <tt>public</tt> no-arg constructor; it is instantiated
+     * once per annotated parameter.
+     *
+     * @return the type of the formatter that renders the property for the MDC.
+     * @see MdcFormatters
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends MdcFormatter> formatter() default MdcFormatter.class;
+
+    /**
+     * Returns the maximum length of the representation of the property added to the MDC; a longer representation is truncated.
+     * <p>If not specified, or not positive, then the cap defaulted by <tt>MdcFormatters</tt> is used
+     * <em>(default behaviour)</em>.
+     *
+     * @return the maximum length of the representation of the property added to the MDC.
+     * @see MdcFormatters#DEFAULT_MAX_LENGTH
+     */
+    int maxLength() default 0;
 }
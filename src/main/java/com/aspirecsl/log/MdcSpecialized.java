@@ -0,0 +1,48 @@
+package com.aspirecsl.log;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.processor.MdcAdviceProcessor;
+
+/**
+ * Indicates that the MDC of an MDC aware method is populated by an advice <em>specialized</em> for that method at build time.
+ * <p>The generic <tt>MdcAspect</tt> advice handles every <em>advised</em> method alike; the arguments are obtained as an
+ * <tt>Object[]</tt> and bound as per the MDC annotations compiled at runtime. For a method annotated with this annotation, the
+ * <tt>MdcAdviceProcessor</tt> annotation processor instead generates an advice that binds each argument with direct, typed
+ * statements, and the <tt>MdcAspect</tt> advice does not apply to the method. For example:-
+ * <pre>
+ *
+ *     When specified as below:
+ *
+ *    {@literal @Slf4jMdcAware}
+ *    {@literal @MdcSpecialized}
+ *     public void process({@literal @MdcValue}(name = "orderId") long orderId, {@literal @MdcParam}(getter = "getTenant") Order order){
+ *         // do something
+ *     }
+ *
+ *     The generated advice adds the arguments to the MDC as if by:
+ *
+ *     scope.putLong("orderId", orderId); // rendered without boxing
+ *     if (order != null) {
+ *         scope.put("getTenant", String.valueOf((Object) order.getTenant()));
+ *     }
+ * </pre>
+ * <p>The annotation processor is registered as a service of this library; the clients must have it on the annotation processor
+ * path, and must weave the compiled classes <em>(which includes the generated advice)</em> with <tt>AspectJ</tt>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see Slf4jMdcAware
+ * @see Log4j2MdcAware
+ * @see MdcAspect
+ * @see MdcAdviceProcessor
+ * @since 1d
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MdcSpecialized {
+}
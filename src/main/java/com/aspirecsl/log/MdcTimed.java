@@ -0,0 +1,102 @@
+package com.aspirecsl.log;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.aspects.MdcTimer;
+
+/**
+ * Indicates that the elapsed time, and the outcome, of an MDC aware method are added to the MDC when the method completes;
+ * and that a call slower than a threshold is reported. For example:-
+ * <pre>
+ *
+ *     When specified as below:
+ *
+ *    {@literal @Slf4jMdcAware}
+ *    {@literal @MdcTimed}(slowThreshold = 500)
+ *     public void process({@literal @MdcValue}(name = "orderId") long orderId){
+ *         // do something
+ *     }
+ *
+ *     The MDC has the <b>elapsed</b> time in milliseconds, and the <b>outcome</b> of the call, just before the values added by
+ *     the advice are removed; and a call taking 500 milliseconds or more is logged, at WARN level, as:
+ *
+ *     Slow call: method=com.example.Orders.process(long), threshold=500 MILLISECONDS, elapsed=731, orderId=42, outcome=success
+ * </pre>
+ * <p>The slow calls are logged by the logging framework of the <em>method marker</em> annotation; with the logger named after
+ * the declaring class of the method, and the whole of the MDC.
+ * <p>The elapsed time of every call is also recorded in the latency histograms published by <tt>MdcMetrics</tt>; which are
+ * segmented by the value of the {@link #segmentKey()} in the MDC, if specified. For example, the following keeps a histogram
+ * for each of up to 100 tenants:-
+ * <pre>
+ *
+ *    {@literal @Slf4jMdcAware}
+ *    {@literal @MdcTimed}(segmentKey = "tenant", maxSegments = 100)
+ *     public void process({@literal @MdcValue}(name = "tenant") String tenant){
+ *         // do something
+ *     }
+ * </pre>
+ *
+ * @author anoopr
+ * @version 1d
+ * @see Slf4jMdcAware
+ * @see Log4j2MdcAware
+ * @see MdcTimer
+ * @see MdcAspect
+ * @since 1d
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MdcTimed {
+
+    /**
+     * Returns the MDC key of the elapsed time of the annotated method.
+     *
+     * @return the MDC key of the elapsed time of the annotated method.
+     */
+    String elapsedKey() default "elapsed";
+
+    /**
+     * Returns the MDC key of the outcome of the annotated method; which is <tt>success</tt> if the method returns normally,
+     * or the name of the class of the exception thrown by the method.
+     *
+     * @return the MDC key of the outcome of the annotated method.
+     */
+    String outcomeKey() default "outcome";
+
+    /**
+     * Returns the unit of the elapsed time, and of the slow call threshold.
+     *
+     * @return the unit of the elapsed time, and of the slow call threshold.
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * Returns the elapsed time from which a call of the annotated method is reported as slow.
+     * <p>If not specified, or not positive, then the calls are not reported <em>(default behaviour)</em>.
+     *
+     * @return the elapsed time from which a call of the annotated method is reported as slow.
+     */
+    long slowThreshold() default 0;
+
+    /**
+     * Returns the MDC key whose value, when the annotated method completes, selects the latency histogram that the elapsed
+     * time of the call is recorded in.
+     * <p>If not specified, then a single histogram is kept for the method <em>(default behaviour)</em>.
+     *
+     * @return the MDC key whose values segment the latency histograms of the annotated method.
+     */
+    String segmentKey() default "";
+
+    /**
+     * Returns the number of distinct values of the {@link #segmentKey()} tracked; the calls with the other values are recorded
+     * in a single <em>overflow</em> histogram.
+     *
+     * @return the number of distinct values of the segment key tracked.
+     */
+    int maxSegments() default 32;
+}
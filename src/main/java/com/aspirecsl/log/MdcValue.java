@@ -6,11 +6,14 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.format.MdcFormatter;
+import com.aspirecsl.log.format.MdcFormatters;
 
 /**
  * Indicates that this object supplies a value to the MDC of the logging framework.
  * <p>The value added to the MDC of the logging framework is the <tt>String</tt> representation of this object returned by
- * its <tt>toString()</tt> method.
+ * its <tt>toString()</tt> method; unless a formatter is registered with <tt>MdcFormatters</tt> for its type, or is named by
+ * <tt>formatter()</tt>.
  *
  * @author anoopr
  * @version 1c
@@ -49,4 +52,26 @@ public @interface MdcValue {
      * @return <tt>True</tt> is this value is nullable. Otherwise, <tt>False</tt>.
      */
     boolean nullable() default false;
+
+    /**
+     * Returns the type of the formatter that renders this value for the MDC.
+     * <p>If not specified, then the formatter registered with <tt>MdcFormatters</tt> for the class of the value is used
+     * <em>(default behaviour)</em>. The formatter type must have a <tt>public</tt> no-arg constructor; it is instantiated
+     * once per annotated parameter.
+     *
+     * @return the type of the formatter that renders this value for the MDC.
+     * @see MdcFormatters
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends MdcFormatter> formatter() default MdcFormatter.class;
+
+    /**
+     * Returns the maximum length of the representation of this value added to the MDC; a longer representation is truncated.
+     * <p>If not specified, or not positive, then the cap defaulted by <tt>MdcFormatters</tt> is used
+     * <em>(default behaviour)</em>.
+     *
+     * @return the maximum length of the representation of this value added to the MDC.
+     * @see MdcFormatters#DEFAULT_MAX_LENGTH
+     */
+    int maxLength() default 0;
 }
@@ -6,6 +6,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import com.aspirecsl.log.aspects.MdcAspect;
+import com.aspirecsl.log.aspects.MdcBudget;
+import com.aspirecsl.log.correlation.CorrelationIds;
 
 /**
  * Indicates that a method is aware of the Mapped Diagnostic Context <em>(MDC)</em> of the Slf4j logging framework.
@@ -26,4 +28,45 @@ import com.aspirecsl.log.aspects.MdcAspect;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Slf4jMdcAware {
+
+    /**
+     * Returns the maximum number of keys added to the MDC for an invocation of the annotated method; the entries beyond it
+     * are dropped.
+     * <p>If not specified, or not positive, then only the global budget applies <em>(default behaviour)</em>.
+     *
+     * @return the maximum number of keys added to the MDC for an invocation of the annotated method.
+     * @see MdcBudget
+     */
+    int maxKeys() default 0;
+
+    /**
+     * Returns the maximum length of a value added to the MDC for an invocation of the annotated method; a longer value is
+     * truncated.
+     * <p>If not specified, or not positive, then only the global budget applies <em>(default behaviour)</em>.
+     *
+     * @return the maximum length of a value added to the MDC for an invocation of the annotated method.
+     * @see MdcBudget
+     */
+    int maxValueLength() default 0;
+
+    /**
+     * Returns the maximum total length of the keys and values added to the MDC for an invocation of the annotated method;
+     * the entries beyond it are dropped.
+     * <p>If not specified, or not positive, then only the global budget applies <em>(default behaviour)</em>.
+     *
+     * @return the maximum total length of the keys and values added to the MDC for an invocation of the annotated method.
+     * @see MdcBudget
+     */
+    int maxTotalBytes() default 0;
+
+    /**
+     * Returns the MDC key of the correlation id of the annotated method; a correlation id is generated and added to the
+     * MDC with this key, unless the MDC already contains the key <em>(e.g. added by an outer method)</em>. The generated id is
+     * removed from the MDC when the annotated method completes.
+     * <p>If not specified, or empty, then no correlation id is generated <em>(default behaviour)</em>.
+     *
+     * @return the MDC key of the correlation id of the annotated method.
+     * @see CorrelationIds
+     */
+    String correlationKey() default "";
 }
@@ -0,0 +1,1042 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcIterate;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.MdcMaps;
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.MdcParams;
+import com.aspirecsl.log.MdcValue;
+
+/**
+ * Binds a value to the MDC of the logging framework as per the MDC annotations on a method parameter, or an equivalent
+ * {@link MdcSpec}.
+ * <p>A binder is <em>compiled</em> once from the annotations <em>(or the <tt>MdcSpec</tt>)</em>; so that the annotations are
+ * not looked up, and their attributes are not validated, on every invocation of the <em>advised</em> method. Binders are
+ * <em>immutable</em> and <em>thread-safe</em>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcPlan
+ * @see MdcSpec
+ * @since 1d
+ */
+abstract class ArgumentBinder {
+
+    /**
+     * Annotations for the method parameters that are added to the MDC of a logging framework.
+     */
+    private static final List<Class<? extends Annotation>> MDC_ANNOTATIONS =
+            Arrays.asList(MdcMap.class, MdcMaps.class, MdcValue.class, MdcHolder.class, MdcParam.class, MdcParams.class,
+                    MdcIterate.class);
+
+    /**
+     * Adds the MDC entries derived from the <tt>value</tt> to the <tt>sink</tt>.
+     *
+     * @param value the actual value of the argument in the <em>advised</em> method's execution.
+     * @param sink  the sink receiving the MDC entries.
+     * @throws IllegalArgumentException if the annotation is incompatible with the <tt>value</tt> that it annotates.
+     */
+    abstract void bind(Object value, MdcSink sink);
+
+    /**
+     * Compiles the MDC annotations on the specified <tt>parameter</tt>.
+     *
+     * @param parameter the <tt>Parameter</tt> object from the <em>advised</em> method's formal arguments list.
+     * @return the binder for the <tt>parameter</tt>; or <tt>null</tt> if the <tt>parameter</tt> has no MDC annotations.
+     */
+    static ArgumentBinder compile(Parameter parameter) {
+        final long mdcAnnotationCount = Arrays.stream(parameter.getAnnotations())
+                .map(Annotation::annotationType)
+                .filter(MDC_ANNOTATIONS::contains)
+                .distinct()
+                .count();
+        if (mdcAnnotationCount == 0) {
+            return null;
+        }
+        if (mdcAnnotationCount > 1) {
+            return new FailingBinder("MDC parameter annotations are mutually exclusive.", false);
+        }
+
+        final MdcMap mdcMap = parameter.getAnnotation(MdcMap.class);
+        if (mdcMap != null) {
+            try {
+                return new MapBinder(mdcMap.filter(), mdcMap.nestedMapKeys(), mdcMap.mdcKeyPrefix(), mdcMap.maxKeys(),
+                        mdcMap.maxValueLength());
+            } catch (IllegalArgumentException ex) {
+                return new FailingBinder(ex.getMessage(), true);
+            }
+        }
+        final MdcMaps mdcMaps = parameter.getAnnotation(MdcMaps.class);
+        if (mdcMaps != null) {
+            try {
+                return composite(Arrays.stream(mdcMaps.value())
+                        .map(m -> new MapBinder(m.filter(), m.nestedMapKeys(), m.mdcKeyPrefix(), m.maxKeys(),
+                                m.maxValueLength()))
+                        .toArray(ArgumentBinder[]::new));
+            } catch (IllegalArgumentException ex) {
+                return new FailingBinder(ex.getMessage(), true);
+            }
+        }
+        final MdcValue mdcValue = parameter.getAnnotation(MdcValue.class);
+        if (mdcValue != null) {
+            try {
+                return new ValueBinder(mdcValue.name(), mdcValue.nullable(),
+                        Rendering.of(mdcValue.formatter(), mdcValue.maxLength()));
+            } catch (IllegalArgumentException ex) {
+                return new FailingBinder(ex.getMessage(), !mdcValue.nullable());
+            }
+        }
+        final MdcHolder mdcHolder = parameter.getAnnotation(MdcHolder.class);
+        if (mdcHolder != null) {
+            try {
+                return new HolderBinder(mdcHolder.filter(), mdcHolder.mdcKeyPrefix());
+            } catch (IllegalArgumentException ex) {
+                return new FailingBinder(ex.getMessage(), true);
+            }
+        }
+        final MdcParam mdcParam = parameter.getAnnotation(MdcParam.class);
+        if (mdcParam != null) {
+            return param(mdcParam);
+        }
+        final MdcIterate mdcIterate = parameter.getAnnotation(MdcIterate.class);
+        if (mdcIterate != null) {
+            return iterate(parameter.getType(), mdcIterate);
+        }
+        return composite(Arrays.stream(parameter.getAnnotation(MdcParams.class).value())
+                .map(ArgumentBinder::param)
+                .toArray(ArgumentBinder[]::new));
+    }
+
+    /**
+     * Compiles an <tt>MdcParam</tt> annotation.
+     */
+    private static ArgumentBinder param(MdcParam mdcParam) {
+        if (!mdcParam.path().isEmpty() && !(mdcParam.field().isEmpty() && mdcParam.getter().isEmpty())) {
+            return new FailingBinder("Exactly one of field(), getter() or path() should be specified.", true);
+        }
+        try {
+            final Rendering rendering = Rendering.of(mdcParam.formatter(), mdcParam.maxLength());
+            return mdcParam.path().isEmpty()
+                    ? param(mdcParam.field(), mdcParam.getter(), mdcParam.label(), rendering)
+                    : path(mdcParam.path(), mdcParam.label(), rendering);
+        } catch (IllegalArgumentException ex) {
+            return new FailingBinder(ex.getMessage(), true);
+        }
+    }
+
+    /**
+     * Compiles an <tt>MdcIterate</tt> annotation on a parameter of the specified <tt>type</tt>.
+     */
+    private static ArgumentBinder iterate(Class<?> type, MdcIterate mdcIterate) {
+        if (!IterateBinder.isIterable(type)) {
+            return new FailingBinder("@MdcIterate is allowed only on Iterable, Collection, List, Set, Iterator or Stream "
+                    + "parameters.", true);
+        }
+        if (mdcIterate.value().length == 0) {
+            return new FailingBinder("At least one @MdcParam should be specified.", true);
+        }
+        final ArgumentBinder[] binders = Arrays.stream(mdcIterate.value())
+                .map(ArgumentBinder::param)
+                .toArray(ArgumentBinder[]::new);
+        for (ArgumentBinder binder : binders) {
+            if (binder instanceof FailingBinder) {
+                return binder;
+            }
+        }
+        return new IterateBinder(type, composite(binders));
+    }
+
+    /**
+     * Compiles the attributes of an <tt>MdcParam</tt> annotation.
+     *
+     * @param field     the name of the field whose value is to be added to the MDC; or an empty string.
+     * @param getter    the name of the <em>getter</em> method that supplies the value to be added to the MDC; or an empty
+     *                  string.
+     * @param label     the key for the value stored in the MDC; or an empty string to use the <tt>field</tt> or
+     *                  <tt>getter</tt>.
+     * @param rendering how the value of the <tt>field</tt> or <tt>getter</tt> is rendered.
+     * @return the binder for the <tt>MdcParam</tt> attributes; a binder that rejects every non-null value if the attributes are
+     * invalid.
+     */
+    static ArgumentBinder param(String field, String getter, String label, Rendering rendering) {
+        if (field.isEmpty() && getter.isEmpty()) {
+            return new FailingBinder("Either field() or getter() should be specified.", true);
+        }
+        if (!(field.isEmpty() || getter.isEmpty())) {
+            return new FailingBinder("Exactly one of field() or getter() should be specified.", true);
+        }
+        return field.isEmpty()
+                ? new ParamBinder(getter, true, label.isEmpty() ? getter : label, rendering)
+                : new ParamBinder(field, false, label.isEmpty() ? field : label, rendering);
+    }
+
+    /**
+     * Compiles the <tt>path()</tt> attribute of an <tt>MdcParam</tt> annotation.
+     *
+     * @param path      the dot-separated path of the nested property whose value is to be added to the MDC.
+     * @param label     the key for the value stored in the MDC; or an empty string to use the <tt>path</tt>.
+     * @param rendering how the value of the property is rendered.
+     * @return the binder for the <tt>path</tt>; a binder that rejects every non-null value if the <tt>path</tt> is invalid.
+     */
+    static ArgumentBinder path(String path, String label, Rendering rendering) {
+        final String[] properties = path.split("\\.", -1);
+        for (String property : properties) {
+            if (property.isEmpty()) {
+                return new FailingBinder("path() '" + path + "' should be a dot-separated list of property names.", true);
+            }
+        }
+        return new PathBinder(properties, label.isEmpty() ? path : label, rendering);
+    }
+
+    /**
+     * Combines the specified binders into one that applies each of them in turn.
+     * <p>The binders of the <tt>MdcMap</tt> annotations are combined into one that walks the maps once for all of them.
+     *
+     * @param binders the binders to be combined.
+     * @return the combined binder.
+     */
+    static ArgumentBinder composite(ArgumentBinder[] binders) {
+        if (binders.length == 1) {
+            return binders[0];
+        }
+        return Arrays.stream(binders).allMatch(MapBinder.class::isInstance)
+                ? new MapsBinder(Arrays.copyOf(binders, binders.length, MapBinder[].class))
+                : new CompositeBinder(binders);
+    }
+
+    /**
+     * Binds a value as per the <tt>MdcValue</tt> annotation.
+     *
+     * @see MdcValue
+     */
+    static final class ValueBinder extends ArgumentBinder {
+        private final String name;
+        private final boolean nullable;
+        private final Rendering rendering;
+
+        ValueBinder(String name, boolean nullable, Rendering rendering) {
+            this.name = name;
+            this.nullable = nullable;
+            this.rendering = rendering;
+        }
+
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value != null || nullable) {
+                sink.put(name, rendering.render(value));
+            }
+        }
+    }
+
+    /**
+     * Binds the entries of a <tt>Map</tt> as per the <tt>MdcMap</tt> annotation.
+     *
+     * @see MdcMap
+     */
+    static final class MapBinder extends ArgumentBinder {
+        private final KeyFilter filter;
+        private final String[] nestedMapKeys;
+        private final String mdcKeyPrefix;
+        private final PrefixedKeys prefixedKeys;
+        private final int maxKeys;
+        private final int maxValueLength;
+
+        MapBinder(String[] filter, String[] nestedMapKeys, String mdcKeyPrefix, int maxKeys, int maxValueLength) {
+            this.filter = KeyFilter.of(filter);
+            this.nestedMapKeys = nestedMapKeys.clone();
+            this.mdcKeyPrefix = mdcKeyPrefix;
+            this.prefixedKeys = new PrefixedKeys(mdcKeyPrefix);
+            this.maxKeys = maxKeys > 0 ? maxKeys : Integer.MAX_VALUE;
+            this.maxValueLength = maxValueLength > 0 ? maxValueLength : Integer.MAX_VALUE;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>When more than one of the <tt>nestedMapKeys</tt> is associated with a nested map containing the same key, the
+         * value from the nested map associated with the <tt>nestedMapKey</tt> that appears later in the annotation is added.
+         * <p>The entries beyond <tt>maxKeys</tt> are dropped; and the values longer than <tt>maxValueLength</tt> are
+         * truncated.
+         *
+         * @throws IllegalArgumentException if the <tt>value</tt> is not of type {@literal Map<String,String>}; or a key
+         *                                  specified in the <tt>nestedMapKeys</tt> is associated with a value that is not of
+         *                                  type {@literal Map<String,String>}.
+         */
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value == null) {
+                return;
+            }
+            try {
+                final Map<?, ?> map = (Map<?, ?>) value;
+                if (nestedMapKeys.length == 0) {
+                    addEntries(map, sink);
+                } else {
+                    int added = 0;
+                    for (int i = 0; i < nestedMapKeys.length; i++) {
+                        final Map<?, ?> nestedMap = (Map<?, ?>) map.get(nestedMapKeys[i]);
+                        if (nestedMap != null) {
+                            for (Map.Entry<?, ?> entry : nestedMap.entrySet()) {
+                                if (!isShadowed(map, entry.getKey(), i)) {
+                                    added = addEntry(entry, sink, added);
+                                }
+                            }
+                        }
+                    }
+                }
+            } catch (ClassCastException ex) {
+                throw new IllegalArgumentException("@MdcMap is allowed only on Map<String,String> objects. \n"
+                        + "@MdcMap(nestedMapKeys = {\"this\"}) is allowed only on Map objects that return a "
+                        + "Map<String,String> nested map when outerMap.get(\"this\") is called.");
+            }
+        }
+
+        /**
+         * Returns <tt>True</tt> if a nested map associated with a <tt>nestedMapKey</tt> after the one at <tt>index</tt>
+         * contains the specified <tt>key</tt>. Otherwise, <tt>False</tt>.
+         */
+        private boolean isShadowed(Map<?, ?> map, Object key, int index) {
+            for (int j = index + 1; j < nestedMapKeys.length; j++) {
+                final Map<?, ?> laterMap = (Map<?, ?>) map.get(nestedMapKeys[j]);
+                if (laterMap != null && laterMap.containsKey(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void addEntries(Map<?, ?> map, MdcSink sink) {
+            int added = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                added = addEntry(entry, sink, added);
+            }
+        }
+
+        /**
+         * Adds the <tt>entry</tt> if it is relevant, and fits within <tt>maxKeys</tt>.
+         *
+         * @return the number of entries added from the map, including the <tt>entry</tt>.
+         */
+        private int addEntry(Map.Entry<?, ?> entry, MdcSink sink, int added) {
+            final String key = (String) entry.getKey();
+            if (!filter.matches(key)) {
+                return added;
+            }
+            if (added >= maxKeys) {
+                MdcBudget.dropped();
+                return added;
+            }
+            sink.put(prefixedKeys.apply(key), MdcBudget.truncate((String) entry.getValue(), maxValueLength));
+            return added + 1;
+        }
+    }
+
+    /**
+     * Binds the entries of a <tt>Map</tt> as per the <tt>MdcMap</tt> annotations held by an <tt>MdcMaps</tt> annotation.
+     * <p>The annotations are compiled into one matcher; which walks the outer map, and each nested map, once whatever the
+     * number of annotations reading them, and routes each entry to every annotation whose filter matches it. The union of the
+     * filters of the annotations reading a map is matched first; so that an irrelevant entry is skipped upfront.
+     * <p>The entries added are the same as if each annotation were applied in turn; i.e. when two annotations with the same
+     * <tt>mdcKeyPrefix</tt> add the same key, the value added is the one from the annotation that appears later.
+     * <p>When an annotation limits the number of entries it adds, the entries routed to each annotation are collected first;
+     * and each annotation then admits its first <tt>maxKeys</tt> entries in the order it reads its maps, before the admitted
+     * entries are added. An entry is skipped as overridden only if a later annotation has admitted the same key.
+     *
+     * @see MdcMaps
+     */
+    static final class MapsBinder extends ArgumentBinder {
+
+        /**
+         * The keys of the nested maps read by the annotations; in the order they are first named.
+         */
+        private final String[] nestedMapKeys;
+
+        /**
+         * The routes of the entries of each map read by the annotations; the outer map at index <tt>0</tt>, followed by the
+         * nested maps in the order of the <tt>nestedMapKeys</tt>.
+         */
+        private final Route[][] routes;
+
+        /**
+         * The union of the filters of the routes of each map.
+         */
+        private final KeyFilter[] filters;
+
+        /**
+         * The annotations; in the order they appear.
+         */
+        private final MapBinder[] binders;
+
+        /**
+         * The number of maps read by each annotation.
+         */
+        private final int[] sourceCounts;
+
+        /**
+         * Whether an annotation limits the number of the entries it adds.
+         */
+        private final boolean budgeted;
+
+        MapsBinder(MapBinder[] binders) {
+            final List<String> keys = new ArrayList<>();
+            for (MapBinder binder : binders) {
+                for (String nestedMapKey : binder.nestedMapKeys) {
+                    if (!keys.contains(nestedMapKey)) {
+                        keys.add(nestedMapKey);
+                    }
+                }
+            }
+            this.nestedMapKeys = keys.toArray(new String[0]);
+            final int[][] sources = new int[binders.length][];
+            for (int i = 0; i < binders.length; i++) {
+                sources[i] = binders[i].nestedMapKeys.length == 0
+                        ? new int[] { 0 }
+                        : Arrays.stream(binders[i].nestedMapKeys).mapToInt(key -> keys.indexOf(key) + 1).toArray();
+            }
+            this.routes = new Route[nestedMapKeys.length + 1][];
+            this.filters = new KeyFilter[routes.length];
+            for (int source = 0; source < routes.length; source++) {
+                final List<Route> sourceRoutes = new ArrayList<>();
+                for (int i = 0; i < binders.length; i++) {
+                    for (int position = 0; position < sources[i].length; position++) {
+                        if (sources[i][position] == source) {
+                            sourceRoutes.add(new Route(i, binders, sources, position));
+                        }
+                    }
+                }
+                routes[source] = sourceRoutes.toArray(new Route[0]);
+                filters[source] = KeyFilter.union(sourceRoutes.stream().map(route -> route.binder.filter)
+                        .toArray(KeyFilter[]::new));
+            }
+            this.binders = binders.clone();
+            this.sourceCounts = Arrays.stream(sources).mapToInt(binderSources -> binderSources.length).toArray();
+            this.budgeted = Arrays.stream(binders).anyMatch(binder -> binder.maxKeys != Integer.MAX_VALUE);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws IllegalArgumentException if the <tt>value</tt> is not of type {@literal Map<String,String>}; or a key
+         *                                  specified in the <tt>nestedMapKeys</tt> is associated with a value that is not of
+         *                                  type {@literal Map<String,String>}.
+         */
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value == null) {
+                return;
+            }
+            try {
+                final Map<?, ?> map = (Map<?, ?>) value;
+                final List<List<List<Map.Entry<?, ?>>>> routed = budgeted ? routed() : null;
+                for (int source = 0; source < routes.length; source++) {
+                    final Map<?, ?> sourceMap = routes[source].length == 0 ? null : source(map, source);
+                    if (sourceMap == null) {
+                        continue;
+                    }
+                    for (Map.Entry<?, ?> entry : sourceMap.entrySet()) {
+                        final String key = (String) entry.getKey();
+                        if (!filters[source].matches(key)) {
+                            continue;
+                        }
+                        if (routed == null) {
+                            route(map, routes[source], entry, key, sink);
+                        } else {
+                            collect(map, routes[source], entry, key, routed);
+                        }
+                    }
+                }
+                if (routed != null) {
+                    addAdmitted(routed, sink);
+                }
+            } catch (ClassCastException ex) {
+                throw new IllegalArgumentException("@MdcMap is allowed only on Map<String,String> objects. \n"
+                        + "@MdcMap(nestedMapKeys = {\"this\"}) is allowed only on Map objects that return a "
+                        + "Map<String,String> nested map when outerMap.get(\"this\") is called.");
+            }
+        }
+
+        /**
+         * Adds the <tt>entry</tt> for each of the <tt>routes</tt> that it is relevant to; unless overridden by a later
+         * annotation. Used only when none of the annotations limits the number of the entries it adds.
+         */
+        private void route(Map<?, ?> map, Route[] routes, Map.Entry<?, ?> entry, String key, MdcSink sink) {
+            for (Route route : routes) {
+                final MapBinder binder = route.binder;
+                if (binder.filter.matches(key) && !route.isShadowed(this, map, key) && !route.isOverridden(this, map, key)) {
+                    sink.put(binder.prefixedKeys.apply(key), MdcBudget.truncate((String) entry.getValue(),
+                            binder.maxValueLength));
+                }
+            }
+        }
+
+        /**
+         * Returns the empty lists of the entries routed to each annotation; one for each map it reads, in its own order.
+         */
+        private List<List<List<Map.Entry<?, ?>>>> routed() {
+            final List<List<List<Map.Entry<?, ?>>>> routed = new ArrayList<>(binders.length);
+            for (int sourceCount : sourceCounts) {
+                final List<List<Map.Entry<?, ?>>> binderRouted = new ArrayList<>(sourceCount);
+                for (int position = 0; position < sourceCount; position++) {
+                    binderRouted.add(new ArrayList<>());
+                }
+                routed.add(binderRouted);
+            }
+            return routed;
+        }
+
+        /**
+         * Collects the <tt>entry</tt> for each of the <tt>routes</tt> that it is relevant to; as a copy, since a map may reuse
+         * the entries it returns.
+         */
+        private void collect(Map<?, ?> map, Route[] routes, Map.Entry<?, ?> entry, String key,
+                List<List<List<Map.Entry<?, ?>>>> routed) {
+            Map.Entry<?, ?> copy = null;
+            for (Route route : routes) {
+                if (route.binder.filter.matches(key) && !route.isShadowed(this, map, key)) {
+                    if (copy == null) {
+                        copy = new AbstractMap.SimpleImmutableEntry<>(key, entry.getValue());
+                    }
+                    routed.get(route.index).get(route.position).add(copy);
+                }
+            }
+        }
+
+        /**
+         * Admits the first <tt>maxKeys</tt> entries routed to each annotation, in the order it reads its maps; and adds the
+         * admitted entries of each annotation in turn, unless a later annotation with the same <tt>mdcKeyPrefix</tt> has
+         * admitted the same key.
+         */
+        private void addAdmitted(List<List<List<Map.Entry<?, ?>>>> routed, MdcSink sink) {
+            final List<List<Map.Entry<?, ?>>> admitted = new ArrayList<>(binders.length);
+            for (int i = 0; i < binders.length; i++) {
+                final List<Map.Entry<?, ?>> binderAdmitted = new ArrayList<>();
+                for (List<Map.Entry<?, ?>> entries : routed.get(i)) {
+                    for (Map.Entry<?, ?> entry : entries) {
+                        if (binderAdmitted.size() < binders[i].maxKeys) {
+                            binderAdmitted.add(entry);
+                        } else {
+                            MdcBudget.dropped();
+                        }
+                    }
+                }
+                admitted.add(binderAdmitted);
+            }
+            for (int i = 0; i < binders.length; i++) {
+                final MapBinder binder = binders[i];
+                for (Map.Entry<?, ?> entry : admitted.get(i)) {
+                    final String key = (String) entry.getKey();
+                    if (!isAdmittedLater(admitted, i, key)) {
+                        sink.put(binder.prefixedKeys.apply(key), MdcBudget.truncate((String) entry.getValue(),
+                                binder.maxValueLength));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns <tt>True</tt> if an annotation after the one at <tt>index</tt>, with the same <tt>mdcKeyPrefix</tt>, has
+         * admitted the <tt>key</tt>. Otherwise, <tt>False</tt>.
+         */
+        private boolean isAdmittedLater(List<List<Map.Entry<?, ?>>> admitted, int index, String key) {
+            for (int later = index + 1; later < binders.length; later++) {
+                if (binders[later].mdcKeyPrefix.equals(binders[index].mdcKeyPrefix)) {
+                    for (Map.Entry<?, ?> entry : admitted.get(later)) {
+                        if (entry.getKey().equals(key)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the map at the specified <tt>source</tt> index; i.e. the outer <tt>map</tt> or one of its nested maps.
+         */
+        private Map<?, ?> source(Map<?, ?> map, int source) {
+            return source == 0 ? map : (Map<?, ?>) map.get(nestedMapKeys[source - 1]);
+        }
+
+        /**
+         * Routes the entries of a map to an annotation reading it.
+         */
+        private static final class Route {
+
+            /**
+             * The position of the annotation in the <tt>MdcMaps</tt> annotation.
+             */
+            private final int index;
+
+            /**
+             * The position of this map among the maps read by the annotation.
+             */
+            private final int position;
+
+            private final MapBinder binder;
+
+            /**
+             * The maps that the annotation reads after this map; whose entries take precedence over those of this map.
+             */
+            private final int[] laterSources;
+
+            /**
+             * The maps read by the later annotations with the same <tt>mdcKeyPrefix</tt>; and the filters of those
+             * annotations. The entries added by the later annotations override those added through this route.
+             */
+            private final int[] overridingSources;
+            private final KeyFilter[] overridingFilters;
+
+            Route(int index, MapBinder[] binders, int[][] sources, int position) {
+                this.index = index;
+                this.position = position;
+                this.binder = binders[index];
+                this.laterSources = Arrays.copyOfRange(sources[index], position + 1, sources[index].length);
+                final List<Integer> overriding = new ArrayList<>();
+                final List<KeyFilter> filters = new ArrayList<>();
+                for (int later = index + 1; later < binders.length; later++) {
+                    if (binders[later].mdcKeyPrefix.equals(binder.mdcKeyPrefix)) {
+                        for (int source : sources[later]) {
+                            overriding.add(source);
+                            filters.add(binders[later].filter);
+                        }
+                    }
+                }
+                this.overridingSources = overriding.stream().mapToInt(Integer::intValue).toArray();
+                this.overridingFilters = filters.toArray(new KeyFilter[0]);
+            }
+
+            /**
+             * Returns <tt>True</tt> if a map that the annotation reads after this map contains the <tt>key</tt>. Otherwise,
+             * <tt>False</tt>.
+             */
+            boolean isShadowed(MapsBinder matcher, Map<?, ?> map, String key) {
+                for (int source : laterSources) {
+                    final Map<?, ?> laterMap = matcher.source(map, source);
+                    if (laterMap != null && laterMap.containsKey(key)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            /**
+             * Returns <tt>True</tt> if a later annotation with the same <tt>mdcKeyPrefix</tt> adds the <tt>key</tt> as well.
+             * Otherwise, <tt>False</tt>.
+             */
+            boolean isOverridden(MapsBinder matcher, Map<?, ?> map, String key) {
+                for (int i = 0; i < overridingSources.length; i++) {
+                    if (overridingFilters[i].matches(key)) {
+                        final Map<?, ?> laterMap = matcher.source(map, overridingSources[i]);
+                        if (laterMap != null && laterMap.containsKey(key)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Binds the diagnostic context of a <tt>HasDiagnosticContext</tt> object as per the <tt>MdcHolder</tt> annotation.
+     *
+     * @see MdcHolder
+     */
+    static final class HolderBinder extends ArgumentBinder {
+        private final KeyFilter filter;
+        private final PrefixedKeys prefixedKeys;
+
+        /**
+         * Whether the entries of the holders are added as they are; i.e. neither filtered nor prefixed.
+         */
+        private final boolean unfiltered;
+
+        HolderBinder(String[] filter, String mdcKeyPrefix) {
+            this.filter = KeyFilter.of(filter);
+            this.prefixedKeys = new PrefixedKeys(mdcKeyPrefix);
+            this.unfiltered = filter.length == 0 && mdcKeyPrefix.isEmpty();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>The <tt>properties</tt> of an object that is not a <tt>HasDiagnosticContext</tt> are extracted by the
+         * <tt>MdcExtractor</tt> generated for its class.
+         *
+         * @throws IllegalArgumentException if the <tt>value</tt> is neither of type <tt>HasDiagnosticContext</tt> nor has
+         *                                  an <tt>MdcExtractor</tt>
+         */
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value == null) {
+                return;
+            }
+            if (!(value instanceof HasDiagnosticContext)) {
+                final MdcExtractor<Object> extractor = extractor(value.getClass());
+                if (extractor == null) {
+                    throw new IllegalArgumentException("@MdcHolder is allowed only on "
+                            + "com.aspirecsl.log.utils.HasDiagnosticContext objects, or objects with @MdcExport members.");
+                }
+                extractor.extract(value, unfiltered ? sink : (key, entry) -> {
+                    if (filter.matches(key)) {
+                        sink.put(prefixedKeys.apply(key), entry);
+                    }
+                });
+                return;
+            }
+            for (Map.Entry<String, String> entry : ((HasDiagnosticContext) value).mappedDiagnosticContext().entrySet()) {
+                if (filter.matches(entry.getKey())) {
+                    sink.put(prefixedKeys.apply(entry.getKey()), entry.getValue());
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static MdcExtractor<Object> extractor(Class<?> type) {
+            return (MdcExtractor<Object>) MdcExtractor.of(type);
+        }
+    }
+
+    /**
+     * Binds the headers of a message, held in <tt>ByteBuffer</tt>s, as per <tt>MdcSpec.headers(...)</tt>.
+     * <p>The names of the headers are matched against the filter in place; and only the names and the values of the matching
+     * headers are decoded into <tt>String</tt>s.
+     *
+     * @see MdcSpec#headers(String[], String)
+     */
+    static final class HeaderBinder extends ArgumentBinder {
+        private final KeyFilter filter;
+        private final PrefixedKeys prefixedKeys;
+
+        HeaderBinder(String[] filter, String mdcKeyPrefix) {
+            this.filter = KeyFilter.of(filter);
+            this.prefixedKeys = new PrefixedKeys(mdcKeyPrefix);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>The first value of a header holding a <tt>List</tt> of values is added.
+         *
+         * @throws IllegalArgumentException if the <tt>value</tt> is not a <tt>Map</tt>; or the name or the value of a
+         *                                  matching header is not a <tt>ByteBuffer</tt>, a <tt>byte[]</tt>, a
+         *                                  <tt>CharSequence</tt> or a <tt>List</tt> of them.
+         */
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value == null) {
+                return;
+            }
+            if (!(value instanceof Map)) {
+                throw new IllegalArgumentException("MdcSpec.headers() is allowed only on Map objects.");
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                final CharSequence name = view(entry.getKey());
+                if (name == null || !filter.matches(name)) {
+                    continue;
+                }
+                final CharSequence header = view(entry.getValue());
+                if (header != null) {
+                    sink.put(prefixedKeys.apply(name.toString()), header.toString());
+                }
+            }
+        }
+
+        private static CharSequence view(Object value) {
+            if (value == null || value instanceof CharSequence) {
+                return (CharSequence) value;
+            }
+            if (value instanceof ByteBuffer) {
+                return Utf8Sequence.of((ByteBuffer) value);
+            }
+            if (value instanceof byte[]) {
+                return Utf8Sequence.of((byte[]) value);
+            }
+            if (value instanceof List) {
+                // a header with more than one value; e.g. of the com.sun.net.httpserver.Headers
+                final List<?> values = (List<?>) value;
+                return values.isEmpty() ? null : view(values.get(0));
+            }
+            throw new IllegalArgumentException("MdcSpec.headers() is allowed only on the headers held in ByteBuffer, byte[] "
+                    + "or CharSequence objects, or Lists of them; found " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Binds a <tt>property</tt> of an object as per the <tt>MdcParam</tt> annotation. The <tt>property</tt> is looked up
+     * once for every runtime class of the bound objects.
+     *
+     * @see MdcParam
+     */
+    static final class ParamBinder extends ArgumentBinder {
+        private final String mdcKey;
+        private final Rendering rendering;
+
+        /**
+         * The field or getter method supplying the value; mapped by the runtime class of the bound objects.
+         */
+        private final ClassValue<AccessibleObject> accessors;
+
+        ParamBinder(String property, boolean getter, String mdcKey, Rendering rendering) {
+            this.mdcKey = mdcKey;
+            this.rendering = rendering;
+            this.accessors = new ClassValue<AccessibleObject>() {
+                @Override
+                protected AccessibleObject computeValue(Class<?> type) {
+                    final AccessibleObject accessor = getter
+                            ? Arrays.stream(type.getDeclaredMethods())
+                            .filter(method -> method.getName().equals(property))
+                            .findFirst()
+                            .orElse(null)
+                            : Arrays.stream(type.getDeclaredFields())
+                            .filter(field -> field.getName().equals(property))
+                            .findFirst()
+                            .orElse(null);
+                    if (accessor != null) {
+                        accessor.setAccessible(true);
+                    }
+                    return accessor;
+                }
+            };
+        }
+
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value == null) {
+                return;
+            }
+            final AccessibleObject accessor = accessors.get(value.getClass());
+            try {
+                if (accessor instanceof Field) {
+                    sink.put(mdcKey, rendering.render(((Field) accessor).get(value)));
+                } else if (accessor instanceof Method) {
+                    sink.put(mdcKey, rendering.render(((Method) accessor).invoke(value)));
+                }
+            } catch (InvocationTargetException | IllegalAccessException ignore) {
+                MdcMetrics.reflectionFailed();
+            }
+        }
+    }
+
+    /**
+     * Binds a nested <tt>property</tt> of an object as per the <tt>path()</tt> of an <tt>MdcParam</tt> annotation.
+     * <p>Each property on the path is looked up once for every runtime class of the objects holding it; so the path is walked
+     * through a chain of cached accessors. The walk stops, without adding anything to the MDC, at the first <tt>null</tt>
+     * object on the path; or at the first property that cannot be resolved.
+     *
+     * @see MdcParam#path()
+     */
+    static final class PathBinder extends ArgumentBinder {
+        private final Property[] properties;
+        private final String mdcKey;
+        private final Rendering rendering;
+
+        PathBinder(String[] properties, String mdcKey, Rendering rendering) {
+            this.properties = Arrays.stream(properties).map(Property::new).toArray(Property[]::new);
+            this.mdcKey = mdcKey;
+            this.rendering = rendering;
+        }
+
+        @Override
+        void bind(Object value, MdcSink sink) {
+            Object current = value;
+            try {
+                for (Property property : properties) {
+                    if (current == null) {
+                        return;
+                    }
+                    final AccessibleObject accessor = property.get(current.getClass());
+                    if (accessor == null) {
+                        return;
+                    }
+                    current = accessor instanceof Field
+                            ? ((Field) accessor).get(current)
+                            : ((Method) accessor).invoke(current);
+                }
+            } catch (InvocationTargetException | IllegalAccessException ignore) {
+                MdcMetrics.reflectionFailed();
+                return;
+            }
+            sink.put(mdcKey, rendering.render(current));
+        }
+
+        /**
+         * The accessors of a property on the path; mapped by the runtime class of the objects holding the property.
+         */
+        private static final class Property extends ClassValue<AccessibleObject> {
+            private final String name;
+            private final String[] methodNames;
+
+            Property(String name) {
+                final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                this.name = name;
+                this.methodNames = new String[] { name, "get" + capitalized, "is" + capitalized };
+            }
+
+            /**
+             * Returns the no-arg method, or else the field, supplying the property in the specified <tt>type</tt> or its
+             * superclasses; or <tt>null</tt> if there is no accessible one.
+             */
+            @Override
+            protected AccessibleObject computeValue(Class<?> type) {
+                for (String methodName : methodNames) {
+                    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                        for (Method method : c.getDeclaredMethods()) {
+                            if (method.getName().equals(methodName)
+                                    && method.getParameterCount() == 0
+                                    && method.getReturnType() != void.class
+                                    && !Modifier.isStatic(method.getModifiers())
+                                    && makeAccessible(method)) {
+                                return method;
+                            }
+                        }
+                    }
+                }
+                for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (field.getName().equals(name)
+                                && !Modifier.isStatic(field.getModifiers())
+                                && makeAccessible(field)) {
+                            return field;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            private static boolean makeAccessible(AccessibleObject accessor) {
+                try {
+                    accessor.setAccessible(true);
+                    return true;
+                } catch (RuntimeException inaccessible) {
+                    // e.g. the private members of the JDK classes, which are not opened to this library
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds the elements of a batch as per the <tt>MdcIterate</tt> annotation.
+     * <p>Nothing is bound when the method is entered; instead, the argument is wrapped so that each element is bound as it
+     * is consumed by the method.
+     *
+     * @see MdcIterate
+     * @see MdcIteration
+     */
+    static final class IterateBinder extends ArgumentBinder {
+        private final Class<?> type;
+        private final ArgumentBinder elementBinder;
+
+        IterateBinder(Class<?> type, ArgumentBinder elementBinder) {
+            this.type = type;
+            this.elementBinder = elementBinder;
+        }
+
+        /**
+         * Returns <tt>True</tt> if the arguments of the specified parameter <tt>type</tt> can be wrapped. Otherwise,
+         * <tt>False</tt>.
+         */
+        static boolean isIterable(Class<?> type) {
+            return type == Iterable.class || type == Collection.class || type == List.class || type == Set.class
+                    || type == Iterator.class || type == Stream.class;
+        }
+
+        @Override
+        void bind(Object value, MdcSink sink) {
+            // the elements are bound as they are consumed; see wrap(...)
+        }
+
+        /**
+         * Returns the view of the <tt>value</tt>, of the parameter type, that binds each element to the MDC via the
+         * <tt>scope</tt> as the element is consumed.
+         *
+         * @param value the actual value of the argument in the <em>advised</em> method's execution.
+         * @param scope the scope of the <em>advised</em> method.
+         * @return the view of the <tt>value</tt>; or <tt>null</tt> if the <tt>value</tt> is <tt>null</tt>.
+         */
+        Object wrap(Object value, MdcScope scope) {
+            if (value == null) {
+                return null;
+            }
+            final MdcIteration iteration = scope.iteration(elementBinder);
+            if (type == List.class) {
+                return iteration.list((List<?>) value);
+            }
+            if (type == Set.class) {
+                return iteration.set((Set<?>) value);
+            }
+            if (type == Collection.class) {
+                return iteration.collection((Collection<?>) value);
+            }
+            if (type == Iterator.class) {
+                return iteration.iterator((Iterator<?>) value);
+            }
+            if (type == Stream.class) {
+                return iteration.stream((Stream<?>) value);
+            }
+            return iteration.iterable((Iterable<?>) value);
+        }
+    }
+
+    /**
+     * Applies each of the held binders in turn.
+     *
+     * @see MdcParams
+     */
+    static final class CompositeBinder extends ArgumentBinder {
+        private final ArgumentBinder[] binders;
+
+        CompositeBinder(ArgumentBinder[] binders) {
+            this.binders = binders.clone();
+        }
+
+        @Override
+        void bind(Object value, MdcSink sink) {
+            for (ArgumentBinder binder : binders) {
+                binder.bind(value, sink);
+            }
+        }
+    }
+
+    /**
+     * Rejects the bound values of a misconfigured parameter.
+     * <p>The misconfiguration is detected once, when the binder is compiled; but reported on binding, as the values of a
+     * misconfigured parameter have always been rejected when the <em>advised</em> method is invoked.
+     */
+    static final class FailingBinder extends ArgumentBinder {
+        private final String message;
+        private final boolean acceptsNull;
+
+        FailingBinder(String message, boolean acceptsNull) {
+            this.message = message;
+            this.acceptsNull = acceptsNull;
+        }
+
+        @Override
+        void bind(Object value, MdcSink sink) {
+            if (value != null || !acceptsNull) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The values kept for the segments of a method, such as its latency histograms or resource accounts; one for each value of
+ * an MDC key, the <em>segment key</em>.
+ * <p>The number of segments is capped; once the cap is reached, the other segments share the overflow value. Looking up an
+ * existing segment is lock-free.
+ *
+ * @param <V> the type of the value kept for each segment.
+ * @author anoopr
+ * @version 1d
+ * @see SegmentedHistogram
+ * @see MdcAccountant
+ * @since 1d
+ */
+final class CappedSegments<V> {
+
+    private final int maxSegments;
+    private final Supplier<V> factory;
+    private final Map<String, V> segments = new ConcurrentHashMap<>();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final V overflow;
+
+    /**
+     * Creates the segments of a method.
+     *
+     * @param maxSegments the number of segments kept; excluding the overflow segment.
+     * @param factory     the supplier of the value of a new segment; and of the overflow value.
+     */
+    CappedSegments(int maxSegments, Supplier<V> factory) {
+        this.maxSegments = Math.max(1, maxSegments);
+        this.factory = factory;
+        this.overflow = factory.get();
+    }
+
+    /**
+     * Returns the number of segments kept; excluding the overflow segment.
+     *
+     * @return the number of segments kept.
+     */
+    int maxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Returns the value of the specified segment; which is added if the cap is not reached yet.
+     *
+     * @param segment the segment.
+     * @return the value of the <tt>segment</tt>; or the overflow value if the cap is reached.
+     */
+    V get(String segment) {
+        final V value = segments.get(segment);
+        if (value != null) {
+            return value;
+        }
+        // a slot is reserved before the segment is added; so the cap holds when the threads race to add new segments. Once
+        // the cap is reached, the overflow value is returned without writing to the shared counter
+        int slots;
+        do {
+            slots = reserved.get();
+            if (slots >= maxSegments) {
+                return overflow;
+            }
+        } while (!reserved.compareAndSet(slots, slots + 1));
+        final V added = factory.get();
+        final V existing = segments.putIfAbsent(segment, added);
+        if (existing != null) {
+            reserved.decrementAndGet();
+            return existing;
+        }
+        return added;
+    }
+
+    /**
+     * Returns the value shared by the segments added once the cap is reached.
+     *
+     * @return the overflow value.
+     */
+    V overflow() {
+        return overflow;
+    }
+
+    /**
+     * Performs the given action for each segment kept; ordered by the segments, excluding the overflow segment.
+     *
+     * @param action the action to perform with each segment and its value.
+     */
+    void forEach(BiConsumer<String, V> action) {
+        segments.entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> action.accept(e.getKey(), e.getValue()));
+    }
+}
@@ -0,0 +1,671 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A deterministic finite automaton matching keys, <em>ignoring case</em>, against the patterns of a filter.
+ * <p>A pattern is one of:-
+ * <ul>
+ * <li>a name; matching the keys equal to it. A name holding <tt>*</tt>, <tt>?</tt> or <tt>\</tt>, or enclosed in slashes, is
+ * a glob or a regular expression instead; unless those characters are escaped, e.g. by <tt>MdcSpec.literal(name)</tt></li>
+ * <li>a <em>glob</em>, i.e. a name with the wildcards <tt>*</tt>, matching any sequence of characters, and <tt>?</tt>,
+ * matching any one character; e.g. <tt>x-b3-*</tt>. A backslash escapes the character following it</li>
+ * <li>a regular expression enclosed in slashes; e.g. <tt>/tenant\.[a-z]+/</tt>. The expression is anchored, i.e. it must
+ * match the whole key; and supports the characters, <tt>.</tt>, the character classes <tt>[...]</tt> and <tt>[^...]</tt>,
+ * the escapes <tt>\d</tt>, <tt>\w</tt>, <tt>\s</tt> and their negations, the groups <tt>(...)</tt> and <tt>(?:...)</tt>, the
+ * alternation <tt>|</tt> and the quantifiers <tt>*</tt>, <tt>+</tt>, <tt>?</tt> and <tt>{m,n}</tt></li>
+ * </ul>
+ * <p>The patterns are compiled together into one automaton over the classes of the characters they distinguish. So a key is
+ * matched in a single scan of its characters, with one table lookup for each character, whatever the number of patterns;
+ * and without any backtracking. The scan stops as soon as the key cannot match, or matches whatever characters follow.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see KeyFilter
+ * @since 1d
+ */
+final class KeyAutomaton {
+
+    /**
+     * The maximum number of states of an automaton.
+     */
+    private static final int MAX_STATES = 4096;
+
+    /**
+     * The maximum bound of a <tt>{m,n}</tt> quantifier.
+     */
+    private static final int MAX_REPEAT = 100;
+
+    /**
+     * The number of the <tt>char</tt> values.
+     */
+    private static final int CHARS = Character.MAX_VALUE + 1;
+
+    /**
+     * The character class of each <tt>ASCII</tt> character; as it is, before case folding.
+     */
+    private final int[] asciiClasses = new int[128];
+
+    /**
+     * The first characters of the ranges of the case folded characters that make up the character classes; sorted.
+     */
+    private final char[] rangeStarts;
+
+    /**
+     * The character class of each range in the <tt>rangeStarts</tt>.
+     */
+    private final int[] rangeClasses;
+
+    private final int classCount;
+
+    /**
+     * The next state for each state and character class; at <tt>state * classCount + characterClass</tt>. A negative state
+     * is the <em>dead</em> state; i.e. no key with the characters read so far matches.
+     */
+    private final int[] transitions;
+
+    /**
+     * Whether a key ending in the state matches.
+     */
+    private final boolean[] accepting;
+
+    /**
+     * Whether every key reaching the state matches; whatever characters follow.
+     */
+    private final boolean[] acceptingAll;
+
+    private KeyAutomaton(char[] rangeStarts, int[] rangeClasses, int classCount, int[] transitions, boolean[] accepting) {
+        this.rangeStarts = rangeStarts;
+        this.rangeClasses = rangeClasses;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.acceptingAll = new boolean[accepting.length];
+        for (int state = 0; state < accepting.length; state++) {
+            boolean loops = accepting[state];
+            for (int c = 0; loops && c < classCount; c++) {
+                loops = transitions[state * classCount + c] == state;
+            }
+            acceptingAll[state] = loops;
+        }
+        for (char c = 0; c < asciiClasses.length; c++) {
+            asciiClasses[c] = classOf(fold(c));
+        }
+    }
+
+    /**
+     * Compiles the specified <tt>patterns</tt> into one automaton.
+     *
+     * @param patterns the patterns to be matched; at least one.
+     * @return an automaton matching the keys that match any of the <tt>patterns</tt>.
+     * @throws IllegalArgumentException if a pattern is malformed; or the patterns need too many states.
+     */
+    static KeyAutomaton compile(String[] patterns) {
+        final Nfa nfa = new Nfa();
+        final int start = nfa.newState();
+        final int end = nfa.newState();
+        for (String pattern : patterns) {
+            nfa.epsilon(nfa.build(parse(pattern), start), end);
+        }
+        return nfa.determinize(start, end, String.join(", ", patterns));
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>key</tt> matches any of the patterns. Otherwise, <tt>False</tt>.
+     *
+     * @param key the key to be matched.
+     * @return <tt>True</tt> if the <tt>key</tt> matches any of the patterns. Otherwise, <tt>False</tt>.
+     */
+    boolean matches(CharSequence key) {
+        int state = 0;
+        for (int i = 0, length = key.length(); i < length; i++) {
+            if (acceptingAll[state]) {
+                return true;
+            }
+            final char c = key.charAt(i);
+            state = transitions[state * classCount + (c < 128 ? asciiClasses[c] : classOf(fold(c)))];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Returns the character class of the specified case folded character.
+     */
+    private int classOf(char folded) {
+        int low = 0;
+        int high = rangeStarts.length - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (rangeStarts[middle] <= folded) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return rangeClasses[low];
+    }
+
+    /**
+     * Returns the character that the specified character is folded into; so that the characters that are equal, as per
+     * <tt>String.equalsIgnoreCase(...)</tt>, are folded into the same character.
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Parses a pattern into the tree of its <tt>Node</tt>s.
+     */
+    private static Node parse(String pattern) {
+        if (pattern.length() > 1 && pattern.startsWith("/") && pattern.endsWith("/")) {
+            return new RegexParser(pattern).parse();
+        }
+        final List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '*') {
+                nodes.add(new Repeat(Chars.ANY, 0, -1));
+            } else if (c == '?') {
+                nodes.add(Chars.ANY);
+            } else if (c == '\\' && i + 1 < pattern.length()) {
+                nodes.add(Chars.of(pattern.charAt(++i)));
+            } else {
+                nodes.add(Chars.of(c));
+            }
+        }
+        return new Sequence(nodes);
+    }
+
+    /**
+     * A node of the tree of a pattern.
+     */
+    private abstract static class Node {
+    }
+
+    /**
+     * Matches one character of a set of case folded characters.
+     */
+    private static final class Chars extends Node {
+        private static final Chars ANY = new Chars(all());
+
+        private final BitSet chars;
+
+        private Chars(BitSet chars) {
+            this.chars = chars;
+        }
+
+        static Chars of(char c) {
+            final BitSet chars = new BitSet(CHARS);
+            chars.set(fold(c));
+            return new Chars(chars);
+        }
+
+        static Chars of(BitSet unfolded, boolean negated) {
+            final BitSet chars = new BitSet(CHARS);
+            for (int c = unfolded.nextSetBit(0); c >= 0; c = unfolded.nextSetBit(c + 1)) {
+                chars.set(fold((char) c));
+            }
+            if (negated) {
+                chars.flip(0, CHARS);
+            }
+            return new Chars(chars);
+        }
+
+        private static BitSet all() {
+            final BitSet chars = new BitSet(CHARS);
+            chars.set(0, CHARS);
+            return chars;
+        }
+    }
+
+    /**
+     * Matches each of the nodes in turn.
+     */
+    private static final class Sequence extends Node {
+        private final List<Node> nodes;
+
+        Sequence(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Matches any one of the nodes.
+     */
+    private static final class Alternation extends Node {
+        private final List<Node> nodes;
+
+        Alternation(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Matches the node repeatedly; at least <tt>min</tt> times, and at most <tt>max</tt> times unless <tt>max</tt> is
+     * negative.
+     */
+    private static final class Repeat extends Node {
+        private final Node node;
+        private final int min;
+        private final int max;
+
+        Repeat(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * Parses the subset of the regular expressions supported by the filters.
+     */
+    private static final class RegexParser {
+        private final String pattern;
+        private final String regex;
+        private int position;
+
+        RegexParser(String pattern) {
+            this.pattern = pattern;
+            this.regex = pattern.substring(1, pattern.length() - 1);
+        }
+
+        Node parse() {
+            if (regex.startsWith("^")) {
+                position++;
+            }
+            final Node node = alternation();
+            if (position < regex.length()) {
+                throw error("unexpected '" + regex.charAt(position) + "'");
+            }
+            return node;
+        }
+
+        private Node alternation() {
+            final List<Node> nodes = new ArrayList<>();
+            nodes.add(sequence());
+            while (position < regex.length() && regex.charAt(position) == '|') {
+                position++;
+                nodes.add(sequence());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Alternation(nodes);
+        }
+
+        private Node sequence() {
+            final List<Node> nodes = new ArrayList<>();
+            while (position < regex.length() && regex.charAt(position) != '|' && regex.charAt(position) != ')') {
+                if (regex.charAt(position) == '$' && position == regex.length() - 1) {
+                    position++;
+                } else {
+                    nodes.add(quantified(atom()));
+                }
+            }
+            return new Sequence(nodes);
+        }
+
+        private Node quantified(Node atom) {
+            Node node = atom;
+            while (position < regex.length()) {
+                final char c = regex.charAt(position);
+                if (c == '*') {
+                    node = new Repeat(node, 0, -1);
+                } else if (c == '+') {
+                    node = new Repeat(node, 1, -1);
+                } else if (c == '?') {
+                    node = new Repeat(node, 0, 1);
+                } else if (c == '{') {
+                    node = bounded(node);
+                    continue;
+                } else {
+                    return node;
+                }
+                position++;
+            }
+            return node;
+        }
+
+        private Node bounded(Node node) {
+            final int close = regex.indexOf('}', position);
+            if (close < 0) {
+                throw error("unclosed '{'");
+            }
+            final String bounds = regex.substring(position + 1, close);
+            final int comma = bounds.indexOf(',');
+            try {
+                final int min = Integer.parseInt(comma < 0 ? bounds : bounds.substring(0, comma));
+                final int max = comma < 0
+                        ? min
+                        : comma == bounds.length() - 1 ? -1 : Integer.parseInt(bounds.substring(comma + 1));
+                if (min < 0 || min > MAX_REPEAT || max > MAX_REPEAT || (max >= 0 && max < min)) {
+                    throw error("invalid bounds {" + bounds + "}");
+                }
+                position = close + 1;
+                return new Repeat(node, min, max);
+            } catch (NumberFormatException ex) {
+                throw error("invalid bounds {" + bounds + "}");
+            }
+        }
+
+        private Node atom() {
+            final char c = regex.charAt(position++);
+            switch (c) {
+                case '(':
+                    if (regex.startsWith("?:", position)) {
+                        position += 2;
+                    } else if (position < regex.length() && regex.charAt(position) == '?') {
+                        throw error("unsupported group '(?" + (position + 1 < regex.length()
+                                ? regex.charAt(position + 1)
+                                : ' ') + "'");
+                    }
+                    final Node node = alternation();
+                    if (position >= regex.length() || regex.charAt(position) != ')') {
+                        throw error("unclosed '('");
+                    }
+                    position++;
+                    return node;
+                case '[':
+                    return characterClass();
+                case '.':
+                    return Chars.ANY;
+                case '\\':
+                    return escape(false);
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw error("dangling '" + c + "'");
+                case '^':
+                case '$':
+                    throw error("'" + c + "' is allowed only at the ends");
+                default:
+                    return Chars.of(c);
+            }
+        }
+
+        private Node characterClass() {
+            final boolean negated = position < regex.length() && regex.charAt(position) == '^';
+            if (negated) {
+                position++;
+            }
+            final BitSet chars = new BitSet(CHARS);
+            boolean first = true;
+            while (position < regex.length() && (first || regex.charAt(position) != ']')) {
+                first = false;
+                char low = regex.charAt(position++);
+                if (low == '\\') {
+                    final Chars escaped = escape(true);
+                    if (escaped.chars.cardinality() != 1) {
+                        chars.or(escaped.chars);
+                        continue;
+                    }
+                    low = (char) escaped.chars.nextSetBit(0);
+                }
+                if (position + 1 < regex.length() && regex.charAt(position) == '-' && regex.charAt(position + 1) != ']') {
+                    position++;
+                    char high = regex.charAt(position++);
+                    if (high == '\\') {
+                        high = (char) escape(true).chars.nextSetBit(0);
+                    }
+                    if (high < low) {
+                        throw error("invalid range " + low + "-" + high);
+                    }
+                    chars.set(low, high + 1);
+                } else {
+                    chars.set(low);
+                }
+            }
+            if (position >= regex.length()) {
+                throw error("unclosed '['");
+            }
+            position++;
+            return Chars.of(chars, negated);
+        }
+
+        /**
+         * Parses the escape following a backslash. The escaped punctuation characters are matched as they are; so the
+         * escape of a literal character in a character class is folded only once the class is complete.
+         */
+        private Chars escape(boolean inClass) {
+            if (position >= regex.length()) {
+                throw error("trailing '\\'");
+            }
+            final char c = regex.charAt(position++);
+            final BitSet chars = new BitSet(CHARS);
+            switch (Character.toLowerCase(c)) {
+                case 'd':
+                    chars.set('0', '9' + 1);
+                    break;
+                case 'w':
+                    chars.set('a', 'z' + 1);
+                    chars.set('A', 'Z' + 1);
+                    chars.set('0', '9' + 1);
+                    chars.set('_');
+                    break;
+                case 's':
+                    chars.set(' ');
+                    chars.set('\t', '\r' + 1);
+                    break;
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error("unsupported escape '\\" + c + "'");
+                    }
+                    chars.set(c);
+                    return inClass ? new Chars(chars) : Chars.of(c);
+            }
+            return Character.isUpperCase(c) ? Chars.of(chars, true) : inClass ? new Chars(chars) : Chars.of(chars, false);
+        }
+
+        private IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("Invalid filter '" + pattern + "': " + reason + ".");
+        }
+    }
+
+    /**
+     * The non-deterministic automaton of the patterns; built as per <em>Thompson's construction</em>.
+     */
+    private static final class Nfa {
+
+        /**
+         * The states reached from each state without reading a character.
+         */
+        private final List<List<Integer>> epsilons = new ArrayList<>();
+
+        /**
+         * The character sets, and the states reached by reading one of their characters, from each state.
+         */
+        private final List<List<Chars>> sets = new ArrayList<>();
+        private final List<List<Integer>> targets = new ArrayList<>();
+
+        int newState() {
+            epsilons.add(new ArrayList<>());
+            sets.add(new ArrayList<>());
+            targets.add(new ArrayList<>());
+            return epsilons.size() - 1;
+        }
+
+        void epsilon(int from, int to) {
+            epsilons.get(from).add(to);
+        }
+
+        /**
+         * Adds the states matching the specified <tt>node</tt> from the state <tt>from</tt>.
+         *
+         * @return the state reached once the <tt>node</tt> has been matched.
+         */
+        int build(Node node, int from) {
+            if (node instanceof Chars) {
+                final int to = newState();
+                sets.get(from).add((Chars) node);
+                targets.get(from).add(to);
+                return to;
+            }
+            if (node instanceof Sequence) {
+                int current = from;
+                for (Node child : ((Sequence) node).nodes) {
+                    current = build(child, current);
+                }
+                return current;
+            }
+            if (node instanceof Alternation) {
+                final int end = newState();
+                for (Node child : ((Alternation) node).nodes) {
+                    final int branch = newState();
+                    epsilon(from, branch);
+                    epsilon(build(child, branch), end);
+                }
+                return end;
+            }
+            final Repeat repeat = (Repeat) node;
+            int current = from;
+            for (int i = 0; i < repeat.min; i++) {
+                current = build(repeat.node, current);
+            }
+            if (repeat.max < 0) {
+                final int loop = newState();
+                epsilon(current, loop);
+                epsilon(build(repeat.node, loop), loop);
+                return loop;
+            }
+            final int end = newState();
+            epsilon(current, end);
+            for (int i = repeat.min; i < repeat.max; i++) {
+                current = build(repeat.node, current);
+                epsilon(current, end);
+            }
+            return end;
+        }
+
+        /**
+         * Builds the deterministic automaton equivalent to this one; as per the <em>subset construction</em>, over the
+         * classes of the characters that the character sets distinguish.
+         */
+        KeyAutomaton determinize(int start, int end, String patterns) {
+            // the ranges of characters that are in the same character sets
+            final List<BitSet> charSets = new ArrayList<>();
+            final TreeSet<Integer> boundaries = new TreeSet<>();
+            boundaries.add(0);
+            for (List<Chars> stateSets : sets) {
+                for (Chars chars : stateSets) {
+                    if (!charSets.contains(chars.chars)) {
+                        charSets.add(chars.chars);
+                        for (int c = chars.chars.nextSetBit(0); c >= 0; c = chars.chars.nextSetBit(c)) {
+                            boundaries.add(c);
+                            c = chars.chars.nextClearBit(c);
+                            boundaries.add(c);
+                        }
+                    }
+                }
+            }
+            boundaries.remove(CHARS);
+            final char[] rangeStarts = new char[boundaries.size()];
+            final int[] rangeClasses = new int[boundaries.size()];
+            final Map<BitSet, Integer> classes = new LinkedHashMap<>();
+            final List<Character> representatives = new ArrayList<>();
+            int range = 0;
+            for (int boundary : boundaries) {
+                final BitSet signature = new BitSet();
+                for (int i = 0; i < charSets.size(); i++) {
+                    signature.set(i, charSets.get(i).get(boundary));
+                }
+                final Integer characterClass = classes.get(signature);
+                if (characterClass == null) {
+                    classes.put(signature, classes.size());
+                    representatives.add((char) boundary);
+                }
+                rangeStarts[range] = (char) boundary;
+                rangeClasses[range++] = characterClass == null ? classes.size() - 1 : characterClass;
+            }
+
+            final int classCount = classes.size();
+            final Map<BitSet, Integer> states = new LinkedHashMap<>();
+            final List<int[]> rows = new ArrayList<>();
+            final Deque<BitSet> pending = new ArrayDeque<>();
+            final BitSet initial = closure(singleton(start));
+            states.put(initial, 0);
+            pending.add(initial);
+            while (!pending.isEmpty()) {
+                final BitSet state = pending.poll();
+                final int[] row = new int[classCount];
+                for (int characterClass = 0; characterClass < classCount; characterClass++) {
+                    final BitSet next = closure(step(state, representatives.get(characterClass)));
+                    if (next.isEmpty()) {
+                        row[characterClass] = -1;
+                        continue;
+                    }
+                    Integer target = states.get(next);
+                    if (target == null) {
+                        if (states.size() == MAX_STATES) {
+                            throw new IllegalArgumentException("Invalid filter '" + patterns + "': too many patterns, or "
+                                    + "too complex, to be matched by " + MAX_STATES + " states.");
+                        }
+                        target = states.size();
+                        states.put(next, target);
+                        pending.add(next);
+                    }
+                    row[characterClass] = target;
+                }
+                rows.add(row);
+            }
+
+            final int[] transitions = new int[rows.size() * classCount];
+            final boolean[] accepting = new boolean[rows.size()];
+            int index = 0;
+            for (Map.Entry<BitSet, Integer> state : states.entrySet()) {
+                System.arraycopy(rows.get(state.getValue()), 0, transitions, state.getValue() * classCount, classCount);
+                accepting[index++] = state.getKey().get(end);
+            }
+            return new KeyAutomaton(rangeStarts, rangeClasses, classCount, transitions, accepting);
+        }
+
+        /**
+         * Returns the states reached from the specified states by reading the specified character.
+         */
+        private BitSet step(BitSet from, char c) {
+            final BitSet to = new BitSet();
+            for (int state = from.nextSetBit(0); state >= 0; state = from.nextSetBit(state + 1)) {
+                final List<Chars> stateSets = sets.get(state);
+                for (int i = 0; i < stateSets.size(); i++) {
+                    if (stateSets.get(i).chars.get(c)) {
+                        to.set(targets.get(state).get(i));
+                    }
+                }
+            }
+            return to;
+        }
+
+        /**
+         * Returns the specified states, and the states reached from them without reading a character.
+         */
+        private BitSet closure(BitSet states) {
+            final BitSet closure = (BitSet) states.clone();
+            final Deque<Integer> pending = new ArrayDeque<>();
+            for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                pending.push(state);
+            }
+            while (!pending.isEmpty()) {
+                for (int next : epsilons.get(pending.pop())) {
+                    if (!closure.get(next)) {
+                        closure.set(next);
+                        pending.push(next);
+                    }
+                }
+            }
+            return closure;
+        }
+
+        private static BitSet singleton(int state) {
+            final BitSet states = new BitSet();
+            states.set(state);
+            return states;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Arrays;
+
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcMap;
+
+/**
+ * A compiled <tt>filter</tt> of an <tt>MdcMap</tt> or an <tt>MdcHolder</tt> annotation.
+ * <p>An empty filter matches every key; otherwise a key matches if it matches, <em>ignoring case</em>, one of the patterns in
+ * the filter. The patterns are names, globs or regular expressions; and are compiled together into a {@link KeyAutomaton}.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMap#filter()
+ * @see MdcHolder#filter()
+ * @since 1d
+ */
+final class KeyFilter {
+
+    /**
+     * The filter that matches every key.
+     */
+    private static final KeyFilter ALL = new KeyFilter(new String[0], null);
+
+    /**
+     * The patterns matched by this filter.
+     */
+    private final String[] patterns;
+
+    /**
+     * The automaton matching the <tt>patterns</tt>; or <tt>null</tt> if this filter matches every key.
+     */
+    private final KeyAutomaton automaton;
+
+    private KeyFilter(String[] patterns, KeyAutomaton automaton) {
+        this.patterns = patterns;
+        this.automaton = automaton;
+    }
+
+    /**
+     * Compiles the specified <tt>filter</tt>.
+     *
+     * @param filter the <em>case-insensitive</em> patterns to be matched; an empty array matches every key.
+     * @return the compiled filter.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     */
+    static KeyFilter of(String[] filter) {
+        return filter.length == 0 ? ALL : new KeyFilter(filter.clone(), KeyAutomaton.compile(filter));
+    }
+
+    /**
+     * Combines the specified <tt>filters</tt> into one that matches the keys matched by any of them.
+     * <p>The combined filter only screens the keys ahead of the <tt>filters</tt> themselves; so it matches every key if the
+     * patterns are too many, or too complex, to be compiled together.
+     *
+     * @param filters the filters to be combined.
+     * @return the combined filter.
+     */
+    static KeyFilter union(KeyFilter[] filters) {
+        String[] patterns = new String[0];
+        for (KeyFilter filter : filters) {
+            if (filter.matchesAll()) {
+                return ALL;
+            }
+            final int length = patterns.length;
+            patterns = Arrays.copyOf(patterns, length + filter.patterns.length);
+            System.arraycopy(filter.patterns, 0, patterns, length, filter.patterns.length);
+        }
+        try {
+            return new KeyFilter(patterns, KeyAutomaton.compile(patterns));
+        } catch (IllegalArgumentException ex) {
+            return ALL;
+        }
+    }
+
+    /**
+     * Returns <tt>True</tt> if this filter matches every key. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if this filter matches every key. Otherwise, <tt>False</tt>.
+     */
+    boolean matchesAll() {
+        return automaton == null;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>key</tt> is selected by this filter. Otherwise, <tt>False</tt>.
+     *
+     * @param key the key to be matched.
+     * @return <tt>True</tt> if the <tt>key</tt> is selected by this filter. Otherwise, <tt>False</tt>.
+     */
+    boolean matches(String key) {
+        return automaton == null || automaton.matches(key);
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>key</tt> is selected by this filter. Otherwise, <tt>False</tt>.
+     * <p>The characters of the <tt>key</tt> are matched in place; so a lazily decoded key, like a {@link Utf8Sequence}, is not
+     * turned into a <tt>String</tt> to be matched.
+     *
+     * @param key the key to be matched.
+     * @return <tt>True</tt> if the <tt>key</tt> is selected by this filter. Otherwise, <tt>False</tt>.
+     */
+    boolean matches(CharSequence key) {
+        return automaton == null || automaton.matches(key);
+    }
+}
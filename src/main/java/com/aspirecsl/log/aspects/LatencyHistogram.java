@@ -0,0 +1,104 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of durations, in nanoseconds, with buckets of exponentially growing widths.
+ * <p>The bucket <tt>i</tt> counts the durations in <tt>[2<sup>i-1</sup>, 2<sup>i</sup>)</tt>; so the percentiles derived
+ * from the histogram are accurate to within a factor of two, which suits the latencies spanning several orders of magnitude.
+ * The buckets are <em>striped</em> counters; recording a duration does not contend with the other threads recording into
+ * the same histogram.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMetrics
+ * @since 1d
+ */
+final class LatencyHistogram {
+
+    /**
+     * The number of buckets; durations of <tt>2<sup>40</sup></tt> nanoseconds <em>(about 18 minutes)</em> or more are counted
+     * in the last bucket.
+     */
+    private static final int BUCKETS = 41;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the specified duration.
+     *
+     * @param nanos the duration in nanoseconds; negative durations are recorded as <tt>0</tt>.
+     */
+    void record(long nanos) {
+        final long duration = Math.max(nanos, 0);
+        buckets[Math.min(64 - Long.numberOfLeadingZeros(duration), BUCKETS - 1)].increment();
+        count.increment();
+        total.add(duration);
+        max.accumulate(duration);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return the number of durations recorded.
+     */
+    long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the durations recorded.
+     *
+     * @return the sum of the durations recorded, in nanoseconds.
+     */
+    long total() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the longest duration recorded.
+     *
+     * @return the longest duration recorded, in nanoseconds.
+     */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns an estimate of the specified percentile of the durations recorded; which is the upper bound of the bucket holding
+     * the percentile, capped by the longest duration recorded.
+     *
+     * @param percentile the percentile, between <tt>0</tt> and <tt>100</tt>.
+     * @return an estimate of the <tt>percentile</tt>, in nanoseconds; or <tt>0</tt> if no duration is recorded.
+     */
+    long percentile(double percentile) {
+        final long[] counts = new long[BUCKETS];
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            sum += counts[i];
+        }
+        if (sum == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(sum * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min((1L << i) - 1, max());
+            }
+        }
+        return max();
+    }
+}
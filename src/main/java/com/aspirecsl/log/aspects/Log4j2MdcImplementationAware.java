@@ -61,6 +61,58 @@ final class Log4j2MdcImplementationAware implements MdcImplementationAware {
         ThreadContext.removeAll(keys);
     }
 
+    /**
+     * Returns the value associated with the specified <tt>key</tt> in the MDC of the Log4j2 logging framework.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the value associated with the <tt>key</tt>; or <tt>null</tt> if the MDC does not contain the <tt>key</tt>.
+     */
+    @Override
+    public String get(String key) {
+        return ThreadContext.get(key);
+    }
+
+    /**
+     * Returns <tt>True</tt> if the current thread's MDC of the Log4j2 logging framework has no entries. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the current thread's MDC has no entries. Otherwise, <tt>False</tt>.
+     */
+    @Override
+    public boolean isEmpty() {
+        return ThreadContext.isEmpty();
+    }
+
+    /**
+     * Returns a copy of the current thread's MDC of the Log4j2 logging framework.
+     *
+     * @return a copy of the current thread's MDC; or an empty map if the MDC is empty.
+     */
+    @Override
+    public Map<String, String> getCopyOfContextMap() {
+        return ThreadContext.getContext();
+    }
+
+    /**
+     * Replaces the whole of the current thread's MDC of the Log4j2 logging framework with the contents of the specified
+     * <tt>map</tt>.
+     *
+     * @param map the map containing the <tt>key:value</tt> pairs that make up the new MDC.
+     */
+    @Override
+    public void setContextMap(Map<String, String> map) {
+        ThreadContext.clearMap();
+        ThreadContext.putAll(map);
+    }
+
+    /**
+     * Removes every value from the current thread's MDC of the Log4j2 logging framework.
+     */
+    @Override
+    public void clear() {
+        ThreadContext.clearMap();
+    }
+
     /**
      * A private helper class the holds a <tt>singleton</tt> <tt>Log4j2MdcImplementationAware</tt> instance which is returned to
      * clients via the <tt>Log4j2MdcImplementationAware.getInstance()</tt> method.
@@ -0,0 +1,149 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.aspirecsl.log.MdcAccounting;
+
+/**
+ * Accounts the CPU time consumed, and the bytes allocated, by the calls of a method to the value of an MDC key, the
+ * <em>segment key</em>; such as a tenant.
+ * <p>The resources used by the current thread are read when the scope of a call is opened, and again when it is about to be
+ * closed; the differences are added to the account of the value of the segment key in the MDC at that point. The accounts
+ * are <em>striped</em> counters, published by {@link MdcMetrics}. The number of accounts is capped; once the cap is reached,
+ * the calls with the other values are added to the {@value MdcLatencyStatistics#OVERFLOW} account.
+ * <p>This is the compiled form of an <tt>MdcAccounting</tt> annotation; it can also be used with programmatic scopes. For
+ * example:-
+ * <pre>
+ *
+ *     private static final MdcAccountant ACCOUNTANT = MdcAccountant.of("com.example.Orders.process", "tenant", 100);
+ *
+ *     final MdcScope scope = MdcScope.open(MdcBackend.SLF4J);
+ *     final long cpuTime = ACCOUNTANT.cpuTime();
+ *     final long allocatedBytes = ACCOUNTANT.allocatedBytes();
+ *     try {
+ *         // do something
+ *     } finally {
+ *         ACCOUNTANT.stop(scope, cpuTime, allocatedBytes);
+ *         scope.close();
+ *     }
+ * </pre>
+ * <p>Nothing is read, or accounted, if the metrics are disabled.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcAccounting
+ * @see MdcResourceStatistics
+ * @since 1d
+ */
+public final class MdcAccountant {
+
+    private final String method;
+    private final String segmentKey;
+    private final boolean active;
+    private final CappedSegments<Account> accounts;
+
+    private MdcAccountant(String method, String segmentKey, int maxSegments) {
+        this.method = method;
+        this.segmentKey = segmentKey;
+        this.accounts = new CappedSegments<>(maxSegments, Account::new);
+        this.active = MdcMetrics.registerAccountant(this);
+    }
+
+    /**
+     * Returns an accountant with the specified attributes.
+     *
+     * @param method      the name of the method, or the block of code, that is accounted.
+     * @param segmentKey  the MDC key whose values are accounted.
+     * @param maxSegments the number of distinct values of the <tt>segmentKey</tt> accounted; the other values are added to
+     *                    the {@value MdcLatencyStatistics#OVERFLOW} account.
+     * @return an accountant with the specified attributes.
+     */
+    public static MdcAccountant of(String method, String segmentKey, int maxSegments) {
+        return new MdcAccountant(method, segmentKey, maxSegments);
+    }
+
+    /**
+     * Returns the accountant compiled from the specified <tt>MdcAccounting</tt> annotation.
+     *
+     * @param method        the name of the annotated method.
+     * @param mdcAccounting the annotation.
+     * @return the accountant compiled from the annotation.
+     */
+    static MdcAccountant of(String method, MdcAccounting mdcAccounting) {
+        return of(method, mdcAccounting.segmentKey(), mdcAccounting.maxSegments());
+    }
+
+    /**
+     * Returns the CPU time consumed by the current thread; to be passed to {@link #stop(MdcScope, long, long)}.
+     *
+     * @return the CPU time consumed by the current thread, in nanoseconds; or <tt>0</tt> if not accounted.
+     */
+    public long cpuTime() {
+        return active ? ThreadResources.cpuTime() : 0;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread; to be passed to {@link #stop(MdcScope, long, long)}.
+     *
+     * @return the bytes allocated by the current thread; or <tt>0</tt> if not accounted.
+     */
+    public long allocatedBytes() {
+        return active ? ThreadResources.allocatedBytes() : 0;
+    }
+
+    /**
+     * Adds the CPU time consumed, and the bytes allocated, by the current thread since the specified readings to the account
+     * of the value of the segment key in the MDC populated by the <tt>scope</tt>.
+     *
+     * @param scope          the scope of the call.
+     * @param cpuTime        the value of {@link #cpuTime()} when the call started.
+     * @param allocatedBytes the value of {@link #allocatedBytes()} when the call started.
+     * @throws IllegalStateException if the <tt>scope</tt> is closed.
+     */
+    public void stop(MdcScope scope, long cpuTime, long allocatedBytes) {
+        if (!active) {
+            return;
+        }
+        final long cpuNanos = ThreadResources.cpuTime() - cpuTime;
+        final long bytes = ThreadResources.allocatedBytes() - allocatedBytes;
+        final String segment = scope.get(segmentKey);
+        final Account account = accounts.get(segment == null ? MdcLatencyStatistics.ABSENT : segment);
+        account.calls.increment();
+        account.cpuNanos.add(cpuNanos);
+        account.allocatedBytes.add(bytes);
+    }
+
+    /**
+     * Returns a snapshot of each account; ordered by the segments, with the overflow account last.
+     *
+     * @return a snapshot of each account.
+     */
+    List<MdcResourceStatistics> snapshot() {
+        final List<MdcResourceStatistics> statistics = new ArrayList<>();
+        accounts.forEach((segment, account) -> statistics.add(account.snapshot(segment)));
+        if (accounts.overflow().calls.sum() > 0) {
+            statistics.add(accounts.overflow().snapshot(MdcLatencyStatistics.OVERFLOW));
+        }
+        return statistics;
+    }
+
+    @Override
+    public String toString() {
+        return "MdcAccountant{method=" + method + ", segmentKey=" + segmentKey + ", maxSegments=" + accounts.maxSegments() + "}";
+    }
+
+    /**
+     * The resources used by the calls made with a value of the segment key.
+     */
+    private final class Account {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private MdcResourceStatistics snapshot(String segment) {
+            return new MdcResourceStatistics(method, segmentKey, segment, calls.sum(), cpuNanos.sum(), allocatedBytes.sum());
+        }
+    }
+}
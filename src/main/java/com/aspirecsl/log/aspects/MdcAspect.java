@@ -1,19 +1,6 @@
 package com.aspirecsl.log.aspects;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -22,12 +9,7 @@ import org.aspectj.lang.reflect.MethodSignature;
 
 import com.aspirecsl.log.HasDiagnosticContext;
 import com.aspirecsl.log.Log4j2MdcAware;
-import com.aspirecsl.log.MdcHolder;
-import com.aspirecsl.log.MdcMap;
-import com.aspirecsl.log.MdcMaps;
-import com.aspirecsl.log.MdcParam;
-import com.aspirecsl.log.MdcParams;
-import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.MdcSpecialized;
 import com.aspirecsl.log.Slf4jMdcAware;
 
 /**
@@ -43,26 +25,58 @@ import com.aspirecsl.log.Slf4jMdcAware;
 public class MdcAspect {
 
     /**
-     * Annotations for the method parameters that are added to the MDC of a logging framework.
+     * <tt>Pointcut</tt> describing a join point for which the advice is enabled at runtime.
+     * <p>The condition is tested before the join point object is created; so a method whose advice is disabled runs as if
+     * it was not woven.
+     *
+     * @param joinPoint the static part of the join point.
+     * @return <tt>True</tt> if the advice is enabled for the <tt>joinPoint</tt>. Otherwise, <tt>False</tt>.
+     * @see MdcControl
+     */
+    @Pointcut("if()")
+    public static boolean adviceEnabled(JoinPoint.StaticPart joinPoint) {
+        return MdcControl.isEnabled(joinPoint);
+    }
+
+    /**
+     * <tt>Pointcut</tt> describing a join point of a method whose declaring class has the advice generated, at build time, for
+     * its <tt>MdcSpecialized</tt> methods.
+     * <p>The advice is generated only if this library is on the annotation processor path of the client. Otherwise, the
+     * <tt>MdcSpecialized</tt> methods are advised by the generic advice of this aspect; instead of not being advised at all.
+     *
+     * @param joinPoint the static part of the join point.
+     * @return <tt>True</tt> if the advice has been generated for the declaring class of the <tt>joinPoint</tt>. Otherwise,
+     * <tt>False</tt>.
+     * @see MdcSpecialized
      */
-    private static final List<Class<?>> MDC_ANNOTATIONS =
-            Arrays.asList(MdcMap.class, MdcMaps.class, MdcValue.class, MdcHolder.class, MdcParam.class, MdcParams.class);
+    @Pointcut("if()")
+    public static boolean specializedAdviceGenerated(JoinPoint.StaticPart joinPoint) {
+        return MdcPlan.isSpecialized(joinPoint.getSignature().getDeclaringType());
+    }
 
     /**
      * <tt>Pointcut</tt> describing a <tt>Log4j2MdcAware</tt> annotated method.
+     * <p>The methods annotated with <tt>MdcSpecialized</tt> are excluded, if the advice has been generated for them at build
+     * time; as these are handled by that advice. So are the methods for which the advice is disabled at runtime.
      *
      * @see Log4j2MdcAware
+     * @see MdcSpecialized
      */
-    @Pointcut("@annotation(com.aspirecsl.log.Log4j2MdcAware) && execution(* *(..))")
+    @Pointcut("@annotation(com.aspirecsl.log.Log4j2MdcAware) && execution(* *(..)) "
+            + "&& !(@annotation(com.aspirecsl.log.MdcSpecialized) && specializedAdviceGenerated(*)) && adviceEnabled(*)")
     public void log4j2MdcAwareAnnotatedMethod() {
     }
 
     /**
      * <tt>Pointcut</tt> describing a <tt>Slf4jMdcAware</tt> annotated method.
+     * <p>The methods annotated with <tt>MdcSpecialized</tt> are excluded, if the advice has been generated for them at build
+     * time; as these are handled by that advice. So are the methods for which the advice is disabled at runtime.
      *
      * @see Slf4jMdcAware
+     * @see MdcSpecialized
      */
-    @Pointcut("@annotation(com.aspirecsl.log.Slf4jMdcAware) && execution(* *(..))")
+    @Pointcut("@annotation(com.aspirecsl.log.Slf4jMdcAware) && execution(* *(..)) "
+            + "&& !(@annotation(com.aspirecsl.log.MdcSpecialized) && specializedAdviceGenerated(*)) && adviceEnabled(*)")
     public void slf4jMdcAwareAnnotatedMethod() {
     }
 
@@ -80,7 +94,7 @@ public class MdcAspect {
      */
     @Around("log4j2MdcAwareAnnotatedMethod()")
     public Object log4j2MdcAwareMethodAdvice(ProceedingJoinPoint pjp) throws Throwable {
-        return addToMdcIfApplicable(pjp, Log4j2MdcImplementationAware.getInstance());
+        return addToMdcIfApplicable(pjp, MdcBackend.LOG4J2);
     }
 
     /**
@@ -97,298 +111,112 @@ public class MdcAspect {
      */
     @Around("slf4jMdcAwareAnnotatedMethod()")
     public Object slf4jMdcAwareMethodAdvice(ProceedingJoinPoint pjp) throws Throwable {
-        return addToMdcIfApplicable(pjp, Slf4jMdcImplementationAware.getInstance());
+        return addToMdcIfApplicable(pjp, MdcBackend.SLF4J);
     }
 
     /**
      * Adds relevant method parameters <em>(if annotated correctly)</em> to the MDC of the logging framework.
      * <p>Additionally, removes the values added by this <tt>AspectJ</tt> advice once the <em>advised</em> method
      * completes execution. This ensures that no stale properties are left behind in the MDC by this advice.
+     * <p>The MDC annotations of the <em>advised</em> method are compiled once into an {@link MdcPlan}; and the values are
+     * added via a pooled {@link MdcScope}, which is shared with the programmatic clients of this library. In addition:-
+     * <ul>
+     *     <li>a correlation id is added to the MDC, if specified by the <em>method marker</em> annotation and absent</li>
+     *     <li>the elapsed time and the outcome of the method are added to the MDC before the values are removed, if the method
+     *     is annotated with <tt>MdcTimed</tt>; see {@link MdcTimer}</li>
+     *     <li>the CPU time and the bytes allocated by the method are accounted to the value of an MDC key, if the method is
+     *     annotated with <tt>MdcAccounting</tt>; see {@link MdcAccountant}</li>
+     *     <li>the arguments of the parameters annotated with <tt>MdcIterate</tt> are wrapped; so that each element is added to
+     *     the MDC as it is consumed by the method; see {@link MdcIteration}</li>
+     *     <li>the start of the method is stamped for the watchdog of the stuck calls, if running; see {@link MdcWatchdog}</li>
+     *     <li>the scope is published to the registry of the context of each thread, if enabled; see {@link MdcRegistry}</li>
+     *     <li>the scope is recorded as a <tt>Java Flight Recorder</tt> event, if enabled; see {@link MdcEvents}</li>
+     *     <li>the overhead of this advice <em>(excluding the execution of the advised method)</em> is recorded, if enabled;
+     *     see {@link MdcMetrics}</li>
+     * </ul>
      *
-     * @param pjp    the join-point object holding the <em>advised</em> method's state and static information.
-     * @param mdcApi the API for the MDC implementation of the logging framework in use.
+     * @param pjp     the join-point object holding the <em>advised</em> method's state and static information.
+     * @param backend the logging framework whose MDC is populated.
      * @return the return value of the <em>advised</em> method.
      * @throws Throwable                if the method invoked while calling <tt>pjp.proceed(...)</tt> throws an exception.
      * @throws IllegalArgumentException if the annotation is incompatible with the parameter type that it annotates,
-     *                                  or the client specifies more than one type of MDC annotation on a parameter. Full list of
-     *                                  MDC parameter annotations can be found on {@link #MDC_ANNOTATIONS}.
+     *                                  or the client specifies more than one type of MDC annotation on a parameter.
      */
-    private Object addToMdcIfApplicable(ProceedingJoinPoint pjp, MdcImplementationAware mdcApi) throws Throwable {
-        final List<String> mdcKeys = new ArrayList<>();
+    private Object addToMdcIfApplicable(ProceedingJoinPoint pjp, MdcBackend backend) throws Throwable {
+        final boolean sampled = MdcMetrics.ENABLED && MdcMetrics.sampled();
+        final long entered = sampled ? System.nanoTime() : 0;
+        final MdcPlan plan = MdcPlan.of(((MethodSignature) pjp.getSignature()).getMethod());
+        if (plan.isEmpty()) {
+            return pjp.proceed();
+        }
+        final MdcTimer timer = plan.timer();
+        final long started = timer != null ? System.nanoTime() : 0;
+        final MdcScope scope = MdcScope.open(backend, plan.budget(backend));
+        final Object event = MdcEvents.begin();
+        MdcWatchdog.stamp(scope, plan.name(), backend);
+        final MdcAccountant accountant = plan.accountant();
+        final long cpuTime = accountant != null ? accountant.cpuTime() : 0;
+        final long allocatedBytes = accountant != null ? accountant.allocatedBytes() : 0;
+        long proceeded = 0;
+        Throwable failure = null;
         try {
+            plan.correlate(backend, scope);
             final Object[] args = pjp.getArgs();
-            final MethodSignature methodSignature = (MethodSignature) pjp.getSignature();
-            final Method method = methodSignature.getMethod();
-            final Parameter[] parameters = method.getParameters();
-            for (int i = 0; i < parameters.length; i++) {
-                final Object value = args[i];
-                final Parameter parameter = parameters[i];
-
-                final Set<? extends Class<? extends Annotation>> mdcAnnotationSet =
-                        Arrays.stream(parameter.getAnnotations())
-                                .map(Annotation::annotationType)
-                                .filter(MDC_ANNOTATIONS::contains)
-                                .collect(Collectors.toSet());
-                if (mdcAnnotationSet.size() > 1) {
-                    throw new IllegalArgumentException("MDC parameter annotations are mutually exclusive.");
+            try {
+                plan.bind(args, scope);
+            } catch (IllegalArgumentException ex) {
+                if (MdcMetrics.ENABLED) {
+                    plan.metrics().validationFailed();
                 }
-                mdcKeys.addAll(processMdcMapsIfApplicable(parameter, value, mdcApi));
-                mdcKeys.addAll(processMdcValueIfApplicable(parameter, value, mdcApi));
-                mdcKeys.addAll(processMdcHolderIfApplicable(parameter, value, mdcApi));
-                mdcKeys.addAll(processMdcParamsIfApplicable(parameter, value, mdcApi));
+                throw ex;
             }
-            return pjp.proceed();
-        } finally {
-            // remove the values added to MDC by this advice; irrespective of the completion status of the service
-            if (!mdcKeys.isEmpty()) {
-                mdcApi.removeAll(mdcKeys);
+            MdcEvents.extracted(event);
+            MdcRegistry.publish(scope, plan.name());
+            if (!sampled) {
+                return proceed(pjp, plan, args, scope);
             }
-        }
-    }
-
-    /**
-     * Adds relevant values from a parameter of type <tt>HasDiagnosticContext</tt> to the MDC of the logging framework.
-     *
-     * @param parameter the <tt>Parameter</tt> object from the <em>advised</em> method's formal arguments list.
-     * @param value     the actual value of the argument in the <em>advised</em> method's execution.
-     * @param mdcApi    the API for the MDC implementation of the logging framework in use.
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     * @throws IllegalArgumentException if the <tt>MdcHolder</tt> annotated argument <em>(if present)</em> is not of type
-     *                                  <tt>HasDiagnosticContext</tt>
-     * @see MdcHolder
-     * @see HasDiagnosticContext
-     */
-    private List<String> processMdcHolderIfApplicable(Parameter parameter, Object value, MdcImplementationAware mdcApi) {
-        final MdcHolder annotation = parameter.getAnnotation(MdcHolder.class);
-        if (value != null && annotation != null) {
-            if (HasDiagnosticContext.class.isAssignableFrom(value.getClass())) {
-                final Map<String, String> mdc = ((HasDiagnosticContext) value).mappedDiagnosticContext();
-                return addToMdcApplyingFilter(mdcApi, mdc, annotation.filter(), annotation.mdcKeyPrefix());
-            } else {
-                throw new IllegalArgumentException(
-                        "@MdcHolder is allowed only on com.aspirecsl.log.utils.HasDiagnosticContext objects.");
+            final long proceeding = System.nanoTime();
+            try {
+                return proceed(pjp, plan, args, scope);
+            } finally {
+                proceeded = System.nanoTime() - proceeding;
             }
-        } else {
-            return Collections.emptyList();
-        }
-    }
-
-    /**
-     * Adds a parameter value to the MDC of the logging framework.
-     *
-     * @param parameter the <tt>Parameter</tt> object from the <em>advised</em> method's formal arguments list.
-     * @param value     the actual value of the argument in the <em>advised</em> method's execution.
-     * @param mdcApi    the API for the MDC implementation of the logging framework in use.
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     * @see MdcValue
-     */
-    private List<String> processMdcValueIfApplicable(Parameter parameter, Object value, MdcImplementationAware mdcApi) {
-        final MdcValue annotation = parameter.getAnnotation(MdcValue.class);
-        if (annotation != null && (value != null || annotation.nullable())) {
-            mdcApi.put(annotation.name(), String.valueOf(value));
-            return Collections.singletonList(annotation.name());
-        } else {
-            return Collections.emptyList();
-        }
-    }
-
-    /**
-     * Adds the contents of a <tt>Map</tt> to the MDC of the logging framework as per the specified <tt>MdcMap</tt> annotation.
-     * <p>If the holder annotation, <tt>MdcMaps</tt>, is used on the <tt>parameter</tt>, then adds properties specified by each
-     * of the held <tt>MdcMap</tt> annotation. If neither <tt>MdcMap</tt> nor <tt>MdcMaps</tt> is used on the
-     * <tt>parameter</tt>, or the parameter <tt>value</tt> is <tt>null</tt>, then this method does not add anything to the MDC,
-     * and returns an empty list.
-     *
-     * @param parameter the <tt>Parameter</tt> object from the <em>advised</em> method's formal arguments list.
-     * @param value     the actual value of the argument in the <em>advised</em> method's execution.
-     * @param mdcApi    the API for the MDC implementation of the logging framework in use.
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     * @throws IllegalArgumentException if the <tt>MdcMap</tt> annotated argument <em>(if present)</em> is not of type
-     *                                  {@literal Map<String,String>}; or a key specified in the <tt>nestedMapKeys</tt> of the <tt>MdcMap</tt> annotation is
-     *                                  associated with a value that is not of type {@literal Map<String,String>}.
-     * @see MdcMap
-     */
-    private List<String> processMdcMapsIfApplicable(Parameter parameter, Object value, MdcImplementationAware mdcApi) {
-        if (value == null) {
-            return Collections.emptyList();
-        }
-        final MdcMap mdcMapAnnotation = parameter.getAnnotation(MdcMap.class);
-        if (mdcMapAnnotation != null) {
-            return addMdcMap(value, mdcApi, mdcMapAnnotation);
-        } else {
-            final MdcMaps mdcMaps = parameter.getAnnotation(MdcMaps.class);
-            if (mdcMaps != null) {
-                return Arrays.stream(mdcMaps.value())
-                        .map(mdcMap -> addMdcMap(value, mdcApi, mdcMap))
-                        .reduce(Collections.emptyList(), (a, b) -> {
-                            final List<String> result = new ArrayList<>(a);
-                            result.addAll(b);
-                            return result;
-                        });
-            } else {
-                return Collections.emptyList();
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            final int keys;
+            try {
+                if (accountant != null) {
+                    accountant.stop(scope, cpuTime, allocatedBytes);
+                }
+                if (timer != null) {
+                    timer.stop(backend, scope, started, failure);
+                }
+                MdcEvents.end(event, plan, scope);
+            } finally {
+                keys = scope.size();
+                // remove the values added to MDC by this advice; irrespective of the completion status of the service
+                scope.close();
             }
-        }
-    }
-
-    /**
-     * Adds the contents of a <tt>Map</tt> to the MDC of the logging framework as per the specified <tt>mdcMap</tt> annotation.
-     *
-     * @param value  the actual value of the argument in the <em>advised</em> method's execution.
-     * @param mdcApi the API for the MDC implementation of the logging framework in use.
-     * @param mdcMap the annotation specifying how the contents of the map are added to the MDC
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     * @throws IllegalArgumentException if the <tt>MdcMap</tt> annotated argument <em>(if present)</em> is not of type
-     *                                  {@literal Map<String,String>}; or a key specified in the <tt>nestedMapKeys</tt> of the <tt>MdcMap</tt> annotation is
-     *                                  associated with a value that is not of type {@literal Map<String,String>}.
-     * @see MdcMap
-     */
-    private List<String> addMdcMap(Object value, MdcImplementationAware mdcApi, MdcMap mdcMap) {
-        final String[] nestedMapKeys = mdcMap.nestedMapKeys();
-        try {
-            // un-safe casts will throw a runtime exception
-            @SuppressWarnings("unchecked") final Map<String, String> mdc =
-                    nestedMapKeys.length == 0
-                            ? (Map<String, String>) value
-                            : Arrays.stream(nestedMapKeys)
-                            .map(nestedMapKey -> ((Map<String, String>) ((Map<String, Object>) value)
-                                    .get(nestedMapKey)))
-                            .filter(Objects::nonNull)
-                            .reduce(Collections.emptyMap(), (a, b) -> {
-                                final Map<String, String> result = new HashMap<>();
-                                result.putAll(a);
-                                result.putAll(b);
-                                return result;
-                            });
-            return addToMdcApplyingFilter(mdcApi, mdc, mdcMap.filter(), mdcMap.mdcKeyPrefix());
-        } catch (ClassCastException ex) {
-            throw new IllegalArgumentException("@MdcMap is allowed only on Map<String,String> objects. \n"
-                    + "@MdcMap(nestedMapKeys = {\"this\"}) is allowed only on Map objects that return a "
-                    + "Map<String,String> nested map when outerMap.get(\"this\") is called.");
-        }
-    }
-
-    /**
-     * Adds the <tt>properties</tt> specified by the <tt>MdcParam</tt> annotation from the given <tt>value</tt> to the MDC of
-     * the logging framework. <tt>Properties</tt> can be specified via <tt>fields</tt> or <tt>getter methods</tt>.
-     * <p>If the holder annotation, <tt>MdcParams</tt>, is used on the <tt>parameter</tt>, then adds properties specified by each
-     * of the held <tt>MdcParam</tt> annotation. If neither <tt>MdcParam</tt> nor <tt>MdcParams</tt> is used on the
-     * <tt>parameter</tt>, or the parameter <tt>value</tt> is <tt>null</tt>, then this method does not add anything to the MDC,
-     * and returns an empty list.
-     *
-     * @param parameter the <tt>Parameter</tt> object from the <em>advised</em> method's formal arguments list.
-     * @param value     the actual value of the argument in the <em>advised</em> method's execution.
-     * @param mdcApi    the API for the MDC implementation of the logging framework in use.
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     * @see MdcParam
-     * @see MdcParams
-     */
-    private List<String> processMdcParamsIfApplicable(Parameter parameter, Object value, MdcImplementationAware mdcApi) {
-        if (value == null) {
-            return Collections.emptyList();
-        }
-        final MdcParam mdcParamAnnotation = parameter.getAnnotation(MdcParam.class);
-        if (mdcParamAnnotation != null) {
-            return reflectivelyAddFieldOrMethodResultToMdc(value, mdcApi, mdcParamAnnotation);
-        } else {
-            final MdcParams mdcParams = parameter.getAnnotation(MdcParams.class);
-            if (mdcParams != null) {
-                return Arrays.stream(mdcParams.value())
-                        .map(mdcParam -> reflectivelyAddFieldOrMethodResultToMdc(value, mdcApi, mdcParam))
-                        .reduce(Collections.emptyList(), (a, b) -> {
-                            final List<String> result = new ArrayList<>(a);
-                            result.addAll(b);
-                            return result;
-                        });
-            } else {
-                return Collections.emptyList();
+            if (MdcMetrics.ENABLED) {
+                plan.metrics().record(keys, scope.operations());
+                if (sampled) {
+                    plan.metrics().recordTime(System.nanoTime() - entered - proceeded);
+                }
             }
         }
     }
 
     /**
-     * Adds the <tt>properties</tt> specified by the <tt>MdcParam</tt> annotation from the given <tt>value</tt> to the MDC of
-     * the logging framework. <tt>Properties</tt> can be specified via <tt>fields</tt> or <tt>getter methods</tt>.
-     *
-     * @param value    the actual value of the argument in the <em>advised</em> method's execution.
-     * @param mdcApi   the API for the MDC implementation of the logging framework in use.
-     * @param mdcParam the annotation specifying the source for the value to be added to the MDC
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     * @throws IllegalArgumentException if <tt>MdcParam</tt> does not specify either <tt>field</tt> or <tt>getter</tt> values,
-     *                                  or if it specifies both <tt>field</tt> and <tt>getter</tt> values.
-     * @see MdcParam
+     * Proceeds with the <em>advised</em> method; with the arguments of the <tt>MdcIterate</tt> annotated parameters wrapped, if
+     * any.
      */
-    private List<String> reflectivelyAddFieldOrMethodResultToMdc(Object value, MdcImplementationAware mdcApi, MdcParam mdcParam) {
-        if (mdcParam.field().isEmpty() && mdcParam.getter().isEmpty()) {
-            throw new IllegalArgumentException("Either field() or getter() should be specified.");
-        }
-        if (!(mdcParam.field().isEmpty() || mdcParam.getter().isEmpty())) {
-            throw new IllegalArgumentException("Exactly one of field() or getter() should be specified.");
-        }
-
-        final List<String> mdcKeys = new ArrayList<>();
-
-        if (!mdcParam.field().isEmpty()) {
-            final String mdcKey = mdcParam.label().isEmpty() ? mdcParam.field() : mdcParam.label();
-            Arrays.stream(value.getClass().getDeclaredFields())
-                    .filter(field -> field.getName().equals(mdcParam.field()))
-                    .findFirst()
-                    .ifPresent(field -> {
-                        field.setAccessible(true);
-                        try {
-                            mdcApi.put(mdcKey, "" + field.get(value));
-                            mdcKeys.add(mdcKey);
-                        } catch (IllegalAccessException ignore) {
-                        }
-                    });
-        } else if (!mdcParam.getter().isEmpty()) {
-            final String mdcKey = mdcParam.label().isEmpty() ? mdcParam.getter() : mdcParam.label();
-            Arrays.stream(value.getClass().getDeclaredMethods())
-                    .filter(method -> method.getName().equals(mdcParam.getter()))
-                    .findFirst()
-                    .ifPresent(method -> {
-                        method.setAccessible(true);
-                        try {
-                            mdcApi.put(mdcKey, "" + method.invoke(value));
-                            mdcKeys.add(mdcKey);
-                        } catch (InvocationTargetException | IllegalAccessException ignore) {
-                        }
-                    });
+    private static Object proceed(ProceedingJoinPoint pjp, MdcPlan plan, Object[] args, MdcScope scope) throws Throwable {
+        if (!plan.iterates()) {
+            return pjp.proceed();
         }
-        return mdcKeys;
-    }
-
-    /**
-     * Adds relevant entries from the <tt>inputMap</tt> <em>(after applying the specified <tt>filter</tt>)</em> into the MDC.
-     *
-     * @param mdcApi       the API for the MDC implementation of the logging framework in use.
-     * @param inputMap     the <tt>Map</tt> containing values added to the MDC.
-     * @param filter       the <em>case-insensitive</em> filters to select relevant values from the <tt>inputMap</tt>
-     * @param mdcKeyPrefix the <tt>String</tt> prefixed to the keys before associating a value with them in the MDC.
-     * @return A <tt>List</tt> containing the keys corresponding to the values added to the MDC; or an empty list if no values
-     * were added to the MDC.
-     */
-    private List<String> addToMdcApplyingFilter(MdcImplementationAware mdcApi, Map<String, String> inputMap, String[] filter,
-            String mdcKeyPrefix) {
-        return inputMap.entrySet()
-                .stream()
-                .filter(entry ->
-                        filter.length == 0
-                                || Arrays.stream(filter).anyMatch(e -> e.equalsIgnoreCase(entry.getKey())))
-                .map(entry -> {
-                    final String key =
-                            mdcKeyPrefix.isEmpty()
-                                    ? entry.getKey()
-                                    : mdcKeyPrefix + "-" + entry.getKey();
-                    mdcApi.put(key, entry.getValue());
-                    return key;
-                })
-                .collect(Collectors.toList());
+        plan.iterate(args, scope);
+        return pjp.proceed(args);
     }
 }
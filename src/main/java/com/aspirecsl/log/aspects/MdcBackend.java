@@ -0,0 +1,116 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Map;
+
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * The logging frameworks whose Mapped Diagnostic Context <em>(MDC)</em> is managed by this library.
+ * <p>Each constant operates on the same MDC implementation that is used by the <tt>MdcAspect</tt> advice for the corresponding
+ * <em>method marker</em> annotation. This allows clients that cannot rely on the <em>declarative</em> annotations, like the
+ * selector threads of a <tt>NIO</tt> server multiplexing thousands of connections, to switch the whole of a thread's MDC to a
+ * previously captured {@link MdcContext} in one operation. For example:-
+ * <pre>
+ *
+ *     // once; when the connection is accepted
+ *     key.attach(MdcContext.builder().value("connection", connectionId).map(attributes).build());
+ *
+ *     // on every dispatched readiness event
+ *     MdcBackend.SLF4J.switchTo((MdcContext) key.attachment());
+ * </pre>
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcContext
+ * @see MdcAspect
+ * @since 1d
+ */
+public enum MdcBackend {
+    /**
+     * The MDC of the Slf4j logging framework.
+     *
+     * @see Slf4jMdcAware
+     */
+    SLF4J(Slf4jMdcImplementationAware.getInstance()),
+
+    /**
+     * The MDC <em>(<tt>ThreadContext</tt>)</em> of the Log4j2 logging framework.
+     *
+     * @see Log4j2MdcAware
+     */
+    LOG4J2(Log4j2MdcImplementationAware.getInstance());
+
+    /**
+     * The API for the MDC implementation of the logging framework.
+     */
+    private final MdcImplementationAware mdcApi;
+
+    MdcBackend(MdcImplementationAware mdcApi) {
+        this.mdcApi = mdcApi;
+    }
+
+    /**
+     * Captures the current thread's MDC of this logging framework.
+     *
+     * @return an <tt>MdcContext</tt> holding a snapshot of the current thread's MDC.
+     */
+    public MdcContext capture() {
+        final Map<String, String> map = mdcApi.getCopyOfContextMap();
+        return map.isEmpty() ? MdcContext.empty() : new MdcContext(map);
+    }
+
+    /**
+     * Returns the value associated with the specified <tt>key</tt> in the current thread's MDC of this logging framework.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the value associated with the <tt>key</tt>; or <tt>null</tt> if the MDC does not contain the <tt>key</tt>.
+     */
+    public String get(String key) {
+        return mdcApi.get(key);
+    }
+
+    /**
+     * Replaces the whole of the current thread's MDC of this logging framework with the specified <tt>context</tt>.
+     * <p>Unlike adding and removing individual keys, this replaces the MDC in a single operation on the underlying logging
+     * framework; irrespective of the number of entries in either the current MDC or the new <tt>context</tt>.
+     *
+     * @param context the context that becomes the current thread's MDC.
+     */
+    public void switchTo(MdcContext context) {
+        if (context.isEmpty()) {
+            mdcApi.clear();
+        } else {
+            mdcApi.setContextMap(context.mappedDiagnosticContext());
+        }
+    }
+
+    /**
+     * Adds the entries of the specified <tt>context</tt> to the current thread's MDC of this logging framework; replacing the
+     * values of the keys already in the MDC, and keeping the other entries.
+     * <p>This suits re-establishing the context received from another process; e.g. as decoded by <tt>MdcCodec</tt>.
+     *
+     * @param context the context whose entries are added to the current thread's MDC.
+     */
+    public void install(MdcContext context) {
+        if (!context.isEmpty()) {
+            mdcApi.putAll(context.mappedDiagnosticContext());
+        }
+    }
+
+    /**
+     * Removes every value from the current thread's MDC of this logging framework.
+     */
+    public void clear() {
+        mdcApi.clear();
+    }
+
+    /**
+     * Returns the API for the MDC implementation of this logging framework.
+     *
+     * @return the API for the MDC implementation of this logging framework.
+     */
+    MdcImplementationAware mdcApi() {
+        return mdcApi;
+    }
+}
@@ -0,0 +1,180 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * Limits on the entries added to the Mapped Diagnostic Context <em>(MDC)</em>; so that the memory used by the MDC, and by the
+ * copies of the MDC made for each log event, has an upper bound.
+ * <p>A budget limits the number of keys, the length of each value and the total length of the keys and values; the lengths
+ * are measured in characters, which approximate the bytes held by the <em>(compact)</em> strings. A value exceeding the length
+ * limit is truncated; and an entry exceeding any of the other limits is dropped. The truncated values and the dropped entries
+ * are counted.
+ * <p>The budgets are enforced by {@link MdcScope}; i.e. for the entries added by the MDC aware methods and the programmatic
+ * scopes. There are three levels of budgets:-
+ * <ul>
+ * <li>the <em>global</em> budget limits the entries added by all the open scopes of a thread; it is configured by the
+ * <tt>com.aspirecsl.log.budget.maxKeys</tt>, <tt>com.aspirecsl.log.budget.maxValueLength</tt> and
+ * <tt>com.aspirecsl.log.budget.maxTotalBytes</tt> system properties, or by {@link #setGlobal(MdcBudget)}</li>
+ * <li>the budget of a scope limits the entries added by the scope; it is specified by the attributes of the
+ * <tt>Slf4jMdcAware</tt> and <tt>Log4j2MdcAware</tt> annotations, or by {@link MdcScope#open(MdcBackend, MdcBudget)}</li>
+ * <li>the attributes of the <tt>MdcMap</tt> annotation limit the entries added from a map</li>
+ * </ul>
+ * <p>Budgets are <em>immutable</em>. A limit that is not positive means <em>no limit</em>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcScope
+ * @see Slf4jMdcAware
+ * @see Log4j2MdcAware
+ * @see MdcMap
+ * @since 1d
+ */
+public final class MdcBudget {
+
+    /**
+     * The budget without any limits.
+     */
+    public static final MdcBudget UNLIMITED = new MdcBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * The number of values truncated to fit a budget.
+     */
+    private static final LongAdder TRUNCATED_VALUES = new LongAdder();
+
+    /**
+     * The number of entries dropped to fit a budget.
+     */
+    private static final LongAdder DROPPED_ENTRIES = new LongAdder();
+
+    /**
+     * The budget of the entries added by all the open scopes of a thread.
+     */
+    private static volatile MdcBudget global = of(Integer.getInteger("com.aspirecsl.log.budget.maxKeys", 0),
+            Integer.getInteger("com.aspirecsl.log.budget.maxValueLength", 0),
+            Integer.getInteger("com.aspirecsl.log.budget.maxTotalBytes", 0));
+
+    final int maxKeys;
+    final int maxValueLength;
+    final int maxTotalBytes;
+
+    private MdcBudget(int maxKeys, int maxValueLength, int maxTotalBytes) {
+        this.maxKeys = maxKeys;
+        this.maxValueLength = maxValueLength;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Returns a budget with the specified limits.
+     *
+     * @param maxKeys        the maximum number of keys; or a non-positive value for no limit.
+     * @param maxValueLength the maximum length of a value; or a non-positive value for no limit.
+     * @param maxTotalBytes  the maximum total length of the keys and values; or a non-positive value for no limit.
+     * @return a budget with the specified limits.
+     */
+    public static MdcBudget of(int maxKeys, int maxValueLength, int maxTotalBytes) {
+        if (maxKeys <= 0 && maxValueLength <= 0 && maxTotalBytes <= 0) {
+            return UNLIMITED;
+        }
+        return new MdcBudget(limit(maxKeys), limit(maxValueLength), limit(maxTotalBytes));
+    }
+
+    /**
+     * Returns the budget of the entries added by all the open scopes of a thread.
+     *
+     * @return the global budget.
+     */
+    public static MdcBudget global() {
+        return global;
+    }
+
+    /**
+     * Sets the budget of the entries added by all the open scopes of a thread; which applies to the entries added after
+     * this call.
+     *
+     * @param budget the global budget.
+     */
+    public static void setGlobal(MdcBudget budget) {
+        global = budget;
+    }
+
+    /**
+     * Returns the number of values truncated to fit a budget, since the class was loaded.
+     *
+     * @return the number of values truncated to fit a budget.
+     */
+    public static long truncatedValues() {
+        return TRUNCATED_VALUES.sum();
+    }
+
+    /**
+     * Returns the number of entries dropped to fit a budget, since the class was loaded.
+     *
+     * @return the number of entries dropped to fit a budget.
+     */
+    public static long droppedEntries() {
+        return DROPPED_ENTRIES.sum();
+    }
+
+    /**
+     * Returns the maximum number of keys; <tt>Integer.MAX_VALUE</tt> if there is no limit.
+     *
+     * @return the maximum number of keys.
+     */
+    public int maxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     * Returns the maximum length of a value; <tt>Integer.MAX_VALUE</tt> if there is no limit.
+     *
+     * @return the maximum length of a value.
+     */
+    public int maxValueLength() {
+        return maxValueLength;
+    }
+
+    /**
+     * Returns the maximum total length of the keys and values; <tt>Integer.MAX_VALUE</tt> if there is no limit.
+     *
+     * @return the maximum total length of the keys and values.
+     */
+    public int maxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MdcBudget{maxKeys=" + maxKeys + ", maxValueLength=" + maxValueLength + ", maxTotalBytes=" + maxTotalBytes
+                + "}";
+    }
+
+    /**
+     * Returns the <tt>value</tt> truncated to <tt>maxLength</tt>; counting the truncation.
+     *
+     * @param value     the value; may be <tt>null</tt>.
+     * @param maxLength the maximum length of the value.
+     * @return the truncated value; or the <tt>value</tt> itself if it fits.
+     */
+    static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        TRUNCATED_VALUES.increment();
+        return value.substring(0, maxLength);
+    }
+
+    /**
+     * Counts an entry dropped to fit a budget.
+     */
+    static void dropped() {
+        DROPPED_ENTRIES.increment();
+    }
+
+    private static int limit(int value) {
+        return value > 0 ? value : Integer.MAX_VALUE;
+    }
+}
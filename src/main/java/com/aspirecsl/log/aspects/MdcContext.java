@@ -0,0 +1,233 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.MdcValue;
+
+/**
+ * An <em>immutable</em> set of <tt>key:value</tt> pairs that can be made the Mapped Diagnostic Context <em>(MDC)</em> of a
+ * thread in one operation.
+ * <p>An <tt>MdcContext</tt> is built once, using the same extraction rules as the <tt>MdcValue</tt> and <tt>MdcMap</tt>
+ * annotations, and is then attached to a long-lived object such as a connection. Whenever a thread starts working on behalf of
+ * that object, the thread's MDC is switched to the attached context via {@link MdcBackend#switchTo(MdcContext)}.
+ * <p>Since this type is a <tt>HasDiagnosticContext</tt>, an <tt>MdcContext</tt> argument can also be annotated with
+ * <tt>MdcHolder</tt>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcBackend
+ * @see MdcValue
+ * @see MdcMap
+ * @see MdcHolder
+ * @since 1d
+ */
+public final class MdcContext implements HasDiagnosticContext {
+
+    /**
+     * The context without any entries.
+     */
+    private static final MdcContext EMPTY = new MdcContext(Collections.emptyMap());
+
+    /**
+     * An unmodifiable view of the entries in this context.
+     */
+    private final Map<String, String> map;
+
+    /**
+     * Creates a context holding the entries of the specified <tt>map</tt>.
+     * <p>The <tt>map</tt> is not copied; hence, callers must not retain a reference to it.
+     *
+     * @param map the entries of this context.
+     */
+    MdcContext(Map<String, String> map) {
+        this.map = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the context without any entries.
+     *
+     * @return the context without any entries.
+     */
+    public static MdcContext empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new builder of an <tt>MdcContext</tt>.
+     *
+     * @return a new builder of an <tt>MdcContext</tt>.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns an unmodifiable <tt>Map</tt> containing the entries of this context.
+     *
+     * @return an unmodifiable <tt>Map</tt> containing the entries of this context.
+     */
+    @Override
+    public Map<String, String> mappedDiagnosticContext() {
+        return map;
+    }
+
+    /**
+     * Returns the value associated with the <tt>key</tt> in this context.
+     *
+     * @param key the MDC key.
+     * @return the value associated with the <tt>key</tt>; or <tt>null</tt> if this context has no such key.
+     */
+    public String get(String key) {
+        return map.get(key);
+    }
+
+    /**
+     * Returns the number of entries in this context.
+     *
+     * @return the number of entries in this context.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns <tt>True</tt> if this context has no entries. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if this context has no entries. Otherwise, <tt>False</tt>.
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof MdcContext && map.equals(((MdcContext) o).map));
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+
+    /**
+     * Builds an <tt>MdcContext</tt> by applying the MDC annotation rules to the supplied values.
+     * <p>A builder is not <em>thread-safe</em>. Each {@link #build()} copies the entries added so far; so the entries added
+     * afterwards do not change the contexts already built.
+     */
+    public static final class Builder implements MdcSink {
+
+        /**
+         * The entries of the context being built.
+         */
+        private final Map<String, String> map = new HashMap<>();
+
+        /**
+         * The hidden constructor.
+         * <p>The clients should use the <tt>MdcContext.builder()</tt> method to obtain a builder.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Adds the given <tt>key:value</tt> pair to the context.
+         *
+         * @param key   the MDC key.
+         * @param value the value to associate with the <tt>key</tt>.
+         */
+        @Override
+        public void put(String key, String value) {
+            map.put(key, value);
+        }
+
+        /**
+         * Adds the <tt>String</tt> representation of the <tt>value</tt> to the context, as if it were an
+         * <tt>{@literal @MdcValue(name = name)}</tt> annotated argument.
+         *
+         * @param name  the key to associate the value with.
+         * @param value the value to be added; <tt>null</tt> values are not added.
+         * @return this builder.
+         * @see MdcValue
+         */
+        public Builder value(String name, Object value) {
+            return value(name, value, false);
+        }
+
+        /**
+         * Adds the <tt>String</tt> representation of the <tt>value</tt> to the context, as if it were an
+         * <tt>{@literal @MdcValue(name = name, nullable = nullable)}</tt> annotated argument.
+         *
+         * @param name     the key to associate the value with.
+         * @param value    the value to be added.
+         * @param nullable whether a <tt>null</tt> value is added as <tt>"null"</tt>.
+         * @return this builder.
+         * @see MdcValue
+         */
+        public Builder value(String name, Object value, boolean nullable) {
+            return bind(MdcSpec.value(name, nullable), value);
+        }
+
+        /**
+         * Adds all the entries of the <tt>map</tt> to the context, as if it were an <tt>{@literal @MdcMap}</tt> annotated
+         * argument.
+         *
+         * @param map the <tt>Map</tt> supplying the entries; <tt>null</tt> maps are ignored.
+         * @return this builder.
+         * @throws IllegalArgumentException if the <tt>map</tt> is not of type {@literal Map<String,String>}.
+         * @see MdcMap
+         */
+        public Builder map(Map<?, ?> map) {
+            return bind(MdcSpec.map(), map);
+        }
+
+        /**
+         * Adds the relevant entries of the <tt>map</tt> to the context, as if it were an argument annotated with
+         * <tt>{@literal @MdcMap(filter = filter, nestedMapKeys = nestedMapKeys, mdcKeyPrefix = mdcKeyPrefix)}</tt>.
+         *
+         * @param map           the <tt>Map</tt> supplying the entries; <tt>null</tt> maps are ignored.
+         * @param filter        the <em>case-insensitive</em> filters to select relevant entries from the map.
+         * @param nestedMapKeys the keys associated with the nested maps that supply the entries.
+         * @param mdcKeyPrefix  the <tt>String</tt> prefixed to the keys before adding them to the context.
+         * @return this builder.
+         * @throws IllegalArgumentException if the <tt>map</tt> is not of type {@literal Map<String,String>}; or a key
+         *                                  specified in the <tt>nestedMapKeys</tt> is associated with a value that is not of
+         *                                  type {@literal Map<String,String>}.
+         * @see MdcMap
+         */
+        public Builder map(Map<?, ?> map, String[] filter, String[] nestedMapKeys, String mdcKeyPrefix) {
+            return bind(MdcSpec.map(filter, nestedMapKeys, mdcKeyPrefix), map);
+        }
+
+        /**
+         * Adds the <tt>value</tt> to the context as per the <tt>spec</tt>.
+         *
+         * @param spec  the spec describing how the <tt>value</tt> is added to the context.
+         * @param value the value to be added to the context.
+         * @return this builder.
+         * @throws IllegalArgumentException if the <tt>spec</tt> is incompatible with the <tt>value</tt>.
+         * @see MdcSpec
+         */
+        public Builder bind(MdcSpec spec, Object value) {
+            spec.binder().bind(value, this);
+            return this;
+        }
+
+        /**
+         * Builds the context from a copy of the entries added to this builder.
+         *
+         * @return an <tt>MdcContext</tt> holding the entries added to this builder.
+         */
+        public MdcContext build() {
+            return map.isEmpty() ? EMPTY : new MdcContext(new HashMap<>(map));
+        }
+    }
+}
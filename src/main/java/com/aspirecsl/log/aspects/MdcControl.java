@@ -0,0 +1,199 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.aspectj.lang.JoinPoint;
+
+/**
+ * Enables, or disables, the <tt>MdcAspect</tt> advice at runtime; for all the <em>advised</em> methods, or for specific
+ * ones. The controls are published as the platform MBean named {@value #OBJECT_NAME}.
+ * <p>The advice is checked <em>before</em> the join point of an <em>advised</em> method is created; so, when the advice is
+ * disabled for a method, the method runs as if it was not woven, except for the check itself. The check reads two flags held
+ * by {@link MutableCallSite}s; which the <tt>JIT</tt> compiler treats as constants, and recompiles the dependent code when
+ * they are changed. Hence, when no method is disabled individually, the check costs nothing once compiled. Otherwise, the
+ * decision for each join point is cached until the disabled methods are changed.
+ * <p>The advice is enabled by default; it is disabled on startup by setting the <tt>com.aspirecsl.log.enabled</tt> system
+ * property to <tt>false</tt>. The programmatic <tt>MdcScope</tt>s are not affected by these controls.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcControlMXBean
+ * @see MdcAspect
+ * @since 1d
+ */
+public final class MdcControl implements MdcControlMXBean {
+
+    /**
+     * The name of the MBean publishing the controls.
+     */
+    public static final String OBJECT_NAME = "com.aspirecsl.log:type=MdcControl";
+
+    /**
+     * Whether the advice is enabled; for the methods that are not disabled individually.
+     */
+    private static final MutableCallSite ENABLED = new MutableCallSite(
+            MethodHandles.constant(boolean.class, Boolean.parseBoolean(System.getProperty("com.aspirecsl.log.enabled", "true"))));
+
+    /**
+     * Whether any method is disabled individually.
+     */
+    private static final MutableCallSite SELECTIVE = new MutableCallSite(MethodHandles.constant(boolean.class, false));
+
+    private static final MethodHandle IS_ENABLED = ENABLED.dynamicInvoker();
+    private static final MethodHandle IS_SELECTIVE = SELECTIVE.dynamicInvoker();
+
+    /**
+     * The names, qualified by the declaring type, of the methods disabled individually.
+     */
+    private static final Set<String> DISABLED_METHODS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether the advice is enabled for each join point; replaced whenever the disabled methods are changed.
+     */
+    private static volatile ConcurrentMap<JoinPoint.StaticPart, Boolean> decisions = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MdcControl(), new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException ignore) {
+            // the controls are still available via the static methods of this class
+        }
+    }
+
+    private MdcControl() {
+    }
+
+    /**
+     * Returns <tt>True</tt> if the advice is enabled; for the methods that are not disabled individually. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the advice is enabled. Otherwise, <tt>False</tt>.
+     */
+    public static boolean enabled() {
+        return invoke(IS_ENABLED);
+    }
+
+    /**
+     * Enables, or disables, the advice; for the methods that are not disabled individually.
+     *
+     * @param enabled <tt>True</tt> to enable the advice; <tt>False</tt> to disable it.
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        ENABLED.setTarget(MethodHandles.constant(boolean.class, enabled));
+        MutableCallSite.syncAll(new MutableCallSite[] { ENABLED });
+    }
+
+    /**
+     * Disables the advice for the specified method; including its overloads.
+     *
+     * @param method the name of the method, qualified by its declaring type <em>(e.g. <tt>com.example.Service.process</tt>)</em>;
+     *               any parameter list following the name is ignored.
+     */
+    public static synchronized void disable(String method) {
+        if (DISABLED_METHODS.add(nameOf(method))) {
+            changed();
+        }
+    }
+
+    /**
+     * Enables the advice for the specified method, which was disabled individually; including its overloads.
+     *
+     * @param method the name of the method, qualified by its declaring type; any parameter list following the name is ignored.
+     */
+    public static synchronized void enable(String method) {
+        if (DISABLED_METHODS.remove(nameOf(method))) {
+            changed();
+        }
+    }
+
+    /**
+     * Returns the names of the methods disabled individually; ordered by the names.
+     *
+     * @return the names of the methods disabled individually.
+     */
+    public static Set<String> disabledMethods() {
+        return new TreeSet<>(DISABLED_METHODS);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled();
+    }
+
+    @Override
+    public void setAdviceEnabled(boolean enabled) {
+        setEnabled(enabled);
+    }
+
+    @Override
+    public void disableMethod(String method) {
+        disable(method);
+    }
+
+    @Override
+    public void enableMethod(String method) {
+        enable(method);
+    }
+
+    @Override
+    public Set<String> getDisabledMethods() {
+        return disabledMethods();
+    }
+
+    /**
+     * Returns <tt>True</tt> if the advice is enabled for the specified join point. Otherwise, <tt>False</tt>.
+     *
+     * @param joinPoint the static part of the join point of an <em>advised</em> method.
+     * @return <tt>True</tt> if the advice is enabled for the <tt>joinPoint</tt>. Otherwise, <tt>False</tt>.
+     */
+    static boolean isEnabled(JoinPoint.StaticPart joinPoint) {
+        if (!invoke(IS_ENABLED)) {
+            return false;
+        }
+        if (!invoke(IS_SELECTIVE)) {
+            return true;
+        }
+        final ConcurrentMap<JoinPoint.StaticPart, Boolean> decisions = MdcControl.decisions;
+        final Boolean decision = decisions.get(joinPoint);
+        if (decision != null) {
+            return decision;
+        }
+        final boolean enabled = !DISABLED_METHODS.contains(
+                joinPoint.getSignature().getDeclaringTypeName() + "." + joinPoint.getSignature().getName());
+        decisions.put(joinPoint, enabled);
+        return enabled;
+    }
+
+    /**
+     * Discards the cached decisions, and updates the <tt>SELECTIVE</tt> flag; once the disabled methods are changed.
+     */
+    private static void changed() {
+        decisions = new ConcurrentHashMap<>();
+        SELECTIVE.setTarget(MethodHandles.constant(boolean.class, !DISABLED_METHODS.isEmpty()));
+        MutableCallSite.syncAll(new MutableCallSite[] { SELECTIVE });
+    }
+
+    private static String nameOf(String method) {
+        final int parameters = method.indexOf('(');
+        return (parameters < 0 ? method : method.substring(0, parameters)).trim();
+    }
+
+    private static boolean invoke(MethodHandle flag) {
+        try {
+            return (boolean) flag.invokeExact();
+        } catch (Throwable ex) {
+            // a constant method handle does not throw
+            throw new IllegalStateException(ex);
+        }
+    }
+}
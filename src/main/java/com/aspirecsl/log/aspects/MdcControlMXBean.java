@@ -0,0 +1,50 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Set;
+
+/**
+ * The management interface of the runtime controls of the <tt>MdcAspect</tt> advice.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcControl
+ * @since 1d
+ */
+public interface MdcControlMXBean {
+
+    /**
+     * Returns <tt>True</tt> if the advice is enabled; for the methods that are not disabled individually. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the advice is enabled. Otherwise, <tt>False</tt>.
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables, or disables, the advice; for the methods that are not disabled individually.
+     *
+     * @param enabled <tt>True</tt> to enable the advice; <tt>False</tt> to disable it.
+     */
+    void setAdviceEnabled(boolean enabled);
+
+    /**
+     * Disables the advice for the specified method; including its overloads.
+     *
+     * @param method the name of the method, qualified by its declaring type.
+     */
+    void disableMethod(String method);
+
+    /**
+     * Enables the advice for the specified method, which was disabled individually; including its overloads.
+     *
+     * @param method the name of the method, qualified by its declaring type.
+     */
+    void enableMethod(String method);
+
+    /**
+     * Returns the names of the methods disabled individually.
+     *
+     * @return the names of the methods disabled individually.
+     */
+    Set<String> getDisabledMethods();
+}
@@ -0,0 +1,152 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Arrays;
+
+/**
+ * Records the MDC scopes of the <em>advised</em> methods as <tt>Java Flight Recorder</tt> events; so that the requests, as
+ * identified by their MDC, can be correlated with the GC pauses, lock contention and CPU samples in a recording.
+ * <p>An event named {@value MdcScopeEvent#NAME} is recorded for each call of an <em>advised</em> method; which starts when
+ * the advice is entered, and ends when the values added by the advice are removed from the MDC. The event holds the method,
+ * the number of keys added to the MDC, the time taken to add them, and the values of the MDC keys selected by
+ * {@link #setContextKeys(String...)} <em>(e.g. a correlation id)</em>. For example:-
+ * <pre>
+ *
+ *     MdcEvents.setContextKeys("correlationId", "tenant");
+ *
+ *     java -XX:StartFlightRecording=settings=profile,filename=app.jfr ...
+ * </pre>
+ * <p>The events are recorded only if they are enabled in a running recording; otherwise, the cost is a check of the
+ * recording state. The events are not recorded if the <tt>Java Flight Recorder</tt> API is unavailable, or the
+ * <tt>com.aspirecsl.log.jfr.enabled</tt> system property is <tt>false</tt>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcAspect
+ * @since 1d
+ */
+public final class MdcEvents {
+
+    /**
+     * Whether the events can be recorded; a constant, so that the <tt>JIT</tt> compiler can eliminate the events when they
+     * cannot be recorded.
+     */
+    static final boolean AVAILABLE = Boolean.parseBoolean(System.getProperty("com.aspirecsl.log.jfr.enabled", "true"))
+            && isFlightRecorderAvailable();
+
+    /**
+     * The MDC keys whose values are recorded with the events; initially the keys listed, separated by commas, by the
+     * <tt>com.aspirecsl.log.jfr.contextKeys</tt> system property.
+     */
+    private static volatile String[] contextKeys = Arrays.stream(System.getProperty("com.aspirecsl.log.jfr.contextKeys", "")
+            .split(","))
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .toArray(String[]::new);
+
+    private MdcEvents() {
+    }
+
+    /**
+     * Returns <tt>True</tt> if the events can be recorded. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the events can be recorded. Otherwise, <tt>False</tt>.
+     */
+    public static boolean available() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Sets the MDC keys whose values are recorded with the events.
+     *
+     * @param keys the MDC keys whose values are recorded with the events.
+     */
+    public static void setContextKeys(String... keys) {
+        contextKeys = keys.clone();
+    }
+
+    /**
+     * Returns the MDC keys whose values are recorded with the events.
+     *
+     * @return the MDC keys whose values are recorded with the events.
+     */
+    public static String[] contextKeys() {
+        return contextKeys.clone();
+    }
+
+    /**
+     * Starts an event for the MDC scope of an <em>advised</em> method.
+     *
+     * @return the started event; or <tt>null</tt> if the event is not recorded.
+     */
+    public static Object begin() {
+        return AVAILABLE ? MdcScopeEvent.beginIfEnabled() : null;
+    }
+
+    /**
+     * Marks the end of the extraction of the MDC values from the arguments of the <em>advised</em> method.
+     *
+     * @param event the event returned by {@link #begin()}.
+     */
+    public static void extracted(Object event) {
+        if (AVAILABLE && event != null) {
+            ((MdcScopeEvent) event).extracted();
+        }
+    }
+
+    /**
+     * Ends, and commits, the event for the MDC scope of an <em>advised</em> method; before the <tt>scope</tt> is closed.
+     *
+     * @param event the event returned by {@link #begin()}.
+     * @param plan  the compiled MDC annotations of the <em>advised</em> method.
+     * @param scope the scope holding the values added by the advice.
+     */
+    static void end(Object event, MdcPlan plan, MdcScope scope) {
+        if (AVAILABLE && event != null) {
+            end(event, plan.name(), scope);
+        }
+    }
+
+    /**
+     * Ends, and commits, the event for the MDC scope of an <em>advised</em> method; before the <tt>scope</tt> is closed.
+     *
+     * @param event  the event returned by {@link #begin()}.
+     * @param method the name of the <em>advised</em> method, with its declaring class and parameter types.
+     * @param scope  the scope holding the values added by the advice.
+     */
+    public static void end(Object event, String method, MdcScope scope) {
+        if (AVAILABLE && event != null) {
+            final MdcScopeEvent scopeEvent = (MdcScopeEvent) event;
+            scopeEvent.endScope();
+            if (scopeEvent.shouldCommit()) {
+                scopeEvent.method = method;
+                scopeEvent.keys = scope.size();
+                scopeEvent.context = context(scope);
+                scopeEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the values of the context keys in the MDC populated by the <tt>scope</tt>; as <tt>key=value</tt> pairs
+     * separated by commas.
+     */
+    private static String context(MdcScope scope) {
+        final StringBuilder context = new StringBuilder();
+        for (String key : contextKeys) {
+            final String value = scope.get(key);
+            if (value != null) {
+                context.append(context.length() == 0 ? "" : ", ").append(key).append('=').append(value);
+            }
+        }
+        return context.toString();
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, MdcEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.reflect.Constructor;
+
+import com.aspirecsl.log.MdcExport;
+import com.aspirecsl.log.MdcHolder;
+
+/**
+ * Extracts the <tt>MdcExport</tt> annotated <tt>properties</tt> of a domain type into an {@link MdcSink}.
+ * <p>The extractors are generated by the <tt>MdcExportProcessor</tt> annotation processor; one for each type declaring
+ * <tt>MdcExport</tt> annotated members, named after the type and suffixed by <tt>_MdcExtractor</tt>, in the same package.
+ * The generated extractors read the <tt>properties</tt> directly, without reflection; so that the <tt>JIT</tt> compiler can
+ * inline the extraction into the advice.
+ * <p>The extractor of a type is looked up once, and cached, for each class of the <tt>MdcHolder</tt> annotated arguments;
+ * the extractor of the nearest superclass declaring <tt>MdcExport</tt> annotated members is used for the other classes.
+ *
+ * @param <T> the type of the objects whose <tt>properties</tt> are extracted.
+ * @author anoopr
+ * @version 1d
+ * @see MdcExport
+ * @see MdcHolder
+ * @since 1d
+ */
+public abstract class MdcExtractor<T> {
+
+    /**
+     * The suffix of the names of the generated extractors.
+     */
+    public static final String SUFFIX = "_MdcExtractor";
+
+    /**
+     * The extractors mapped by the classes of the extracted objects; holds <tt>null</tt> for the classes without one.
+     */
+    private static final ClassValue<MdcExtractor<?>> EXTRACTORS = new ClassValue<MdcExtractor<?>>() {
+        @Override
+        protected MdcExtractor<?> computeValue(Class<?> type) {
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                final MdcExtractor<?> extractor = load(current);
+                if (extractor != null) {
+                    return extractor;
+                }
+            }
+            return null;
+        }
+    };
+
+    /**
+     * Adds the <tt>properties</tt> of the specified <tt>value</tt> to the <tt>sink</tt>.
+     *
+     * @param value the object whose <tt>properties</tt> are extracted; never <tt>null</tt>.
+     * @param sink  the sink of the <tt>properties</tt>.
+     */
+    public abstract void extract(T value, MdcSink sink);
+
+    /**
+     * Returns the extractor of the objects of the specified <tt>type</tt>.
+     *
+     * @param type the class of the objects whose <tt>properties</tt> are extracted.
+     * @param <T>  the type of the objects whose <tt>properties</tt> are extracted.
+     * @return the extractor of the <tt>type</tt>, or of its nearest superclass having one; or <tt>null</tt> if neither the
+     * <tt>type</tt> nor its superclasses declare <tt>MdcExport</tt> annotated members.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MdcExtractor<? super T> of(Class<T> type) {
+        return (MdcExtractor<? super T>) EXTRACTORS.get(type);
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>int</tt> value; as added to the MDC by an advice.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     */
+    protected static String render(int value) {
+        return MdcStrings.valueOf(value);
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>long</tt> value; as added to the MDC by an advice.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     */
+    protected static String render(long value) {
+        return MdcStrings.valueOf(value);
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>boolean</tt> value; as added to the MDC by an advice.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     */
+    protected static String render(boolean value) {
+        return value ? "true" : "false";
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>enum</tt> constant; as added to the MDC by an advice.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     */
+    protected static String render(Enum<?> value) {
+        return MdcStrings.valueOf(value);
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>value</tt>; as added to the MDC by an advice, by the registered
+     * <tt>MdcFormatter</tt> of its type.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     * @see MdcFormatters
+     */
+    protected static String render(Object value) {
+        return MdcStrings.valueOf(value);
+    }
+
+    /**
+     * Loads the generated extractor of the specified <tt>type</tt>.
+     *
+     * @param type the type whose extractor is loaded.
+     * @return the extractor of the <tt>type</tt>; or <tt>null</tt> if none was generated.
+     */
+    private static MdcExtractor<?> load(Class<?> type) {
+        final String name = type.getName();
+        final int simpleName = name.lastIndexOf('.') + 1;
+        final String extractorName = name.substring(0, simpleName) + name.substring(simpleName).replace('$', '_') + SUFFIX;
+        try {
+            final Class<?> extractorClass = Class.forName(extractorName, true, type.getClassLoader());
+            if (!MdcExtractor.class.isAssignableFrom(extractorClass)) {
+                return null;
+            }
+            final Constructor<?> constructor = extractorClass.getConstructor();
+            return (MdcExtractor<?>) constructor.newInstance();
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return null;
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Unable to instantiate " + extractorName, ex);
+        }
+    }
+}
@@ -10,13 +10,14 @@ import java.util.Map;
  * @version 1c
  * @since 1c
  */
-interface MdcImplementationAware {
+interface MdcImplementationAware extends MdcSink {
     /**
      * Adds the given <tt>key:value</tt> pair to the MDC of the relevant logging framework
      *
      * @param key   the key to add to the MDC.
      * @param value the value to associate with the <tt>key</tt> in the MDC.
      */
+    @Override
     void put(String key, String value);
 
     /**
@@ -32,4 +33,40 @@ interface MdcImplementationAware {
      * @param keys the keys corresponding to the values to be removed from the MDC of the logging framework
      */
     void removeAll(List<String> keys);
+
+    /**
+     * Returns the value associated with the specified <tt>key</tt> in the MDC of the relevant logging framework.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the value associated with the <tt>key</tt>; or <tt>null</tt> if the MDC does not contain the <tt>key</tt>.
+     */
+    String get(String key);
+
+    /**
+     * Returns <tt>True</tt> if the current thread's MDC of the relevant logging framework has no entries. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the current thread's MDC has no entries. Otherwise, <tt>False</tt>.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns a copy of the current thread's MDC of the relevant logging framework.
+     *
+     * @return a copy of the current thread's MDC; or an empty map if the MDC is empty.
+     */
+    Map<String, String> getCopyOfContextMap();
+
+    /**
+     * Replaces the whole of the current thread's MDC of the relevant logging framework with the contents of the specified
+     * <tt>map</tt>.
+     *
+     * @param map the map containing the <tt>key:value</tt> pairs that make up the new MDC.
+     */
+    void setContextMap(Map<String, String> map);
+
+    /**
+     * Removes every value from the current thread's MDC of the relevant logging framework.
+     */
+    void clear();
 }
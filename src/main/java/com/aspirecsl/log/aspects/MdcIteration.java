@@ -0,0 +1,522 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.aspirecsl.log.MdcIterate;
+
+/**
+ * Swaps the MDC entries of the elements of a batch into an {@link MdcScope} as the elements are consumed.
+ * <p>The entries of the first element are added to the scope; and are updated in place, via the slots of the scope, for the
+ * subsequent elements. Only the entries whose values differ from those of the previous element are written to the MDC; and
+ * the entries that an element does not supply are removed from the MDC. The entries dropped by the budget of the scope for
+ * the first element stay dropped.
+ * <p>The elements are swapped in only on the thread that opened the scope, and only while the scope is open; the wrappers
+ * returned by an iteration are otherwise transparent.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcIterate
+ * @see MdcScope#iterate(MdcSpec, Iterable)
+ * @since 1d
+ */
+final class MdcIteration implements MdcSink {
+
+    /**
+     * The initial number of keys that an iteration can track without growing.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final MdcScope scope;
+
+    /**
+     * The generation of the <tt>scope</tt> when this iteration started; the pooled scope is reused once it is closed.
+     */
+    private final int generation;
+
+    /**
+     * The thread that owns the <tt>scope</tt>.
+     */
+    private final Thread owner;
+
+    /**
+     * The binder supplying the MDC entries of each element.
+     */
+    private final ArgumentBinder binder;
+
+    /**
+     * The keys supplied by the elements so far.
+     */
+    private String[] keys = new String[INITIAL_CAPACITY];
+
+    /**
+     * The values of the <tt>keys</tt> supplied by the previous element; <tt>null</tt> if not supplied.
+     */
+    private String[] values = new String[INITIAL_CAPACITY];
+
+    /**
+     * The slots of the <tt>keys</tt> in the <tt>scope</tt>; <tt>-1</tt> if dropped by the budget of the <tt>scope</tt>.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    /**
+     * Whether the <tt>keys</tt> have been supplied by the current element.
+     */
+    private boolean[] supplied = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * The number of keys supplied by the elements so far.
+     */
+    private int size;
+
+    /**
+     * The position of the key expected next; the keys are supplied in the same order for every element.
+     */
+    private int cursor;
+
+    MdcIteration(MdcScope scope, ArgumentBinder binder) {
+        this.scope = scope;
+        this.generation = scope.generation();
+        this.owner = Thread.currentThread();
+        this.binder = binder;
+    }
+
+    /**
+     * Swaps the MDC entries of the specified <tt>element</tt> into the scope; in place of those of the previous element.
+     *
+     * @param element the element being consumed.
+     */
+    void swap(Object element) {
+        if (owner != Thread.currentThread() || !scope.isOpen(generation)) {
+            return;
+        }
+        cursor = 0;
+        binder.bind(element, this);
+        for (int i = 0; i < size; i++) {
+            if (supplied[i]) {
+                supplied[i] = false;
+            } else if (values[i] != null) {
+                values[i] = null;
+                if (slots[i] >= 0) {
+                    scope.replace(slots[i], null);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The value is written to the MDC only if it differs from the value supplied by the previous element.
+     */
+    @Override
+    public void put(String key, String value) {
+        final int index = indexOf(key);
+        if (index < 0) {
+            add(key, value);
+        } else {
+            supplied[index] = true;
+            if (!Objects.equals(values[index], value)) {
+                values[index] = value;
+                if (slots[index] >= 0) {
+                    scope.replace(slots[index], value);
+                }
+            }
+        }
+    }
+
+    private int indexOf(String key) {
+        for (int n = 0; n < size; n++) {
+            final int index = cursor + n < size ? cursor + n : cursor + n - size;
+            if (keys[index].equals(key)) {
+                cursor = index + 1;
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void add(String key, String value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+            supplied = Arrays.copyOf(supplied, size * 2);
+        }
+        final int slot = scope.size();
+        scope.put(key, value);
+        keys[size] = key;
+        values[size] = value;
+        slots[size] = scope.size() > slot ? slot : -1;
+        supplied[size] = true;
+        cursor = ++size;
+    }
+
+    <T> Iterator<T> iterator(Iterator<T> elements) {
+        return new ElementIterator<>(elements);
+    }
+
+    <T> Iterable<T> iterable(Iterable<T> elements) {
+        return () -> new ElementIterator<>(elements.iterator());
+    }
+
+    <T> Collection<T> collection(Collection<T> elements) {
+        return new ElementCollection<>(elements);
+    }
+
+    <T> Set<T> set(Set<T> elements) {
+        return new ElementSet<>(elements);
+    }
+
+    <T> List<T> list(List<T> elements) {
+        return elements instanceof RandomAccess ? new RandomAccessElementList<>(elements) : new ElementList<>(elements);
+    }
+
+    <T> Stream<T> stream(Stream<T> elements) {
+        return StreamSupport.stream(new ElementSpliterator<>(elements.spliterator()), elements.isParallel())
+                .onClose(elements::close);
+    }
+
+    /**
+     * An <tt>Iterator</tt> swapping each element into the scope as it is returned.
+     */
+    private class ElementIterator<T> implements Iterator<T> {
+        private final Iterator<T> elements;
+
+        ElementIterator(Iterator<T> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return elements.hasNext();
+        }
+
+        @Override
+        public T next() {
+            final T element = elements.next();
+            swap(element);
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            elements.remove();
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            elements.forEachRemaining(element -> {
+                swap(element);
+                action.accept(element);
+            });
+        }
+    }
+
+    /**
+     * A <tt>Spliterator</tt> swapping each element into the scope as it is passed to the stream; the splits swap theirs in as
+     * well, which only takes effect on the thread that owns the scope.
+     */
+    private final class ElementSpliterator<T> implements Spliterator<T> {
+        private final Spliterator<T> elements;
+
+        ElementSpliterator(Spliterator<T> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return elements.tryAdvance(element -> {
+                swap(element);
+                action.accept(element);
+            });
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            elements.forEachRemaining(element -> {
+                swap(element);
+                action.accept(element);
+            });
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            final Spliterator<T> split = elements.trySplit();
+            return split == null ? null : new ElementSpliterator<>(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return elements.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return elements.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return elements.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return elements.getComparator();
+        }
+    }
+
+    /**
+     * A <tt>ListIterator</tt> swapping each element into the scope as it is returned.
+     */
+    private final class ElementListIterator<T> extends ElementIterator<T> implements ListIterator<T> {
+        private final ListIterator<T> elements;
+
+        ElementListIterator(ListIterator<T> elements) {
+            super(elements);
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return elements.hasPrevious();
+        }
+
+        @Override
+        public T previous() {
+            final T element = elements.previous();
+            swap(element);
+            return element;
+        }
+
+        @Override
+        public int nextIndex() {
+            return elements.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return elements.previousIndex();
+        }
+
+        @Override
+        public void set(T element) {
+            elements.set(element);
+        }
+
+        @Override
+        public void add(T element) {
+            elements.add(element);
+        }
+    }
+
+    /**
+     * A <tt>Collection</tt> swapping each element into the scope as it is iterated over; the other operations are delegated
+     * as they are, without swapping.
+     */
+    private class ElementCollection<T> extends AbstractCollection<T> {
+        private final Collection<T> elements;
+
+        ElementCollection(Collection<T> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new ElementIterator<>(elements.iterator());
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return elements.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return elements.contains(o);
+        }
+
+        @Override
+        public boolean containsAll(Collection<?> c) {
+            return elements.containsAll(c);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return elements.toArray();
+        }
+
+        @Override
+        public <E> E[] toArray(E[] a) {
+            return elements.toArray(a);
+        }
+
+        @Override
+        public boolean add(T element) {
+            return elements.add(element);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return elements.remove(o);
+        }
+
+        @Override
+        public void clear() {
+            elements.clear();
+        }
+
+        @Override
+        public String toString() {
+            return elements.toString();
+        }
+    }
+
+    /**
+     * A <tt>Set</tt> swapping each element into the scope as it is iterated over.
+     */
+    private final class ElementSet<T> extends ElementCollection<T> implements Set<T> {
+        private final Set<T> elements;
+
+        ElementSet(Set<T> elements) {
+            super(elements);
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || elements.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return elements.hashCode();
+        }
+    }
+
+    /**
+     * A <tt>List</tt> swapping each element into the scope as it is read; whether by index or by iterating over the list. The
+     * searches and the updates are delegated as they are, without swapping.
+     */
+    private class ElementList<T> extends AbstractList<T> {
+        private final List<T> elements;
+
+        ElementList(List<T> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public T get(int index) {
+            final T element = elements.get(index);
+            swap(element);
+            return element;
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            return elements.set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            elements.add(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            return elements.remove(index);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new ElementIterator<>(elements.iterator());
+        }
+
+        @Override
+        public ListIterator<T> listIterator(int index) {
+            return new ElementListIterator<>(elements.listIterator(index));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return elements.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return elements.contains(o);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return elements.indexOf(o);
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return elements.lastIndexOf(o);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return elements.toArray();
+        }
+
+        @Override
+        public <E> E[] toArray(E[] a) {
+            return elements.toArray(a);
+        }
+
+        @Override
+        public void clear() {
+            elements.clear();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || elements.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return elements.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return elements.toString();
+        }
+    }
+
+    /**
+     * An <tt>ElementList</tt> over a <tt>RandomAccess</tt> list; so that the callers can still loop over it by index.
+     */
+    private final class RandomAccessElementList<T> extends ElementList<T> implements RandomAccess {
+        RandomAccessElementList(List<T> elements) {
+            super(elements);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.aspirecsl.log.aspects;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the latency histogram of a timed method, for one value of its segment key.
+ * <p>The latency includes the execution of the method and of its advice; the percentiles are estimates, accurate to within a
+ * factor of two.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMetrics
+ * @see com.aspirecsl.log.MdcTimed
+ * @since 1d
+ */
+public final class MdcLatencyStatistics {
+
+    /**
+     * The segment of the calls whose segment key has a value beyond the cap on the number of segments.
+     */
+    public static final String OVERFLOW = "(other)";
+
+    /**
+     * The segment of the calls made without the segment key in the MDC.
+     */
+    public static final String ABSENT = "(none)";
+
+    private final String method;
+    private final String segmentKey;
+    private final String segment;
+    private final long calls;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    /**
+     * Creates a snapshot of the latency histogram of a timed method, for one segment.
+     *
+     * @param method     the name of the method.
+     * @param segmentKey the MDC key whose values segment the histograms; or an empty string for a single segment.
+     * @param segment    the value of the segment key.
+     * @param calls      the number of calls in the segment.
+     * @param totalNanos the total time of the calls, in nanoseconds.
+     * @param p50Nanos   the median time of the calls, in nanoseconds.
+     * @param p90Nanos   the 90th percentile of the time of the calls, in nanoseconds.
+     * @param p99Nanos   the 99th percentile of the time of the calls, in nanoseconds.
+     * @param maxNanos   the longest time of the calls, in nanoseconds.
+     */
+    @ConstructorProperties({ "method", "segmentKey", "segment", "calls", "totalNanos", "p50Nanos", "p90Nanos", "p99Nanos",
+            "maxNanos" })
+    public MdcLatencyStatistics(String method, String segmentKey, String segment, long calls, long totalNanos, long p50Nanos,
+                                long p90Nanos, long p99Nanos, long maxNanos) {
+        this.method = method;
+        this.segmentKey = segmentKey;
+        this.segment = segment;
+        this.calls = calls;
+        this.totalNanos = totalNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Returns the name of the method.
+     *
+     * @return the name of the method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the MDC key whose values segment the histograms; or an empty string for a single segment.
+     *
+     * @return the MDC key whose values segment the histograms.
+     */
+    public String getSegmentKey() {
+        return segmentKey;
+    }
+
+    /**
+     * Returns the value of the segment key; or {@value #OVERFLOW}, or {@value #ABSENT}.
+     *
+     * @return the value of the segment key.
+     */
+    public String getSegment() {
+        return segment;
+    }
+
+    /**
+     * Returns the number of calls in the segment.
+     *
+     * @return the number of calls in the segment.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the total time of the calls, in nanoseconds.
+     *
+     * @return the total time of the calls.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the median time of the calls, in nanoseconds.
+     *
+     * @return the median time of the calls.
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Returns the 90th percentile of the time of the calls, in nanoseconds.
+     *
+     * @return the 90th percentile of the time of the calls.
+     */
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    /**
+     * Returns the 99th percentile of the time of the calls, in nanoseconds.
+     *
+     * @return the 99th percentile of the time of the calls.
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * Returns the longest time of the calls, in nanoseconds.
+     *
+     * @return the longest time of the calls.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MdcLatencyStatistics{method=" + method + ", segmentKey=" + segmentKey + ", segment=" + segment + ", calls="
+                + calls + ", totalNanos=" + totalNanos + ", p50Nanos=" + p50Nanos + ", p90Nanos=" + p90Nanos + ", p99Nanos="
+                + p99Nanos + ", maxNanos=" + maxNanos + "}";
+    }
+}
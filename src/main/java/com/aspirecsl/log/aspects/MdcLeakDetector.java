@@ -0,0 +1,220 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects the MDC entries leaked by the tasks run on pooled threads; i.e. the entries that a task has added to the MDC, outside
+ * of any scope, and not removed by the time it completes. Such entries tag the unrelated tasks run on the same thread later,
+ * and pile up on the long-lived threads.
+ * <p>The MDC of the thread running a task is checked when the task completes; against the MDC as it was when the task started,
+ * and the keys of the scopes of the thread that are still open <em>(e.g. when the task is run by the thread submitting it)</em>.
+ * The leaked entries are counted, and logged as a <tt>WARN</tt> event of the logger named after this class at most once in a
+ * reporting interval; with the number of leaking tasks since the previous event. Optionally, the leaked entries are removed.
+ * For example:-
+ * <pre>
+ *
+ *     private static final MdcLeakDetector LEAK_DETECTOR = MdcLeakDetector.create(true);
+ *
+ *     final Executor executor = LEAK_DETECTOR.wrapExecutor(Executors.newFixedThreadPool(8));
+ * </pre>
+ * <p>The tasks are checked at their boundaries by wrapping them; individually via {@link #wrap(Runnable)} and
+ * {@link #wrap(Callable)}, or for an <tt>Executor</tt> via {@link #wrapExecutor(Executor)}. The pools that cannot be wrapped
+ * can call {@link #check()} after each task instead; from <tt>ThreadPoolExecutor.afterExecute(...)</tt>, which is run by the
+ * pooled thread at the end of each task:-
+ * <pre>
+ *
+ *     protected void afterExecute(Runnable task, Throwable failure) {
+ *         LEAK_DETECTOR.check();
+ *     }
+ * </pre>
+ * <p>When the MDC is empty at the start and at the end of a task, which is the common case, checking costs an emptiness test
+ * of the MDC of each logging framework.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcScope
+ * @since 1d
+ */
+public final class MdcLeakDetector {
+
+    /**
+     * The default interval between two reports of the leaks.
+     */
+    private static final long DEFAULT_REPORT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final boolean clear;
+    private final long reportIntervalNanos;
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder leakedKeys = new LongAdder();
+    private final LongAdder unreported = new LongAdder();
+    private final AtomicLong nextReportNanos = new AtomicLong(System.nanoTime());
+
+    private MdcLeakDetector(boolean clear, long reportIntervalNanos) {
+        this.clear = clear;
+        this.reportIntervalNanos = reportIntervalNanos;
+    }
+
+    /**
+     * Returns a detector reporting the leaks at most once a minute.
+     *
+     * @param clear <tt>True</tt> to remove the leaked entries from the MDC; <tt>False</tt> to only report them.
+     * @return a detector reporting the leaks at most once a minute.
+     */
+    public static MdcLeakDetector create(boolean clear) {
+        return new MdcLeakDetector(clear, DEFAULT_REPORT_INTERVAL_NANOS);
+    }
+
+    /**
+     * Returns a detector reporting the leaks at most once in the specified interval.
+     *
+     * @param clear          <tt>True</tt> to remove the leaked entries from the MDC; <tt>False</tt> to only report them.
+     * @param reportInterval the shortest interval between two reports of the leaks.
+     * @param unit           the unit of the <tt>reportInterval</tt>.
+     * @return a detector reporting the leaks at most once in the specified interval.
+     */
+    public static MdcLeakDetector create(boolean clear, long reportInterval, TimeUnit unit) {
+        return new MdcLeakDetector(clear, unit.toNanos(reportInterval));
+    }
+
+    /**
+     * Returns a task running the specified <tt>task</tt>, and checking the MDC of the thread when it completes.
+     *
+     * @param task the task to be checked.
+     * @return a task running the <tt>task</tt>, and checking the MDC of the thread when it completes.
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            final Map<String, String> slf4jBefore = baseline(MdcBackend.SLF4J);
+            final Map<String, String> log4j2Before = baseline(MdcBackend.LOG4J2);
+            try {
+                task.run();
+            } finally {
+                check(task, MdcBackend.SLF4J, slf4jBefore);
+                check(task, MdcBackend.LOG4J2, log4j2Before);
+            }
+        };
+    }
+
+    /**
+     * Returns a task calling the specified <tt>task</tt>, and checking the MDC of the thread when it completes.
+     *
+     * @param task the task to be checked.
+     * @param <T>  the type of the result of the <tt>task</tt>.
+     * @return a task calling the <tt>task</tt>, and checking the MDC of the thread when it completes.
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            final Map<String, String> slf4jBefore = baseline(MdcBackend.SLF4J);
+            final Map<String, String> log4j2Before = baseline(MdcBackend.LOG4J2);
+            try {
+                return task.call();
+            } finally {
+                check(task, MdcBackend.SLF4J, slf4jBefore);
+                check(task, MdcBackend.LOG4J2, log4j2Before);
+            }
+        };
+    }
+
+    /**
+     * Returns an executor running each task with the specified <tt>executor</tt>, and checking the MDC of the thread running
+     * the task when it completes.
+     *
+     * @param executor the executor whose tasks are checked.
+     * @return an executor checking the MDC of the thread running each task when it completes.
+     */
+    public Executor wrapExecutor(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Checks the MDC of the current thread at a task boundary; every entry that is not owned by an open scope of the thread is
+     * considered leaked.
+     */
+    public void check() {
+        check(null, MdcBackend.SLF4J, Collections.emptyMap());
+        check(null, MdcBackend.LOG4J2, Collections.emptyMap());
+    }
+
+    /**
+     * Returns the number of tasks that have leaked MDC entries.
+     *
+     * @return the number of tasks that have leaked MDC entries.
+     */
+    public long leaks() {
+        return leaks.sum();
+    }
+
+    /**
+     * Returns the number of MDC entries leaked by the tasks.
+     *
+     * @return the number of MDC entries leaked by the tasks.
+     */
+    public long leakedKeys() {
+        return leakedKeys.sum();
+    }
+
+    /**
+     * Returns the MDC of the current thread as it is at the start of a task; without copying, if empty.
+     */
+    private static Map<String, String> baseline(MdcBackend backend) {
+        final MdcImplementationAware mdcApi = backend.mdcApi();
+        return mdcApi.isEmpty() ? Collections.emptyMap() : mdcApi.getCopyOfContextMap();
+    }
+
+    /**
+     * Finds the entries of the MDC of the current thread that are neither in the <tt>baseline</tt> nor owned by an open scope;
+     * and counts, reports and removes them, as configured.
+     */
+    private void check(Object task, MdcBackend backend, Map<String, String> baseline) {
+        final MdcImplementationAware mdcApi = backend.mdcApi();
+        if (mdcApi.isEmpty()) {
+            return;
+        }
+        final List<String> leaked = new ArrayList<>();
+        for (String key : mdcApi.getCopyOfContextMap().keySet()) {
+            if (!baseline.containsKey(key) && !MdcScope.owns(mdcApi, key)) {
+                leaked.add(key);
+            }
+        }
+        if (leaked.isEmpty()) {
+            return;
+        }
+        leaks.increment();
+        leakedKeys.add(leaked.size());
+        if (clear) {
+            mdcApi.removeAll(leaked);
+        }
+        report(task, backend, leaked);
+    }
+
+    /**
+     * Logs a leak; unless a leak has been logged within the reporting interval.
+     */
+    private void report(Object task, MdcBackend backend, List<String> leaked) {
+        unreported.increment();
+        final long now = System.nanoTime();
+        final long next = nextReportNanos.get();
+        if (now - next < 0 || !nextReportNanos.compareAndSet(next, now + reportIntervalNanos)) {
+            return;
+        }
+        final String message = "MDC keys leaked by a task: task=" + (task == null ? "unknown" : task.getClass().getName())
+                + ", thread=" + Thread.currentThread().getName() + ", keys=" + leaked + ", cleared=" + clear + "; "
+                + unreported.sumThenReset() + " leaking task(s) since the last report";
+        if (backend == MdcBackend.SLF4J) {
+            LoggerFactory.getLogger(MdcLeakDetector.class).warn(message);
+        } else {
+            LogManager.getLogger(MdcLeakDetector.class).warn(message);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.aspirecsl.log.aspects;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the metrics of the <tt>MdcAspect</tt> advice for an <em>advised</em> method.
+ * <p>The advice time excludes the execution of the <em>advised</em> method, and is measured for the <em>sampled</em> calls only;
+ * the percentiles are estimates, accurate to within a factor of two.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMetrics
+ * @since 1d
+ */
+public final class MdcMethodStatistics {
+
+    private final String method;
+    private final long calls;
+    private final long sampledCalls;
+    private final long totalAdviceNanos;
+    private final long p50AdviceNanos;
+    private final long p99AdviceNanos;
+    private final long maxAdviceNanos;
+    private final long keysAdded;
+    private final long backendOperations;
+    private final long validationFailures;
+
+    /**
+     * Creates a snapshot of the metrics of an <em>advised</em> method.
+     *
+     * @param method             the name of the method, with its declaring class and parameter types.
+     * @param calls              the number of calls of the method.
+     * @param sampledCalls       the number of calls whose advice time is measured.
+     * @param totalAdviceNanos   the total time spent by the advice for the sampled calls, in nanoseconds.
+     * @param p50AdviceNanos     the median time spent by the advice, in nanoseconds.
+     * @param p99AdviceNanos     the 99th percentile of the time spent by the advice, in nanoseconds.
+     * @param maxAdviceNanos     the longest time spent by the advice, in nanoseconds.
+     * @param keysAdded          the number of keys added to the MDC.
+     * @param backendOperations  the number of operations on the MDC of the logging framework.
+     * @param validationFailures the number of arguments rejected by the MDC annotations.
+     */
+    @ConstructorProperties({ "method", "calls", "sampledCalls", "totalAdviceNanos", "p50AdviceNanos", "p99AdviceNanos",
+            "maxAdviceNanos", "keysAdded", "backendOperations", "validationFailures" })
+    public MdcMethodStatistics(String method, long calls, long sampledCalls, long totalAdviceNanos, long p50AdviceNanos,
+                               long p99AdviceNanos, long maxAdviceNanos, long keysAdded, long backendOperations,
+                               long validationFailures) {
+        this.method = method;
+        this.calls = calls;
+        this.sampledCalls = sampledCalls;
+        this.totalAdviceNanos = totalAdviceNanos;
+        this.p50AdviceNanos = p50AdviceNanos;
+        this.p99AdviceNanos = p99AdviceNanos;
+        this.maxAdviceNanos = maxAdviceNanos;
+        this.keysAdded = keysAdded;
+        this.backendOperations = backendOperations;
+        this.validationFailures = validationFailures;
+    }
+
+    /**
+     * Returns the name of the method, with its declaring class and parameter types.
+     *
+     * @return the name of the method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the number of calls of the method.
+     *
+     * @return the number of calls of the method.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the number of calls whose advice time is measured.
+     *
+     * @return the number of calls whose advice time is measured.
+     */
+    public long getSampledCalls() {
+        return sampledCalls;
+    }
+
+    /**
+     * Returns the total time spent by the advice for the sampled calls, in nanoseconds.
+     *
+     * @return the total time spent by the advice for the sampled calls.
+     */
+    public long getTotalAdviceNanos() {
+        return totalAdviceNanos;
+    }
+
+    /**
+     * Returns the median time spent by the advice, in nanoseconds.
+     *
+     * @return the median time spent by the advice.
+     */
+    public long getP50AdviceNanos() {
+        return p50AdviceNanos;
+    }
+
+    /**
+     * Returns the 99th percentile of the time spent by the advice, in nanoseconds.
+     *
+     * @return the 99th percentile of the time spent by the advice.
+     */
+    public long getP99AdviceNanos() {
+        return p99AdviceNanos;
+    }
+
+    /**
+     * Returns the longest time spent by the advice, in nanoseconds.
+     *
+     * @return the longest time spent by the advice.
+     */
+    public long getMaxAdviceNanos() {
+        return maxAdviceNanos;
+    }
+
+    /**
+     * Returns the number of keys added to the MDC.
+     *
+     * @return the number of keys added to the MDC.
+     */
+    public long getKeysAdded() {
+        return keysAdded;
+    }
+
+    /**
+     * Returns the number of operations on the MDC of the logging framework.
+     *
+     * @return the number of operations on the MDC of the logging framework.
+     */
+    public long getBackendOperations() {
+        return backendOperations;
+    }
+
+    /**
+     * Returns the number of arguments rejected by the MDC annotations.
+     *
+     * @return the number of arguments rejected by the MDC annotations.
+     */
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    @Override
+    public String toString() {
+        return "MdcMethodStatistics{method=" + method + ", calls=" + calls + ", sampledCalls=" + sampledCalls
+                + ", totalAdviceNanos=" + totalAdviceNanos + ", p50AdviceNanos=" + p50AdviceNanos + ", p99AdviceNanos=" + p99AdviceNanos + ", maxAdviceNanos="
+                + maxAdviceNanos + ", keysAdded=" + keysAdded + ", backendOperations=" + backendOperations
+                + ", validationFailures=" + validationFailures + "}";
+    }
+}
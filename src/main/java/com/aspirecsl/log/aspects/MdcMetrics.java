@@ -0,0 +1,355 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The overhead of the <tt>MdcAspect</tt> advice; measured for each <em>advised</em> method, and published as the platform
+ * MBean named {@value #OBJECT_NAME}.
+ * <p>For every call of an <em>advised</em> method, the time spent by the advice <em>(excluding the execution of the method
+ * itself)</em>, the number of keys added to the MDC and the number of operations on the MDC of the logging framework are
+ * recorded. The arguments rejected by the MDC annotations, and the exceptions thrown by the fields or getters named by the
+ * <tt>MdcParam</tt> annotations, are counted as well. All the counters are <em>striped</em>; so the advised methods do not
+ * contend with each other to record them.
+ * <p>Reading the clock costs as much as the rest of the advice on some platforms; so the time is measured for one in every
+ * <tt>com.aspirecsl.log.metrics.sampleInterval</tt> calls <em>(rounded down to a power of two; <tt>16</tt> by default)</em>,
+ * chosen at random. The other metrics are recorded for every call.
+ * <p>In addition, the latency of every call of a timed method <em>(i.e. annotated with <tt>MdcTimed</tt>)</em> is recorded in a
+ * histogram; one for each value of the <em>segment key</em> of the method, such as a tenant or an endpoint. Similarly, the
+ * CPU time and the bytes allocated by the calls of an accounted method <em>(i.e. annotated with <tt>MdcAccounting</tt>)</em>
+ * are accounted to the values of its segment key.
+ * <p>The metrics are enabled by default. They are disabled by setting the <tt>com.aspirecsl.log.metrics.enabled</tt> system
+ * property to <tt>false</tt>; in which case nothing is recorded, the MBean is not registered, and the advice takes the same
+ * path as the one without metrics once compiled by the <tt>JIT</tt> compiler.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMetricsMXBean
+ * @see MdcAspect
+ * @since 1d
+ */
+public final class MdcMetrics implements MdcMetricsMXBean {
+
+    /**
+     * The name of the MBean publishing the metrics.
+     */
+    public static final String OBJECT_NAME = "com.aspirecsl.log:type=MdcMetrics";
+
+    /**
+     * Whether the metrics are recorded; a constant, so that the <tt>JIT</tt> compiler can eliminate the metrics when disabled.
+     */
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("com.aspirecsl.log.metrics.enabled", "true"));
+
+    /**
+     * The mask selecting the calls whose advice time is measured.
+     */
+    private static final int SAMPLE_MASK =
+            Integer.highestOneBit(Math.max(1, Integer.getInteger("com.aspirecsl.log.metrics.sampleInterval", 16))) - 1;
+
+    /**
+     * The number of exceptions thrown by the fields or getters named by the <tt>MdcParam</tt> annotations; which are ignored.
+     */
+    private static final LongAdder REFLECTION_FAILURES = new LongAdder();
+
+    /**
+     * The metrics of each <em>advised</em> method; the entries are removed once the declaring class of the method is unloaded.
+     */
+    private static final Map<Method, MethodMetrics> METHODS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The metrics of each method advised by a generated advice, mapped by the declaring class of the method; which keeps the
+     * keys of {@link #METHODS} reachable until the class is unloaded, as the compiled plans do for the generic advice.
+     */
+    private static final ClassValue<ConcurrentMap<Method, MethodMetrics>> SPECIALIZED =
+            new ClassValue<ConcurrentMap<Method, MethodMetrics>>() {
+                @Override
+                protected ConcurrentMap<Method, MethodMetrics> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * The latency histograms of each timed method; the entries are removed once the timer of the method is unreachable.
+     */
+    private static final Set<SegmentedHistogram> LATENCIES =
+            Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    /**
+     * The accountants of each accounted method; the entries are removed once the accountant is unreachable.
+     */
+    private static final Set<MdcAccountant> ACCOUNTANTS =
+            Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MdcMetrics(), new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException ignore) {
+                // the metrics are still available via the static methods of this class
+            }
+        }
+    }
+
+    private MdcMetrics() {
+    }
+
+    /**
+     * Returns <tt>True</tt> if the metrics are recorded. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the metrics are recorded. Otherwise, <tt>False</tt>.
+     */
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns a snapshot of the metrics of each <em>advised</em> method called so far; ordered by the method names.
+     *
+     * @return a snapshot of the metrics of each <em>advised</em> method.
+     */
+    public static List<MdcMethodStatistics> statistics() {
+        final List<MethodMetrics> methods;
+        synchronized (METHODS) {
+            methods = new ArrayList<>(METHODS.values());
+        }
+        return methods.stream()
+                .map(MethodMetrics::snapshot)
+                .sorted((a, b) -> a.getMethod().compareTo(b.getMethod()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a snapshot of the latency histograms of each timed method called so far; ordered by the method names, and then
+     * by the segments.
+     *
+     * @return a snapshot of the latency histograms of each timed method.
+     */
+    public static List<MdcLatencyStatistics> latencies() {
+        final List<SegmentedHistogram> histograms;
+        synchronized (LATENCIES) {
+            histograms = new ArrayList<>(LATENCIES);
+        }
+        return histograms.stream()
+                .map(SegmentedHistogram::snapshot)
+                .filter(segments -> !segments.isEmpty())
+                .sorted((a, b) -> a.get(0).getMethod().compareTo(b.get(0).getMethod()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a snapshot of the resources used by each accounted method called so far; ordered by the method names, and then
+     * by the segments.
+     *
+     * @return a snapshot of the resources used by each accounted method.
+     */
+    public static List<MdcResourceStatistics> resourceUsage() {
+        final List<MdcAccountant> accountants;
+        synchronized (ACCOUNTANTS) {
+            accountants = new ArrayList<>(ACCOUNTANTS);
+        }
+        return accountants.stream()
+                .map(MdcAccountant::snapshot)
+                .filter(segments -> !segments.isEmpty())
+                .sorted((a, b) -> a.get(0).getMethod().compareTo(b.get(0).getMethod()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the number of exceptions thrown by the fields or getters named by the <tt>MdcParam</tt> annotations, since the
+     * class was loaded; which are ignored by the advice.
+     *
+     * @return the number of exceptions thrown by the fields or getters named by the <tt>MdcParam</tt> annotations.
+     */
+    public static long reflectionFailures() {
+        return REFLECTION_FAILURES.sum();
+    }
+
+    /**
+     * Returns the number of arguments rejected by the MDC annotations on their parameters, across all the <em>advised</em>
+     * methods.
+     *
+     * @return the number of arguments rejected by the MDC annotations.
+     */
+    public static long validationFailures() {
+        return statistics().stream().mapToLong(MdcMethodStatistics::getValidationFailures).sum();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled();
+    }
+
+    @Override
+    public List<MdcMethodStatistics> getMethods() {
+        return statistics();
+    }
+
+    @Override
+    public List<MdcLatencyStatistics> getLatencies() {
+        return latencies();
+    }
+
+    @Override
+    public List<MdcResourceStatistics> getResourceUsage() {
+        return resourceUsage();
+    }
+
+    @Override
+    public long getReflectionFailures() {
+        return reflectionFailures();
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return validationFailures();
+    }
+
+    /**
+     * Returns the metrics of the specified <em>advised</em> method; created on the first call.
+     *
+     * @param method the <em>advised</em> method.
+     * @param name   the name of the <tt>method</tt>, with its declaring class and parameter types.
+     * @return the metrics of the <tt>method</tt>; or <tt>null</tt> if the metrics are disabled.
+     */
+    static MethodMetrics register(Method method, String name) {
+        return ENABLED ? METHODS.computeIfAbsent(method, m -> new MethodMetrics(name)) : null;
+    }
+
+    /**
+     * Returns the metrics of the specified <em>advised</em> method; for the advice generated for an <tt>MdcSpecialized</tt>
+     * method. The metrics are the same as those recorded by the generic advice for the method.
+     *
+     * @param advice         the generated advice class; whose class loader loads the declaring class of the method.
+     * @param type           the binary name of the declaring class of the method.
+     * @param method         the name of the method.
+     * @param parameterTypes the parameter types of the method.
+     * @return the metrics of the method; or <tt>null</tt> if the metrics are disabled, or the method cannot be found.
+     */
+    public static MethodMetrics register(Class<?> advice, String type, String method, Class<?>... parameterTypes) {
+        if (!ENABLED) {
+            return null;
+        }
+        try {
+            final Method advised = Class.forName(type, false, advice.getClassLoader())
+                    .getDeclaredMethod(method, parameterTypes);
+            return SPECIALIZED.get(advised.getDeclaringClass())
+                    .computeIfAbsent(advised, m -> register(m, MdcPlan.nameOf(m)));
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the latency histograms of a timed method.
+     *
+     * @param method      the name of the method.
+     * @param segmentKey  the MDC key whose values segment the histograms; or an empty string for a single segment.
+     * @param maxSegments the number of distinct values of the <tt>segmentKey</tt> tracked.
+     * @return the latency histograms of the <tt>method</tt>; or <tt>null</tt> if the metrics are disabled.
+     */
+    static SegmentedHistogram registerLatency(String method, String segmentKey, int maxSegments) {
+        if (!ENABLED) {
+            return null;
+        }
+        final SegmentedHistogram histogram = new SegmentedHistogram(method, segmentKey, maxSegments);
+        LATENCIES.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Registers the accountant of an accounted method.
+     *
+     * @param accountant the accountant.
+     * @return <tt>True</tt> if the accountant is registered. Otherwise, <tt>False</tt>; if the metrics are disabled.
+     */
+    static boolean registerAccountant(MdcAccountant accountant) {
+        return ENABLED && ACCOUNTANTS.add(accountant);
+    }
+
+    /**
+     * Returns <tt>True</tt> if the advice time of the current call is to be measured. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the advice time of the current call is to be measured. Otherwise, <tt>False</tt>.
+     */
+    public static boolean sampled() {
+        return (ThreadLocalRandom.current().nextInt() & SAMPLE_MASK) == 0;
+    }
+
+    /**
+     * Counts an exception thrown by a field or getter named by an <tt>MdcParam</tt> annotation.
+     */
+    public static void reflectionFailed() {
+        if (ENABLED) {
+            REFLECTION_FAILURES.increment();
+        }
+    }
+
+    /**
+     * The metrics of an <em>advised</em> method; recorded by the generic advice, and by the advice generated for an
+     * <tt>MdcSpecialized</tt> method.
+     */
+    public static final class MethodMetrics {
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LatencyHistogram adviceNanos = new LatencyHistogram();
+        private final LongAdder keysAdded = new LongAdder();
+        private final LongAdder backendOperations = new LongAdder();
+        private final LongAdder validationFailures = new LongAdder();
+
+        private MethodMetrics(String method) {
+            this.method = method;
+        }
+
+        /**
+         * Records a call of the method.
+         *
+         * @param keys       the number of keys added to the MDC.
+         * @param operations the number of operations on the MDC of the logging framework, as counted by the closed scope.
+         * @see MdcScope#operations()
+         */
+        public void record(int keys, int operations) {
+            calls.increment();
+            keysAdded.add(keys);
+            backendOperations.add(operations);
+        }
+
+        /**
+         * Records the time spent by the advice for a <em>sampled</em> call of the method.
+         *
+         * @param nanos the time spent by the advice, excluding the execution of the method.
+         * @see #sampled()
+         */
+        public void recordTime(long nanos) {
+            adviceNanos.record(nanos);
+        }
+
+        /**
+         * Counts an argument rejected by the MDC annotations on its parameter.
+         */
+        public void validationFailed() {
+            validationFailures.increment();
+        }
+
+        private MdcMethodStatistics snapshot() {
+            return new MdcMethodStatistics(method, calls.sum(), adviceNanos.count(), adviceNanos.total(),
+                    adviceNanos.percentile(50), adviceNanos.percentile(99), adviceNanos.max(), keysAdded.sum(),
+                    backendOperations.sum(), validationFailures.sum());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.List;
+
+/**
+ * The management interface of the metrics of the <tt>MdcAspect</tt> advice.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMetrics
+ * @since 1d
+ */
+public interface MdcMetricsMXBean {
+
+    /**
+     * Returns <tt>True</tt> if the metrics are recorded. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the metrics are recorded. Otherwise, <tt>False</tt>.
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns a snapshot of the metrics of each <em>advised</em> method called so far.
+     *
+     * @return a snapshot of the metrics of each <em>advised</em> method.
+     */
+    List<MdcMethodStatistics> getMethods();
+
+    /**
+     * Returns a snapshot of the latency histograms of each timed method called so far; one for each value of the segment key
+     * of the method.
+     *
+     * @return a snapshot of the latency histograms of each timed method.
+     */
+    List<MdcLatencyStatistics> getLatencies();
+
+    /**
+     * Returns a snapshot of the CPU time consumed, and the bytes allocated, by each accounted method called so far; one for
+     * each value of the segment key of the method.
+     *
+     * @return a snapshot of the resources used by each accounted method.
+     */
+    List<MdcResourceStatistics> getResourceUsage();
+
+    /**
+     * Returns the number of exceptions thrown by the fields or getters named by the <tt>MdcParam</tt> annotations.
+     *
+     * @return the number of exceptions thrown by the fields or getters named by the <tt>MdcParam</tt> annotations.
+     */
+    long getReflectionFailures();
+
+    /**
+     * Returns the number of arguments rejected by the MDC annotations on their parameters.
+     *
+     * @return the number of arguments rejected by the MDC annotations.
+     */
+    long getValidationFailures();
+}
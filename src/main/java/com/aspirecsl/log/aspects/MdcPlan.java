@@ -0,0 +1,321 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.MdcAccounting;
+import com.aspirecsl.log.MdcTimed;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * The compiled MDC annotations of an <em>advised</em> method.
+ * <p>A plan is compiled once for every <em>advised</em> method; and holds an {@link ArgumentBinder} for each parameter with MDC
+ * annotations. Plans are cached against the declaring class of the method; hence, a plan does not outlive the class loader of
+ * the <em>advised</em> method.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcAspect
+ * @see ArgumentBinder
+ * @since 1d
+ */
+final class MdcPlan {
+
+    /**
+     * The compiled plans mapped by the <em>advised</em> methods; grouped by the declaring class of the methods.
+     */
+    private static final ClassValue<ConcurrentMap<Method, MdcPlan>> PLANS =
+            new ClassValue<ConcurrentMap<Method, MdcPlan>>() {
+                @Override
+                protected ConcurrentMap<Method, MdcPlan> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * The suffix of the names of the advice classes generated for the <tt>MdcSpecialized</tt> methods of a class.
+     */
+    private static final String ADVICE_SUFFIX = "_MdcAdvice";
+
+    /**
+     * Whether the advice for the <tt>MdcSpecialized</tt> methods has been generated; mapped by the declaring classes of the
+     * methods.
+     */
+    private static final ClassValue<Boolean> SPECIALIZED = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            final String name = type.getName();
+            final int simpleName = name.lastIndexOf('.') + 1;
+            try {
+                Class.forName(name.substring(0, simpleName) + name.substring(simpleName).replace('$', '_') + ADVICE_SUFFIX,
+                        false, type.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError ex) {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * The name of the method, with its declaring class and parameter types.
+     */
+    private final String name;
+
+    /**
+     * The binders for the method parameters; <tt>null</tt> for the parameters without MDC annotations.
+     */
+    private final ArgumentBinder[] binders;
+
+    /**
+     * Whether none of the method parameters have MDC annotations, no correlation id is specified, and the method is neither
+     * timed nor accounted.
+     */
+    private final boolean empty;
+
+    /**
+     * Whether any of the method parameters are annotated with <tt>MdcIterate</tt>; whose arguments are wrapped before the
+     * method is invoked.
+     */
+    private final boolean iterates;
+
+    /**
+     * The budgets specified by the <tt>Slf4jMdcAware</tt> and <tt>Log4j2MdcAware</tt> annotations on the method.
+     */
+    private final MdcBudget slf4jBudget;
+    private final MdcBudget log4j2Budget;
+
+    /**
+     * The MDC keys of the correlation ids specified by the <tt>Slf4jMdcAware</tt> and <tt>Log4j2MdcAware</tt> annotations on
+     * the method; <tt>null</tt> if not specified.
+     */
+    private final String slf4jCorrelationKey;
+    private final String log4j2CorrelationKey;
+
+    /**
+     * The timer compiled from the <tt>MdcTimed</tt> annotation on the method; <tt>null</tt> if not annotated.
+     */
+    private final MdcTimer timer;
+
+    /**
+     * The accountant compiled from the <tt>MdcAccounting</tt> annotation on the method; <tt>null</tt> if not annotated.
+     */
+    private final MdcAccountant accountant;
+
+    /**
+     * The metrics of the advice for the method; <tt>null</tt> if the metrics are disabled.
+     */
+    private final MdcMetrics.MethodMetrics metrics;
+
+    private MdcPlan(String name, ArgumentBinder[] binders, MdcBudget slf4jBudget, MdcBudget log4j2Budget,
+                    String slf4jCorrelationKey, String log4j2CorrelationKey, MdcTimer timer, MdcAccountant accountant,
+                    MdcMetrics.MethodMetrics metrics) {
+        this.name = name;
+        this.binders = binders;
+        this.slf4jBudget = slf4jBudget;
+        this.log4j2Budget = log4j2Budget;
+        this.slf4jCorrelationKey = slf4jCorrelationKey;
+        this.log4j2CorrelationKey = log4j2CorrelationKey;
+        this.timer = timer;
+        this.accountant = accountant;
+        this.metrics = metrics;
+        boolean empty = slf4jCorrelationKey == null && log4j2CorrelationKey == null && timer == null
+                && accountant == null;
+        boolean iterates = false;
+        for (ArgumentBinder binder : binders) {
+            empty &= binder == null;
+            iterates |= binder instanceof ArgumentBinder.IterateBinder;
+        }
+        this.empty = empty;
+        this.iterates = iterates;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the advice for the <tt>MdcSpecialized</tt> methods of the specified <tt>type</tt> has been
+     * generated, i.e. the class named after the <tt>type</tt> and suffixed by <tt>_MdcAdvice</tt> exists. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @param type the declaring class of the <tt>MdcSpecialized</tt> methods.
+     * @return <tt>True</tt> if the advice for the <tt>MdcSpecialized</tt> methods of the <tt>type</tt> has been generated.
+     * Otherwise, <tt>False</tt>.
+     */
+    static boolean isSpecialized(Class<?> type) {
+        return SPECIALIZED.get(type);
+    }
+
+    /**
+     * Returns the compiled plan for the specified <tt>method</tt>.
+     *
+     * @param method the <em>advised</em> method.
+     * @return the compiled plan for the <tt>method</tt>.
+     */
+    static MdcPlan of(Method method) {
+        final ConcurrentMap<Method, MdcPlan> plans = PLANS.get(method.getDeclaringClass());
+        final MdcPlan plan = plans.get(method);
+        return plan != null ? plan : plans.computeIfAbsent(method, MdcPlan::compile);
+    }
+
+    /**
+     * Compiles the MDC annotations on the parameters of the specified <tt>method</tt>.
+     *
+     * @param method the <em>advised</em> method.
+     * @return the compiled plan for the <tt>method</tt>.
+     */
+    private static MdcPlan compile(Method method) {
+        final Parameter[] parameters = method.getParameters();
+        final ArgumentBinder[] binders = new ArgumentBinder[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            binders[i] = ArgumentBinder.compile(parameters[i]);
+        }
+        final Slf4jMdcAware slf4jMdcAware = method.getAnnotation(Slf4jMdcAware.class);
+        final Log4j2MdcAware log4j2MdcAware = method.getAnnotation(Log4j2MdcAware.class);
+        final MdcTimed mdcTimed = method.getAnnotation(MdcTimed.class);
+        final MdcAccounting mdcAccounting = method.getAnnotation(MdcAccounting.class);
+        final String name = nameOf(method);
+        return new MdcPlan(name, binders,
+                slf4jMdcAware == null
+                        ? MdcBudget.UNLIMITED
+                        : MdcBudget.of(slf4jMdcAware.maxKeys(), slf4jMdcAware.maxValueLength(), slf4jMdcAware.maxTotalBytes()),
+                log4j2MdcAware == null
+                        ? MdcBudget.UNLIMITED
+                        : MdcBudget.of(log4j2MdcAware.maxKeys(), log4j2MdcAware.maxValueLength(),
+                        log4j2MdcAware.maxTotalBytes()),
+                slf4jMdcAware == null || slf4jMdcAware.correlationKey().isEmpty() ? null : slf4jMdcAware.correlationKey(),
+                log4j2MdcAware == null || log4j2MdcAware.correlationKey().isEmpty() ? null : log4j2MdcAware.correlationKey(),
+                mdcTimed == null ? null : MdcTimer.of(method.getDeclaringClass().getName(), name, mdcTimed),
+                mdcAccounting == null ? null : MdcAccountant.of(name, mdcAccounting),
+                MdcMetrics.register(method, name));
+    }
+
+    /**
+     * Returns the name of the specified <tt>method</tt>, with its declaring class and parameter types.
+     *
+     * @param method the <em>advised</em> method.
+     * @return the name of the <tt>method</tt>.
+     */
+    static String nameOf(Method method) {
+        return method.getDeclaringClass().getName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes())
+                .map(Class::getTypeName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Returns the name of the method, with its declaring class and parameter types.
+     *
+     * @return the name of the method.
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Returns <tt>True</tt> if none of the method parameters have MDC annotations, no correlation id is specified, and the
+     * method is neither timed nor accounted. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the advice has nothing to add to the MDC. Otherwise, <tt>False</tt>.
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Returns the budget of the entries added to the MDC of the specified logging framework; as specified by the method
+     * marker annotation for the framework.
+     *
+     * @param backend the logging framework.
+     * @return the budget of the entries added to the MDC of the <tt>backend</tt>.
+     */
+    MdcBudget budget(MdcBackend backend) {
+        return backend == MdcBackend.SLF4J ? slf4jBudget : log4j2Budget;
+    }
+
+    /**
+     * Adds a correlation id to the MDC, via the <tt>scope</tt>, if one is specified by the method marker annotation for the
+     * logging framework, and is not in the MDC already.
+     *
+     * @param backend the logging framework.
+     * @param scope   the scope of the <em>advised</em> method.
+     * @see MdcScope#correlate(String)
+     */
+    void correlate(MdcBackend backend, MdcScope scope) {
+        final String key = backend == MdcBackend.SLF4J ? slf4jCorrelationKey : log4j2CorrelationKey;
+        if (key != null) {
+            scope.correlate(key);
+        }
+    }
+
+    /**
+     * Returns the timer compiled from the <tt>MdcTimed</tt> annotation on the method.
+     *
+     * @return the timer; or <tt>null</tt> if the method is not annotated with <tt>MdcTimed</tt>.
+     */
+    MdcTimer timer() {
+        return timer;
+    }
+
+    /**
+     * Returns the accountant compiled from the <tt>MdcAccounting</tt> annotation on the method.
+     *
+     * @return the accountant; or <tt>null</tt> if the method is not annotated with <tt>MdcAccounting</tt>.
+     */
+    MdcAccountant accountant() {
+        return accountant;
+    }
+
+    /**
+     * Returns the metrics of the advice for the method.
+     *
+     * @return the metrics of the advice for the method; or <tt>null</tt> if the metrics are disabled.
+     * @see MdcMetrics
+     */
+    MdcMetrics.MethodMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds the relevant method arguments to the <tt>sink</tt>.
+     *
+     * @param args the actual values of the arguments in the <em>advised</em> method's execution.
+     * @param sink the sink receiving the MDC entries.
+     * @throws IllegalArgumentException if an annotation is incompatible with the argument that it annotates, or more than one
+     *                                  type of MDC annotation is specified on a parameter.
+     */
+    void bind(Object[] args, MdcSink sink) {
+        for (int i = 0; i < binders.length; i++) {
+            if (binders[i] != null) {
+                binders[i].bind(args[i], sink);
+            }
+        }
+    }
+
+    /**
+     * Returns <tt>True</tt> if the arguments of the <tt>MdcIterate</tt> annotated parameters are to be wrapped before the
+     * method is invoked. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if any of the method parameters are annotated with <tt>MdcIterate</tt>. Otherwise, <tt>False</tt>.
+     */
+    boolean iterates() {
+        return iterates;
+    }
+
+    /**
+     * Replaces the arguments of the <tt>MdcIterate</tt> annotated parameters, in place, with the views that add each element
+     * to the MDC via the <tt>scope</tt> as the element is consumed.
+     *
+     * @param args  the actual values of the arguments in the <em>advised</em> method's execution.
+     * @param scope the scope of the <em>advised</em> method.
+     * @see MdcIteration
+     */
+    void iterate(Object[] args, MdcScope scope) {
+        for (int i = 0; i < binders.length; i++) {
+            if (binders[i] instanceof ArgumentBinder.IterateBinder) {
+                args[i] = ((ArgumentBinder.IterateBinder) binders[i]).wrap(args[i], scope);
+            }
+        }
+    }
+}
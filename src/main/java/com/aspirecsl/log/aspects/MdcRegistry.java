@@ -0,0 +1,357 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The MDC each thread is working with right now; as published by the scopes of the <em>advised</em> methods. The registry is
+ * published as the platform MBean named {@value #OBJECT_NAME}, whose <tt>dumpThreads</tt> operation lists every thread in an
+ * <em>advised</em> method with its current context.
+ * <p>Each thread has a slot holding the innermost <em>published</em> scope of the thread; an immutable snapshot of the keys
+ * and values added by the scope, linked to the snapshot of the enclosing published scope. Once the MDC is populated, the
+ * advice publishes the scope with a single <tt>volatile</tt> write of the slot; and restores the enclosing snapshot the same
+ * way when the scope is closed. The slots are read without locking; a dump may therefore miss a scope opened, or include a
+ * scope closed, while it is taken.
+ * <p>The registry is disabled by default; it is enabled on startup by setting the <tt>com.aspirecsl.log.registry.enabled</tt>
+ * system property to <tt>true</tt>, or at runtime via {@link #setEnabled(boolean)}. The flag is held by a
+ * {@link MutableCallSite}; which the <tt>JIT</tt> compiler treats as a constant, so the disabled registry costs nothing once
+ * compiled. The scopes are published while the {@link MdcWatchdog} is running as well; which reports their context.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcRegistryMXBean
+ * @see MdcThreadContext
+ * @since 1d
+ */
+public final class MdcRegistry implements MdcRegistryMXBean {
+
+    /**
+     * The name of the MBean publishing the registry.
+     */
+    public static final String OBJECT_NAME = "com.aspirecsl.log:type=MdcRegistry";
+
+    /**
+     * Whether the scopes are published.
+     */
+    private static final MutableCallSite ENABLED = new MutableCallSite(
+            MethodHandles.constant(boolean.class, Boolean.getBoolean("com.aspirecsl.log.registry.enabled")));
+
+    private static final MethodHandle IS_ENABLED = ENABLED.dynamicInvoker();
+
+    /**
+     * The slots of the threads that have published a scope, or stamped a method for the <tt>MdcWatchdog</tt>; the slots of the
+     * terminated threads are removed when the registry is read.
+     */
+    private static final Set<Slot> SLOTS = ConcurrentHashMap.newKeySet();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MdcRegistry(), new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException ignore) {
+            // the registry is still available via the static methods of this class
+        }
+    }
+
+    private MdcRegistry() {
+    }
+
+    /**
+     * Returns <tt>True</tt> if the scopes are published. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the scopes are published. Otherwise, <tt>False</tt>.
+     */
+    public static boolean enabled() {
+        try {
+            return (boolean) IS_ENABLED.invokeExact();
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Enables, or disables, the publishing of the scopes. The scopes published already remain so until closed.
+     *
+     * @param enabled <tt>True</tt> to publish the scopes; <tt>False</tt> otherwise.
+     */
+    public static void setEnabled(boolean enabled) {
+        ENABLED.setTarget(MethodHandles.constant(boolean.class, enabled));
+        MutableCallSite.syncAll(new MutableCallSite[] { ENABLED });
+    }
+
+    /**
+     * Publishes the specified scope, with the keys and values that it has added to the MDC so far, as the innermost scope of
+     * the current thread; if the registry is enabled, or the <tt>MdcWatchdog</tt> is running to report the context of a stuck
+     * call. The scope is unpublished when it is closed.
+     *
+     * @param scope  the scope; opened on the current thread.
+     * @param method the name of the method, or the block of code, that the scope belongs to.
+     * @throws IllegalStateException if the <tt>scope</tt> is closed.
+     */
+    public static void publish(MdcScope scope, String method) {
+        if (enabled() || MdcWatchdog.running()) {
+            scope.publish(method);
+        }
+    }
+
+    /**
+     * Returns the current context of each thread with a published scope; ordered by the thread ids.
+     *
+     * @return the current context of each thread with a published scope.
+     */
+    public static List<MdcThreadContext> threads() {
+        final List<MdcThreadContext> threads = new ArrayList<>();
+        for (Slot slot : slots()) {
+            final Thread thread = slot.thread();
+            final Entry innermost = slot.current;
+            if (thread == null || innermost == null) {
+                continue;
+            }
+            final List<String> methods = new ArrayList<>();
+            final Map<String, String> context = new LinkedHashMap<>();
+            final Entry outermost = Slot.collect(innermost, methods, context);
+            threads.add(new MdcThreadContext(thread.getName(), thread.getId(), thread.getState().name(), methods,
+                    outermost.openedMillis, context));
+        }
+        threads.sort(Comparator.comparingLong(MdcThreadContext::getThreadId));
+        return threads;
+    }
+
+    /**
+     * Returns a textual dump of the current context of each thread with a published scope; formatted after a thread dump,
+     * with the innermost method first.
+     *
+     * @return a textual dump of the current context of each thread with a published scope.
+     */
+    public static String dump() {
+        final long now = System.currentTimeMillis();
+        final StringBuilder dump = new StringBuilder();
+        for (MdcThreadContext thread : threads()) {
+            dump.append('"').append(thread.getThread()).append("\" #").append(thread.getThreadId()).append(' ')
+                    .append(thread.getState()).append(" for ").append(now - thread.getStartedMillis()).append(" ms\n");
+            final List<String> methods = thread.getMethods();
+            for (int i = methods.size() - 1; i >= 0; i--) {
+                dump.append("    at ").append(methods.get(i)).append('\n');
+            }
+            dump.append("    mdc ").append(thread.getContext()).append("\n\n");
+        }
+        return dump.toString();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled();
+    }
+
+    @Override
+    public void setRegistryEnabled(boolean enabled) {
+        setEnabled(enabled);
+    }
+
+    @Override
+    public List<MdcThreadContext> getThreads() {
+        return threads();
+    }
+
+    @Override
+    public String dumpThreads() {
+        return dump();
+    }
+
+    /**
+     * Returns the slots of the live threads; removing the slots of the terminated threads.
+     *
+     * @return the slots of the live threads.
+     */
+    static List<Slot> slots() {
+        final List<Slot> slots = new ArrayList<>();
+        for (Slot slot : SLOTS) {
+            final Thread thread = slot.thread();
+            if (thread == null || !thread.isAlive()) {
+                SLOTS.remove(slot);
+            } else {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns a new slot for the current thread; registered with the registry.
+     *
+     * @return a new slot for the current thread.
+     */
+    static Slot register() {
+        final Slot slot = new Slot(Thread.currentThread());
+        SLOTS.add(slot);
+        return slot;
+    }
+
+    /**
+     * The innermost published scope of a thread; and the start of the outermost method timed by the <tt>MdcWatchdog</tt>.
+     * <p>The slot is written by its thread only. The stamp is made of the tick, which is <tt>volatile</tt>, and the method
+     * and backend, which are written before the tick; so that a reader seeing the tick sees the method and backend as well.
+     */
+    static final class Slot {
+        private final WeakReference<Thread> thread;
+        private volatile Entry current;
+        private String stampedMethod;
+        private MdcBackend stampedBackend;
+        private volatile long stampedTick;
+        private volatile long reportedTick;
+
+        private Slot(Thread thread) {
+            this.thread = new WeakReference<>(thread);
+        }
+
+        /**
+         * Returns the thread of this slot.
+         *
+         * @return the thread of this slot; or <tt>null</tt> if collected.
+         */
+        Thread thread() {
+            return thread.get();
+        }
+
+        /**
+         * Returns the keys and values added to the MDC by the published scopes of the thread.
+         *
+         * @return the keys and values added to the MDC by the published scopes; empty if none is published.
+         */
+        Map<String, String> context() {
+            final Entry innermost = current;
+            final Map<String, String> context = new LinkedHashMap<>();
+            if (innermost != null) {
+                collect(innermost, new ArrayList<>(), context);
+            }
+            return context;
+        }
+
+        /**
+         * Stamps the start of a method; unless the start of an enclosing method is stamped already.
+         *
+         * @param method  the name of the method.
+         * @param backend the logging framework whose MDC is populated by the scope of the method.
+         * @param tick    the current tick of the watchdog.
+         * @return <tt>True</tt> if stamped. Otherwise, <tt>False</tt>.
+         */
+        boolean stamp(String method, MdcBackend backend, long tick) {
+            if (stampedTick != 0) {
+                return false;
+            }
+            stampedMethod = method;
+            stampedBackend = backend;
+            stampedTick = tick;
+            return true;
+        }
+
+        /**
+         * Clears the stamp.
+         */
+        void clearStamp() {
+            stampedTick = 0;
+        }
+
+        long stampedTick() {
+            return stampedTick;
+        }
+
+        String stampedMethod() {
+            return stampedMethod;
+        }
+
+        MdcBackend stampedBackend() {
+            return stampedBackend;
+        }
+
+        /**
+         * Marks the stamp as reported; called by the watchdog thread only.
+         *
+         * @param tick the stamped tick.
+         * @return <tt>True</tt> if the stamp was not reported already. Otherwise, <tt>False</tt>.
+         */
+        boolean report(long tick) {
+            if (reportedTick == tick) {
+                return false;
+            }
+            reportedTick = tick;
+            return true;
+        }
+
+        /**
+         * Publishes the snapshot of a scope as the innermost scope of the thread.
+         *
+         * @param method the name of the method that the scope belongs to.
+         * @param keys   the keys added to the MDC by the scope.
+         * @param values the values of the <tt>keys</tt>.
+         * @return the published snapshot; to be passed to {@link #unpublish(Entry)} when the scope is closed.
+         */
+        Entry publish(String method, String[] keys, String[] values) {
+            final Entry entry = new Entry(method, keys, values, current);
+            current = entry;
+            return entry;
+        }
+
+        /**
+         * Restores the snapshot enclosing the specified one as the innermost scope of the thread.
+         *
+         * @param entry the snapshot of the scope that is closed.
+         */
+        void unpublish(Entry entry) {
+            current = entry.parent;
+        }
+
+        /**
+         * Collects the methods, outermost first, and the keys and values of the snapshots enclosing, and including, the
+         * specified snapshot.
+         *
+         * @return the outermost snapshot.
+         */
+        private static Entry collect(Entry innermost, List<String> methods, Map<String, String> context) {
+            final Deque<Entry> entries = new ArrayDeque<>();
+            for (Entry entry = innermost; entry != null; entry = entry.parent) {
+                entries.push(entry);
+            }
+            for (Entry entry : entries) {
+                methods.add(entry.method);
+                for (int i = 0; i < entry.keys.length; i++) {
+                    context.put(entry.keys[i], entry.values[i]);
+                }
+            }
+            return entries.getFirst();
+        }
+    }
+
+    /**
+     * The immutable snapshot of a published scope.
+     */
+    static final class Entry {
+        private final String method;
+        private final String[] keys;
+        private final String[] values;
+        private final long openedMillis;
+        private final Entry parent;
+
+        private Entry(String method, String[] keys, String[] values, Entry parent) {
+            this.method = method;
+            this.keys = keys;
+            this.values = values;
+            this.openedMillis = System.currentTimeMillis();
+            this.parent = parent;
+        }
+    }
+}
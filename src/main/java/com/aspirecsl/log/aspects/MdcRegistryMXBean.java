@@ -0,0 +1,42 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.List;
+
+/**
+ * The management interface of the registry of the MDC each thread is working with.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcRegistry
+ * @since 1d
+ */
+public interface MdcRegistryMXBean {
+
+    /**
+     * Returns <tt>True</tt> if the scopes are published. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the scopes are published. Otherwise, <tt>False</tt>.
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables, or disables, the publishing of the scopes.
+     *
+     * @param enabled <tt>True</tt> to publish the scopes; <tt>False</tt> otherwise.
+     */
+    void setRegistryEnabled(boolean enabled);
+
+    /**
+     * Returns the current context of each thread with a published scope.
+     *
+     * @return the current context of each thread with a published scope.
+     */
+    List<MdcThreadContext> getThreads();
+
+    /**
+     * Returns a textual dump of the current context of each thread with a published scope.
+     *
+     * @return a textual dump of the current context of each thread with a published scope.
+     */
+    String dumpThreads();
+}
@@ -0,0 +1,105 @@
+package com.aspirecsl.log.aspects;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the CPU time consumed, and the bytes allocated, by the calls of an accounted method; for one value of its
+ * segment key.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMetrics
+ * @see com.aspirecsl.log.MdcAccounting
+ * @since 1d
+ */
+public final class MdcResourceStatistics {
+
+    private final String method;
+    private final String segmentKey;
+    private final String segment;
+    private final long calls;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    /**
+     * Creates a snapshot of the resources used by the calls of an accounted method, for one segment.
+     *
+     * @param method         the name of the method.
+     * @param segmentKey     the MDC key whose values segment the accounts.
+     * @param segment        the value of the segment key.
+     * @param calls          the number of calls in the segment.
+     * @param cpuNanos       the CPU time consumed by the calls, in nanoseconds.
+     * @param allocatedBytes the bytes allocated by the calls.
+     */
+    @ConstructorProperties({ "method", "segmentKey", "segment", "calls", "cpuNanos", "allocatedBytes" })
+    public MdcResourceStatistics(String method, String segmentKey, String segment, long calls, long cpuNanos,
+                                 long allocatedBytes) {
+        this.method = method;
+        this.segmentKey = segmentKey;
+        this.segment = segment;
+        this.calls = calls;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns the name of the method.
+     *
+     * @return the name of the method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the MDC key whose values segment the accounts.
+     *
+     * @return the MDC key whose values segment the accounts.
+     */
+    public String getSegmentKey() {
+        return segmentKey;
+    }
+
+    /**
+     * Returns the value of the segment key; or {@value MdcLatencyStatistics#OVERFLOW}, or
+     * {@value MdcLatencyStatistics#ABSENT}.
+     *
+     * @return the value of the segment key.
+     */
+    public String getSegment() {
+        return segment;
+    }
+
+    /**
+     * Returns the number of calls in the segment.
+     *
+     * @return the number of calls in the segment.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the CPU time consumed by the calls, in nanoseconds; or <tt>0</tt> if unavailable on this platform.
+     *
+     * @return the CPU time consumed by the calls.
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the calls; or <tt>0</tt> if unavailable on this platform.
+     *
+     * @return the bytes allocated by the calls.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MdcResourceStatistics{method=" + method + ", segmentKey=" + segmentKey + ", segment=" + segment + ", calls="
+                + calls + ", cpuNanos=" + cpuNanos + ", allocatedBytes=" + allocatedBytes + "}";
+    }
+}
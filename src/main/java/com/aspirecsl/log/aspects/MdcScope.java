@@ -0,0 +1,671 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.aspirecsl.log.correlation.CorrelationIds;
+import com.aspirecsl.log.format.MdcFormatters;
+
+/**
+ * A block of code during which values are added to the Mapped Diagnostic Context <em>(MDC)</em> of a logging framework.
+ * <p>This is the programmatic equivalent of an MDC aware method; intended for code that cannot be woven by <tt>AspectJ</tt>,
+ * such as hot loops. The values are added to the scope using the same {@link MdcSpec}s that the MDC annotations compile to;
+ * and, when the scope is closed, the values added by the scope are removed from the MDC. For example:-
+ * <pre>
+ *
+ *     private static final MdcSpec ORDER_ID = MdcSpec.getter("getId", "orderId");
+ *
+ *     for (Order order : orders) {
+ *         try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J, ORDER_ID, order)) {
+ *             // do something
+ *         }
+ *     }
+ * </pre>
+ * <p>Scopes are pooled per thread; so opening and closing a scope does not allocate once the pool has warmed up. This
+ * means that a scope must only be used on the thread that opened it, and must not be used once it is closed. Scopes are
+ * <em>nested</em>; closing a scope also closes the scopes opened after it on the same thread that are still open.
+ * <p>The <tt>MdcAspect</tt> advice uses the same scopes to populate the MDC for an <em>advised</em> method.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcSpec
+ * @see MdcBackend
+ * @see MdcAspect
+ * @since 1d
+ */
+public final class MdcScope implements MdcSink, AutoCloseable {
+
+    /**
+     * The initial number of keys that a scope can track without growing.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The stack of pooled scopes of each thread.
+     */
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+    /**
+     * The stack of scopes of the thread that owns this scope.
+     */
+    private final Frames frames;
+
+    /**
+     * The position of this scope in the stack of scopes.
+     */
+    private final int depth;
+
+    /**
+     * A <tt>List</tt> view of the keys added to the MDC by this scope.
+     */
+    private final KeyList keyList = new KeyList();
+
+    /**
+     * The keys added to the MDC by this scope.
+     */
+    private String[] keys = new String[INITIAL_CAPACITY];
+
+    /**
+     * The values of the keys added to the MDC by this scope; as added.
+     */
+    private String[] values = new String[INITIAL_CAPACITY];
+
+    /**
+     * The number of keys added to the MDC by this scope.
+     */
+    private int size;
+
+    /**
+     * The total length of the keys and values added to the MDC by this scope.
+     */
+    private long bytes;
+
+    /**
+     * The number of operations on the MDC made by this scope since it was opened; including the removal of its keys when
+     * closed.
+     */
+    private int operations;
+
+    /**
+     * The budget of the entries added by this scope.
+     */
+    private MdcBudget budget;
+
+    /**
+     * The API for the MDC implementation of the logging framework in use; or <tt>null</tt> if this scope is closed.
+     */
+    private MdcImplementationAware mdcApi;
+
+    /**
+     * The snapshot of this scope published to the <tt>MdcRegistry</tt>; or <tt>null</tt> if not published.
+     */
+    private MdcRegistry.Entry published;
+
+    /**
+     * Whether the start of the method of this scope is stamped into the slot of the thread, for the <tt>MdcWatchdog</tt>.
+     */
+    private boolean stamped;
+
+    /**
+     * The number of times this scope has been opened; to tell the uses of the pooled scope apart.
+     */
+    private int generation;
+
+    private MdcScope(Frames frames, int depth) {
+        this.frames = frames;
+        this.depth = depth;
+    }
+
+    /**
+     * Opens a scope on the MDC of the specified logging framework.
+     *
+     * @param backend the logging framework whose MDC is populated by the scope.
+     * @return the opened scope.
+     */
+    public static MdcScope open(MdcBackend backend) {
+        return FRAMES.get().push(backend.mdcApi(), MdcBudget.UNLIMITED);
+    }
+
+    /**
+     * Opens a scope on the MDC of the specified logging framework; whose entries are limited by the <tt>budget</tt>, in
+     * addition to the global budget.
+     *
+     * @param backend the logging framework whose MDC is populated by the scope.
+     * @param budget  the budget of the entries added by the scope.
+     * @return the opened scope.
+     * @see MdcBudget
+     */
+    public static MdcScope open(MdcBackend backend, MdcBudget budget) {
+        return FRAMES.get().push(backend.mdcApi(), budget);
+    }
+
+    /**
+     * Opens a scope on the MDC of the specified logging framework; and adds the <tt>value</tt> to it as per the <tt>spec</tt>.
+     *
+     * @param backend the logging framework whose MDC is populated by the scope.
+     * @param spec    the spec describing how the <tt>value</tt> is added to the MDC.
+     * @param value   the value to be added to the MDC.
+     * @return the opened scope.
+     * @throws IllegalArgumentException if the <tt>spec</tt> is incompatible with the <tt>value</tt>; in which case the scope
+     *                                  is closed before the exception is thrown.
+     */
+    public static MdcScope open(MdcBackend backend, MdcSpec spec, Object value) {
+        final MdcScope scope = open(backend);
+        try {
+            return scope.bind(spec, value);
+        } catch (RuntimeException | Error ex) {
+            scope.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Adds the <tt>value</tt> to the MDC as per the <tt>spec</tt>.
+     *
+     * @param spec  the spec describing how the <tt>value</tt> is added to the MDC.
+     * @param value the value to be added to the MDC.
+     * @return this scope.
+     * @throws IllegalArgumentException if the <tt>spec</tt> is incompatible with the <tt>value</tt>.
+     * @throws IllegalStateException    if this scope is closed.
+     */
+    public MdcScope bind(MdcSpec spec, Object value) {
+        spec.binder().bind(value, this);
+        return this;
+    }
+
+    /**
+     * Returns a view of the <tt>elements</tt> that adds the entries of each element to the MDC, as per the <tt>spec</tt>, as
+     * the element is consumed; in place of the entries of the previous element. For example:-
+     * <pre>
+     *
+     *     private static final MdcSpec ORDER_ID = MdcSpec.getter("getId", "orderId");
+     *
+     *     try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)) {
+     *         for (Order order : scope.iterate(ORDER_ID, orders)) {
+     *             // do something
+     *         }
+     *     }
+     * </pre>
+     * <p>Only the entries whose values differ from those of the previous element are written to the MDC; and the entries
+     * that an element does not supply are removed from the MDC. The entries are removed from the MDC when this scope is
+     * closed. The elements are added to the MDC only when they are consumed on the thread that opened this scope, and only
+     * while this scope is open.
+     *
+     * @param spec     the spec describing how each element is added to the MDC.
+     * @param elements the elements to be iterated over; or <tt>null</tt>.
+     * @param <T>      the type of the elements.
+     * @return the view of the <tt>elements</tt>; or <tt>null</tt> if the <tt>elements</tt> is <tt>null</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see com.aspirecsl.log.MdcIterate
+     */
+    public <T> Iterable<T> iterate(MdcSpec spec, Iterable<T> elements) {
+        return elements == null ? null : iteration(spec.binder()).iterable(elements);
+    }
+
+    /**
+     * Returns a view of the <tt>elements</tt> that adds the entries of each element to the MDC, as per the <tt>spec</tt>, as
+     * the element is iterated over.
+     *
+     * @param spec     the spec describing how each element is added to the MDC.
+     * @param elements the elements to be iterated over; or <tt>null</tt>.
+     * @param <T>      the type of the elements.
+     * @return the view of the <tt>elements</tt>; or <tt>null</tt> if the <tt>elements</tt> is <tt>null</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #iterate(MdcSpec, Iterable)
+     */
+    public <T> Collection<T> iterate(MdcSpec spec, Collection<T> elements) {
+        return elements == null ? null : iteration(spec.binder()).collection(elements);
+    }
+
+    /**
+     * Returns a view of the <tt>elements</tt> that adds the entries of each element to the MDC, as per the <tt>spec</tt>, as
+     * the element is read; whether by index or by iterating over the list.
+     *
+     * @param spec     the spec describing how each element is added to the MDC.
+     * @param elements the elements to be iterated over; or <tt>null</tt>.
+     * @param <T>      the type of the elements.
+     * @return the view of the <tt>elements</tt>; or <tt>null</tt> if the <tt>elements</tt> is <tt>null</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #iterate(MdcSpec, Iterable)
+     */
+    public <T> List<T> iterate(MdcSpec spec, List<T> elements) {
+        return elements == null ? null : iteration(spec.binder()).list(elements);
+    }
+
+    /**
+     * Returns a view of the <tt>elements</tt> that adds the entries of each element to the MDC, as per the <tt>spec</tt>, as
+     * the element is iterated over.
+     *
+     * @param spec     the spec describing how each element is added to the MDC.
+     * @param elements the elements to be iterated over; or <tt>null</tt>.
+     * @param <T>      the type of the elements.
+     * @return the view of the <tt>elements</tt>; or <tt>null</tt> if the <tt>elements</tt> is <tt>null</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #iterate(MdcSpec, Iterable)
+     */
+    public <T> Set<T> iterate(MdcSpec spec, Set<T> elements) {
+        return elements == null ? null : iteration(spec.binder()).set(elements);
+    }
+
+    /**
+     * Returns an iterator over the <tt>elements</tt> that adds the entries of each element to the MDC, as per the
+     * <tt>spec</tt>, as the element is returned.
+     *
+     * @param spec     the spec describing how each element is added to the MDC.
+     * @param elements the iterator over the elements; or <tt>null</tt>.
+     * @param <T>      the type of the elements.
+     * @return the iterator over the <tt>elements</tt>; or <tt>null</tt> if the <tt>elements</tt> is <tt>null</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #iterate(MdcSpec, Iterable)
+     */
+    public <T> Iterator<T> iterate(MdcSpec spec, Iterator<T> elements) {
+        return elements == null ? null : iteration(spec.binder()).iterator(elements);
+    }
+
+    /**
+     * Returns a stream of the <tt>elements</tt> that adds the entries of each element to the MDC, as per the <tt>spec</tt>,
+     * as the element is taken from the <tt>elements</tt> by the stream. The elements of a parallel stream are added to the
+     * MDC only when they are processed on the thread that opened this scope.
+     * <p>The MDC therefore follows the element taken last; which is the element being processed by the stream, unless the
+     * stream has a stateful operation. Such as <tt>sorted()</tt> or <tt>distinct()</tt>; which take every element, or a
+     * few of them, before passing any on; so the operations after them see the MDC of the element taken last. A terminal
+     * operation, such as <tt>count()</tt>, that computes its result without taking the elements adds none to the MDC.
+     * Closing the returned stream closes the <tt>elements</tt>.
+     *
+     * @param spec     the spec describing how each element is added to the MDC.
+     * @param elements the stream of the elements; or <tt>null</tt>.
+     * @param <T>      the type of the elements.
+     * @return the stream of the <tt>elements</tt>; or <tt>null</tt> if the <tt>elements</tt> is <tt>null</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #iterate(MdcSpec, Iterable)
+     */
+    public <T> Stream<T> iterate(MdcSpec spec, Stream<T> elements) {
+        return elements == null ? null : iteration(spec.binder()).stream(elements);
+    }
+
+    /**
+     * Starts an iteration adding the elements of a batch to the MDC via this scope.
+     *
+     * @param binder the binder supplying the MDC entries of each element.
+     * @return the iteration.
+     * @throws IllegalStateException if this scope is closed.
+     */
+    MdcIteration iteration(ArgumentBinder binder) {
+        if (mdcApi == null) {
+            throw new IllegalStateException("MdcScope is closed.");
+        }
+        return new MdcIteration(this, binder);
+    }
+
+    /**
+     * Adds the given <tt>key:value</tt> pair to the MDC; the <tt>key</tt> is removed from the MDC when this scope is closed.
+     * <p>The <tt>value</tt> is truncated if it is longer than allowed by the budget of this scope, or the global budget. The
+     * pair is dropped if it does not fit in either of those budgets.
+     *
+     * @param key   the key to add to the MDC.
+     * @param value the value to associate with the <tt>key</tt> in the MDC.
+     * @throws IllegalStateException if this scope is closed.
+     * @see MdcBudget
+     */
+    @Override
+    public void put(String key, String value) {
+        if (mdcApi == null) {
+            throw new IllegalStateException("MdcScope is closed.");
+        }
+        final MdcBudget global = MdcBudget.global();
+        final String fitted = MdcBudget.truncate(value, Math.min(budget.maxValueLength, global.maxValueLength));
+        final int length = key.length() + (fitted == null ? 0 : fitted.length());
+        if (size >= budget.maxKeys
+                || frames.keys >= global.maxKeys
+                || bytes + length > budget.maxTotalBytes
+                || frames.bytes + length > global.maxTotalBytes) {
+            MdcBudget.dropped();
+            return;
+        }
+        mdcApi.put(key, fitted);
+        operations++;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = fitted;
+        keys[size++] = key;
+        bytes += length;
+        frames.keys++;
+        frames.bytes += length;
+    }
+
+    /**
+     * Replaces the value of the key added to the MDC by this scope at the specified <tt>index</tt>; or removes the key from
+     * the MDC if the <tt>value</tt> is <tt>null</tt>. The key is still removed from the MDC when this scope is closed.
+     * <p>The <tt>value</tt> is truncated as by {@link #put(String, String)}; but is not checked against the total length
+     * allowed by the budgets, which the key has been admitted to already.
+     *
+     * @param index the index of the key in this scope.
+     * @param value the value to associate with the key in the MDC; or <tt>null</tt> to remove the key from the MDC.
+     * @throws IllegalStateException if this scope is closed.
+     */
+    void replace(int index, String value) {
+        if (mdcApi == null) {
+            throw new IllegalStateException("MdcScope is closed.");
+        }
+        final String fitted = MdcBudget.truncate(value, Math.min(budget.maxValueLength, MdcBudget.global().maxValueLength));
+        if (fitted == null) {
+            mdcApi.removeAll(Collections.singletonList(keys[index]));
+        } else {
+            mdcApi.put(keys[index], fitted);
+        }
+        operations++;
+        final int delta = (fitted == null ? 0 : fitted.length()) - (values[index] == null ? 0 : values[index].length());
+        values[index] = fitted;
+        bytes += delta;
+        frames.bytes += delta;
+    }
+
+    /**
+     * Adds the decimal representation of the <tt>value</tt> to the MDC; without boxing the <tt>value</tt>.
+     *
+     * @param key   the key to add to the MDC.
+     * @param value the value to associate with the <tt>key</tt> in the MDC.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #put(String, String)
+     */
+    public void putInt(String key, int value) {
+        put(key, MdcStrings.valueOf(value));
+    }
+
+    /**
+     * Adds the decimal representation of the <tt>value</tt> to the MDC; without boxing the <tt>value</tt>.
+     *
+     * @param key   the key to add to the MDC.
+     * @param value the value to associate with the <tt>key</tt> in the MDC.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #put(String, String)
+     */
+    public void putLong(String key, long value) {
+        put(key, MdcStrings.valueOf(value));
+    }
+
+    /**
+     * Adds <tt>"true"</tt> or <tt>"false"</tt> to the MDC; without boxing the <tt>value</tt>.
+     *
+     * @param key   the key to add to the MDC.
+     * @param value the value to associate with the <tt>key</tt> in the MDC.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #put(String, String)
+     */
+    public void putBoolean(String key, boolean value) {
+        put(key, value ? "true" : "false");
+    }
+
+    /**
+     * Adds the <tt>String</tt> representation of the <tt>enum</tt> constant to the MDC; which is cached per constant.
+     *
+     * @param key   the key to add to the MDC.
+     * @param value the value to associate with the <tt>key</tt> in the MDC; <tt>null</tt> is added as <tt>"null"</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #put(String, String)
+     */
+    public void putEnum(String key, Enum<?> value) {
+        put(key, MdcStrings.valueOf(value));
+    }
+
+    /**
+     * Adds the representation of the <tt>value</tt>, rendered by the formatter registered with <tt>MdcFormatters</tt> for its
+     * class, to the MDC; as done for an <tt>MdcValue</tt> annotated argument.
+     * <p>The <tt>int</tt>, <tt>long</tt>, <tt>boolean</tt> and <tt>enum</tt> values are rendered without boxing by the
+     * {@link #putInt(String, int)}, {@link #putLong(String, long)}, {@link #putBoolean(String, boolean)} and
+     * {@link #putEnum(String, Enum)} methods; which are named apart from this one, so that <tt>put(key, null)</tt> resolves
+     * to {@link #put(String, String)}.
+     *
+     * @param key   the key to add to the MDC.
+     * @param value the value to associate with the <tt>key</tt> in the MDC; <tt>null</tt> is added as <tt>"null"</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     * @see #put(String, String)
+     * @see MdcFormatters
+     */
+    public void put(String key, Object value) {
+        put(key, MdcStrings.valueOf(value));
+    }
+
+    /**
+     * Adds a correlation id, generated by the current <tt>CorrelationIdGenerator</tt>, to the MDC with the specified
+     * <tt>key</tt>; unless the MDC already contains the <tt>key</tt>. A generated id is removed from the MDC when this scope
+     * is closed.
+     *
+     * @param key the MDC key of the correlation id.
+     * @throws IllegalStateException if this scope is closed.
+     * @see CorrelationIds
+     */
+    public void correlate(String key) {
+        if (get(key) == null) {
+            put(key, CorrelationIds.nextId());
+        }
+    }
+
+    /**
+     * Returns the value associated with the specified <tt>key</tt> in the MDC populated by this scope; which includes the
+     * values added by the other scopes, and by the application.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the value associated with the <tt>key</tt>; or <tt>null</tt> if the MDC does not contain the <tt>key</tt>.
+     * @throws IllegalStateException if this scope is closed.
+     */
+    String get(String key) {
+        if (mdcApi == null) {
+            throw new IllegalStateException("MdcScope is closed.");
+        }
+        operations++;
+        return mdcApi.get(key);
+    }
+
+    /**
+     * Publishes a snapshot of the keys and values added to the MDC by this scope so far, as the innermost scope of the thread,
+     * to the <tt>MdcRegistry</tt>; unless already published.
+     *
+     * @param method the name of the method, or the block of code, that this scope belongs to.
+     * @throws IllegalStateException if this scope is closed.
+     */
+    void publish(String method) {
+        if (mdcApi == null) {
+            throw new IllegalStateException("MdcScope is closed.");
+        }
+        if (published == null) {
+            published = frames.slot().publish(method, Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+        }
+    }
+
+    /**
+     * Stamps the start of the method of this scope into the slot of the thread, for the <tt>MdcWatchdog</tt>; unless the start
+     * of an enclosing method is stamped already.
+     *
+     * @param method  the name of the method that this scope belongs to.
+     * @param backend the logging framework whose MDC is populated by this scope.
+     * @param tick    the current tick of the watchdog.
+     * @throws IllegalStateException if this scope is closed.
+     */
+    void stamp(String method, MdcBackend backend, long tick) {
+        if (mdcApi == null) {
+            throw new IllegalStateException("MdcScope is closed.");
+        }
+        if (!stamped) {
+            stamped = frames.slot().stamp(method, backend, tick);
+        }
+    }
+
+    /**
+     * Returns <tt>True</tt> if the specified <tt>key</tt> has been added to the MDC of the specified logging framework by a
+     * scope of the current thread that is still open. Otherwise, <tt>False</tt>.
+     *
+     * @param mdcApi the API for the MDC implementation of the logging framework.
+     * @param key    the MDC key.
+     * @return <tt>True</tt> if the <tt>key</tt> is owned by an open scope of the current thread. Otherwise, <tt>False</tt>.
+     */
+    static boolean owns(MdcImplementationAware mdcApi, String key) {
+        final Frames frames = FRAMES.get();
+        for (int i = 0; i < frames.depth; i++) {
+            final MdcScope scope = frames.scopes[i];
+            if (scope.mdcApi != mdcApi) {
+                continue;
+            }
+            for (int j = 0; j < scope.size; j++) {
+                if (scope.keys[j].equals(key)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of keys added to the MDC by this scope.
+     *
+     * @return the number of keys added to the MDC by this scope.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of operations on the MDC made by this scope; including the removal of its keys, once closed.
+     * <p>The count of a closed scope is kept until the scope is reused by the next <tt>open</tt> on the same thread.
+     *
+     * @return the number of operations on the MDC made by this scope.
+     */
+    public int operations() {
+        return operations;
+    }
+
+    /**
+     * Returns the number of times this scope has been opened.
+     *
+     * @return the generation of this scope.
+     */
+    int generation() {
+        return generation;
+    }
+
+    /**
+     * Returns <tt>True</tt> if this scope is open, and has not been reopened, since the specified <tt>generation</tt>.
+     * Otherwise, <tt>False</tt>.
+     *
+     * @param generation the generation of this scope when it was last known to be open.
+     * @return <tt>True</tt> if this scope is still open in the <tt>generation</tt>. Otherwise, <tt>False</tt>.
+     */
+    boolean isOpen(int generation) {
+        return mdcApi != null && this.generation == generation;
+    }
+
+    /**
+     * Closes this scope; removing the keys added by this scope from the MDC.
+     * <p>Any scopes opened after this scope on the same thread that are still open are closed first. Closing a closed scope
+     * has no effect.
+     */
+    @Override
+    public void close() {
+        if (mdcApi == null) {
+            return;
+        }
+        while (frames.depth > depth + 1) {
+            frames.scopes[frames.depth - 1].close();
+        }
+        try {
+            if (published != null) {
+                frames.slot.unpublish(published);
+                published = null;
+            }
+            if (stamped) {
+                frames.slot.clearStamp();
+                stamped = false;
+            }
+            if (size > 0) {
+                mdcApi.removeAll(keyList);
+                operations++;
+            }
+        } finally {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            frames.keys -= size;
+            frames.bytes -= bytes;
+            size = 0;
+            bytes = 0;
+            mdcApi = null;
+            frames.depth = depth;
+        }
+    }
+
+    /**
+     * The pooled scopes of a thread; the scopes below <tt>depth</tt> are open.
+     */
+    private static final class Frames {
+        private MdcScope[] scopes = new MdcScope[INITIAL_CAPACITY];
+        private int depth;
+
+        /**
+         * The number of keys added to the MDC by the open scopes.
+         */
+        private int keys;
+
+        /**
+         * The total length of the keys and values added to the MDC by the open scopes.
+         */
+        private long bytes;
+
+        /**
+         * The slot of the thread in the <tt>MdcRegistry</tt>; registered when a scope is first published.
+         */
+        private MdcRegistry.Slot slot;
+
+        MdcRegistry.Slot slot() {
+            if (slot == null) {
+                slot = MdcRegistry.register();
+            }
+            return slot;
+        }
+
+        MdcScope push(MdcImplementationAware mdcApi, MdcBudget budget) {
+            if (depth == scopes.length) {
+                scopes = Arrays.copyOf(scopes, depth * 2);
+            }
+            MdcScope scope = scopes[depth];
+            if (scope == null) {
+                scope = scopes[depth] = new MdcScope(this, depth);
+            }
+            scope.mdcApi = mdcApi;
+            scope.budget = budget;
+            scope.operations = 0;
+            scope.generation++;
+            depth++;
+            return scope;
+        }
+    }
+
+    /**
+     * A <tt>List</tt> view of the keys added to the MDC by the enclosing scope; to remove them without copying.
+     */
+    private final class KeyList extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            return keys[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(Consumer<? super String> action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+}
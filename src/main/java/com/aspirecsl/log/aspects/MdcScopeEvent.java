@@ -0,0 +1,93 @@
+package com.aspirecsl.log.aspects;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The <tt>Java Flight Recorder</tt> event recorded for the MDC scope of an <em>advised</em> method; which starts when the
+ * advice is entered, and ends when the values added by the advice are removed from the MDC.
+ * <p>This class is loaded only if the <tt>Java Flight Recorder</tt> API is available; it must be used via {@link MdcEvents}.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcEvents
+ * @since 1d
+ */
+@Name(MdcScopeEvent.NAME)
+@Label("MDC Scope")
+@Category({ "Log Utils", "MDC" })
+@Description("The MDC scope of a method advised by MdcAspect")
+@StackTrace(false)
+final class MdcScopeEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    static final String NAME = "com.aspirecsl.log.MdcScope";
+
+    @Label("Method")
+    @Description("The advised method, with its declaring class and parameter types")
+    String method;
+
+    @Label("Keys")
+    @Description("The number of keys added to the MDC by the advice")
+    int keys;
+
+    @Label("Extraction Time")
+    @Description("The time taken to extract the values from the arguments and add them to the MDC")
+    @Timespan(Timespan.NANOSECONDS)
+    long extractionTime;
+
+    @Label("Context")
+    @Description("The values of the MDC keys selected by MdcEvents.setContextKeys(); as key=value pairs")
+    String context;
+
+    /**
+     * The <tt>System.nanoTime()</tt> when the extraction started; not recorded.
+     */
+    transient long extractionStarted;
+
+    /**
+     * Whether the extraction completed; not recorded.
+     */
+    transient boolean extractionCompleted;
+
+    /**
+     * Returns a started event; or <tt>null</tt> if the event is not enabled in any running recording.
+     *
+     * @return a started event; or <tt>null</tt> if the event is not enabled.
+     */
+    static MdcScopeEvent beginIfEnabled() {
+        final MdcScopeEvent event = new MdcScopeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.extractionStarted = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * Marks the end of the extraction of the MDC values.
+     */
+    void extracted() {
+        extractionTime = System.nanoTime() - extractionStarted;
+        extractionCompleted = true;
+    }
+
+    /**
+     * Ends this event; the extraction time of an event whose extraction did not complete <em>(e.g. rejected an
+     * argument)</em> is the time elapsed until the end.
+     */
+    void endScope() {
+        if (!extractionCompleted) {
+            extractionTime = System.nanoTime() - extractionStarted;
+        }
+        end();
+    }
+}
@@ -0,0 +1,21 @@
+package com.aspirecsl.log.aspects;
+
+/**
+ * Receives the <tt>key:value</tt> pairs extracted from the arguments of an MDC aware method.
+ * <p>The MDC implementation of a logging framework is the obvious sink; but the same extraction rules are used to build a
+ * detached {@link MdcContext} that is installed later on. The sink is also the target of the generated {@link MdcExtractor}s.
+ *
+ * @author anoopr
+ * @version 1d
+ * @since 1d
+ */
+@FunctionalInterface
+public interface MdcSink {
+    /**
+     * Accepts the given <tt>key:value</tt> pair.
+     *
+     * @param key   the MDC key.
+     * @param value the value to associate with the <tt>key</tt>.
+     */
+    void put(String key, String value);
+}
@@ -0,0 +1,379 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Arrays;
+
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.MdcParams;
+import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.format.MdcFormatter;
+
+/**
+ * The programmatic equivalent of an MDC annotation on a method parameter.
+ * <p>A spec is compiled when it is created, into the same form that the <tt>MdcAspect</tt> advice compiles the annotations
+ * to; hence, a spec binds a value exactly as the equivalent annotation would. Specs are <em>immutable</em> and are meant to be
+ * created once and held in a <tt>static final</tt> field. For example:-
+ * <pre>
+ *
+ *     private static final MdcSpec HEADERS = MdcSpec.map(new String[] { "tenant" }, new String[0], "request");
+ *     private static final MdcSpec ORDER = MdcSpec.of(MdcSpec.getter("getId", "orderId"), MdcSpec.field("channel"));
+ *
+ *     try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J).bind(HEADERS, headers).bind(ORDER, order)) {
+ *         // do something
+ *     }
+ * </pre>
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcScope
+ * @see MdcContext
+ * @since 1d
+ */
+public final class MdcSpec {
+
+    /**
+     * An empty array of <tt>String</tt>s; i.e. the default <tt>filter</tt> and <tt>nestedMapKeys</tt>.
+     */
+    private static final String[] NONE = new String[0];
+
+    /**
+     * The compiled binder of this spec.
+     */
+    private final ArgumentBinder binder;
+
+    private MdcSpec(ArgumentBinder binder) {
+        this.binder = binder;
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcValue(name = name)}</tt>.
+     *
+     * @param name the key to associate the value with.
+     * @return the equivalent of <tt>{@literal @MdcValue(name = name)}</tt>.
+     * @see MdcValue
+     */
+    public static MdcSpec value(String name) {
+        return value(name, false);
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcValue(name = name, nullable = nullable)}</tt>.
+     *
+     * @param name     the key to associate the value with.
+     * @param nullable whether a <tt>null</tt> value is added as <tt>"null"</tt>.
+     * @return the equivalent of <tt>{@literal @MdcValue(name = name, nullable = nullable)}</tt>.
+     * @see MdcValue
+     */
+    public static MdcSpec value(String name, boolean nullable) {
+        return new MdcSpec(new ArgumentBinder.ValueBinder(name, nullable, Rendering.DEFAULT));
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcValue(name = name, nullable = nullable, formatter = formatter, maxLength =
+     * maxLength)}</tt>.
+     *
+     * @param name      the key to associate the value with.
+     * @param nullable  whether a <tt>null</tt> value is added as <tt>"null"</tt>.
+     * @param formatter the type of the formatter rendering the value; or <tt>MdcFormatter.class</tt> to use the formatter
+     *                  registered for the class of the value.
+     * @param maxLength the maximum length of the rendered value; or a non-positive value for the default cap.
+     * @return the equivalent <tt>MdcValue</tt> spec.
+     * @throws IllegalArgumentException if the <tt>formatter</tt> cannot be instantiated via a <tt>public</tt> no-arg
+     *                                  constructor.
+     * @see MdcValue
+     */
+    @SuppressWarnings("rawtypes")
+    public static MdcSpec value(String name, boolean nullable, Class<? extends MdcFormatter> formatter, int maxLength) {
+        return new MdcSpec(new ArgumentBinder.ValueBinder(name, nullable, Rendering.of(formatter, maxLength)));
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcMap}</tt>.
+     *
+     * @return the equivalent of <tt>{@literal @MdcMap}</tt>.
+     * @see MdcMap
+     */
+    public static MdcSpec map() {
+        return map(NONE, NONE, "");
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcMap(filter = filter, nestedMapKeys = nestedMapKeys, mdcKeyPrefix =
+     * mdcKeyPrefix)}</tt>.
+     *
+     * @param filter        the <em>case-insensitive</em> filters to select relevant entries from the map.
+     * @param nestedMapKeys the keys associated with the nested maps that supply the MDC entries.
+     * @param mdcKeyPrefix  the <tt>String</tt> prefixed to the keys before adding them to the MDC.
+     * @return the equivalent <tt>MdcMap</tt> spec.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     * @see MdcMap
+     */
+    public static MdcSpec map(String[] filter, String[] nestedMapKeys, String mdcKeyPrefix) {
+        return map(filter, nestedMapKeys, mdcKeyPrefix, 0, 0);
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcMap(filter = filter, nestedMapKeys = nestedMapKeys, mdcKeyPrefix =
+     * mdcKeyPrefix, maxKeys = maxKeys, maxValueLength = maxValueLength)}</tt>.
+     *
+     * @param filter         the <em>case-insensitive</em> filters to select relevant entries from the map.
+     * @param nestedMapKeys  the keys associated with the nested maps that supply the MDC entries.
+     * @param mdcKeyPrefix   the <tt>String</tt> prefixed to the keys before adding them to the MDC.
+     * @param maxKeys        the maximum number of entries added from the map; or a non-positive value for no limit.
+     * @param maxValueLength the maximum length of a value added from the map; or a non-positive value for no limit.
+     * @return the equivalent <tt>MdcMap</tt> spec.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     * @see MdcMap
+     */
+    public static MdcSpec map(String[] filter, String[] nestedMapKeys, String mdcKeyPrefix, int maxKeys,
+            int maxValueLength) {
+        return new MdcSpec(new ArgumentBinder.MapBinder(filter, nestedMapKeys, mdcKeyPrefix, maxKeys, maxValueLength));
+    }
+
+    /**
+     * Returns the spec adding every header of a message to the MDC; the headers being a <tt>Map</tt> whose keys and values are
+     * <tt>ByteBuffer</tt>, <tt>byte[]</tt> or <tt>CharSequence</tt> objects.
+     *
+     * @return the spec adding every header of a message to the MDC.
+     * @see #headers(String[], String)
+     */
+    public static MdcSpec headers() {
+        return headers(NONE, "");
+    }
+
+    /**
+     * Returns the spec adding the relevant headers of a message to the MDC; as <tt>{@literal @MdcMap(filter = filter,
+     * mdcKeyPrefix = mdcKeyPrefix)}</tt> does for a {@literal Map<String,String>}. The headers are a <tt>Map</tt> whose keys
+     * and values are <tt>ByteBuffer</tt>, <tt>byte[]</tt> or <tt>CharSequence</tt> objects; the bytes being <tt>UTF-8</tt>.
+     * <p>The headers are parsed in place; the names are matched against the <tt>filter</tt> as {@link Utf8Sequence} views of
+     * their bytes, and only the names and the values of the matching headers are decoded into <tt>String</tt>s. The positions
+     * of the buffers are not changed.
+     * <p>Of a header holding a <tt>List</tt> of values, like those of the <tt>com.sun.net.httpserver.Headers</tt>, the first
+     * value is added.
+     *
+     * @param filter       the <em>case-insensitive</em> names, or patterns, of the headers to be added to the MDC; or an empty
+     *                     array to add every header.
+     * @param mdcKeyPrefix the <tt>String</tt> prefixed to the names of the headers before adding them to the MDC.
+     * @return the spec adding the relevant headers of a message to the MDC.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     * @see MdcMap
+     */
+    public static MdcSpec headers(String[] filter, String mdcKeyPrefix) {
+        return new MdcSpec(new ArgumentBinder.HeaderBinder(filter, mdcKeyPrefix));
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcHolder}</tt>.
+     *
+     * @return the equivalent of <tt>{@literal @MdcHolder}</tt>.
+     * @see MdcHolder
+     */
+    public static MdcSpec holder() {
+        return holder(NONE, "");
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcHolder(filter = filter, mdcKeyPrefix = mdcKeyPrefix)}</tt>.
+     *
+     * @param filter       the <em>case-insensitive</em> filters to select relevant entries from the diagnostic context.
+     * @param mdcKeyPrefix the <tt>String</tt> prefixed to the keys before adding them to the MDC.
+     * @return the equivalent <tt>MdcHolder</tt> spec.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     * @see MdcHolder
+     */
+    public static MdcSpec holder(String[] filter, String mdcKeyPrefix) {
+        return new MdcSpec(new ArgumentBinder.HolderBinder(filter, mdcKeyPrefix));
+    }
+
+    /**
+     * Returns the element of a <tt>filter</tt> that matches the specified <tt>name</tt> only; i.e. the <tt>name</tt> with its
+     * wildcards <em>(<tt>*</tt> and <tt>?</tt>)</em>, backslashes and leading slash escaped by a backslash. So that a name
+     * holding those characters is not matched as a glob or a regular expression.
+     *
+     * @param name the name to be matched literally.
+     * @return the element of a <tt>filter</tt> matching the <tt>name</tt> only.
+     */
+    public static String literal(String name) {
+        final StringBuilder literal = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (c == '*' || c == '?' || c == '\\' || c == '/' && i == 0) {
+                literal.append('\\');
+            }
+            literal.append(c);
+        }
+        return literal.toString();
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(field = field)}</tt>.
+     *
+     * @param field the name of the field whose value is to be added to the MDC.
+     * @return the equivalent of <tt>{@literal @MdcParam(field = field)}</tt>.
+     * @throws IllegalArgumentException if the <tt>field</tt> is empty.
+     * @see MdcParam
+     */
+    public static MdcSpec field(String field) {
+        return field(field, "");
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(field = field, label = label)}</tt>.
+     *
+     * @param field the name of the field whose value is to be added to the MDC.
+     * @param label the key for the value stored in the MDC; or an empty string to use the <tt>field</tt> name.
+     * @return the equivalent of <tt>{@literal @MdcParam(field = field, label = label)}</tt>.
+     * @throws IllegalArgumentException if the <tt>field</tt> is empty.
+     * @see MdcParam
+     */
+    public static MdcSpec field(String field, String label) {
+        return param(field, "", label, Rendering.DEFAULT);
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(field = field, label = label, formatter = formatter, maxLength =
+     * maxLength)}</tt>.
+     *
+     * @param field     the name of the field whose value is to be added to the MDC.
+     * @param label     the key for the value stored in the MDC; or an empty string to use the <tt>field</tt> name.
+     * @param formatter the type of the formatter rendering the value; or <tt>MdcFormatter.class</tt> to use the formatter
+     *                  registered for the class of the value.
+     * @param maxLength the maximum length of the rendered value; or a non-positive value for the default cap.
+     * @return the equivalent <tt>MdcParam</tt> spec.
+     * @throws IllegalArgumentException if the <tt>field</tt> is empty; or the <tt>formatter</tt> cannot be instantiated via
+     *                                  a <tt>public</tt> no-arg constructor.
+     * @see MdcParam
+     */
+    @SuppressWarnings("rawtypes")
+    public static MdcSpec field(String field, String label, Class<? extends MdcFormatter> formatter, int maxLength) {
+        return param(field, "", label, Rendering.of(formatter, maxLength));
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(getter = getter)}</tt>.
+     *
+     * @param getter the name of the <em>getter</em> method that supplies the value to be added to the MDC.
+     * @return the equivalent of <tt>{@literal @MdcParam(getter = getter)}</tt>.
+     * @throws IllegalArgumentException if the <tt>getter</tt> is empty.
+     * @see MdcParam
+     */
+    public static MdcSpec getter(String getter) {
+        return getter(getter, "");
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(getter = getter, label = label)}</tt>.
+     *
+     * @param getter the name of the <em>getter</em> method that supplies the value to be added to the MDC.
+     * @param label  the key for the value stored in the MDC; or an empty string to use the <tt>getter</tt> name.
+     * @return the equivalent of <tt>{@literal @MdcParam(getter = getter, label = label)}</tt>.
+     * @throws IllegalArgumentException if the <tt>getter</tt> is empty.
+     * @see MdcParam
+     */
+    public static MdcSpec getter(String getter, String label) {
+        return param("", getter, label, Rendering.DEFAULT);
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(getter = getter, label = label, formatter = formatter, maxLength =
+     * maxLength)}</tt>.
+     *
+     * @param getter    the name of the <em>getter</em> method that supplies the value to be added to the MDC.
+     * @param label     the key for the value stored in the MDC; or an empty string to use the <tt>getter</tt> name.
+     * @param formatter the type of the formatter rendering the value; or <tt>MdcFormatter.class</tt> to use the formatter
+     *                  registered for the class of the value.
+     * @param maxLength the maximum length of the rendered value; or a non-positive value for the default cap.
+     * @return the equivalent <tt>MdcParam</tt> spec.
+     * @throws IllegalArgumentException if the <tt>getter</tt> is empty; or the <tt>formatter</tt> cannot be instantiated
+     *                                  via a <tt>public</tt> no-arg constructor.
+     * @see MdcParam
+     */
+    @SuppressWarnings("rawtypes")
+    public static MdcSpec getter(String getter, String label, Class<? extends MdcFormatter> formatter, int maxLength) {
+        return param("", getter, label, Rendering.of(formatter, maxLength));
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(path = path)}</tt>.
+     *
+     * @param path the dot-separated path of the nested property whose value is to be added to the MDC.
+     * @return the equivalent of <tt>{@literal @MdcParam(path = path)}</tt>.
+     * @throws IllegalArgumentException if the <tt>path</tt> is not a dot-separated list of property names.
+     * @see MdcParam#path()
+     */
+    public static MdcSpec path(String path) {
+        return path(path, "");
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(path = path, label = label)}</tt>.
+     *
+     * @param path  the dot-separated path of the nested property whose value is to be added to the MDC.
+     * @param label the key for the value stored in the MDC; or an empty string to use the <tt>path</tt>.
+     * @return the equivalent of <tt>{@literal @MdcParam(path = path, label = label)}</tt>.
+     * @throws IllegalArgumentException if the <tt>path</tt> is not a dot-separated list of property names.
+     * @see MdcParam#path()
+     */
+    public static MdcSpec path(String path, String label) {
+        return path(path, label, Rendering.DEFAULT);
+    }
+
+    /**
+     * Returns the equivalent of <tt>{@literal @MdcParam(path = path, label = label, formatter = formatter, maxLength =
+     * maxLength)}</tt>.
+     *
+     * @param path      the dot-separated path of the nested property whose value is to be added to the MDC.
+     * @param label     the key for the value stored in the MDC; or an empty string to use the <tt>path</tt>.
+     * @param formatter the type of the formatter rendering the value; or <tt>MdcFormatter.class</tt> to use the formatter
+     *                  registered for the class of the value.
+     * @param maxLength the maximum length of the rendered value; or a non-positive value for the default cap.
+     * @return the equivalent <tt>MdcParam</tt> spec.
+     * @throws IllegalArgumentException if the <tt>path</tt> is not a dot-separated list of property names; or the
+     *                                  <tt>formatter</tt> cannot be instantiated via a <tt>public</tt> no-arg constructor.
+     * @see MdcParam#path()
+     */
+    @SuppressWarnings("rawtypes")
+    public static MdcSpec path(String path, String label, Class<? extends MdcFormatter> formatter, int maxLength) {
+        return path(path, label, Rendering.of(formatter, maxLength));
+    }
+
+    /**
+     * Returns a spec that applies each of the specified <tt>specs</tt> in turn; i.e. the equivalent of the holder annotations
+     * <tt>MdcParams</tt> and <tt>MdcMaps</tt>.
+     *
+     * @param specs the specs to be combined.
+     * @return a spec that applies each of the <tt>specs</tt> in turn.
+     * @see MdcParams
+     */
+    public static MdcSpec of(MdcSpec... specs) {
+        return new MdcSpec(ArgumentBinder.composite(Arrays.stream(specs)
+                .map(spec -> spec.binder)
+                .toArray(ArgumentBinder[]::new)));
+    }
+
+    private static MdcSpec param(String field, String getter, String label, Rendering rendering) {
+        // unlike the annotations, specs are created by the client code; so reject the misconfigured ones upfront
+        if (field.isEmpty() && getter.isEmpty()) {
+            throw new IllegalArgumentException("Either field() or getter() should be specified.");
+        }
+        return new MdcSpec(ArgumentBinder.param(field, getter, label, rendering));
+    }
+
+    private static MdcSpec path(String path, String label, Rendering rendering) {
+        final ArgumentBinder binder = ArgumentBinder.path(path, label, rendering);
+        if (binder instanceof ArgumentBinder.FailingBinder) {
+            throw new IllegalArgumentException("path() '" + path + "' should be a dot-separated list of property names.");
+        }
+        return new MdcSpec(binder);
+    }
+
+    /**
+     * Returns the compiled binder of this spec.
+     *
+     * @return the compiled binder of this spec.
+     */
+    ArgumentBinder binder() {
+        return binder;
+    }
+}
@@ -0,0 +1,121 @@
+package com.aspirecsl.log.aspects;
+
+import com.aspirecsl.log.format.MdcFormatters;
+
+/**
+ * Renders the values added to the MDC as <tt>String</tt>s; reusing cached representations where possible.
+ * <p>The decimal representations of the integers in <tt>[-128, 1023]</tt> are cached; as are the representations of the
+ * constants of each <tt>enum</tt> type, as returned by their <tt>toString()</tt> methods when the type is first rendered.
+ * Every other value is rendered by the formatter registered with <tt>MdcFormatters</tt>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcFormatters
+ * @since 1d
+ */
+final class MdcStrings {
+
+    /**
+     * The lowest integer whose representation is cached.
+     */
+    private static final int LOW = -128;
+
+    /**
+     * The highest integer whose representation is cached.
+     */
+    private static final int HIGH = 1023;
+
+    /**
+     * The representations of the integers in <tt>[LOW, HIGH]</tt>; indexed by <tt>value - LOW</tt>.
+     */
+    private static final String[] DECIMALS = new String[HIGH - LOW + 1];
+
+    /**
+     * The representations of the constants of an <tt>enum</tt> type; indexed by their ordinals.
+     */
+    private static final ClassValue<String[]> ENUM_STRINGS = new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            final Object[] constants = type.getEnumConstants();
+            final String[] strings = new String[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                strings[i] = constants[i].toString();
+            }
+            return strings;
+        }
+    };
+
+    static {
+        for (int i = LOW; i <= HIGH; i++) {
+            DECIMALS[i - LOW] = Integer.toString(i);
+        }
+    }
+
+    /**
+     * The hidden constructor.
+     * <p>This class only has static methods; hence, there is no need for an instance.
+     */
+    private MdcStrings() {
+    }
+
+    /**
+     * Returns the decimal representation of the <tt>value</tt>.
+     *
+     * @param value the value to be rendered.
+     * @return the decimal representation of the <tt>value</tt>.
+     */
+    static String valueOf(int value) {
+        return value >= LOW && value <= HIGH ? DECIMALS[value - LOW] : Integer.toString(value);
+    }
+
+    /**
+     * Returns the decimal representation of the <tt>value</tt>.
+     *
+     * @param value the value to be rendered.
+     * @return the decimal representation of the <tt>value</tt>.
+     */
+    static String valueOf(long value) {
+        return value >= LOW && value <= HIGH ? DECIMALS[(int) value - LOW] : Long.toString(value);
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>enum</tt> constant.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>; or <tt>"null"</tt> if the <tt>value</tt> is
+     * <tt>null</tt>.
+     */
+    static String valueOf(Enum<?> value) {
+        return value == null ? "null" : ENUM_STRINGS.get(value.getDeclaringClass())[value.ordinal()];
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>value</tt>; capped to the default maximum length.
+     *
+     * @param value the value to be rendered.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     */
+    static String valueOf(Object value) {
+        return valueOf(value, MdcFormatters.DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Returns the <tt>String</tt> representation of the <tt>value</tt>; capped to <tt>maxLength</tt>.
+     *
+     * @param value     the value to be rendered.
+     * @param maxLength the maximum length of the representation.
+     * @return the <tt>String</tt> representation of the <tt>value</tt>.
+     */
+    static String valueOf(Object value, int maxLength) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return valueOf(((Number) value).intValue());
+        }
+        if (value instanceof Long) {
+            return valueOf(((Long) value).longValue());
+        }
+        if (value instanceof Enum) {
+            return valueOf((Enum<?>) value);
+        }
+        return MdcFormatters.format(value, null, maxLength);
+    }
+}
@@ -0,0 +1,105 @@
+package com.aspirecsl.log.aspects;
+
+import java.beans.ConstructorProperties;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the MDC a thread is working with; as published by the scopes of the <em>advised</em> methods it is in.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcRegistry
+ * @since 1d
+ */
+public final class MdcThreadContext {
+
+    private final String thread;
+    private final long threadId;
+    private final String state;
+    private final List<String> methods;
+    private final long startedMillis;
+    private final Map<String, String> context;
+
+    /**
+     * Creates a snapshot of the MDC a thread is working with.
+     *
+     * @param thread        the name of the thread.
+     * @param threadId      the id of the thread.
+     * @param state         the state of the thread.
+     * @param methods       the methods with a published scope; the outermost first.
+     * @param startedMillis the time the outermost scope was published, in milliseconds since the epoch.
+     * @param context       the keys and values added to the MDC by the published scopes.
+     */
+    @ConstructorProperties({ "thread", "threadId", "state", "methods", "startedMillis", "context" })
+    public MdcThreadContext(String thread, long threadId, String state, List<String> methods, long startedMillis,
+                            Map<String, String> context) {
+        this.thread = thread;
+        this.threadId = threadId;
+        this.state = state;
+        this.methods = Collections.unmodifiableList(methods);
+        this.startedMillis = startedMillis;
+        this.context = Collections.unmodifiableMap(context);
+    }
+
+    /**
+     * Returns the name of the thread.
+     *
+     * @return the name of the thread.
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Returns the id of the thread.
+     *
+     * @return the id of the thread.
+     */
+    public long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * Returns the state of the thread; as named by <tt>Thread.State</tt>.
+     *
+     * @return the state of the thread.
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * Returns the methods with a published scope; the outermost first.
+     *
+     * @return the methods with a published scope.
+     */
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns the time the outermost scope was published, in milliseconds since the epoch.
+     *
+     * @return the time the outermost scope was published.
+     */
+    public long getStartedMillis() {
+        return startedMillis;
+    }
+
+    /**
+     * Returns the keys and values added to the MDC by the published scopes; the values of the inner scopes take precedence.
+     *
+     * @return the keys and values added to the MDC by the published scopes.
+     */
+    public Map<String, String> getContext() {
+        return context;
+    }
+
+    @Override
+    public String toString() {
+        return "MdcThreadContext{thread=" + thread + ", threadId=" + threadId + ", state=" + state + ", methods=" + methods
+                + ", startedMillis=" + startedMillis + ", context=" + context + "}";
+    }
+}
@@ -0,0 +1,164 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.slf4j.LoggerFactory;
+
+import com.aspirecsl.log.MdcTimed;
+
+/**
+ * Adds the elapsed time, and the outcome, of a call to the MDC via the scope of the call; and reports the calls slower than a
+ * threshold. The elapsed time is also recorded in the latency histograms published by {@link MdcMetrics}, if enabled; one
+ * for each value of the <em>segment key</em> in the MDC.
+ * <p>This is the compiled form of an <tt>MdcTimed</tt> annotation; it can also be used with programmatic scopes. For
+ * example:-
+ * <pre>
+ *
+ *     private static final MdcTimer TIMER = MdcTimer.of("com.example.Orders", "process", "elapsed", "outcome",
+ *             TimeUnit.MILLISECONDS, 500);
+ *
+ *     final long started = System.nanoTime();
+ *     Throwable failure = null;
+ *     final MdcScope scope = MdcScope.open(MdcBackend.SLF4J);
+ *     try {
+ *         // do something
+ *     } catch (Throwable ex) {
+ *         failure = ex;
+ *         throw ex;
+ *     } finally {
+ *         TIMER.stop(MdcBackend.SLF4J, scope, started, failure);
+ *         scope.close();
+ *     }
+ * </pre>
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcTimed
+ * @since 1d
+ */
+public final class MdcTimer {
+
+    /**
+     * The outcome of a call that completes normally.
+     */
+    public static final String SUCCESS = "success";
+
+    private final String loggerName;
+    private final String method;
+    private final String elapsedKey;
+    private final String outcomeKey;
+    private final TimeUnit unit;
+    private final long slowThreshold;
+    private final long slowThresholdNanos;
+    private final String segmentKey;
+    private final SegmentedHistogram latencies;
+
+    private MdcTimer(String loggerName, String method, String elapsedKey, String outcomeKey, TimeUnit unit,
+                     long slowThreshold, String segmentKey, int maxSegments) {
+        this.loggerName = loggerName;
+        this.method = method;
+        this.elapsedKey = elapsedKey;
+        this.outcomeKey = outcomeKey;
+        this.unit = unit;
+        this.slowThreshold = slowThreshold;
+        this.slowThresholdNanos = slowThreshold > 0 ? unit.toNanos(slowThreshold) : Long.MAX_VALUE;
+        this.segmentKey = segmentKey;
+        this.latencies = MdcMetrics.registerLatency(method, segmentKey, maxSegments);
+    }
+
+    /**
+     * Returns a timer with the specified attributes.
+     *
+     * @param loggerName    the name of the logger reporting the slow calls.
+     * @param method        the name of the method, or the block of code, that is timed.
+     * @param elapsedKey    the MDC key of the elapsed time.
+     * @param outcomeKey    the MDC key of the outcome.
+     * @param unit          the unit of the elapsed time, and of the <tt>slowThreshold</tt>.
+     * @param slowThreshold the elapsed time from which a call is reported as slow; or a non-positive value to not report.
+     * @return a timer with the specified attributes.
+     */
+    public static MdcTimer of(String loggerName, String method, String elapsedKey, String outcomeKey, TimeUnit unit,
+                              long slowThreshold) {
+        return of(loggerName, method, elapsedKey, outcomeKey, unit, slowThreshold, "", 1);
+    }
+
+    /**
+     * Returns a timer with the specified attributes; whose latency histograms are segmented by the values of the
+     * <tt>segmentKey</tt>.
+     *
+     * @param loggerName    the name of the logger reporting the slow calls.
+     * @param method        the name of the method, or the block of code, that is timed.
+     * @param elapsedKey    the MDC key of the elapsed time.
+     * @param outcomeKey    the MDC key of the outcome.
+     * @param unit          the unit of the elapsed time, and of the <tt>slowThreshold</tt>.
+     * @param slowThreshold the elapsed time from which a call is reported as slow; or a non-positive value to not report.
+     * @param segmentKey    the MDC key whose values segment the latency histograms; or an empty string for a single segment.
+     * @param maxSegments   the number of distinct values of the <tt>segmentKey</tt> tracked; the other values are recorded in
+     *                      the {@value MdcLatencyStatistics#OVERFLOW} segment.
+     * @return a timer with the specified attributes.
+     */
+    public static MdcTimer of(String loggerName, String method, String elapsedKey, String outcomeKey, TimeUnit unit,
+                              long slowThreshold, String segmentKey, int maxSegments) {
+        return new MdcTimer(loggerName, method, elapsedKey, outcomeKey, unit, slowThreshold, segmentKey, maxSegments);
+    }
+
+    /**
+     * Returns the timer compiled from the specified <tt>MdcTimed</tt> annotation.
+     *
+     * @param loggerName the name of the logger reporting the slow calls.
+     * @param method     the name of the annotated method.
+     * @param mdcTimed   the annotation.
+     * @return the timer compiled from the annotation.
+     */
+    static MdcTimer of(String loggerName, String method, MdcTimed mdcTimed) {
+        return of(loggerName, method, mdcTimed.elapsedKey(), mdcTimed.outcomeKey(), mdcTimed.unit(),
+                mdcTimed.slowThreshold(), mdcTimed.segmentKey(), mdcTimed.maxSegments());
+    }
+
+    /**
+     * Adds the elapsed time, and the outcome, of a call to the MDC via the <tt>scope</tt>; records the elapsed time in the
+     * latency histogram of the segment of the call, and reports the call if it is slow.
+     *
+     * @param backend the logging framework whose MDC is populated by the <tt>scope</tt>; and that reports a slow call.
+     * @param scope   the scope of the call.
+     * @param started the value of <tt>System.nanoTime()</tt> when the call started.
+     * @param failure the exception thrown by the call; or <tt>null</tt> if the call completed normally.
+     * @throws IllegalStateException if the <tt>scope</tt> is closed.
+     */
+    public void stop(MdcBackend backend, MdcScope scope, long started, Throwable failure) {
+        final long elapsed = System.nanoTime() - started;
+        scope.putLong(elapsedKey, unit.convert(elapsed, TimeUnit.NANOSECONDS));
+        scope.put(outcomeKey, failure == null ? SUCCESS : failure.getClass().getName());
+        if (latencies != null) {
+            latencies.record(segmentKey.isEmpty() ? "" : scope.get(segmentKey), elapsed);
+        }
+        if (elapsed >= slowThresholdNanos) {
+            report(backend);
+        }
+    }
+
+    /**
+     * Logs a slow call, with the whole of the MDC ordered by the keys, at <tt>WARN</tt> level.
+     */
+    private void report(MdcBackend backend) {
+        final StringBuilder message = new StringBuilder("Slow call: method=").append(method)
+                .append(", threshold=").append(slowThreshold).append(' ').append(unit);
+        for (Map.Entry<String, String> entry : new TreeMap<>(backend.mdcApi().getCopyOfContextMap()).entrySet()) {
+            message.append(", ").append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        if (backend == MdcBackend.SLF4J) {
+            LoggerFactory.getLogger(loggerName).warn(message.toString());
+        } else {
+            LogManager.getLogger(loggerName).warn(message.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MdcTimer{method=" + method + ", elapsedKey=" + elapsedKey + ", outcomeKey=" + outcomeKey + ", unit=" + unit
+                + ", slowThreshold=" + slowThreshold + ", segmentKey=" + segmentKey + "}";
+    }
+}
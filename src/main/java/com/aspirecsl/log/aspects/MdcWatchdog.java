@@ -0,0 +1,207 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Finds the threads that have been in an <em>advised</em> method longer than a threshold; and reports each of them, with its
+ * stack and its context, as a single <tt>WARN</tt> log event of the logger named after this class.
+ * <p>When an <em>advised</em> method is entered, and no enclosing <em>advised</em> method is being timed on the thread, the
+ * advice stamps the current <em>tick</em> of the watchdog into the slot of the thread; and clears it when the method
+ * completes. The tick is a counter advanced by the watchdog thread every quarter of the threshold; so stamping is a read and
+ * a few writes of the fields of a slot allocated once per thread, without reading the clock, queueing or locking. Once a
+ * slot has been stamped for longer than the threshold, the thread is reported; once per call of the outermost
+ * <em>advised</em> method.
+ * <p>The context of the reported thread is taken from the {@link MdcRegistry}; to which the scopes are published while the
+ * watchdog is running, even if the registry is disabled. The context is set as the MDC of the watchdog thread while the event
+ * is logged, so that the structured layouts of the logging framework carry it as fields. The stack of the thread is attached
+ * to the event as a <tt>Throwable</tt>.
+ * <p>The watchdog is started with {@link #start(long, TimeUnit)}, or on startup by setting the
+ * <tt>com.aspirecsl.log.watchdog.thresholdMillis</tt> system property to a positive value. The running flag is held by a
+ * {@link MutableCallSite}; so, when the watchdog is not running, stamping costs nothing once compiled.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcRegistry
+ * @see MdcAspect
+ * @since 1d
+ */
+public final class MdcWatchdog {
+
+    /**
+     * The shortest period between two checks of the slots, in milliseconds.
+     */
+    private static final long MIN_PERIOD_MILLIS = 10;
+
+    /**
+     * Whether the watchdog is running.
+     */
+    private static final MutableCallSite RUNNING = new MutableCallSite(MethodHandles.constant(boolean.class, false));
+
+    private static final MethodHandle IS_RUNNING = RUNNING.dynamicInvoker();
+
+    /**
+     * The number of periods elapsed since the watchdog was first started; advanced by the watchdog thread only.
+     */
+    private static volatile long tick = 1;
+
+    /**
+     * The watchdog thread; or <tt>null</tt> if not running.
+     */
+    private static Thread watchdog;
+
+    static {
+        final long thresholdMillis = Long.getLong("com.aspirecsl.log.watchdog.thresholdMillis", 0);
+        if (thresholdMillis > 0) {
+            start(thresholdMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private MdcWatchdog() {
+    }
+
+    /**
+     * Starts the watchdog, reporting the threads that have been in an <em>advised</em> method for the specified
+     * <tt>threshold</tt> or longer; restarting it with the new threshold if running.
+     *
+     * @param threshold the time in an <em>advised</em> method from which a thread is reported.
+     * @param unit      the unit of the <tt>threshold</tt>.
+     * @throws IllegalArgumentException if the <tt>threshold</tt> is not positive.
+     */
+    public static synchronized void start(long threshold, TimeUnit unit) {
+        final long thresholdMillis = unit.toMillis(threshold);
+        if (thresholdMillis <= 0) {
+            throw new IllegalArgumentException("The threshold should be at least a millisecond.");
+        }
+        stop();
+        final long periodMillis = Math.max(MIN_PERIOD_MILLIS, thresholdMillis / 4);
+        watchdog = new Thread(() -> watch(thresholdMillis, periodMillis), "mdc-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        setRunning(true);
+    }
+
+    /**
+     * Stops the watchdog; if running.
+     */
+    public static synchronized void stop() {
+        if (watchdog == null) {
+            return;
+        }
+        setRunning(false);
+        watchdog.interrupt();
+        try {
+            watchdog.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        watchdog = null;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the watchdog is running. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the watchdog is running. Otherwise, <tt>False</tt>.
+     */
+    public static boolean running() {
+        try {
+            return (boolean) IS_RUNNING.invokeExact();
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Stamps the current tick of the watchdog into the slot of the current thread, as the start of the specified method;
+     * unless the watchdog is not running, or the start of an enclosing method is stamped already. The stamp is cleared when
+     * the <tt>scope</tt> is closed.
+     *
+     * @param scope   the scope of the method; opened on the current thread.
+     * @param method  the name of the method.
+     * @param backend the logging framework whose MDC is populated by the <tt>scope</tt>.
+     * @throws IllegalStateException if the <tt>scope</tt> is closed.
+     */
+    public static void stamp(MdcScope scope, String method, MdcBackend backend) {
+        if (running()) {
+            scope.stamp(method, backend, tick);
+        }
+    }
+
+    private static void setRunning(boolean running) {
+        RUNNING.setTarget(MethodHandles.constant(boolean.class, running));
+        MutableCallSite.syncAll(new MutableCallSite[] { RUNNING });
+    }
+
+    /**
+     * Advances the tick, and checks the slots of the threads, every <tt>periodMillis</tt>; until interrupted.
+     */
+    private static void watch(long thresholdMillis, long periodMillis) {
+        // a slot stamped just before the tick is advanced has been stamped for (ticks - 1) periods at least
+        final long thresholdTicks = (thresholdMillis + periodMillis - 1) / periodMillis + 1;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(periodMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            final long now = ++tick;
+            for (MdcRegistry.Slot slot : MdcRegistry.slots()) {
+                final long stamped = slot.stampedTick();
+                if (stamped != 0 && now - stamped >= thresholdTicks && slot.report(stamped)) {
+                    report(slot, stamped, (now - stamped - 1) * periodMillis);
+                }
+            }
+        }
+    }
+
+    /**
+     * Logs the thread of the specified slot, with its stack and its context; unless it has left the stamped method meanwhile.
+     */
+    private static void report(MdcRegistry.Slot slot, long stamped, long elapsedMillis) {
+        final Thread thread = slot.thread();
+        final String method = slot.stampedMethod();
+        final MdcBackend backend = slot.stampedBackend();
+        if (thread == null || backend == null) {
+            return;
+        }
+        final StuckThread stack = new StuckThread(thread);
+        final Map<String, String> context = slot.context();
+        if (slot.stampedTick() != stamped) {
+            return;
+        }
+        final String message = "Stuck call: thread=\"" + thread.getName() + "\" #" + thread.getId() + ", method=" + method
+                + ", open for at least " + elapsedMillis + " ms, mdc=" + context;
+        try {
+            if (backend == MdcBackend.SLF4J) {
+                MDC.setContextMap(context);
+                LoggerFactory.getLogger(MdcWatchdog.class).warn(message, stack);
+            } else {
+                ThreadContext.putAll(context);
+                LogManager.getLogger(MdcWatchdog.class).warn(message, stack);
+            }
+        } finally {
+            MDC.clear();
+            ThreadContext.clearMap();
+        }
+    }
+
+    /**
+     * The stack of a reported thread; attached to the log event.
+     */
+    private static final class StuckThread extends Throwable {
+        private static final long serialVersionUID = 1L;
+
+        private StuckThread(Thread thread) {
+            super("Stack of " + thread.getName(), null, false, true);
+            setStackTrace(thread.getStackTrace());
+        }
+    }
+}
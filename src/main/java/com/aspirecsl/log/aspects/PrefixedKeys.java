@@ -0,0 +1,69 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcMap;
+
+/**
+ * Applies the <tt>mdcKeyPrefix</tt> of an <tt>MdcMap</tt> or an <tt>MdcHolder</tt> annotation to the keys added to the MDC.
+ * <p>The prefixed keys are cached; so that the same key taken from a map on every invocation of an <em>advised</em> method
+ * does not allocate a new <tt>String</tt> each time. The cache is bounded; the keys that do not fit are prefixed on every use.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcMap#mdcKeyPrefix()
+ * @see MdcHolder#mdcKeyPrefix()
+ * @since 1d
+ */
+final class PrefixedKeys {
+
+    /**
+     * The maximum number of prefixed keys cached by an instance.
+     */
+    private static final int MAX_CACHED_KEYS = 256;
+
+    /**
+     * The <tt>mdcKeyPrefix</tt> followed by the separator; or an empty string if there is no prefix.
+     */
+    private final String prefix;
+
+    /**
+     * The prefixed keys mapped by the original keys.
+     */
+    private final ConcurrentMap<String, String> cache;
+
+    /**
+     * Creates an instance that applies the specified <tt>mdcKeyPrefix</tt>.
+     *
+     * @param mdcKeyPrefix the <tt>String</tt> prefixed to the keys; or an empty string if the keys are used as-is.
+     */
+    PrefixedKeys(String mdcKeyPrefix) {
+        this.prefix = mdcKeyPrefix.isEmpty() ? "" : mdcKeyPrefix + "-";
+        this.cache = mdcKeyPrefix.isEmpty() ? null : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the MDC key for the specified <tt>key</tt>.
+     *
+     * @param key the key taken from the source of the MDC entries.
+     * @return the <tt>key</tt> prefixed by the <tt>mdcKeyPrefix</tt> <em>(if any)</em>.
+     */
+    String apply(String key) {
+        if (cache == null) {
+            return key;
+        }
+        if (key == null) {
+            return prefix + null;
+        }
+        String prefixed = cache.get(key);
+        if (prefixed == null) {
+            prefixed = prefix + key;
+            if (cache.size() < MAX_CACHED_KEYS) {
+                cache.putIfAbsent(key, prefixed);
+            }
+        }
+        return prefixed;
+    }
+}
@@ -0,0 +1,66 @@
+package com.aspirecsl.log.aspects;
+
+import com.aspirecsl.log.format.MdcFormatter;
+import com.aspirecsl.log.format.MdcFormatters;
+
+/**
+ * How the values bound by an <tt>MdcValue</tt> or <tt>MdcParam</tt> annotation are rendered for the MDC; i.e. the
+ * formatter and the length cap named by the annotation.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcFormatters
+ * @since 1d
+ */
+final class Rendering {
+
+    /**
+     * Renders the values by the registered formatters, capped to the default length.
+     */
+    static final Rendering DEFAULT = new Rendering(null, MdcFormatters.DEFAULT_MAX_LENGTH);
+
+    /**
+     * The formatter; or <tt>null</tt> to use the formatter registered for the class of each value.
+     */
+    private final MdcFormatter<?> formatter;
+
+    private final int maxLength;
+
+    private Rendering(MdcFormatter<?> formatter, int maxLength) {
+        this.formatter = formatter;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the rendering by an instance of the specified formatter type, capped to <tt>maxLength</tt>.
+     *
+     * @param formatterType the formatter type; or <tt>MdcFormatter.class</tt> to use the registered formatters.
+     * @param maxLength     the maximum length of the rendered values; or a non-positive value for the default cap.
+     * @return the rendering.
+     * @throws IllegalArgumentException if the formatter type cannot be instantiated via a <tt>public</tt> no-arg
+     *                                  constructor.
+     */
+    @SuppressWarnings("rawtypes")
+    static Rendering of(Class<? extends MdcFormatter> formatterType, int maxLength) {
+        final int cap = maxLength > 0 ? maxLength : MdcFormatters.DEFAULT_MAX_LENGTH;
+        if (formatterType == MdcFormatter.class) {
+            return cap == DEFAULT.maxLength ? DEFAULT : new Rendering(null, cap);
+        }
+        try {
+            return new Rendering(formatterType.getConstructor().newInstance(), cap);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            throw new IllegalArgumentException(formatterType.getName() + " cannot be instantiated via a public no-arg "
+                    + "constructor.", ex);
+        }
+    }
+
+    /**
+     * Returns the representation of the <tt>value</tt> for the MDC.
+     *
+     * @param value the value to be rendered.
+     * @return the representation of the <tt>value</tt>; or <tt>"null"</tt> if the <tt>value</tt> is <tt>null</tt>.
+     */
+    String render(Object value) {
+        return formatter == null ? MdcStrings.valueOf(value, maxLength) : MdcFormatters.format(value, formatter, maxLength);
+    }
+}
@@ -0,0 +1,74 @@
+package com.aspirecsl.log.aspects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The latency histograms of a timed method; one for each value of an MDC key, the <em>segment key</em>.
+ * <p>The number of segments is capped; once the cap is reached, the durations of the calls with the other values are recorded in
+ * the {@value MdcLatencyStatistics#OVERFLOW} segment. The calls made without the segment key in the MDC are recorded in the
+ * {@value MdcLatencyStatistics#ABSENT} segment. Recording into an existing segment is lock-free.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see LatencyHistogram
+ * @see MdcTimer
+ * @since 1d
+ */
+final class SegmentedHistogram {
+
+    private final String method;
+    private final String segmentKey;
+    private final CappedSegments<LatencyHistogram> segments;
+
+    /**
+     * Creates the histograms of a timed method.
+     *
+     * @param method      the name of the method.
+     * @param segmentKey  the MDC key whose values segment the histograms; or an empty string for a single segment.
+     * @param maxSegments the number of distinct values tracked; excluding the overflow segment.
+     */
+    SegmentedHistogram(String method, String segmentKey, int maxSegments) {
+        this.method = method;
+        this.segmentKey = segmentKey;
+        this.segments = new CappedSegments<>(maxSegments, LatencyHistogram::new);
+    }
+
+    /**
+     * Returns the MDC key whose values segment the histograms.
+     *
+     * @return the MDC key whose values segment the histograms; or an empty string for a single segment.
+     */
+    String segmentKey() {
+        return segmentKey;
+    }
+
+    /**
+     * Records the duration of a call in the histogram of the specified segment.
+     *
+     * @param segment the value of the segment key in the MDC of the call; or <tt>null</tt> if absent.
+     * @param nanos   the duration of the call, in nanoseconds.
+     */
+    void record(String segment, long nanos) {
+        segments.get(segment == null ? MdcLatencyStatistics.ABSENT : segment).record(nanos);
+    }
+
+    /**
+     * Returns a snapshot of the histogram of each segment; ordered by the segments, with the overflow segment last.
+     *
+     * @return a snapshot of the histogram of each segment.
+     */
+    List<MdcLatencyStatistics> snapshot() {
+        final List<MdcLatencyStatistics> statistics = new ArrayList<>();
+        segments.forEach((segment, histogram) -> statistics.add(snapshot(segment, histogram)));
+        if (segments.overflow().count() > 0) {
+            statistics.add(snapshot(MdcLatencyStatistics.OVERFLOW, segments.overflow()));
+        }
+        return statistics;
+    }
+
+    private MdcLatencyStatistics snapshot(String segment, LatencyHistogram histogram) {
+        return new MdcLatencyStatistics(method, segmentKey, segment, histogram.count(), histogram.total(),
+                histogram.percentile(50), histogram.percentile(90), histogram.percentile(99), histogram.max());
+    }
+}
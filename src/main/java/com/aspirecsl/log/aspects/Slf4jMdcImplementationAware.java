@@ -1,5 +1,6 @@
 package com.aspirecsl.log.aspects;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -61,6 +62,59 @@ final class Slf4jMdcImplementationAware implements MdcImplementationAware {
         keys.forEach(MDC::remove);
     }
 
+    /**
+     * Returns the value associated with the specified <tt>key</tt> in the MDC of the Slf4j logging framework.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the value associated with the <tt>key</tt>; or <tt>null</tt> if the MDC does not contain the <tt>key</tt>.
+     */
+    @Override
+    public String get(String key) {
+        return MDC.get(key);
+    }
+
+    /**
+     * Returns <tt>True</tt> if the current thread's MDC of the Slf4j logging framework has no entries. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if the current thread's MDC has no entries. Otherwise, <tt>False</tt>.
+     */
+    @Override
+    public boolean isEmpty() {
+        final Map<String, String> copy = MDC.getCopyOfContextMap();
+        return copy == null || copy.isEmpty();
+    }
+
+    /**
+     * Returns a copy of the current thread's MDC of the Slf4j logging framework.
+     *
+     * @return a copy of the current thread's MDC; or an empty map if the MDC is empty.
+     */
+    @Override
+    public Map<String, String> getCopyOfContextMap() {
+        final Map<String, String> copy = MDC.getCopyOfContextMap();
+        return copy == null ? Collections.emptyMap() : copy;
+    }
+
+    /**
+     * Replaces the whole of the current thread's MDC of the Slf4j logging framework with the contents of the specified
+     * <tt>map</tt>.
+     *
+     * @param map the map containing the <tt>key:value</tt> pairs that make up the new MDC.
+     */
+    @Override
+    public void setContextMap(Map<String, String> map) {
+        MDC.setContextMap(map);
+    }
+
+    /**
+     * Removes every value from the current thread's MDC of the Slf4j logging framework.
+     */
+    @Override
+    public void clear() {
+        MDC.clear();
+    }
+
     /**
      * A private helper class the holds a <tt>singleton</tt> <tt>Slf4jMdcImplementationAware</tt> instance which is returned to
      * clients via the <tt>Slf4jMdcImplementationAware.getInstance()</tt> method.
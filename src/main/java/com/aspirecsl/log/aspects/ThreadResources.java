@@ -0,0 +1,102 @@
+package com.aspirecsl.log.aspects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the CPU time consumed, and the bytes allocated, by the current thread.
+ * <p>The CPU time is read via the platform <tt>ThreadMXBean</tt>. The allocated bytes are read via the
+ * <tt>com.sun.management.ThreadMXBean</tt> extension, where available; preferring <tt>getCurrentThreadAllocatedBytes()</tt>
+ * <em>(Java 14+)</em>, which does not look up the thread by its id, to <tt>getThreadAllocatedBytes(long)</tt>. Both are resolved
+ * once, as constant method handles, so that the <tt>JIT</tt> compiler can inline the reads.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcAccountant
+ * @since 1d
+ */
+final class ThreadResources {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Whether the CPU time of the current thread can be read.
+     */
+    static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    /**
+     * Reads the bytes allocated by the current thread; <tt>null</tt> if unavailable.
+     */
+    private static final MethodHandle ALLOCATED_BYTES = allocatedBytesHandle();
+
+    /**
+     * Whether the bytes allocated by the current thread can be read.
+     */
+    static final boolean ALLOCATIONS = ALLOCATED_BYTES != null;
+
+    private ThreadResources() {
+    }
+
+    /**
+     * Returns the CPU time consumed by the current thread.
+     *
+     * @return the CPU time consumed by the current thread, in nanoseconds; or <tt>0</tt> if unavailable.
+     */
+    static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread.
+     *
+     * @return the bytes allocated by the current thread; or <tt>0</tt> if unavailable.
+     */
+    static long allocatedBytes() {
+        if (!ALLOCATIONS) {
+            return 0;
+        }
+        try {
+            return (long) ALLOCATED_BYTES.invokeExact();
+        } catch (Throwable ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns a <tt>()long</tt> handle reading the bytes allocated by the current thread; or <tt>null</tt> if the platform does
+     * not support it.
+     */
+    private static MethodHandle allocatedBytesHandle() {
+        try {
+            final Class<?> extension = Class.forName("com.sun.management.ThreadMXBean");
+            if (!extension.isInstance(THREADS)) {
+                return null;
+            }
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final boolean enabled = (boolean) lookup.findVirtual(extension, "isThreadAllocatedMemorySupported",
+                    MethodType.methodType(boolean.class)).invoke(THREADS)
+                    && (boolean) lookup.findVirtual(extension, "isThreadAllocatedMemoryEnabled",
+                    MethodType.methodType(boolean.class)).invoke(THREADS);
+            if (!enabled) {
+                return null;
+            }
+            try {
+                return lookup.findVirtual(extension, "getCurrentThreadAllocatedBytes", MethodType.methodType(long.class))
+                        .bindTo(THREADS);
+            } catch (NoSuchMethodException ex) {
+                final MethodHandle byId = lookup.findVirtual(extension, "getThreadAllocatedBytes",
+                        MethodType.methodType(long.class, long.class)).bindTo(THREADS);
+                final MethodHandle currentThreadId = MethodHandles.filterReturnValue(
+                        lookup.findStatic(Thread.class, "currentThread", MethodType.methodType(Thread.class)),
+                        lookup.findVirtual(Thread.class, "getId", MethodType.methodType(long.class)));
+                return MethodHandles.foldArguments(byId, currentThreadId);
+            }
+        } catch (Throwable ex) {
+            // not a HotSpot derived JVM, or the management extensions are not accessible
+            return null;
+        }
+    }
+}
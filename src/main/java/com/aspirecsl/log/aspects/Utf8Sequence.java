@@ -0,0 +1,122 @@
+package com.aspirecsl.log.aspects;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A <tt>CharSequence</tt> view of the <tt>UTF-8</tt> bytes remaining in a <tt>ByteBuffer</tt>; decoded lazily, in place.
+ * <p>The bytes are neither copied nor decoded when the view is created. The characters of a view holding only <tt>ASCII</tt>
+ * bytes, which is the common case for the names and values of the headers, are read straight from the buffer; so a view can
+ * be compared with the names in a filter without allocating. The bytes are decoded into a <tt>String</tt> only when the view
+ * holds other bytes, or when {@link #toString()} is called; and the <tt>String</tt> is then retained.
+ * <p>The view reads the bytes between the position and the limit of the buffer when the view was created; without changing
+ * the position of the buffer. The bytes must not be changed while the view is in use.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcSpec#headers(String[], String)
+ * @since 1d
+ */
+public final class Utf8Sequence implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    /**
+     * <tt>1</tt> if the bytes are all <tt>ASCII</tt>; <tt>-1</tt> if not; <tt>0</tt> until the bytes are scanned.
+     */
+    private int ascii;
+
+    /**
+     * The decoded bytes; or <tt>null</tt> until decoded.
+     */
+    private String decoded;
+
+    private Utf8Sequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns a view of the bytes remaining in the specified buffer.
+     *
+     * @param bytes the buffer holding the <tt>UTF-8</tt> bytes.
+     * @return a view of the bytes remaining in the <tt>bytes</tt>.
+     */
+    public static Utf8Sequence of(ByteBuffer bytes) {
+        return new Utf8Sequence(bytes, bytes.position(), bytes.remaining());
+    }
+
+    /**
+     * Returns a view of the specified <tt>UTF-8</tt> bytes; without copying them.
+     *
+     * @param bytes the <tt>UTF-8</tt> bytes.
+     * @return a view of the <tt>bytes</tt>.
+     */
+    public static Utf8Sequence of(byte[] bytes) {
+        return new Utf8Sequence(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    @Override
+    public int length() {
+        return isAscii() ? length : toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (!isAscii()) {
+            return toString().charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (!isAscii()) {
+            return toString().subSequence(start, end);
+        }
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new Utf8Sequence(bytes, offset + start, end - start);
+    }
+
+    /**
+     * Returns the decoded bytes; decoding them on the first call.
+     *
+     * @return the decoded bytes.
+     */
+    @Override
+    public String toString() {
+        if (decoded == null) {
+            if (bytes.hasArray()) {
+                decoded = new String(bytes.array(), bytes.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+            } else {
+                // via Buffer; ByteBuffer overrides the setters from Java 9, which Java 8 cannot link
+                final ByteBuffer view = bytes.duplicate();
+                ((Buffer) view).limit(offset + length).position(offset);
+                decoded = StandardCharsets.UTF_8.decode(view).toString();
+            }
+        }
+        return decoded;
+    }
+
+    private boolean isAscii() {
+        if (ascii == 0) {
+            ascii = 1;
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes.get(i) < 0) {
+                    ascii = -1;
+                    break;
+                }
+            }
+        }
+        return ascii > 0;
+    }
+}
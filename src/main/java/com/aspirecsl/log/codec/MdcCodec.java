@@ -0,0 +1,331 @@
+package com.aspirecsl.log.codec;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcContext;
+
+/**
+ * Encodes the snapshots of the Mapped Diagnostic Context <em>(MDC)</em> in a compact binary form; to carry the MDC across the
+ * message queues and the remote calls. For example:-
+ * <pre>
+ *
+ *     // the producer
+ *     message.setHeader("mdc", MdcCodec.toHeader(MdcBackend.SLF4J.capture()));
+ *
+ *     // the consumer
+ *     MdcBackend.SLF4J.install(MdcCodec.fromHeader(message.getHeader("mdc")));
+ * </pre>
+ * <p>A snapshot is encoded as the format version, a byte, followed by the number of entries and then each entry; as its key
+ * and its value. The numbers are encoded as <em>varints</em>; i.e. 7 bits per byte, the least significant group first, with
+ * the high bit set on every byte but the last. A key is encoded as its <tt>1</tt>-based index in the shared dictionary of the
+ * common key names, or as <tt>0</tt> followed by the key itself. The strings are encoded as their length, in bytes, followed
+ * by their <tt>UTF-8</tt> encoding. So, <tt>{traceId=4bf92f3577b34da6}</tt> is encoded in 20 bytes.
+ * <p>The dictionary is shared by every version of this library; its entries are only ever appended, never reordered or
+ * removed. A snapshot using an entry unknown to the decoder, i.e. encoded by a newer version, is rejected.
+ * <p>Decoding reads the strings straight from the buffer, without copying the bytes of the snapshot; and produces an
+ * {@link MdcContext}, which is installed into the MDC of a logging framework in one operation via
+ * {@link MdcBackend#install(MdcContext)} or {@link MdcBackend#switchTo(MdcContext)}.
+ * <p>The text form, for the headers of the protocols that only carry text, is the binary form in the <em>URL and filename
+ * safe</em> Base64 alphabet, without padding.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcContext
+ * @see MdcBackend
+ * @since 1d
+ */
+public final class MdcCodec {
+
+    /**
+     * The version of the format of the snapshots.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The common key names; encoded as their <tt>1</tt>-based index in this array. Entries are only ever appended.
+     */
+    private static final String[] DICTIONARY = {
+            "correlationId", "traceId", "spanId", "parentSpanId", "requestId", "sessionId", "transactionId", "messageId",
+            "userId", "tenant", "tenantId", "clientId", "orderId", "accountId", "deviceId", "jobId", "batchId", "host",
+            "service", "operation", "method", "path", "remoteAddr", "userAgent", "locale", "environment", "region", "version"
+    };
+
+    /**
+     * The dictionary index of each common key name; <tt>1</tt>-based.
+     */
+    private static final Map<String, Integer> INDEXES = new HashMap<>();
+
+    private static final Base64.Encoder HEADER_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder HEADER_DECODER = Base64.getUrlDecoder();
+
+    static {
+        for (int i = 0; i < DICTIONARY.length; i++) {
+            INDEXES.put(DICTIONARY[i], i + 1);
+        }
+    }
+
+    private MdcCodec() {
+    }
+
+    /**
+     * Returns the number of bytes that the specified <tt>context</tt> is encoded in.
+     *
+     * @param context the context to be encoded; the entries with a <tt>null</tt> key or value are skipped.
+     * @return the number of bytes that the <tt>context</tt> is encoded in.
+     */
+    public static int encodedLength(HasDiagnosticContext context) {
+        final Map<String, String> map = context.mappedDiagnosticContext();
+        int entries = 0;
+        int length = 1;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            entries++;
+            final Integer index = INDEXES.get(entry.getKey());
+            length += index != null ? varintLength(index) : 1 + stringLength(entry.getKey());
+            length += stringLength(entry.getValue());
+        }
+        return length + varintLength(entries);
+    }
+
+    /**
+     * Returns the encoding of the specified <tt>context</tt>.
+     *
+     * @param context the context to be encoded; the entries with a <tt>null</tt> key or value are skipped.
+     * @return the encoding of the <tt>context</tt>.
+     */
+    public static byte[] encode(HasDiagnosticContext context) {
+        final ByteBuffer target = ByteBuffer.allocate(encodedLength(context));
+        encode(context, target);
+        return target.array();
+    }
+
+    /**
+     * Writes the encoding of the specified <tt>context</tt> into the <tt>target</tt> buffer, from its current position; and
+     * advances the position past the encoding.
+     *
+     * @param context the context to be encoded; the entries with a <tt>null</tt> key or value are skipped.
+     * @param target  the buffer to write the encoding into.
+     * @throws BufferOverflowException if the <tt>target</tt> has fewer remaining bytes than the length of the encoding; in
+     *                                 which case nothing is written.
+     */
+    public static void encode(HasDiagnosticContext context, ByteBuffer target) {
+        if (target.remaining() < encodedLength(context)) {
+            throw new BufferOverflowException();
+        }
+        final Map<String, String> map = context.mappedDiagnosticContext();
+        int entries = 0;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                entries++;
+            }
+        }
+        target.put((byte) VERSION);
+        putVarint(target, entries);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            final Integer index = INDEXES.get(entry.getKey());
+            if (index != null) {
+                putVarint(target, index);
+            } else {
+                target.put((byte) 0);
+                putString(target, entry.getKey());
+            }
+            putString(target, entry.getValue());
+        }
+    }
+
+    /**
+     * Decodes the context encoded in the <tt>source</tt> buffer, from its current position; and advances the position past the
+     * encoding.
+     *
+     * @param source the buffer holding the encoding.
+     * @return the decoded context.
+     * @throws IllegalArgumentException if the <tt>source</tt> does not hold a valid encoding; in which case the position of the
+     *                                  <tt>source</tt> is not changed.
+     */
+    public static MdcContext decode(ByteBuffer source) {
+        final Reader reader = new Reader(source);
+        final int version = source.hasRemaining() ? source.get(reader.position++) : -1;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported MDC encoding version: " + version);
+        }
+        final int entries = reader.varint();
+        // each entry is two bytes long at least
+        if (entries > (source.limit() - reader.position) / 2) {
+            throw new IllegalArgumentException("Truncated MDC encoding: " + entries + " entries expected");
+        }
+        final MdcContext.Builder context = MdcContext.builder();
+        for (int i = 0; i < entries; i++) {
+            final int index = reader.varint();
+            final String key;
+            if (index == 0) {
+                key = reader.string();
+            } else if (index <= DICTIONARY.length) {
+                key = DICTIONARY[index - 1];
+            } else {
+                throw new IllegalArgumentException("Unknown MDC key dictionary index: " + index);
+            }
+            context.put(key, reader.string());
+        }
+        ((Buffer) source).position(reader.position);
+        return context.build();
+    }
+
+    /**
+     * Returns the text form of the encoding of the specified <tt>context</tt>; safe to be used in the headers of the text
+     * protocols and in URLs.
+     *
+     * @param context the context to be encoded; the entries with a <tt>null</tt> key or value are skipped.
+     * @return the text form of the encoding of the <tt>context</tt>.
+     */
+    public static String toHeader(HasDiagnosticContext context) {
+        return HEADER_ENCODER.encodeToString(encode(context));
+    }
+
+    /**
+     * Decodes the context encoded in the specified text form.
+     *
+     * @param header the text form of the encoding; as returned by {@link #toHeader(HasDiagnosticContext)}.
+     * @return the decoded context.
+     * @throws IllegalArgumentException if the <tt>header</tt> is not a valid text form of an encoding.
+     */
+    public static MdcContext fromHeader(CharSequence header) {
+        return decode(ByteBuffer.wrap(HEADER_DECODER.decode(header.toString())));
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void putVarint(ByteBuffer target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    /**
+     * Returns the length of the encoding of the specified string; as a length prefix followed by its <tt>UTF-8</tt> bytes.
+     */
+    private static int stringLength(String value) {
+        final int bytes = utf8Length(value);
+        return varintLength(bytes) + bytes;
+    }
+
+    private static int utf8Length(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                // an unpaired surrogate is encoded as '?'
+                bytes += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the specified string as a length prefix followed by its <tt>UTF-8</tt> bytes; without an intermediate array.
+     */
+    private static void putString(ByteBuffer target, String value) {
+        putVarint(target, utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6));
+                target.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18));
+                target.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                target.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                target.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                target.put((byte) '?');
+            } else {
+                target.put((byte) (0xE0 | c >> 12));
+                target.put((byte) (0x80 | c >> 6 & 0x3F));
+                target.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Reads an encoding with the absolute methods of a buffer; so that its position is changed only once the whole of the
+     * encoding is read.
+     */
+    private static final class Reader {
+        private final ByteBuffer source;
+        private int position;
+
+        private Reader(ByteBuffer source) {
+            this.source = source;
+            this.position = source.position();
+        }
+
+        private int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position >= source.limit()) {
+                    throw new IllegalArgumentException("Truncated MDC encoding at " + position);
+                }
+                final byte b = source.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed MDC encoding; invalid length at " + position);
+        }
+
+        private String string() {
+            final int length = varint();
+            if (length > source.limit() - position) {
+                throw new IllegalArgumentException("Truncated MDC encoding; " + length + " bytes expected at " + position);
+            }
+            final String value;
+            if (source.hasArray()) {
+                value = new String(source.array(), source.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            } else {
+                // via Buffer; ByteBuffer overrides the setters from Java 9, which Java 8 cannot link
+                final ByteBuffer bytes = source.duplicate();
+                ((Buffer) bytes).limit(position + length).position(position);
+                value = StandardCharsets.UTF_8.decode(bytes).toString();
+            }
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.aspirecsl.log.correlation;
+
+/**
+ * Generates the correlation ids added to the MDC by the MDC aware methods with a <tt>correlationKey</tt>.
+ * <p>An implementation is called on the thread of every such method that finds no correlation id in the MDC; so it must be
+ * thread-safe, and should not contend with the other threads.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see CorrelationIds
+ * @see UlidGenerator
+ * @since 1d
+ */
+@FunctionalInterface
+public interface CorrelationIdGenerator {
+
+    /**
+     * Returns a new correlation id.
+     *
+     * @return a new correlation id.
+     */
+    String nextId();
+}
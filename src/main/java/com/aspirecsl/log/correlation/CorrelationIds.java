@@ -0,0 +1,62 @@
+package com.aspirecsl.log.correlation;
+
+import java.util.Objects;
+
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * The correlation ids added to the MDC by the MDC aware methods with a <tt>correlationKey</tt>; for example:-
+ * <pre>
+ *
+ *    {@literal @Slf4jMdcAware}(correlationKey = "correlationId")
+ *     public void handle(Request request) {
+ *         // the MDC contains a "correlationId"; generated, unless an outer method has added one
+ *     }
+ * </pre>
+ * <p>The ids are generated by a {@link UlidGenerator} by default; the generator can be replaced via
+ * {@link #setGenerator(CorrelationIdGenerator)}.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see Slf4jMdcAware#correlationKey()
+ * @see Log4j2MdcAware#correlationKey()
+ * @since 1d
+ */
+public final class CorrelationIds {
+
+    /**
+     * The generator of the correlation ids.
+     */
+    private static volatile CorrelationIdGenerator generator = new UlidGenerator();
+
+    private CorrelationIds() {
+    }
+
+    /**
+     * Returns the generator of the correlation ids.
+     *
+     * @return the generator of the correlation ids.
+     */
+    public static CorrelationIdGenerator generator() {
+        return generator;
+    }
+
+    /**
+     * Sets the generator of the correlation ids; which applies to the ids generated after this call.
+     *
+     * @param generator the generator of the correlation ids.
+     */
+    public static void setGenerator(CorrelationIdGenerator generator) {
+        CorrelationIds.generator = Objects.requireNonNull(generator, "generator");
+    }
+
+    /**
+     * Returns a new correlation id; generated by the current generator.
+     *
+     * @return a new correlation id.
+     */
+    public static String nextId() {
+        return generator.nextId();
+    }
+}
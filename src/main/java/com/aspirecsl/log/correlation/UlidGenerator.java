@@ -0,0 +1,99 @@
+package com.aspirecsl.log.correlation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates <em>Universally Unique Lexicographically Sortable Identifiers</em> <em>(ULID)</em>; as 26 characters of
+ * Crockford's Base32 encoding a 48-bit millisecond timestamp followed by 80 random bits.
+ * <p>Unlike <tt>UUID.randomUUID()</tt>, which draws from a <tt>SecureRandom</tt> shared by all the threads, this generator
+ * draws from the <tt>ThreadLocalRandom</tt> of the calling thread; so the threads do not contend with each other. The ids
+ * are sorted by the time that they are generated, to the millisecond. The ids generated by a thread are <em>monotonic</em>;
+ * within the same millisecond, or if the wall clock goes back, the random part of the previous id is incremented instead of
+ * being drawn afresh.
+ * <p>The ids are not cryptographically random; and must not be used as secrets.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see CorrelationIds
+ * @since 1d
+ */
+public final class UlidGenerator implements CorrelationIdGenerator {
+
+    /**
+     * Crockford's Base32 alphabet; which preserves the sort order of the encoded values.
+     */
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    /**
+     * The length of an id.
+     */
+    private static final int LENGTH = 26;
+
+    /**
+     * The state of each thread generating ids.
+     */
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String nextId() {
+        final State state = STATE.get();
+        final long now = System.currentTimeMillis();
+        if (now > state.time) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            state.time = now;
+            state.high = random.nextInt() & 0xFFFF;
+            state.low = random.nextLong();
+        } else if (++state.low == 0 && (state.high = (state.high + 1) & 0xFFFF) == 0) {
+            // the random part overflowed; borrow the next millisecond
+            state.time++;
+        }
+        return state.encode();
+    }
+
+    @Override
+    public String toString() {
+        return "UlidGenerator";
+    }
+
+    /**
+     * The last id generated by a thread.
+     */
+    private static final class State {
+        private final char[] chars = new char[LENGTH];
+
+        /**
+         * The timestamp; in milliseconds since the epoch.
+         */
+        private long time;
+
+        /**
+         * The most significant 16 bits of the random part.
+         */
+        private int high;
+
+        /**
+         * The least significant 64 bits of the random part.
+         */
+        private long low;
+
+        String encode() {
+            long value = time;
+            for (int i = 9; i >= 0; i--) {
+                chars[i] = ALPHABET[(int) value & 31];
+                value >>>= 5;
+            }
+            value = low;
+            for (int i = 25; i >= 14; i--) {
+                chars[i] = ALPHABET[(int) value & 31];
+                value >>>= 5;
+            }
+            // the 4 bits of the low part that remain, preceded by the 16 bits of the high part
+            value |= (long) high << 4;
+            for (int i = 13; i >= 10; i--) {
+                chars[i] = ALPHABET[(int) value & 31];
+                value >>>= 5;
+            }
+            return new String(chars);
+        }
+    }
+}
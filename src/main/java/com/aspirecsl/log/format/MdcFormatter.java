@@ -0,0 +1,33 @@
+package com.aspirecsl.log.format;
+
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.MdcValue;
+
+/**
+ * Renders a value of type <tt>T</tt> for the Mapped Diagnostic Context <em>(MDC)</em> of a logging framework.
+ * <p>A formatter appends the representation of the value to the supplied <tt>StringBuilder</tt>; which is reused across
+ * calls. A formatter should stop appending once it has appended <tt>maxLength</tt> characters; the characters appended beyond
+ * <tt>maxLength</tt> are discarded anyway.
+ * <p>Formatters are shared by every thread; hence, the implementations must be <em>thread-safe</em>. The formatters named by
+ * the <tt>MdcValue</tt> and <tt>MdcParam</tt> annotations must have a <tt>public</tt> no-arg constructor.
+ *
+ * @param <T> the type of the values rendered by this formatter.
+ * @author anoopr
+ * @version 1d
+ * @see MdcFormatters
+ * @see MdcValue#formatter()
+ * @see MdcParam#formatter()
+ * @since 1d
+ */
+@FunctionalInterface
+public interface MdcFormatter<T> {
+
+    /**
+     * Appends the representation of the <tt>value</tt> to the <tt>out</tt> builder.
+     *
+     * @param value     the value to be rendered; never <tt>null</tt>.
+     * @param out       the builder to append to.
+     * @param maxLength the maximum number of characters to append.
+     */
+    void formatTo(T value, StringBuilder out, int maxLength);
+}
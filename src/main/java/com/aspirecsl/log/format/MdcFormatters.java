@@ -0,0 +1,397 @@
+package com.aspirecsl.log.format;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of the {@link MdcFormatter}s that render the values added to the Mapped Diagnostic Context <em>(MDC)</em>.
+ * <p>A value is rendered by the formatter registered for its class; or else, by the formatter registered for its nearest
+ * superclass; or else, by the formatter registered for any of the interfaces it implements. The formatters for the following
+ * types are built in; and render the values as per their <tt>toString()</tt> methods, but stop at the length cap:-
+ * <ul>
+ * <li><tt>CharSequence</tt>; appends the characters as they are</li>
+ * <li><tt>Collection</tt> and <tt>Map</tt>; as per the <tt>toString()</tt> methods of <tt>AbstractCollection</tt> and
+ * <tt>AbstractMap</tt>. The collections and maps of the classes that override, or do not inherit, those methods are rendered
+ * by their own <tt>toString()</tt> methods; e.g. the <tt>Collections.synchronized*</tt> wrappers, which hold their lock while
+ * rendering, and the concurrent collections</li>
+ * </ul>
+ * <p>The values of other types are rendered as per their <tt>toString()</tt> methods; unless a formatter is registered for
+ * them, or named by their annotation. The following formatters are provided for registration:-
+ * <ul>
+ * <li>{@link #ARRAY}; renders arrays as per <tt>Arrays.toString()</tt>, but stops at the length cap</li>
+ * <li>{@link #HEX}; renders the remaining bytes of a <tt>ByteBuffer</tt> in hexadecimal, without changing the position of
+ * the buffer</li>
+ * <li>{@link #temporal(DateTimeFormatter)}; renders the <tt>java.time</tt> types in the specified format</li>
+ * </ul>
+ * <p>A representation can be capped to a maximum length; which is unlimited unless set by the annotation, or by the
+ * <tt>com.aspirecsl.log.format.maxLength</tt> system property. A representation exceeding the cap is truncated and ends with
+ * <tt>"..."</tt>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcFormatter
+ * @since 1d
+ */
+public final class MdcFormatters {
+
+    /**
+     * The default cap on the length of the rendered values; unlimited unless set by the
+     * <tt>com.aspirecsl.log.format.maxLength</tt> system property.
+     */
+    public static final int DEFAULT_MAX_LENGTH = Integer.getInteger("com.aspirecsl.log.format.maxLength", Integer.MAX_VALUE);
+
+    /**
+     * Renders arrays as per <tt>Arrays.toString()</tt>, but stops at the length cap.
+     */
+    public static final MdcFormatter<Object> ARRAY = MdcFormatters::formatArray;
+
+    /**
+     * Renders the remaining bytes of a <tt>ByteBuffer</tt> in hexadecimal, without changing the position of the buffer.
+     */
+    public static final MdcFormatter<ByteBuffer> HEX = MdcFormatters::formatByteBuffer;
+
+    /**
+     * Appended to the values truncated to the length cap.
+     */
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * A builder larger than this is not retained for reuse.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The formatters registered for each type.
+     */
+    private static final ConcurrentMap<Class<?>, MdcFormatter<?>> REGISTERED = new ConcurrentHashMap<>();
+
+    /**
+     * The formatters resolved for each class; along with the number of registrations made when they were resolved.
+     */
+    private static final ClassValue<Resolved> RESOLVED = new ClassValue<Resolved>() {
+        @Override
+        protected Resolved computeValue(Class<?> type) {
+            final int registrations = MdcFormatters.registrations;
+            final MdcFormatter<?> formatter = resolve(type);
+            // the built-in formatters only replace the toString() methods that they render the same
+            if (formatter == COLLECTION && !inheritsToString(type, AbstractCollection.class)
+                    || formatter == MAP && !inheritsToString(type, AbstractMap.class)) {
+                return new Resolved(TO_STRING, registrations);
+            }
+            return new Resolved(formatter, registrations);
+        }
+    };
+
+    /**
+     * The reusable builder of each thread.
+     */
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    /**
+     * Renders the values of the types without a formatter.
+     */
+    private static final MdcFormatter<Object> TO_STRING = (value, out, maxLength) -> out.append(value);
+
+    /**
+     * Renders the collections as per <tt>AbstractCollection.toString()</tt>, but stops at the length cap.
+     */
+    private static final MdcFormatter<Object> COLLECTION =
+            (value, out, maxLength) -> formatCollection((Collection<?>) value, out, maxLength);
+
+    /**
+     * Renders the maps as per <tt>AbstractMap.toString()</tt>, but stops at the length cap.
+     */
+    private static final MdcFormatter<Object> MAP = (value, out, maxLength) -> formatMap((Map<?, ?>) value, out, maxLength);
+
+    /**
+     * The number of registrations made; the resolved formatters are stale once this changes.
+     */
+    private static volatile int registrations;
+
+    static {
+        register(CharSequence.class, (value, out, maxLength) -> out.append(value, 0,
+                value.length() > maxLength ? maxLength + 1 : value.length()));
+        register(Collection.class, COLLECTION);
+        register(Map.class, MAP);
+    }
+
+    /**
+     * The hidden constructor.
+     * <p>This class only has static methods; hence, there is no need for an instance.
+     */
+    private MdcFormatters() {
+    }
+
+    /**
+     * Registers the <tt>formatter</tt> for the values of the specified <tt>type</tt>, and its subtypes; replacing any
+     * formatter registered for the <tt>type</tt> before.
+     *
+     * @param type      the type of the values rendered by the <tt>formatter</tt>.
+     * @param formatter the formatter.
+     * @param <T>       the type of the values rendered by the <tt>formatter</tt>.
+     */
+    public static synchronized <T> void register(Class<T> type, MdcFormatter<? super T> formatter) {
+        REGISTERED.put(type, formatter);
+        registrations++;
+    }
+
+    /**
+     * Returns the formatter that renders the <tt>java.time</tt> types, or any other <tt>TemporalAccessor</tt>, in the format
+     * of the specified <tt>formatter</tt>; e.g. <tt>temporal(DateTimeFormatter.ISO_INSTANT)</tt>.
+     *
+     * @param formatter the formatter of the temporal values.
+     * @return the formatter that renders the temporal values in the format of the <tt>formatter</tt>.
+     */
+    public static MdcFormatter<TemporalAccessor> temporal(DateTimeFormatter formatter) {
+        return (value, out, maxLength) -> formatter.formatTo(value, out);
+    }
+
+    /**
+     * Returns the formatter that renders the values of the specified <tt>type</tt>.
+     *
+     * @param type the type of the values.
+     * @return the formatter that renders the values of the <tt>type</tt>.
+     */
+    @SuppressWarnings("unchecked")
+    public static MdcFormatter<Object> formatterFor(Class<?> type) {
+        Resolved resolved = RESOLVED.get(type);
+        if (resolved.registrations != registrations) {
+            RESOLVED.remove(type);
+            resolved = RESOLVED.get(type);
+        }
+        return (MdcFormatter<Object>) resolved.formatter;
+    }
+
+    /**
+     * Returns the representation of the <tt>value</tt>; capped to the default maximum length.
+     *
+     * @param value the value to be rendered.
+     * @return the representation of the <tt>value</tt>; or <tt>"null"</tt> if the <tt>value</tt> is <tt>null</tt>.
+     */
+    public static String format(Object value) {
+        return format(value, null, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Returns the representation of the <tt>value</tt> rendered by the <tt>formatter</tt>; capped to <tt>maxLength</tt>.
+     *
+     * @param value     the value to be rendered.
+     * @param formatter the formatter; or <tt>null</tt> to use the formatter registered for the class of the <tt>value</tt>.
+     * @param maxLength the maximum length of the representation.
+     * @return the representation of the <tt>value</tt>; or <tt>"null"</tt> if the <tt>value</tt> is <tt>null</tt>.
+     */
+    @SuppressWarnings("unchecked")
+    public static String format(Object value, MdcFormatter<?> formatter, int maxLength) {
+        if (value == null) {
+            return "null";
+        }
+        if (formatter == null && value instanceof String && ((String) value).length() <= maxLength) {
+            return (String) value;
+        }
+        final Buffer buffer = BUFFERS.get();
+        // a formatter may itself format a value; in which case, the nested call uses a builder of its own
+        final StringBuilder out = buffer.inUse ? new StringBuilder() : buffer.acquire();
+        try {
+            if (formatter == null) {
+                formatTo(value, out, maxLength);
+            } else {
+                ((MdcFormatter<Object>) formatter).formatTo(value, out, maxLength);
+            }
+            truncate(out, 0, maxLength);
+            return out.toString();
+        } finally {
+            if (out == buffer.builder) {
+                buffer.release();
+            }
+        }
+    }
+
+    /**
+     * Appends the representation of the <tt>value</tt>, rendered by the formatter registered for its class, to the
+     * <tt>out</tt> builder; for use by the formatters of the values containing other values.
+     *
+     * @param value     the value to be rendered.
+     * @param out       the builder to append to.
+     * @param maxLength the maximum number of characters to append.
+     */
+    public static void formatTo(Object value, StringBuilder out, int maxLength) {
+        if (value == null) {
+            out.append("null");
+        } else {
+            formatterFor(value.getClass()).formatTo(value, out, maxLength);
+        }
+    }
+
+    /**
+     * Returns the formatter registered for the <tt>type</tt>, its nearest superclass or any of its interfaces.
+     */
+    private static MdcFormatter<?> resolve(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            final MdcFormatter<?> formatter = REGISTERED.get(c);
+            if (formatter != null) {
+                return formatter;
+            }
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Class<?> i : c.getInterfaces()) {
+                final MdcFormatter<?> formatter = resolve(i);
+                if (formatter != TO_STRING) {
+                    return formatter;
+                }
+            }
+        }
+        return TO_STRING;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>type</tt> inherits its <tt>toString()</tt> method from the <tt>base</tt> class.
+     * Otherwise, <tt>False</tt>.
+     */
+    private static boolean inheritsToString(Class<?> type, Class<?> base) {
+        try {
+            return type.getMethod("toString").getDeclaringClass() == base;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Truncates the characters appended to the <tt>out</tt> builder after the <tt>start</tt> index to <tt>maxLength</tt>;
+     * ending them with the ellipsis if they are truncated.
+     */
+    private static void truncate(StringBuilder out, int start, int maxLength) {
+        if (out.length() - start > maxLength) {
+            out.setLength(start + Math.max(0, maxLength - ELLIPSIS.length()));
+            out.append(ELLIPSIS, 0, Math.min(ELLIPSIS.length(), maxLength));
+        }
+    }
+
+    /**
+     * Returns the length of the <tt>out</tt> builder once <tt>maxLength</tt> characters are appended to it; saturated at
+     * <tt>Integer.MAX_VALUE</tt>.
+     */
+    private static int limit(StringBuilder out, int maxLength) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) out.length() + maxLength);
+    }
+
+    private static void formatCollection(Collection<?> value, StringBuilder out, int maxLength) {
+        formatElements(value.iterator(), value, out, maxLength);
+    }
+
+    private static void formatMap(Map<?, ?> value, StringBuilder out, int maxLength) {
+        final int limit = limit(out, maxLength);
+        out.append('{');
+        for (Iterator<? extends Map.Entry<?, ?>> it = value.entrySet().iterator(); it.hasNext(); ) {
+            if (out.length() > limit) {
+                return;
+            }
+            final Map.Entry<?, ?> entry = it.next();
+            formatElement(entry.getKey(), value, out, limit);
+            out.append('=');
+            formatElement(entry.getValue(), value, out, limit);
+            if (it.hasNext()) {
+                out.append(", ");
+            }
+        }
+        out.append('}');
+    }
+
+    private static void formatArray(Object value, StringBuilder out, int maxLength) {
+        final int limit = limit(out, maxLength);
+        final int length = Array.getLength(value);
+        out.append('[');
+        for (int i = 0; i < length; i++) {
+            if (out.length() > limit) {
+                return;
+            }
+            formatElement(Array.get(value, i), value, out, limit);
+            if (i < length - 1) {
+                out.append(", ");
+            }
+        }
+        out.append(']');
+    }
+
+    private static void formatElements(Iterator<?> it, Object container, StringBuilder out, int maxLength) {
+        final int limit = limit(out, maxLength);
+        out.append('[');
+        while (it.hasNext()) {
+            if (out.length() > limit) {
+                return;
+            }
+            formatElement(it.next(), container, out, limit);
+            if (it.hasNext()) {
+                out.append(", ");
+            }
+        }
+        out.append(']');
+    }
+
+    /**
+     * Appends an element of the <tt>container</tt>; a container that contains itself is rendered as <tt>"(this ...)"</tt>,
+     * as done by the <tt>toString()</tt> methods of the standard collections.
+     */
+    private static void formatElement(Object element, Object container, StringBuilder out, int limit) {
+        if (element == container) {
+            out.append(container instanceof Map ? "(this Map)" : "(this Collection)");
+        } else {
+            formatTo(element, out, Math.max(0, limit - out.length()));
+        }
+    }
+
+    private static void formatByteBuffer(ByteBuffer value, StringBuilder out, int maxLength) {
+        final int end = (int) Math.min(value.limit(), value.position() + maxLength / 2L + (maxLength & 1));
+        for (int i = value.position(); i < end; i++) {
+            final int b = value.get(i);
+            out.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        if (end < value.limit()) {
+            out.append(ELLIPSIS);
+        }
+    }
+
+    /**
+     * A formatter resolved for a class.
+     */
+    private static final class Resolved {
+        private final MdcFormatter<?> formatter;
+        private final int registrations;
+
+        Resolved(MdcFormatter<?> formatter, int registrations) {
+            this.formatter = formatter;
+            this.registrations = registrations;
+        }
+    }
+
+    /**
+     * The reusable builder of a thread.
+     */
+    private static final class Buffer {
+        private StringBuilder builder = new StringBuilder(256);
+        private boolean inUse;
+
+        StringBuilder acquire() {
+            inUse = true;
+            builder.setLength(0);
+            return builder;
+        }
+
+        void release() {
+            inUse = false;
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = new StringBuilder(256);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.aspirecsl.log.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcScope;
+import com.aspirecsl.log.aspects.MdcSpec;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * A <tt>Filter</tt> of the JDK <tt>HttpServer</tt> adding the headers of each request to the Mapped Diagnostic Context
+ * <em>(MDC)</em> of a logging framework while the request is handled; as <tt>{@literal @MdcMap(filter = filter, mdcKeyPrefix =
+ * mdcKeyPrefix)}</tt> does for a {@literal Map<String,String>}. For example:-
+ * <pre>
+ *
+ *     final HttpContext context = server.createContext("/orders", handler);
+ *     context.getFilters().add(MdcHttpFilter.of(MdcBackend.SLF4J, "traceId", "tenant"));
+ * </pre>
+ * <p>The headers are added via an {@link MdcScope}; and are removed from the MDC once the exchange has been handled, even if
+ * the handler fails. The first value of a header with more than one value is added.
+ * <p>The <tt>HttpServer</tt> normalizes the names of the request headers; and every header is added to the MDC under its
+ * normalized name, e.g. <tt>Traceid</tt>, however it is selected. The headers named in the <tt>filter</tt> are looked up by
+ * name. The globs and the regular expressions in the <tt>filter</tt>, e.g. <tt>X-B3-*</tt>, are matched against the name of
+ * every header instead, as is every header without a <tt>filter</tt>; without decoding or copying the names of the headers
+ * to match them.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcHttpInjector
+ * @see MdcSpec#headers(String[], String)
+ * @since 1d
+ */
+public final class MdcHttpFilter extends Filter {
+
+    private final MdcBackend backend;
+
+    /**
+     * The names of the headers to be looked up.
+     */
+    private final String[] names;
+
+    /**
+     * The MDC keys of the headers named in the <tt>names</tt>; their normalized names, prefixed.
+     */
+    private final String[] keys;
+
+    /**
+     * Adds the headers matching the patterns in the <tt>filter</tt>; or every header, without a <tt>filter</tt>. Or
+     * <tt>null</tt>, if the <tt>filter</tt> has only names.
+     */
+    private final MdcSpec matchedHeaders;
+
+    private MdcHttpFilter(MdcBackend backend, String[] filter, String mdcKeyPrefix) {
+        final List<String> names = new ArrayList<>();
+        final List<String> patterns = new ArrayList<>();
+        for (String name : filter) {
+            (isPattern(name) ? patterns : names).add(name);
+        }
+        this.backend = backend;
+        this.names = names.toArray(new String[0]);
+        this.keys = new String[this.names.length];
+        for (int i = 0; i < keys.length; i++) {
+            final String key = normalize(this.names[i]);
+            keys[i] = mdcKeyPrefix.isEmpty() ? key : mdcKeyPrefix + "-" + key;
+        }
+        this.matchedHeaders = filter.length == 0 || !patterns.isEmpty()
+                ? MdcSpec.headers(patterns.toArray(new String[0]), mdcKeyPrefix)
+                : null;
+    }
+
+    /**
+     * Returns a filter adding the specified request headers to the MDC.
+     *
+     * @param backend the logging framework whose MDC the headers are added to.
+     * @param filter  the <em>case-insensitive</em> names, or patterns, of the headers to be added; none to add every header.
+     * @return a filter adding the specified request headers to the MDC.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     * @see com.aspirecsl.log.MdcMap#filter()
+     */
+    public static MdcHttpFilter of(MdcBackend backend, String... filter) {
+        return of(backend, filter, "");
+    }
+
+    /**
+     * Returns a filter adding the specified request headers to the MDC, with their names prefixed.
+     *
+     * @param backend      the logging framework whose MDC the headers are added to.
+     * @param filter       the <em>case-insensitive</em> names, or patterns, of the headers to be added; an empty array to add
+     *                     every header.
+     * @param mdcKeyPrefix the <tt>String</tt> prefixed to the names of the headers before adding them to the MDC.
+     * @return a filter adding the specified request headers to the MDC, with their names prefixed.
+     * @throws IllegalArgumentException if a pattern in the <tt>filter</tt> is malformed.
+     */
+    public static MdcHttpFilter of(MdcBackend backend, String[] filter, String mdcKeyPrefix) {
+        return new MdcHttpFilter(backend, filter, mdcKeyPrefix);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        try (MdcScope scope = MdcScope.open(backend)) {
+            final Headers headers = exchange.getRequestHeaders();
+            for (int i = 0; i < names.length; i++) {
+                final String value = headers.getFirst(names[i]);
+                if (value != null) {
+                    scope.put(keys[i], value);
+                }
+            }
+            if (matchedHeaders != null) {
+                scope.bind(matchedHeaders, headers);
+            }
+            chain.doFilter(exchange);
+        }
+    }
+
+    /**
+     * Returns <tt>True</tt> if the specified entry of a <tt>filter</tt> is a glob or a regular expression, rather than the name
+     * of a header. Otherwise, <tt>False</tt>.
+     */
+    private static boolean isPattern(String name) {
+        return name.indexOf('*') >= 0 || name.indexOf('?') >= 0 || name.indexOf('\\') >= 0
+                || (name.length() > 1 && name.startsWith("/") && name.endsWith("/"));
+    }
+
+    /**
+     * Returns the specified name of a header as normalized by the <tt>HttpServer</tt>.
+     */
+    private static String normalize(String name) {
+        final Headers headers = new Headers();
+        headers.add(name, "");
+        return headers.keySet().iterator().next();
+    }
+
+    @Override
+    public String description() {
+        return "Adds the request headers to the MDC of " + backend;
+    }
+}
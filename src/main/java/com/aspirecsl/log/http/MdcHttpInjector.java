@@ -0,0 +1,129 @@
+package com.aspirecsl.log.http;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+
+/**
+ * Injects the entries of the current thread's Mapped Diagnostic Context <em>(MDC)</em> into the headers of the outgoing
+ * requests; so that the server, e.g. with an {@link MdcHttpFilter}, continues with the same context.
+ * <p>The headers are set via a <tt>BiConsumer</tt>; so the injector works with any client. For example:-
+ * <pre>
+ *
+ *     private static final MdcHttpInjector INJECTOR = MdcHttpInjector.of(MdcBackend.SLF4J, "traceId", "tenant");
+ *
+ *     // java.net.http.HttpClient
+ *     final HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+ *     INJECTOR.inject(request::header);
+ *
+ *     // java.net.HttpURLConnection
+ *     INJECTOR.inject(connection::setRequestProperty);
+ * </pre>
+ * <p>An entry is injected as a header named after its key. The entries that cannot be sent as headers are skipped; without
+ * affecting the other entries. Those are the entries whose keys are not valid header names <em>(the <tt>token</tt>s of
+ * <tt>RFC 7230</tt>)</em>, or name the headers managed by the client <em>(e.g. <tt>Host</tt> or <tt>Content-Length</tt>)</em>;
+ * the entries whose values hold control characters <em>(e.g. line breaks)</em>; and the entries rejected by the
+ * <tt>BiConsumer</tt> with an <tt>IllegalArgumentException</tt>, as <tt>HttpRequest.Builder.header(...)</tt> does for its
+ * restricted headers.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcHttpFilter
+ * @since 1d
+ */
+public final class MdcHttpInjector {
+
+    /**
+     * The headers managed by the HTTP clients; in lower case.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList("connection", "content-length",
+            "date", "expect", "from", "host", "keep-alive", "te", "trailer", "transfer-encoding", "upgrade", "via", "warning"));
+
+    /**
+     * The characters, other than the letters and digits, allowed in the header names; as per <tt>RFC 7230</tt>.
+     */
+    private static final String TOKEN_SYMBOLS = "!#$%&'*+-.^_`|~";
+
+    private final MdcBackend backend;
+    private final String[] filter;
+
+    private MdcHttpInjector(MdcBackend backend, String[] filter) {
+        this.backend = backend;
+        this.filter = filter;
+    }
+
+    /**
+     * Returns an injector of the specified MDC entries.
+     *
+     * @param backend the logging framework whose MDC the entries are taken from.
+     * @param filter  the keys of the entries to be injected; none to inject every entry.
+     * @return an injector of the specified MDC entries.
+     */
+    public static MdcHttpInjector of(MdcBackend backend, String... filter) {
+        return new MdcHttpInjector(backend, filter.clone());
+    }
+
+    /**
+     * Sets a header for each of the relevant entries of the current thread's MDC.
+     *
+     * @param header sets a header of the outgoing request; given its name and its value.
+     */
+    public void inject(BiConsumer<String, String> header) {
+        if (filter.length == 0) {
+            for (Map.Entry<String, String> entry : backend.capture().mappedDiagnosticContext().entrySet()) {
+                inject(entry.getKey(), entry.getValue(), header);
+            }
+        } else {
+            for (String key : filter) {
+                inject(key, backend.get(key), header);
+            }
+        }
+    }
+
+    private static void inject(String name, String value, BiConsumer<String, String> header) {
+        if (value == null || !isHeaderName(name) || !isHeaderValue(value)
+                || RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+            return;
+        }
+        try {
+            header.accept(name, value);
+        } catch (IllegalArgumentException rejected) {
+            // the header is restricted, or otherwise invalid, for the client; the other entries are injected still
+        }
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>name</tt> is a <tt>token</tt>, as per <tt>RFC 7230</tt>. Otherwise, <tt>False</tt>.
+     */
+    private static boolean isHeaderName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || TOKEN_SYMBOLS.indexOf(c) >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>value</tt> holds only visible characters, spaces and tabs; as allowed in the
+     * <tt>field-value</tt>s by <tt>RFC 7230</tt>. Otherwise, <tt>False</tt>.
+     */
+    private static boolean isHeaderValue(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < ' ' && c != '\t' || c == 0x7F || c > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
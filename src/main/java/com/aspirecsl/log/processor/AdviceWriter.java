@@ -0,0 +1,709 @@
+package com.aspirecsl.log.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.MdcAccounting;
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcIterate;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.MdcMaps;
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.MdcParams;
+import com.aspirecsl.log.MdcTimed;
+import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * Writes the source of the advice class generated for the <tt>MdcSpecialized</tt> methods of a type.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcAdviceProcessor
+ * @since 1d
+ */
+final class AdviceWriter {
+
+    /**
+     * The suffix of the generated advice class names.
+     */
+    static final String ADVICE_SUFFIX = "_MdcAdvice";
+
+    private final ProcessingEnvironment env;
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement type;
+    private final AnnotationChecker checker;
+    private final String packageName;
+    private final String simpleName;
+
+    /**
+     * The declarations of the <tt>MdcSpec</tt>, <tt>MdcBudget</tt>, <tt>MdcTimer</tt>, <tt>MdcAccountant</tt>,
+     * <tt>MdcExtractor</tt> and <tt>MdcMetrics.MethodMetrics</tt> constants of the generated class.
+     */
+    private final StringBuilder specs = new StringBuilder();
+
+    /**
+     * The declarations of the advice methods of the generated class.
+     */
+    private final StringBuilder advices = new StringBuilder();
+
+    private int specCount;
+    private int budgetCount;
+    private int timerCount;
+    private int accountantCount;
+    private int extractorCount;
+    private int metricsCount;
+    private int adviceCount;
+
+    /**
+     * Creates a writer of the advice class for the <tt>MdcSpecialized</tt> methods of the specified <tt>type</tt>.
+     *
+     * @param env  the annotation processing environment.
+     * @param type the type declaring the <tt>MdcSpecialized</tt> methods.
+     */
+    AdviceWriter(ProcessingEnvironment env, TypeElement type) {
+        this.env = env;
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.type = type;
+        this.checker = new AnnotationChecker(env);
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        final String binaryName = elements.getBinaryName(type).toString();
+        this.simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + ADVICE_SUFFIX;
+    }
+
+    /**
+     * Returns the qualified name of the generated advice class.
+     *
+     * @return the qualified name of the generated advice class.
+     */
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * Returns <tt>True</tt> if no advice has been added. Otherwise, <tt>False</tt>.
+     *
+     * @return <tt>True</tt> if no advice has been added. Otherwise, <tt>False</tt>.
+     */
+    boolean isEmpty() {
+        return adviceCount == 0;
+    }
+
+    /**
+     * Adds the advice for the specified <tt>MdcSpecialized</tt> method; one for each of the <em>method marker</em>
+     * annotations on it.
+     *
+     * @param method the <tt>MdcSpecialized</tt> method.
+     * @return <tt>True</tt> if the method can be advised by a specialized advice. Otherwise, <tt>False</tt>; in which case the
+     * reasons are reported as compilation errors.
+     */
+    boolean addMethod(ExecutableElement method) {
+        final Slf4jMdcAware slf4jMdcAware = method.getAnnotation(Slf4jMdcAware.class);
+        final Log4j2MdcAware log4j2MdcAware = method.getAnnotation(Log4j2MdcAware.class);
+        final MdcTimed mdcTimed = method.getAnnotation(MdcTimed.class);
+        final MdcAccounting mdcAccounting = method.getAnnotation(MdcAccounting.class);
+        final List<String> backends = new ArrayList<>();
+        final List<String> budgets = new ArrayList<>();
+        final List<String> correlationKeys = new ArrayList<>();
+        if (slf4jMdcAware != null) {
+            backends.add("com.aspirecsl.log.aspects.MdcBackend.SLF4J");
+            budgets.add(budgetArgument(slf4jMdcAware.maxKeys(), slf4jMdcAware.maxValueLength(),
+                    slf4jMdcAware.maxTotalBytes()));
+            correlationKeys.add(slf4jMdcAware.correlationKey());
+        }
+        if (log4j2MdcAware != null) {
+            backends.add("com.aspirecsl.log.aspects.MdcBackend.LOG4J2");
+            budgets.add(budgetArgument(log4j2MdcAware.maxKeys(), log4j2MdcAware.maxValueLength(),
+                    log4j2MdcAware.maxTotalBytes()));
+            correlationKeys.add(log4j2MdcAware.correlationKey());
+        }
+        if (backends.isEmpty()) {
+            return error(method, "@MdcSpecialized is allowed only on @Slf4jMdcAware or @Log4j2MdcAware methods.");
+        }
+        if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+            return error(method, "@MdcSpecialized is not allowed on abstract methods.");
+        }
+        if (!checker.check(method)) {
+            return false;
+        }
+
+        final List<? extends VariableElement> parameters = method.getParameters();
+        final List<String> argNames = new ArrayList<>();
+        final List<String> adviceParameters = new ArrayList<>();
+        final List<String> argsPatterns = new ArrayList<>();
+        final StringBuilder body = new StringBuilder();
+        final StringBuilder iterations = new StringBuilder();
+        boolean valid = true;
+        for (int i = 0; i < parameters.size(); i++) {
+            final VariableElement parameter = parameters.get(i);
+            final TypeMirror parameterType = types.erasure(parameter.asType());
+            final String arg = "a" + i;
+            final int length = body.length() + iterations.length();
+            final MdcIterate mdcIterate = parameter.getAnnotation(MdcIterate.class);
+            if (mdcIterate != null) {
+                writeIteration(mdcIterate, i, arg, iterations);
+            } else {
+                writeBinding(parameter, parameterType, arg, body);
+            }
+            if (body.length() + iterations.length() == length) {
+                argsPatterns.add("*");
+            } else if (!isAccessible(parameterType)) {
+                valid = error(parameter, "@MdcSpecialized requires the type of the MDC annotated parameters to be "
+                        + "accessible from the package '" + packageName + "'.");
+            } else {
+                argsPatterns.add(arg);
+                argNames.add(arg);
+                adviceParameters.add(sourceName(parameterType) + " " + arg);
+            }
+        }
+        if (!valid || argNames.isEmpty() && correlationKeys.stream().allMatch(String::isEmpty) && mdcTimed == null
+                && mdcAccounting == null) {
+            return valid;
+        }
+        final String name = methodName(method);
+        final String timer = mdcTimed == null ? null : timerConstant(method, mdcTimed);
+        final String accountant = mdcAccounting == null ? null : accountantConstant(method, mdcAccounting);
+        final String proceed = iterations.length() == 0 ? "pjp.proceed()" : "pjp.proceed(args)";
+
+        final String pointcut = "execution(* " + elements.getBinaryName(type) + "." + method.getSimpleName() + "("
+                + parameters.stream().map(p -> binaryName(types.erasure(p.asType()))).collect(Collectors.joining(", "))
+                + ")) && within(" + elements.getBinaryName(type) + ") && args("
+                + String.join(", ", argsPatterns) + ") && com.aspirecsl.log.aspects.MdcAspect.adviceEnabled(*)";
+        final String metrics = metricsConstant(method);
+        argNames.add(0, "pjp");
+        adviceParameters.add(0, "org.aspectj.lang.ProceedingJoinPoint pjp");
+        for (int i = 0; i < backends.size(); i++) {
+            final String correlationKey = correlationKeys.get(i);
+            advices.append("\n")
+                    .append("    @org.aspectj.lang.annotation.Around(value = ")
+                    .append(elements.getConstantExpression(pointcut))
+                    .append(", argNames = \"").append(String.join(",", argNames)).append("\")\n")
+                    .append("    public Object advice").append(adviceCount++)
+                    .append("(").append(String.join(", ", adviceParameters)).append(") throws Throwable {\n")
+                    .append("        final boolean sampled = ").append(metrics)
+                    .append(" != null && com.aspirecsl.log.aspects.MdcMetrics.sampled();\n")
+                    .append("        final long entered = sampled ? System.nanoTime() : 0;\n")
+                    .append(timer == null ? "" : "        final long started = System.nanoTime();\n")
+                    .append("        final com.aspirecsl.log.aspects.MdcScope scope = ")
+                    .append("com.aspirecsl.log.aspects.MdcScope.open(").append(backends.get(i)).append(budgets.get(i))
+                    .append(");\n")
+                    .append("        final Object event = com.aspirecsl.log.aspects.MdcEvents.begin();\n")
+                    .append(accountant == null ? "" : "        final long cpuTime = " + accountant + ".cpuTime();\n"
+                            + "        final long allocatedBytes = " + accountant + ".allocatedBytes();\n")
+                    .append("        long proceeded = 0;\n")
+                    .append(timer == null ? "" : "        Throwable failure = null;\n")
+                    .append("        try {\n")
+                    .append("            com.aspirecsl.log.aspects.MdcWatchdog.stamp(scope, ").append(literal(name))
+                    .append(", ").append(backends.get(i)).append(");\n")
+                    .append(correlationKey.isEmpty() ? "" : "            scope.correlate(" + literal(correlationKey) + ");\n");
+            if (body.length() > 0) {
+                advices.append("            try {\n")
+                        .append(body.toString().replaceAll("(?m)^(?=.)", "    "))
+                        .append("            } catch (IllegalArgumentException ex) {\n")
+                        .append("                if (").append(metrics).append(" != null) {\n")
+                        .append("                    ").append(metrics).append(".validationFailed();\n")
+                        .append("                }\n")
+                        .append("                throw ex;\n")
+                        .append("            }\n");
+            }
+            advices.append(iterations.length() == 0 ? "" : "            final Object[] args = pjp.getArgs();\n")
+                    .append(iterations)
+                    .append("            com.aspirecsl.log.aspects.MdcEvents.extracted(event);\n")
+                    .append("            com.aspirecsl.log.aspects.MdcRegistry.publish(scope, ").append(literal(name))
+                    .append(");\n")
+                    .append("            if (!sampled) {\n")
+                    .append("                return ").append(proceed).append(";\n")
+                    .append("            }\n")
+                    .append("            final long proceeding = System.nanoTime();\n")
+                    .append("            try {\n")
+                    .append("                return ").append(proceed).append(";\n")
+                    .append("            } finally {\n")
+                    .append("                proceeded = System.nanoTime() - proceeding;\n")
+                    .append("            }\n");
+            if (timer != null) {
+                advices.append("        } catch (Throwable ex) {\n")
+                        .append("            failure = ex;\n")
+                        .append("            throw ex;\n");
+            }
+            advices.append("        } finally {\n")
+                    .append("            final int keys;\n")
+                    .append("            try {\n")
+                    .append(accountant == null ? "" : "                " + accountant
+                            + ".stop(scope, cpuTime, allocatedBytes);\n")
+                    .append(timer == null ? "" : "                " + timer + ".stop(" + backends.get(i)
+                            + ", scope, started, failure);\n")
+                    .append("                com.aspirecsl.log.aspects.MdcEvents.end(event, ").append(literal(name))
+                    .append(", scope);\n")
+                    .append("            } finally {\n")
+                    .append("                keys = scope.size();\n")
+                    .append("                scope.close();\n")
+                    .append("            }\n")
+                    .append("            if (").append(metrics).append(" != null) {\n")
+                    .append("                ").append(metrics).append(".record(keys, scope.operations());\n")
+                    .append("                if (sampled) {\n")
+                    .append("                    ").append(metrics)
+                    .append(".recordTime(System.nanoTime() - entered - proceeded);\n")
+                    .append("                }\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("    }\n");
+        }
+        return true;
+    }
+
+    /**
+     * Returns the source of the generated advice class.
+     *
+     * @return the source of the generated advice class.
+     */
+    String source() {
+        return "// Generated by " + MdcAdviceProcessor.class.getName() + "; do not edit.\n"
+                + (packageName.isEmpty() ? "" : "package " + packageName + ";\n")
+                + "\n"
+                + "@org.aspectj.lang.annotation.Aspect\n"
+                + "@SuppressWarnings(\"all\")\n"
+                + "public final class " + simpleName + " {\n"
+                + specs
+                + advices
+                + "}\n";
+    }
+
+    /**
+     * Writes the statements binding an argument to the MDC as per the <em>(valid)</em> MDC annotations on its parameter.
+     */
+    private void writeBinding(VariableElement parameter, TypeMirror parameterType, String arg, StringBuilder body) {
+        final MdcValue mdcValue = parameter.getAnnotation(MdcValue.class);
+        final MdcMap mdcMap = parameter.getAnnotation(MdcMap.class);
+        final MdcMaps mdcMaps = parameter.getAnnotation(MdcMaps.class);
+        final MdcHolder mdcHolder = parameter.getAnnotation(MdcHolder.class);
+        final MdcParam mdcParam = parameter.getAnnotation(MdcParam.class);
+        final MdcParams mdcParams = parameter.getAnnotation(MdcParams.class);
+
+        if (mdcValue != null && !AnnotationChecker.isDefaultRendering(
+                AnnotationChecker.formatterOf(mdcValue), mdcValue.maxLength())) {
+            writeBind("com.aspirecsl.log.aspects.MdcSpec.value(" + literal(mdcValue.name()) + ", " + mdcValue.nullable()
+                    + ", " + classLiteral(AnnotationChecker.formatterOf(mdcValue)) + ", " + mdcValue.maxLength() + ")",
+                    arg, body);
+        } else if (mdcValue != null) {
+            final String put = putStatement(literal(mdcValue.name()), parameterType, arg, mdcValue.nullable());
+            if (parameterType.getKind().isPrimitive() || mdcValue.nullable()) {
+                body.append("            ").append(put);
+            } else {
+                body.append("            if (").append(arg).append(" != null) {\n")
+                        .append("                ").append(put)
+                        .append("            }\n");
+            }
+        } else if (mdcMap != null) {
+            writeBind(mapSpec(mdcMap), arg, body);
+        } else if (mdcMaps != null) {
+            writeBind("com.aspirecsl.log.aspects.MdcSpec.of(" + Arrays.stream(mdcMaps.value())
+                    .map(this::mapSpec)
+                    .collect(Collectors.joining(", ")) + ")", arg, body);
+        } else if (mdcHolder != null && mdcHolder.filter().length == 0 && mdcHolder.mdcKeyPrefix().isEmpty()
+                && isExtractable(parameterType)) {
+            body.append("            if (").append(arg).append(" != null) {\n")
+                    .append("                ").append(extractorConstant(parameterType)).append(".extract(").append(arg)
+                    .append(", scope);\n")
+                    .append("            }\n");
+        } else if (mdcHolder != null) {
+            writeBind("com.aspirecsl.log.aspects.MdcSpec.holder(" + literals(mdcHolder.filter()) + ", "
+                    + literal(mdcHolder.mdcKeyPrefix()) + ")", arg, body);
+        } else if (mdcParam != null) {
+            writeParam(mdcParam, parameterType, arg, body);
+        } else if (mdcParams != null) {
+            for (MdcParam param : mdcParams.value()) {
+                writeParam(param, parameterType, arg, body);
+            }
+        }
+    }
+
+    /**
+     * Writes the statements binding a property of an argument as per an <tt>MdcParam</tt> annotation. The property is read
+     * directly if it is accessible from the generated advice and is rendered by the registered formatters; otherwise, it is
+     * bound through an <tt>MdcSpec</tt>. So is a nested property named by a <tt>path()</tt>; through the chain of accessors
+     * cached by the runtime class of each object on the path.
+     */
+    private void writeParam(MdcParam mdcParam, TypeMirror parameterType, String arg, StringBuilder body) {
+        final String field = mdcParam.field();
+        final String getter = mdcParam.getter();
+        final String mdcKey = mdcParam.label().isEmpty() ? field + getter : mdcParam.label();
+
+        final TypeMirror formatter = AnnotationChecker.formatterOf(mdcParam);
+        final boolean defaultRendering = AnnotationChecker.isDefaultRendering(formatter, mdcParam.maxLength());
+        final Element member = defaultRendering && mdcParam.path().isEmpty()
+                ? findMember(parameterType, getter.isEmpty() ? field : getter, !getter.isEmpty())
+                : null;
+        if (member == null) {
+            writeBind(paramSpec(mdcParam), arg, body);
+            return;
+        }
+
+        final TypeMirror valueType = member.getKind() == ElementKind.METHOD
+                ? ((ExecutableElement) member).getReturnType()
+                : member.asType();
+        final String access = arg + "." + member.getSimpleName() + (member.getKind() == ElementKind.METHOD ? "()" : "");
+        final String put = putStatement(literal(mdcKey), valueType, access, true);
+        body.append("            if (").append(arg).append(" != null) {\n");
+        if (member.getKind() == ElementKind.METHOD) {
+            // a failing getter does not add anything to the MDC; as with the runtime advice
+            body.append("                try {\n")
+                    .append("                    ").append(put)
+                    .append("                } catch (Exception ignore) {\n")
+                    .append("                    com.aspirecsl.log.aspects.MdcMetrics.reflectionFailed();\n")
+                    .append("                }\n");
+        } else {
+            body.append("                ").append(put);
+        }
+        body.append("            }\n");
+    }
+
+    /**
+     * Returns the expression creating the <tt>MdcSpec</tt> equivalent to an <tt>MdcParam</tt> annotation.
+     */
+    private String paramSpec(MdcParam mdcParam) {
+        final String field = mdcParam.field();
+        final String getter = mdcParam.getter();
+        final String path = mdcParam.path();
+        final String mdcKey = mdcParam.label().isEmpty() ? field + getter + path : mdcParam.label();
+        final TypeMirror formatter = AnnotationChecker.formatterOf(mdcParam);
+        final String rendering = AnnotationChecker.isDefaultRendering(formatter, mdcParam.maxLength())
+                ? ""
+                : ", " + classLiteral(formatter) + ", " + mdcParam.maxLength();
+        if (!path.isEmpty()) {
+            return "com.aspirecsl.log.aspects.MdcSpec.path(" + literal(path) + ", " + literal(mdcKey) + rendering + ")";
+        }
+        return getter.isEmpty()
+                ? "com.aspirecsl.log.aspects.MdcSpec.field(" + literal(field) + ", " + literal(mdcKey) + rendering + ")"
+                : "com.aspirecsl.log.aspects.MdcSpec.getter(" + literal(getter) + ", " + literal(mdcKey) + rendering + ")";
+    }
+
+    /**
+     * Writes the statement replacing an argument with the view that adds each of its elements to the MDC as per an
+     * <tt>MdcIterate</tt> annotation; through a new <tt>MdcSpec</tt> constant. The replaced arguments are passed on to the
+     * <em>advised</em> method.
+     */
+    private void writeIteration(MdcIterate mdcIterate, int index, String arg, StringBuilder iterations) {
+        final String spec = specConstant("com.aspirecsl.log.aspects.MdcSpec.of(" + Arrays.stream(mdcIterate.value())
+                .map(this::paramSpec)
+                .collect(Collectors.joining(", ")) + ")");
+        iterations.append("            args[").append(index).append("] = scope.iterate(").append(spec).append(", ")
+                .append(arg).append(");\n");
+    }
+
+    /**
+     * Returns the statement adding the value of the <tt>expression</tt>, of the specified <tt>type</tt>, to the MDC.
+     * <p>The <tt>int</tt>, <tt>long</tt>, <tt>boolean</tt> and <tt>enum</tt> values are passed as they are to the
+     * <tt>MdcScope.putInt</tt>, <tt>putLong</tt>, <tt>putBoolean</tt> and <tt>putEnum</tt> methods; which render them without
+     * boxing and from cached representations. The boxed equivalents of those primitives are unboxed when they cannot be
+     * <tt>null</tt>. The other values are passed as <tt>Object</tt>s; to be rendered by the formatters registered with
+     * <tt>MdcFormatters</tt>.
+     *
+     * @param key      the literal of the MDC key.
+     * @param nullable whether the value of the <tt>expression</tt> can be <tt>null</tt>.
+     */
+    private String putStatement(String key, TypeMirror type, String expression, boolean nullable) {
+        TypeMirror valueType = type;
+        if (!nullable && type.getKind() == TypeKind.DECLARED) {
+            try {
+                valueType = types.unboxedType(type);
+            } catch (IllegalArgumentException notBoxed) {
+                valueType = type;
+            }
+        }
+        final String value;
+        switch (valueType.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+                return "scope.putInt(" + key + ", " + expression + ");\n";
+            case LONG:
+                return "scope.putLong(" + key + ", " + expression + ");\n";
+            case BOOLEAN:
+                return "scope.putBoolean(" + key + ", " + expression + ");\n";
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                value = "String.valueOf(" + expression + ")";
+                break;
+            default:
+                if (types.asElement(valueType) != null && types.asElement(valueType).getKind() == ElementKind.ENUM) {
+                    return "scope.putEnum(" + key + ", " + expression + ");\n";
+                }
+                value = types.isSameType(valueType, elements.getTypeElement(Object.class.getName()).asType())
+                        ? expression
+                        : "(Object) " + expression;
+        }
+        return "scope.put(" + key + ", " + value + ");\n";
+    }
+
+    /**
+     * Writes the statement binding an argument through a new <tt>MdcSpec</tt> constant.
+     */
+    private void writeBind(String specExpression, String arg, StringBuilder body) {
+        body.append("            scope.bind(").append(specConstant(specExpression)).append(", ").append(arg).append(");\n");
+    }
+
+    /**
+     * Returns <tt>True</tt> if the arguments of the specified <tt>type</tt> are extracted by the same <tt>MdcExtractor</tt>
+     * whatever their runtime class; i.e. the <tt>type</tt> is a <tt>final</tt> class, with <tt>MdcExport</tt> annotated
+     * members, that is not a <tt>HasDiagnosticContext</tt>. Otherwise, <tt>False</tt>.
+     */
+    private boolean isExtractable(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && types.asElement(type).getModifiers().contains(Modifier.FINAL)
+                && !types.isAssignable(type, elements.getTypeElement(HasDiagnosticContext.class.getName()).asType())
+                && ExtractorWriter.exportingType(types, type) != null;
+    }
+
+    /**
+     * Declares the extractor of the arguments of the specified <tt>type</tt> as a new <tt>MdcExtractor</tt> constant.
+     *
+     * @return the name of the constant.
+     */
+    private String extractorConstant(TypeMirror type) {
+        final String extractor = "EXTRACTOR_" + extractorCount++;
+        specs.append("\n    private static final com.aspirecsl.log.aspects.MdcExtractor<? super ").append(sourceName(type))
+                .append("> ").append(extractor).append(" =\n")
+                .append("            com.aspirecsl.log.aspects.MdcExtractor.of(").append(type).append(".class);\n");
+        return extractor;
+    }
+
+    /**
+     * Declares a new <tt>MdcSpec</tt> constant initialized by the specified expression.
+     *
+     * @return the name of the constant.
+     */
+    private String specConstant(String specExpression) {
+        final String spec = "SPEC_" + specCount++;
+        specs.append("\n    private static final com.aspirecsl.log.aspects.MdcSpec ").append(spec).append(" =\n")
+                .append("            ").append(specExpression).append(";\n");
+        return spec;
+    }
+
+    private String mapSpec(MdcMap mdcMap) {
+        return "com.aspirecsl.log.aspects.MdcSpec.map(" + literals(mdcMap.filter()) + ", "
+                + literals(mdcMap.nestedMapKeys()) + ", " + literal(mdcMap.mdcKeyPrefix()) + ", " + mdcMap.maxKeys() + ", "
+                + mdcMap.maxValueLength() + ")";
+    }
+
+    /**
+     * Returns the argument that passes the budget specified by a method marker annotation to <tt>MdcScope.open</tt>; after
+     * declaring the budget as a new <tt>MdcBudget</tt> constant.
+     *
+     * @return the argument passing the budget; or an empty string if the annotation does not specify a budget.
+     */
+    private String budgetArgument(int maxKeys, int maxValueLength, int maxTotalBytes) {
+        if (maxKeys <= 0 && maxValueLength <= 0 && maxTotalBytes <= 0) {
+            return "";
+        }
+        final String budget = "BUDGET_" + budgetCount++;
+        specs.append("\n    private static final com.aspirecsl.log.aspects.MdcBudget ").append(budget).append(" =\n")
+                .append("            com.aspirecsl.log.aspects.MdcBudget.of(").append(maxKeys).append(", ")
+                .append(maxValueLength).append(", ").append(maxTotalBytes).append(");\n");
+        return ", " + budget;
+    }
+
+    /**
+     * Declares the timer compiled from the <tt>MdcTimed</tt> annotation on a method as a new <tt>MdcTimer</tt> constant.
+     *
+     * @return the name of the constant.
+     */
+    private String timerConstant(ExecutableElement method, MdcTimed mdcTimed) {
+        final String timer = "TIMER_" + timerCount++;
+        final String name = methodName(method);
+        specs.append("\n    private static final com.aspirecsl.log.aspects.MdcTimer ").append(timer).append(" =\n")
+                .append("            com.aspirecsl.log.aspects.MdcTimer.of(").append(literal(elements.getBinaryName(type)
+                .toString())).append(", ").append(literal(name)).append(", ").append(literal(mdcTimed.elapsedKey()))
+                .append(", ").append(literal(mdcTimed.outcomeKey())).append(", java.util.concurrent.TimeUnit.")
+                .append(mdcTimed.unit()).append(", ").append(mdcTimed.slowThreshold()).append("L, ")
+                .append(literal(mdcTimed.segmentKey())).append(", ").append(mdcTimed.maxSegments()).append(");\n");
+        return timer;
+    }
+
+    /**
+     * Declares the accountant compiled from the <tt>MdcAccounting</tt> annotation on a method as a new <tt>MdcAccountant</tt>
+     * constant.
+     *
+     * @return the name of the constant.
+     */
+    private String accountantConstant(ExecutableElement method, MdcAccounting mdcAccounting) {
+        final String accountant = "ACCOUNTANT_" + accountantCount++;
+        specs.append("\n    private static final com.aspirecsl.log.aspects.MdcAccountant ").append(accountant).append(" =\n")
+                .append("            com.aspirecsl.log.aspects.MdcAccountant.of(").append(literal(methodName(method)))
+                .append(", ").append(literal(mdcAccounting.segmentKey())).append(", ").append(mdcAccounting.maxSegments())
+                .append(");\n");
+        return accountant;
+    }
+
+    /**
+     * Declares the metrics of a method, shared with the generic advice of the method, as a new
+     * <tt>MdcMetrics.MethodMetrics</tt> constant.
+     *
+     * @return the name of the constant.
+     */
+    private String metricsConstant(ExecutableElement method) {
+        final String metrics = "METRICS_" + metricsCount++;
+        specs.append("\n    private static final com.aspirecsl.log.aspects.MdcMetrics.MethodMetrics ").append(metrics)
+                .append(" =\n")
+                .append("            com.aspirecsl.log.aspects.MdcMetrics.register(").append(simpleName).append(".class, ")
+                .append(literal(elements.getBinaryName(type).toString())).append(", ")
+                .append(literal(method.getSimpleName().toString()))
+                .append(method.getParameters().stream()
+                        .map(p -> ", " + classLiteral(p.asType()))
+                        .collect(Collectors.joining()))
+                .append(");\n");
+        return metrics;
+    }
+
+    /**
+     * Returns the name of a method, with its declaring class and parameter types; as named at runtime.
+     */
+    private String methodName(ExecutableElement method) {
+        return elements.getBinaryName(type) + "." + method.getSimpleName() + method.getParameters()
+                .stream()
+                .map(p -> binaryName(types.erasure(p.asType())))
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Returns the non-static field, or the non-static no-arg method returning a value, with the specified <tt>name</tt> that
+     * the runtime advice would read from the arguments of the <tt>type</tt>; provided that it is accessible from the generated
+     * advice.
+     * <p>The runtime advice looks the members up among those <em>declared</em> by the runtime class of the argument; so the
+     * member is read directly only if the <tt>type</tt> is a <tt>final</tt> class <em>(the runtime class of its arguments)</em>
+     * declaring it, and declaring no other method of the same name. The other members are bound through an <tt>MdcSpec</tt>;
+     * as by the runtime advice.
+     *
+     * @return the field or method; or <tt>null</tt> if there is no such member.
+     */
+    private Element findMember(TypeMirror type, String name, boolean method) {
+        if (type.getKind() != TypeKind.DECLARED || !types.asElement(type).getModifiers().contains(Modifier.FINAL)) {
+            return null;
+        }
+        final List<Element> members = types.asElement(type).getEnclosedElements().stream()
+                .filter(member -> member.getSimpleName().contentEquals(name))
+                .filter(member -> member.getKind() == (method ? ElementKind.METHOD : ElementKind.FIELD))
+                .collect(Collectors.toList());
+        if (members.size() != 1) {
+            return null;
+        }
+        final Element member = members.get(0);
+        if (member.getModifiers().contains(Modifier.STATIC) || !isAccessible(member)) {
+            return null;
+        }
+        if (method && (!((ExecutableElement) member).getParameters().isEmpty()
+                || ((ExecutableElement) member).getReturnType().getKind() == TypeKind.VOID)) {
+            return null;
+        }
+        return member;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the specified <tt>type</tt> can be referred to from the generated advice. Otherwise,
+     * <tt>False</tt>.
+     */
+    private boolean isAccessible(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType());
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            for (Element element = ((DeclaredType) type).asElement();
+                    !(element instanceof PackageElement);
+                    element = element.getEnclosingElement()) {
+                if (!isAccessible(element)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the specified <tt>element</tt> can be accessed from the generated advice. Otherwise,
+     * <tt>False</tt>.
+     */
+    private boolean isAccessible(Element element) {
+        if (element.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (element.getModifiers().contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * Returns the name of the specified <tt>type</tt> as used by the <tt>AspectJ</tt> type patterns.
+     */
+    private String binaryName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return binaryName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return elements.getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * Returns the name of the specified <tt>type</tt> as used in the generated source; with each of its type arguments
+     * replaced by an unbounded wildcard.
+     */
+    private String sourceName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return sourceName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return type.toString();
+        }
+        final TypeElement element = (TypeElement) types.asElement(type);
+        final String name = element.getNestingKind() == NestingKind.MEMBER && element.getKind() == ElementKind.CLASS
+                && !element.getModifiers().contains(Modifier.STATIC)
+                ? sourceName(element.getEnclosingElement().asType()) + "." + element.getSimpleName()
+                : element.getQualifiedName().toString();
+        return element.getTypeParameters().isEmpty()
+                ? name
+                : element.getTypeParameters().stream().map(t -> "?").collect(Collectors.joining(", ", name + "<", ">"));
+    }
+
+    private String classLiteral(TypeMirror type) {
+        return types.erasure(type) + ".class";
+    }
+
+    private String literal(String value) {
+        return elements.getConstantExpression(value);
+    }
+
+    private String literals(String[] values) {
+        return "new String[] {" + Arrays.stream(values).map(this::literal).collect(Collectors.joining(", ")) + "}";
+    }
+
+    private boolean error(Element element, String message) {
+        env.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
@@ -0,0 +1,412 @@
+package com.aspirecsl.log.processor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcIterate;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.MdcMaps;
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.MdcParams;
+import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.aspects.MdcSpec;
+import com.aspirecsl.log.format.MdcFormatter;
+
+/**
+ * Checks the MDC annotations on the parameters of a method, and reports the misconfigurations as compilation errors.
+ * <p>The checks mirror the ones made at runtime when the annotations of an <em>advised</em> method are compiled. In addition,
+ * the parameter types are checked against the annotations; except for the parameters declared as <tt>Object</tt>, whose
+ * runtime type is not known until the method is called.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcValidationProcessor
+ * @see AdviceWriter
+ * @since 1d
+ */
+final class AnnotationChecker {
+
+    private final ProcessingEnvironment env;
+    private final Elements elements;
+    private final Types types;
+    private final TypeMirror objectType;
+    private final TypeMirror stringType;
+    private final TypeMirror mapType;
+    private final TypeMirror holderType;
+
+    /**
+     * The parameter types allowed for the <tt>MdcIterate</tt> annotation.
+     */
+    private final List<TypeMirror> iterableTypes;
+
+    /**
+     * Creates a checker reporting to the <tt>Messager</tt> of the specified processing environment.
+     *
+     * @param env the annotation processing environment.
+     */
+    AnnotationChecker(ProcessingEnvironment env) {
+        this.env = env;
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.objectType = elements.getTypeElement(Object.class.getName()).asType();
+        this.stringType = elements.getTypeElement(String.class.getName()).asType();
+        this.mapType = types.erasure(elements.getTypeElement("java.util.Map").asType());
+        this.holderType = elements.getTypeElement(HasDiagnosticContext.class.getName()).asType();
+        this.iterableTypes = Arrays.asList(erasure("java.lang.Iterable"), erasure("java.util.Collection"),
+                erasure("java.util.List"), erasure("java.util.Set"), erasure("java.util.Iterator"),
+                erasure("java.util.stream.Stream"));
+    }
+
+    /**
+     * Checks the MDC annotations on each parameter of the specified <tt>method</tt>.
+     *
+     * @param method the method whose parameters are checked.
+     * @return <tt>True</tt> if the MDC annotations are valid. Otherwise, <tt>False</tt>.
+     */
+    boolean check(ExecutableElement method) {
+        boolean valid = true;
+        for (VariableElement parameter : method.getParameters()) {
+            valid &= check(parameter);
+        }
+        return valid;
+    }
+
+    /**
+     * Checks the MDC annotations on the specified <tt>parameter</tt>.
+     *
+     * @param parameter the parameter to be checked.
+     * @return <tt>True</tt> if the MDC annotations are valid. Otherwise, <tt>False</tt>.
+     */
+    boolean check(VariableElement parameter) {
+        final MdcValue mdcValue = parameter.getAnnotation(MdcValue.class);
+        final MdcMap mdcMap = parameter.getAnnotation(MdcMap.class);
+        final MdcMaps mdcMaps = parameter.getAnnotation(MdcMaps.class);
+        final MdcHolder mdcHolder = parameter.getAnnotation(MdcHolder.class);
+        final MdcParam mdcParam = parameter.getAnnotation(MdcParam.class);
+        final MdcParams mdcParams = parameter.getAnnotation(MdcParams.class);
+        final MdcIterate mdcIterate = parameter.getAnnotation(MdcIterate.class);
+        final long count = Arrays.asList(mdcValue, mdcMap, mdcMaps, mdcHolder, mdcParam, mdcParams, mdcIterate)
+                .stream()
+                .filter(Objects::nonNull)
+                .count();
+        if (count > 1) {
+            return error(parameter, "MDC parameter annotations are mutually exclusive.");
+        }
+
+        final TypeMirror type = parameter.asType();
+        if (mdcValue != null) {
+            return checkFormatter(parameter, formatterOf(mdcValue));
+        }
+        if (mdcMap != null || mdcMaps != null) {
+            boolean valid = checkMap(parameter, type);
+            for (MdcMap map : mdcMap != null ? new MdcMap[] { mdcMap } : mdcMaps.value()) {
+                valid &= checkFilter(parameter, map.filter());
+            }
+            return valid;
+        }
+        if (mdcHolder != null) {
+            if (!isAssignable(type, holderType) && ExtractorWriter.exportingType(types, type) == null) {
+                return error(parameter, "@MdcHolder is allowed only on " + HasDiagnosticContext.class.getName()
+                        + " parameters, or the types with @MdcExport members.");
+            }
+            return checkFilter(parameter, mdcHolder.filter());
+        }
+        if (mdcParam != null) {
+            return checkParam(parameter, type, mdcParam);
+        }
+        if (mdcParams != null) {
+            boolean valid = true;
+            for (MdcParam param : mdcParams.value()) {
+                valid &= checkParam(parameter, type, param);
+            }
+            return valid;
+        }
+        if (mdcIterate != null) {
+            return checkIterate(parameter, type, mdcIterate);
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the <tt>MdcIterate</tt> annotated parameter can be wrapped; and checks its <tt>MdcParam</tt> annotations
+     * against the type of the elements, if known.
+     */
+    private boolean checkIterate(Element parameter, TypeMirror type, MdcIterate mdcIterate) {
+        final TypeMirror erasure = types.erasure(type);
+        if (iterableTypes.stream().noneMatch(iterableType -> types.isSameType(erasure, iterableType))) {
+            return error(parameter, "@MdcIterate is allowed only on Iterable, Collection, List, Set, Iterator or Stream "
+                    + "parameters.");
+        }
+        if (mdcIterate.value().length == 0) {
+            return error(parameter, "At least one @MdcParam should be specified.");
+        }
+        final List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        final TypeMirror elementType = typeArguments.size() == 1 && typeArguments.get(0).getKind() == TypeKind.DECLARED
+                ? typeArguments.get(0)
+                : objectType;
+        boolean valid = true;
+        for (MdcParam param : mdcIterate.value()) {
+            valid &= checkParam(parameter, elementType, param);
+        }
+        return valid;
+    }
+
+    /**
+     * Checks that the <tt>MdcMap</tt> annotated parameter can hold a {@literal Map<String,String>}.
+     */
+    private boolean checkMap(Element parameter, TypeMirror type) {
+        if (!isAssignable(type, mapType)) {
+            return error(parameter, "@MdcMap is allowed only on Map<String,String> parameters.");
+        }
+        if (type.getKind() == TypeKind.DECLARED && types.isSameType(types.erasure(type), mapType)) {
+            final List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            for (TypeMirror typeArgument : typeArguments) {
+                if (typeArgument.getKind() == TypeKind.DECLARED
+                        && !types.isSameType(typeArgument, stringType)
+                        && !types.isSameType(typeArgument, objectType)) {
+                    return error(parameter, "@MdcMap is allowed only on Map<String,String> parameters.");
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the patterns in the <tt>filter</tt> of an <tt>MdcMap</tt> or an <tt>MdcHolder</tt> annotation compile.
+     */
+    private boolean checkFilter(Element parameter, String[] filter) {
+        try {
+            MdcSpec.holder(filter, "");
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return error(parameter, ex.getMessage());
+        }
+    }
+
+    /**
+     * Checks the attributes of an <tt>MdcParam</tt> annotation, and that the field or getter it refers to is a member of the
+     * parameter type.
+     */
+    private boolean checkParam(Element parameter, TypeMirror type, MdcParam mdcParam) {
+        final String field = mdcParam.field();
+        final String getter = mdcParam.getter();
+        final String path = mdcParam.path();
+        if (!path.isEmpty()) {
+            return checkPath(parameter, type, mdcParam);
+        }
+        if (field.isEmpty() && getter.isEmpty()) {
+            return error(parameter, "Either field() or getter() should be specified.");
+        }
+        if (!(field.isEmpty() || getter.isEmpty())) {
+            return error(parameter, "Exactly one of field() or getter() should be specified.");
+        }
+        if (!checkFormatter(parameter, formatterOf(mdcParam))) {
+            return false;
+        }
+        if (type.getKind().isPrimitive() || type.getKind() == TypeKind.ARRAY) {
+            return error(parameter, "@MdcParam is not allowed on primitive or array parameters.");
+        }
+        if (type.getKind() != TypeKind.DECLARED || types.isSameType(type, objectType)) {
+            return true;
+        }
+        final TypeElement typeElement = (TypeElement) types.asElement(type);
+        if (!hasMember(typeElement, field.isEmpty() ? getter : field, !getter.isEmpty())) {
+            return error(parameter, (getter.isEmpty() ? "Field '" + field : "Getter '" + getter + "()")
+                    + "' is not a member of " + typeElement.getQualifiedName() + ".");
+        }
+        return true;
+    }
+
+    /**
+     * Checks the attributes of an <tt>MdcParam</tt> annotation specifying a <tt>path()</tt>; and that each property on the
+     * path is a member of the type holding it, as far as the types are known.
+     */
+    private boolean checkPath(Element parameter, TypeMirror type, MdcParam mdcParam) {
+        final String path = mdcParam.path();
+        if (!(mdcParam.field().isEmpty() && mdcParam.getter().isEmpty())) {
+            return error(parameter, "Exactly one of field(), getter() or path() should be specified.");
+        }
+        final String[] properties = path.split("\\.", -1);
+        if (Arrays.stream(properties).anyMatch(String::isEmpty)) {
+            return error(parameter, "path() '" + path + "' should be a dot-separated list of property names.");
+        }
+        if (!checkFormatter(parameter, formatterOf(mdcParam))) {
+            return false;
+        }
+        if (type.getKind().isPrimitive() || type.getKind() == TypeKind.ARRAY) {
+            return error(parameter, "@MdcParam is not allowed on primitive or array parameters.");
+        }
+        TypeMirror holder = type;
+        for (String property : properties) {
+            if (holder.getKind() != TypeKind.DECLARED || types.isSameType(holder, objectType)) {
+                return true;
+            }
+            final TypeElement holderElement = (TypeElement) types.asElement(holder);
+            final Element member = findProperty(holderElement, property);
+            if (member == null) {
+                return error(parameter, "Property '" + property + "' of path '" + path + "' is not a member of "
+                        + holderElement.getQualifiedName() + ".");
+            }
+            holder = member.getKind() == ElementKind.METHOD
+                    ? ((ExecutableElement) member).getReturnType()
+                    : member.asType();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the no-arg method, or else the field, that supplies the specified <tt>property</tt> of the <tt>type</tt>; as
+     * resolved at runtime.
+     *
+     * @return the method or field; or <tt>null</tt> if the <tt>type</tt> has no such member.
+     */
+    private Element findProperty(TypeElement type, String property) {
+        final String capitalized = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[] { property, "get" + capitalized, "is" + capitalized }) {
+            final Element method = findMember(type, name, true);
+            if (method != null) {
+                return method;
+            }
+        }
+        return findMember(type, property, false);
+    }
+
+    /**
+     * Checks that the formatter type named by an annotation can be instantiated via a <tt>public</tt> no-arg constructor.
+     */
+    private boolean checkFormatter(Element parameter, TypeMirror formatter) {
+        final TypeElement formatterElement = (TypeElement) types.asElement(formatter);
+        if (formatterElement.getQualifiedName().contentEquals(MdcFormatter.class.getName())) {
+            return true;
+        }
+        final boolean instantiable = formatterElement.getKind() == ElementKind.CLASS
+                && formatterElement.getModifiers().contains(Modifier.PUBLIC)
+                && !formatterElement.getModifiers().contains(Modifier.ABSTRACT)
+                && (formatterElement.getNestingKind() == NestingKind.TOP_LEVEL
+                || formatterElement.getModifiers().contains(Modifier.STATIC))
+                && ElementFilter.constructorsIn(formatterElement.getEnclosedElements())
+                .stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+        if (!instantiable) {
+            return error(parameter, formatterElement.getQualifiedName() + " cannot be instantiated via a public no-arg "
+                    + "constructor.");
+        }
+        return true;
+    }
+
+    /**
+     * Returns the formatter type named by the specified <tt>MdcValue</tt> annotation.
+     *
+     * @param mdcValue the annotation.
+     * @return the formatter type named by the annotation.
+     */
+    static TypeMirror formatterOf(MdcValue mdcValue) {
+        try {
+            mdcValue.formatter();
+            throw new IllegalStateException("The formatter type is expected to be unavailable to the processors.");
+        } catch (MirroredTypeException ex) {
+            return ex.getTypeMirror();
+        }
+    }
+
+    /**
+     * Returns the formatter type named by the specified <tt>MdcParam</tt> annotation.
+     *
+     * @param mdcParam the annotation.
+     * @return the formatter type named by the annotation.
+     */
+    static TypeMirror formatterOf(MdcParam mdcParam) {
+        try {
+            mdcParam.formatter();
+            throw new IllegalStateException("The formatter type is expected to be unavailable to the processors.");
+        } catch (MirroredTypeException ex) {
+            return ex.getTypeMirror();
+        }
+    }
+
+    /**
+     * Returns <tt>True</tt> if the formatter and the length cap named by an annotation are the defaults. Otherwise,
+     * <tt>False</tt>.
+     *
+     * @param formatter the formatter type named by the annotation.
+     * @param maxLength the length cap named by the annotation.
+     * @return <tt>True</tt> if the formatter and the length cap are the defaults. Otherwise, <tt>False</tt>.
+     */
+    static boolean isDefaultRendering(TypeMirror formatter, int maxLength) {
+        return maxLength <= 0 && formatter.toString().equals(MdcFormatter.class.getName());
+    }
+
+    /**
+     * Returns <tt>True</tt> if the <tt>type</tt>, or any of its superclasses, declares a field, or a no-arg method, with the
+     * specified <tt>name</tt>. Otherwise, <tt>False</tt>.
+     */
+    private boolean hasMember(TypeElement type, String name, boolean method) {
+        return findMember(type, name, method) != null;
+    }
+
+    /**
+     * Returns the field, or the no-arg method, with the specified <tt>name</tt> that the <tt>type</tt>, or any of its
+     * superclasses, declares.
+     *
+     * @return the field or method; or <tt>null</tt> if there is no such member.
+     */
+    private Element findMember(TypeElement type, String name, boolean method) {
+        for (Element member : elements.getAllMembers(type)) {
+            if (!member.getSimpleName().contentEquals(name)) {
+                continue;
+            }
+            if (method
+                    && member.getKind() == ElementKind.METHOD
+                    && ((ExecutableElement) member).getParameters().isEmpty()) {
+                return member;
+            }
+            if (!method && member.getKind() == ElementKind.FIELD) {
+                return member;
+            }
+        }
+        // getAllMembers() omits the private members of the superclasses; which are accessible at runtime
+        final TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED
+                ? findMember((TypeElement) types.asElement(superclass), name, method)
+                : null;
+    }
+
+    /**
+     * Returns <tt>True</tt> if a value of the <tt>required</tt> type can be passed as the parameter of the specified
+     * <tt>type</tt>; i.e. the parameter type is either a subtype, or a supertype, of the <tt>required</tt> type. Otherwise,
+     * <tt>False</tt>.
+     */
+    private boolean isAssignable(TypeMirror type, TypeMirror required) {
+        final TypeMirror erasure = types.erasure(type);
+        return types.isAssignable(erasure, required) || types.isAssignable(required, erasure);
+    }
+
+    private TypeMirror erasure(String typeName) {
+        return types.erasure(elements.getTypeElement(typeName).asType());
+    }
+
+    private boolean error(Element element, String message) {
+        env.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
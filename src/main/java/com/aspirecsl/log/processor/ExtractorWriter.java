@@ -0,0 +1,295 @@
+package com.aspirecsl.log.processor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.aspirecsl.log.MdcExport;
+import com.aspirecsl.log.aspects.MdcExtractor;
+
+/**
+ * Writes the source of the <tt>MdcExtractor</tt> generated for the <tt>MdcExport</tt> annotated members of a type.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcExportProcessor
+ * @since 1d
+ */
+final class ExtractorWriter {
+
+    private final ProcessingEnvironment env;
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement type;
+    private final String packageName;
+    private final String simpleName;
+
+    /**
+     * The expressions reading the exported <tt>properties</tt> mapped by their MDC keys.
+     */
+    private final Map<String, String> expressions = new LinkedHashMap<>();
+
+    /**
+     * The statements adding the exported <tt>properties</tt> to the sink.
+     */
+    private final StringBuilder statements = new StringBuilder();
+
+    /**
+     * Creates a writer of the extractor for the <tt>MdcExport</tt> annotated members of the specified <tt>type</tt>.
+     *
+     * @param env  the annotation processing environment.
+     * @param type the type declaring the <tt>MdcExport</tt> annotated members.
+     */
+    ExtractorWriter(ProcessingEnvironment env, TypeElement type) {
+        this.env = env;
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.type = type;
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        final String qualifiedName = extractorName(elements, type);
+        this.simpleName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+    }
+
+    /**
+     * Returns the qualified name of the extractor generated for the specified <tt>type</tt>.
+     *
+     * @param elements the element utilities of the annotation processing environment.
+     * @param type     the type declaring the <tt>MdcExport</tt> annotated members.
+     * @return the qualified name of the extractor; as looked up at runtime by <tt>MdcExtractor.of</tt>.
+     */
+    static String extractorName(Elements elements, TypeElement type) {
+        final String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        final String binaryName = elements.getBinaryName(type).toString();
+        return packageName.isEmpty()
+                ? binaryName.replace('$', '_') + MdcExtractor.SUFFIX
+                : packageName + "." + binaryName.substring(packageName.length() + 1).replace('$', '_') + MdcExtractor.SUFFIX;
+    }
+
+    /**
+     * Returns the nearest of the specified <tt>type</tt> and its superclasses declaring <tt>MdcExport</tt> annotated members;
+     * i.e. the type whose extractor is used for the objects of the <tt>type</tt>.
+     *
+     * @param types the type utilities of the annotation processing environment.
+     * @param type  the type whose <tt>properties</tt> are extracted.
+     * @return the type declaring the exported members; or <tt>null</tt> if neither the <tt>type</tt> nor its superclasses
+     * declare <tt>MdcExport</tt> annotated members.
+     */
+    static TypeElement exportingType(Types types, TypeMirror type) {
+        TypeMirror current = type;
+        while (current.getKind() == TypeKind.DECLARED) {
+            final TypeElement element = (TypeElement) types.asElement(current);
+            for (Element member : element.getEnclosedElements()) {
+                if (member.getAnnotation(MdcExport.class) != null) {
+                    return element;
+                }
+            }
+            current = element.getSuperclass();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the qualified name of the generated extractor.
+     *
+     * @return the qualified name of the generated extractor.
+     */
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * Adds the statement extracting the specified <tt>MdcExport</tt> annotated member.
+     *
+     * @param member the <tt>MdcExport</tt> annotated field or method.
+     * @return <tt>True</tt> if the member can be exported. Otherwise, <tt>False</tt>; in which case the reasons are reported
+     * as compilation errors.
+     */
+    boolean addMember(Element member) {
+        if (member.getModifiers().contains(Modifier.STATIC)) {
+            return error(member, "@MdcExport is not allowed on static members.");
+        }
+        final Element accessor;
+        if (member.getKind() == ElementKind.FIELD) {
+            accessor = member.getModifiers().contains(Modifier.PRIVATE) ? findAccessor(member) : member;
+            if (accessor == null) {
+                return error(member, "@MdcExport requires a non-private accessor of the private field '"
+                        + member.getSimpleName() + "'.");
+            }
+        } else if (member.getModifiers().contains(Modifier.PRIVATE) || !isProperty((ExecutableElement) member)) {
+            return error(member, "@MdcExport is allowed only on non-private no-arg methods returning a value.");
+        } else {
+            accessor = member;
+        }
+
+        final String name = member.getAnnotation(MdcExport.class).name();
+        final String key = name.isEmpty() ? member.getSimpleName().toString() : name;
+        final boolean method = accessor.getKind() == ElementKind.METHOD;
+        final String expression = "value." + accessor.getSimpleName() + (method ? "()" : "");
+        final String existing = expressions.putIfAbsent(key, expression);
+        if (existing != null) {
+            // a record component exports both its field and its accessor; which read the same value
+            return existing.equals(expression)
+                    || error(member, "Duplicate MDC key '" + key + "' exported by " + type.getQualifiedName() + ".");
+        }
+
+        final TypeMirror valueType = method ? ((ExecutableElement) accessor).getReturnType() : accessor.asType();
+        final String put = "sink.put(" + literal(key) + ", " + renderExpression(valueType, expression) + ");\n";
+        if (method) {
+            // a failing accessor does not add anything to the MDC; as with the getters of MdcParam
+            statements.append("        try {\n")
+                    .append("            ").append(put)
+                    .append("        } catch (Exception ignore) {\n")
+                    .append("        }\n");
+        } else {
+            statements.append("        ").append(put);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the source of the generated extractor; or <tt>null</tt> if the type cannot be referred to from the extractor,
+     * in which case the reasons are reported as compilation errors.
+     *
+     * @return the source of the generated extractor.
+     */
+    String source() {
+        if (type.getKind().isInterface()) {
+            // the extractors are looked up by the classes of the objects; and not by the interfaces they implement
+            error(type, "@MdcExport is allowed only on the members of classes, enums and records.");
+            return null;
+        }
+        if (!isAccessible(type)) {
+            error(type, "@MdcExport requires the declaring type to be accessible from the package '" + packageName + "'.");
+            return null;
+        }
+        final String typeName = types.erasure(type.asType()).toString();
+        final String extractorType = MdcExtractor.class.getName();
+        final TypeElement superType = exportingType(types, type.getSuperclass());
+        String superExtractor = "";
+        if (superType != null && isAccessible(superType)) {
+            final String superTypeName = types.erasure(superType.asType()).toString();
+            superExtractor = "\n    private static final " + extractorType + "<? super " + superTypeName + "> SUPER =\n"
+                    + "            " + extractorType + ".of(" + superTypeName + ".class);\n";
+        } else if (superType != null) {
+            error(type, "@MdcExport requires the superclass " + superType.getQualifiedName() + " to be accessible from the "
+                    + "package '" + packageName + "'.");
+            return null;
+        }
+        return "// Generated by " + MdcExportProcessor.class.getName() + "; do not edit.\n"
+                + (packageName.isEmpty() ? "" : "package " + packageName + ";\n")
+                + "\n"
+                + "@SuppressWarnings(\"all\")\n"
+                + "public final class " + simpleName + " extends " + extractorType + "<" + typeName + "> {\n"
+                + superExtractor
+                + "\n"
+                + "    @Override\n"
+                + "    public void extract(" + typeName + " value, com.aspirecsl.log.aspects.MdcSink sink) {\n"
+                + (superExtractor.isEmpty() ? "" : "        if (SUPER != null) {\n"
+                        + "            SUPER.extract(value, sink);\n"
+                        + "        }\n")
+                + statements
+                + "    }\n"
+                + "}\n";
+    }
+
+    /**
+     * Returns the non-private accessor of a private field; i.e. the no-arg method named after the field, or its getter.
+     *
+     * @return the accessor; or <tt>null</tt> if there is no such method.
+     */
+    private Element findAccessor(Element field) {
+        final String name = field.getSimpleName().toString();
+        final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        final boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (String accessor : new String[] { name, "get" + capitalized, bool ? "is" + capitalized : null }) {
+            for (Element member : elements.getAllMembers(type)) {
+                if (member.getKind() == ElementKind.METHOD
+                        && member.getSimpleName().contentEquals(String.valueOf(accessor))
+                        && !member.getModifiers().contains(Modifier.STATIC)
+                        && isProperty((ExecutableElement) member)
+                        && isAccessibleMember(member)) {
+                    return member;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isProperty(ExecutableElement method) {
+        return method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the specified member can be accessed from the generated extractor. Otherwise, <tt>False</tt>.
+     */
+    private boolean isAccessibleMember(Element member) {
+        if (member.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !member.getModifiers().contains(Modifier.PRIVATE)
+                && elements.getPackageOf(member).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * Returns <tt>True</tt> if the specified type, and each type enclosing it, can be referred to from the generated
+     * extractor. Otherwise, <tt>False</tt>.
+     */
+    private boolean isAccessible(TypeElement typeElement) {
+        for (Element element = typeElement; !(element instanceof PackageElement); element = element.getEnclosingElement()) {
+            if (element instanceof TypeElement
+                    && ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL
+                    && ((TypeElement) element).getNestingKind() != NestingKind.MEMBER) {
+                return false;
+            }
+            if (!isAccessibleMember(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the expression that renders the value of the <tt>expression</tt>, of the specified <tt>type</tt>, for the MDC;
+     * through the <tt>MdcExtractor.render</tt> overload for its type.
+     */
+    private String renderExpression(TypeMirror type, String expression) {
+        switch (type.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case BOOLEAN:
+                return "render(" + expression + ")";
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return "String.valueOf(" + expression + ")";
+            default:
+                return types.asElement(type) != null && types.asElement(type).getKind() == ElementKind.ENUM
+                        ? "render(" + expression + ")"
+                        : "render((Object) " + expression + ")";
+        }
+    }
+
+    private String literal(String value) {
+        return elements.getConstantExpression(value);
+    }
+
+    private boolean error(Element element, String message) {
+        env.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
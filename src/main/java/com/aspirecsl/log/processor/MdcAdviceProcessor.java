@@ -0,0 +1,84 @@
+package com.aspirecsl.log.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.aspirecsl.log.MdcSpecialized;
+
+/**
+ * Generates an <tt>AspectJ</tt> advice <em>specialized</em> for each <tt>MdcSpecialized</tt> annotated method.
+ * <p>For every type declaring <tt>MdcSpecialized</tt> methods, an <tt>{@literal @Aspect}</tt> class named after the type and
+ * suffixed by <tt>_MdcAdvice</tt> is generated in the same package. The generated advice binds the arguments of the
+ * <em>advised</em> method by their static types, and adds them to the MDC with straight-line statements; so that the
+ * <tt>JIT</tt> compiler can inline the advice completely. The MDC annotations that cannot be rendered as straight-line
+ * statements are bound through an <tt>MdcSpec</tt> compiled once, when the advice is loaded.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcSpecialized
+ * @since 1d
+ */
+@SupportedAnnotationTypes("com.aspirecsl.log.MdcSpecialized")
+public final class MdcAdviceProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final Map<TypeElement, List<ExecutableElement>> methodsByType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(MdcSpecialized.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                methodsByType.computeIfAbsent((TypeElement) element.getEnclosingElement(), type -> new ArrayList<>())
+                        .add((ExecutableElement) element);
+            }
+        }
+        methodsByType.forEach(this::generateAdvice);
+        return false;
+    }
+
+    /**
+     * Generates the advice class for the <tt>MdcSpecialized</tt> methods declared by the specified <tt>type</tt>.
+     *
+     * @param type    the type declaring the <tt>methods</tt>.
+     * @param methods the <tt>MdcSpecialized</tt> methods declared by the <tt>type</tt>.
+     */
+    private void generateAdvice(TypeElement type, List<ExecutableElement> methods) {
+        final AdviceWriter adviceWriter = new AdviceWriter(processingEnv, type);
+        boolean valid = true;
+        for (ExecutableElement method : methods) {
+            valid &= adviceWriter.addMethod(method);
+        }
+        if (!valid || adviceWriter.isEmpty()) {
+            return;
+        }
+        try {
+            final JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(adviceWriter.qualifiedName(), methods.toArray(new Element[0]));
+            try (Writer writer = file.openWriter()) {
+                writer.write(adviceWriter.source());
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to generate " + adviceWriter.qualifiedName() + ": " + ex.getMessage(), type);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.aspirecsl.log.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.aspirecsl.log.MdcExport;
+import com.aspirecsl.log.aspects.MdcExtractor;
+
+/**
+ * Generates an {@link MdcExtractor} for each type declaring <tt>MdcExport</tt> annotated members.
+ * <p>The extractor is named after the type and suffixed by <tt>_MdcExtractor</tt>, in the same package. It reads the exported
+ * fields, and calls the exported methods, of the type directly; and renders the values through the cached representations
+ * of the <tt>int</tt>, <tt>long</tt>, <tt>boolean</tt> and <tt>enum</tt> values, or the formatters registered with
+ * <tt>MdcFormatters</tt>. The <tt>MdcHolder</tt> annotated arguments are extracted by the extractor of their class; so that
+ * no reflection is involved once the extractor of a class has been looked up.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcExport
+ * @see MdcExtractor
+ * @since 1d
+ */
+@SupportedAnnotationTypes("com.aspirecsl.log.MdcExport")
+public final class MdcExportProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final Map<TypeElement, List<Element>> membersByType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(MdcExport.class)) {
+            if (element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.METHOD) {
+                membersByType.computeIfAbsent((TypeElement) element.getEnclosingElement(), type -> new ArrayList<>())
+                        .add(element);
+            }
+        }
+        membersByType.forEach(this::generateExtractor);
+        return false;
+    }
+
+    /**
+     * Generates the extractor for the <tt>MdcExport</tt> annotated members declared by the specified <tt>type</tt>.
+     *
+     * @param type    the type declaring the <tt>members</tt>.
+     * @param members the <tt>MdcExport</tt> annotated members declared by the <tt>type</tt>.
+     */
+    private void generateExtractor(TypeElement type, List<Element> members) {
+        final ExtractorWriter extractorWriter = new ExtractorWriter(processingEnv, type);
+        boolean valid = true;
+        for (Element member : members) {
+            valid &= extractorWriter.addMember(member);
+        }
+        final String source = valid ? extractorWriter.source() : null;
+        if (source == null) {
+            return;
+        }
+        try {
+            final JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(extractorWriter.qualifiedName(), members.toArray(new Element[0]));
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to generate " + extractorWriter.qualifiedName() + ": " + ex.getMessage(), type);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.aspirecsl.log.processor;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.MdcSpecialized;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * Reports the misconfigured MDC annotations on the parameters of the MDC aware methods as compilation errors.
+ * <p>The following are rejected at build time; instead of by the <tt>MdcAspect</tt> advice when the method is called:-
+ * <ul>
+ * <li>more than one MDC annotation on a parameter</li>
+ * <li>an <tt>MdcParam</tt> specifying both, or neither, of <tt>field()</tt> and <tt>getter()</tt></li>
+ * <li>an <tt>MdcParam</tt> referring to a field or getter that is not a member of the parameter type</li>
+ * <li>an <tt>MdcParam</tt> specifying a <tt>path()</tt> with a property that is not a member of the type holding it</li>
+ * <li>an <tt>MdcHolder</tt> on a parameter that cannot hold a <tt>HasDiagnosticContext</tt>, and whose type has no
+ * <tt>MdcExport</tt> annotated members</li>
+ * <li>an <tt>MdcMap</tt> on a parameter that cannot hold a {@literal Map<String,String>}</li>
+ * <li>an <tt>MdcIterate</tt> on a parameter that is not declared as an <tt>Iterable</tt>, a <tt>Collection</tt>, a
+ * <tt>List</tt>, a <tt>Set</tt>, an <tt>Iterator</tt> or a <tt>Stream</tt>; or whose <tt>MdcParam</tt>s refer to a field or
+ * getter that is not a member of the element type</li>
+ * </ul>
+ * <p>The processor is registered as a service of this library; so it is discovered by the compilers wherever this library is
+ * on the classpath. Hence, the checks are <em>opt-in</em>; they are run only if the compiler is passed the
+ * <tt>-Acom.aspirecsl.log.validation=true</tt> option. Otherwise, the misconfigured annotations are rejected by the
+ * <tt>MdcAspect</tt> advice, as before.
+ * <p>The checks can be suppressed for a method, or a type, by annotating it with
+ * <tt>{@literal @SuppressWarnings}("MdcAnnotations")</tt>. The <tt>MdcSpecialized</tt> methods are checked by the
+ * <tt>MdcAdviceProcessor</tt> instead.
+ *
+ * @author anoopr
+ * @version 1d
+ * @see MdcAdviceProcessor
+ * @since 1d
+ */
+@SupportedAnnotationTypes({ "com.aspirecsl.log.Slf4jMdcAware", "com.aspirecsl.log.Log4j2MdcAware" })
+@SupportedOptions(MdcValidationProcessor.OPTION)
+public final class MdcValidationProcessor extends AbstractProcessor {
+
+    /**
+     * The compiler option that enables the checks; e.g. <tt>-Acom.aspirecsl.log.validation=true</tt>.
+     */
+    public static final String OPTION = "com.aspirecsl.log.validation";
+
+    /**
+     * The <tt>SuppressWarnings</tt> token that suppresses the checks.
+     */
+    public static final String SUPPRESSION = "MdcAnnotations";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(OPTION))) {
+            return false;
+        }
+        final AnnotationChecker checker = new AnnotationChecker(processingEnv);
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD
+                        && element.getAnnotation(MdcSpecialized.class) == null
+                        && !(annotation.getQualifiedName().contentEquals(Log4j2MdcAware.class.getName())
+                        && element.getAnnotation(Slf4jMdcAware.class) != null)
+                        && !isSuppressed(element)) {
+                    checker.check((ExecutableElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns <tt>True</tt> if the checks are suppressed for the specified <tt>element</tt>, or any of its enclosing
+     * elements. Otherwise, <tt>False</tt>.
+     */
+    private static boolean isSuppressed(Element element) {
+        for (Element e = element; e != null; e = e.getEnclosingElement()) {
+            final SuppressWarnings suppressWarnings = e.getAnnotation(SuppressWarnings.class);
+            if (suppressWarnings != null && Arrays.asList(suppressWarnings.value()).contains(SUPPRESSION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
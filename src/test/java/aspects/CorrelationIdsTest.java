@@ -0,0 +1,113 @@
+package aspects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.correlation.CorrelationIds;
+import com.aspirecsl.log.correlation.UlidGenerator;
+
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link CorrelationIds} and {@link UlidGenerator}
+ */
+public class CorrelationIdsTest {
+
+    @After
+    public void afterTest() {
+        CorrelationIds.setGenerator(new UlidGenerator());
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void ulidsAreSortableAndMonotonicPerThread() {
+        final UlidGenerator generator = new UlidGenerator();
+        String previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            final String id = generator.nextId();
+            assertThat(id)
+                    .as("[UlidGenerator] id")
+                    .hasSize(26)
+                    .matches("[0-7][0-9A-HJKMNP-TV-Z]{25}")
+                    .isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void ulidsAreUniqueAcrossThreads() throws InterruptedException {
+        final UlidGenerator generator = new UlidGenerator();
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int j = 0; j < 10_000; j++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(ids)
+                .as("[UlidGenerator] unique ids")
+                .hasSize(40_000);
+    }
+
+    @Test
+    public void correlationIdIsGeneratedWhenAbsent() {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+        final MdcSpecializedClient specializedClient = new MdcSpecializedClient();
+        CorrelationIds.setGenerator(() -> "generated");
+
+        client.correlated("input");
+        specializedClient.correlated("input");
+
+        assertThat(client.mdc)
+                .as("[CorrelationIds] generic advice")
+                .containsOnly(entry("correlationId", "generated"));
+        assertThat(specializedClient.mdc)
+                .as("[CorrelationIds] specialized advice")
+                .containsOnly(entry("correlationId", "generated"));
+    }
+
+    @Test
+    public void correlationIdOfAnOuterFrameIsKept() {
+        final Slf4jMdcAwareAnnotationClient outer = new Slf4jMdcAwareAnnotationClient();
+        final Slf4jMdcAwareAnnotationClient inner = new Slf4jMdcAwareAnnotationClient();
+        final int[] generated = { 0 };
+        CorrelationIds.setGenerator(() -> "id-" + ++generated[0]);
+
+        outer.correlatedMdcValueArg("bar", inner);
+
+        assertThat(inner.mdc)
+                .as("[CorrelationIds] inner frame")
+                .containsOnly(entry("correlationId", "id-1"), entry("foo", "bar"));
+        assertThat(outer.mdc)
+                .as("[CorrelationIds] outer frame")
+                .containsOnly(entry("correlationId", "id-1"), entry("foo", "bar"));
+    }
+}
@@ -0,0 +1,102 @@
+package aspects;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcAccountant;
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcLatencyStatistics;
+import com.aspirecsl.log.aspects.MdcMetrics;
+import com.aspirecsl.log.aspects.MdcResourceStatistics;
+import com.aspirecsl.log.aspects.MdcScope;
+
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit test case for {@link com.aspirecsl.log.MdcAccounting} and {@link MdcAccountant}
+ */
+public class MdcAccountingTest {
+
+    @After
+    public void afterTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void resourcesAreAccountedPerSegment() throws Exception {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        client.accountedPerTenant("acme", 1 << 20);
+        client.accountedPerTenant("acme", 1 << 20);
+        client.accountedPerTenant("globex", 16);
+
+        final List<MdcResourceStatistics> statistics = resourceUsageOf(".accountedPerTenant(java.lang.String,int)");
+        assertThat(statistics)
+                .as("[MdcAccounting] accounts")
+                .extracting(MdcResourceStatistics::getSegmentKey, MdcResourceStatistics::getSegment,
+                        MdcResourceStatistics::getCalls)
+                .containsExactly(tuple("tenant", "acme", 2L), tuple("tenant", MdcLatencyStatistics.OVERFLOW, 1L));
+        assertThat(statistics.get(0).getAllocatedBytes())
+                .as("[MdcAccounting] allocated bytes")
+                .isGreaterThanOrEqualTo(2 << 20);
+        assertThat(statistics.get(0).getCpuNanos())
+                .as("[MdcAccounting] CPU time")
+                .isGreaterThanOrEqualTo(0);
+        assertThat((CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(MdcMetrics.OBJECT_NAME), "ResourceUsage"))
+                .as("[MdcAccounting] accounts via JMX")
+                .hasSize(MdcMetrics.resourceUsage().size());
+    }
+
+    @Test
+    public void specializedAdviceIsAccounted() {
+        final MdcSpecializedClient client = new MdcSpecializedClient();
+
+        client.accounted("acme");
+        client.accounted(null);
+
+        assertThat(resourceUsageOf(".accounted(java.lang.String)"))
+                .as("[MdcAccounting] accounts of the specialized advice")
+                .extracting(MdcResourceStatistics::getSegment, MdcResourceStatistics::getCalls)
+                .containsExactly(tuple(MdcLatencyStatistics.ABSENT, 1L), tuple("acme", 1L));
+    }
+
+    @Test
+    public void programmaticScopeIsAccounted() {
+        final MdcAccountant accountant = MdcAccountant.of("block", "tenant", 4);
+
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)) {
+            scope.put("tenant", "initech");
+            final long cpuTime = accountant.cpuTime();
+            final long allocatedBytes = accountant.allocatedBytes();
+            accountant.stop(scope, cpuTime, allocatedBytes);
+        }
+
+        assertThat(MdcMetrics.resourceUsage())
+                .as("[MdcAccountant] accounts of %s", accountant)
+                .filteredOn(s -> s.getMethod().equals("block"))
+                .extracting(MdcResourceStatistics::getSegment, MdcResourceStatistics::getCalls)
+                .containsExactly(tuple("initech", 1L));
+    }
+
+    private static List<MdcResourceStatistics> resourceUsageOf(String method) {
+        return MdcMetrics.resourceUsage()
+                .stream()
+                .filter(s -> s.getMethod().endsWith(method))
+                .collect(Collectors.toList());
+    }
+}
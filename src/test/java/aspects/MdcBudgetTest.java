@@ -0,0 +1,121 @@
+package aspects;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcBudget;
+import com.aspirecsl.log.aspects.MdcScope;
+import com.aspirecsl.log.aspects.MdcSpec;
+
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test case for {@link MdcBudget}
+ */
+public class MdcBudgetTest {
+
+    @After
+    public void afterTest() {
+        MdcBudget.setGlobal(MdcBudget.UNLIMITED);
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void scopeBudgetTruncatesValuesAndDropsEntries() {
+        final long truncated = MdcBudget.truncatedValues();
+        final long dropped = MdcBudget.droppedEntries();
+
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J, MdcBudget.of(2, 3, 0))) {
+            scope.put("one", "1");
+            scope.put("two", "2222");
+            scope.put("three", "3");
+
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcBudget] scope budget")
+                    .containsOnlyKeys("one", "two")
+                    .containsEntry("two", "222");
+        }
+        assertThat(MdcBudget.truncatedValues() - truncated)
+                .as("[MdcBudget] truncated values")
+                .isEqualTo(1);
+        assertThat(MdcBudget.droppedEntries() - dropped)
+                .as("[MdcBudget] dropped entries")
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void droppedEntriesAreNotCountedAsOperations() {
+        final MdcScope scope = MdcScope.open(MdcBackend.SLF4J, MdcBudget.of(1, 0, 0));
+        scope.put("one", "1");
+        scope.put("two", "2");
+        scope.close();
+
+        assertThat(scope.operations())
+                .as("[MdcBudget] operations on the MDC")
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void globalBudgetSpansTheOpenScopes() {
+        MdcBudget.setGlobal(MdcBudget.of(0, 0, 12));
+
+        try (MdcScope outer = MdcScope.open(MdcBackend.SLF4J)) {
+            outer.put("key", "value");
+            try (MdcScope inner = MdcScope.open(MdcBackend.SLF4J)) {
+                inner.put("k2", "v2");
+                inner.put("k3", "v3");
+
+                assertThat(MDC.getCopyOfContextMap())
+                        .as("[MdcBudget] global budget")
+                        .containsOnlyKeys("key", "k2");
+            }
+            outer.put("k4", "v4");
+
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcBudget] global budget after closing the inner scope")
+                    .containsOnlyKeys("key", "k4");
+        }
+    }
+
+    @Test
+    public void mapSpecLimitsTheEntriesFromTheMap() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "12345");
+        map.put("b", "2");
+        map.put("c", "3");
+
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J, MdcSpec.map(new String[0], new String[0], "", 2, 2), map)) {
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcBudget] map spec")
+                    .containsOnlyKeys("a", "b")
+                    .containsEntry("a", "12");
+            assertThat(scope.size())
+                    .as("[MdcBudget] keys added by the map spec")
+                    .isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void annotationBudgetsApplyToTheAdvisedMethod() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        client.budgetedMdcMapAndMdcValueArgs(map, "foo-value", "bar-value");
+
+        assertThat(client.mdc)
+                .as("[MdcBudget] annotation budgets")
+                .containsOnlyKeys("a", "foo")
+                .containsEntry("foo", "foo-v");
+    }
+}
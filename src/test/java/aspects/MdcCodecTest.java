@@ -0,0 +1,119 @@
+package aspects;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.After;
+import org.junit.Test;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcContext;
+import com.aspirecsl.log.codec.MdcCodec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcCodec}
+ */
+public class MdcCodecTest {
+
+    private final MdcContext context = MdcContext.builder()
+            .value("traceId", "4bf92f3577b34da6")
+            .value("customer", "Zo\u00eb \ud83d\ude00")
+            .build();
+
+    @After
+    public void afterTest() {
+        ThreadContext.clearMap();
+    }
+
+    @Test
+    public void contextIsEncodedCompactly() {
+        final byte[] encoded = MdcCodec.encode(MdcContext.builder().value("traceId", "4bf92f3577b34da6").build());
+
+        assertThat(encoded)
+                .as("[MdcCodec] encoding with a dictionary key")
+                .hasSize(20)
+                .startsWith(MdcCodec.VERSION, 1, 2, 16);
+        assertThat(MdcCodec.encodedLength(context))
+                .as("[MdcCodec] encoded length")
+                .isEqualTo(MdcCodec.encode(context).length);
+    }
+
+    @Test
+    public void contextIsDecodedFromHeapAndDirectBuffers() {
+        final ByteBuffer heap = ByteBuffer.allocate(64);
+        heap.put((byte) 42);
+        MdcCodec.encode(context, heap);
+        heap.flip().position(1);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(64);
+        MdcCodec.encode(context, direct);
+        direct.flip();
+
+        assertThat(MdcCodec.decode(heap))
+                .as("[MdcCodec] decoded from a heap buffer")
+                .isEqualTo(context);
+        assertThat(heap.hasRemaining())
+                .as("[MdcCodec] heap buffer is read to the end of the encoding")
+                .isFalse();
+        assertThat(MdcCodec.decode(direct))
+                .as("[MdcCodec] decoded from a direct buffer")
+                .isEqualTo(context);
+        assertThat(MdcCodec.decode(ByteBuffer.wrap(MdcCodec.encode(MdcContext.empty()))))
+                .as("[MdcCodec] empty context")
+                .isEqualTo(MdcContext.empty());
+    }
+
+    @Test
+    public void headerIsTextSafe() {
+        final String header = MdcCodec.toHeader(context);
+
+        assertThat(header)
+                .as("[MdcCodec] header")
+                .matches("[A-Za-z0-9_-]+");
+        assertThat(MdcCodec.fromHeader(header))
+                .as("[MdcCodec] decoded header")
+                .isEqualTo(context);
+    }
+
+    @Test
+    public void decodedContextIsInstalledInOneOperation() {
+        ThreadContext.put("local", "kept");
+        ThreadContext.put("traceId", "replaced");
+
+        MdcBackend.LOG4J2.install(MdcCodec.fromHeader(MdcCodec.toHeader(context)));
+
+        assertThat(ThreadContext.getContext())
+                .as("[MdcCodec] installed context")
+                .containsOnly(entry("local", "kept"),
+                        entry("traceId", "4bf92f3577b34da6"),
+                        entry("customer", "Zo\u00eb \ud83d\ude00"));
+    }
+
+    @Test
+    public void malformedEncodingIsRejectedWithoutMovingTheBuffer() {
+        final byte[] encoded = MdcCodec.encode(context);
+        final ByteBuffer truncated = ByteBuffer.wrap(encoded, 0, encoded.length - 1);
+        final ByteBuffer unknownKey = ByteBuffer.wrap(new byte[] { (byte) MdcCodec.VERSION, 1, 127, 0 });
+
+        assertThatIllegalArgumentException()
+                .as("[MdcCodec] truncated encoding")
+                .isThrownBy(() -> MdcCodec.decode(truncated));
+        assertThat(truncated.position())
+                .as("[MdcCodec] position after a failed decoding")
+                .isZero();
+        assertThatIllegalArgumentException()
+                .as("[MdcCodec] unknown dictionary index")
+                .isThrownBy(() -> MdcCodec.decode(unknownKey))
+                .withMessage("Unknown MDC key dictionary index: 127");
+        assertThatIllegalArgumentException()
+                .as("[MdcCodec] unsupported version")
+                .isThrownBy(() -> MdcCodec.decode(ByteBuffer.wrap(new byte[] { 9, 0 })));
+        assertThatIllegalArgumentException()
+                .as("[MdcCodec] invalid header")
+                .isThrownBy(() -> MdcCodec.fromHeader(Base64.getEncoder().encodeToString(new byte[] { 1, 5 }) + "*"));
+    }
+}
@@ -0,0 +1,147 @@
+package aspects;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcContext} and {@link MdcBackend}
+ */
+public class MdcContextTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @After
+    public void afterTest() {
+        MDC.clear();
+        ThreadContext.clearMap();
+    }
+
+    @Test
+    public void builderAppliesMdcValueRules() {
+        final MdcContext context = MdcContext.builder()
+                .value("connection", 42)
+                .value("absent", null)
+                .value("nullable", null, true)
+                .build();
+
+        assertThat(context.mappedDiagnosticContext())
+                .as("[MdcContext] built with @MdcValue rules")
+                .containsOnlyKeys("connection", "nullable");
+        assertThat(context.mappedDiagnosticContext())
+                .as("[MdcContext] built with @MdcValue rules")
+                .extractingByKeys("connection", "nullable")
+                .containsExactly("42", "null");
+    }
+
+    @Test
+    public void builderAppliesMdcMapRules() {
+        final MdcContext context = MdcContext.builder()
+                .map(Slf4jMdcAspectTest.MAP_WITH_NESTED_MDC_ONE,
+                        new String[] { "NESTED1-FOO-TWO" },
+                        new String[] { "nested1" },
+                        "custom")
+                .build();
+
+        assertThat(context.mappedDiagnosticContext())
+                .as("[MdcContext] built with @MdcMap rules")
+                .containsOnlyKeys("custom-nested1-foo-two");
+        assertThat(context.get("custom-nested1-foo-two"))
+                .as("[MdcContext] built with @MdcMap rules")
+                .isEqualTo("nested1-bar-two");
+    }
+
+    @Test
+    public void builderThrowsExceptionForNonStringMaps() {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("@MdcMap is allowed only on Map<String,String> objects");
+
+        final Map<String, Object> map = new HashMap<>();
+        map.put("nested", "not-a-map");
+        MdcContext.builder().map(map, new String[0], new String[] { "nested" }, "");
+    }
+
+    @Test
+    public void builtContextsAreNotChangedByTheBuilder() {
+        final MdcContext.Builder builder = MdcContext.builder().value("connection", 42);
+        final MdcContext context = builder.build();
+        builder.value("connection", 43).value("tenant", "acme");
+
+        assertThat(context.mappedDiagnosticContext())
+                .as("[MdcContext] entries added after build()")
+                .containsOnly(entry("connection", "42"));
+        assertThat(builder.build().mappedDiagnosticContext())
+                .as("[MdcContext] builder reused after build()")
+                .containsOnly(entry("connection", "43"), entry("tenant", "acme"));
+    }
+
+    @Test
+    public void emptyBuilderReturnsEmptyContext() {
+        assertThat(MdcContext.builder().map(null).build())
+                .as("[MdcContext] without entries")
+                .isSameAs(MdcContext.empty());
+    }
+
+    @Test
+    public void slf4jSwitchToReplacesTheWholeMdc() {
+        MDC.put("stale", "value");
+
+        MdcBackend.SLF4J.switchTo(MdcContext.builder().map(Slf4jMdcAspectTest.MDC_MAP_ONE).build());
+
+        assertThat(MDC.getCopyOfContextMap())
+                .as("[MdcBackend.SLF4J] switchTo")
+                .isEqualTo(Slf4jMdcAspectTest.MDC_MAP_ONE);
+
+        MdcBackend.SLF4J.switchTo(MdcContext.empty());
+
+        assertThat(MDC.getCopyOfContextMap())
+                .as("[MdcBackend.SLF4J] switchTo an empty context")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void log4j2SwitchToReplacesTheWholeMdc() {
+        ThreadContext.put("stale", "value");
+
+        MdcBackend.LOG4J2.switchTo(MdcContext.builder().map(Log4j2MdcAspectTest.MDC_MAP_TWO).build());
+
+        assertThat(ThreadContext.getImmutableContext())
+                .as("[MdcBackend.LOG4J2] switchTo")
+                .isEqualTo(Log4j2MdcAspectTest.MDC_MAP_TWO);
+
+        MdcBackend.LOG4J2.switchTo(MdcContext.empty());
+
+        assertThat(ThreadContext.getImmutableContext())
+                .as("[MdcBackend.LOG4J2] switchTo an empty context")
+                .isEmpty();
+    }
+
+    @Test
+    public void captureReturnsASnapshotOfTheMdc() {
+        MDC.put("foo", "bar");
+
+        final MdcContext captured = MdcBackend.SLF4J.capture();
+        MDC.put("foo", "changed");
+
+        assertThat(captured.mappedDiagnosticContext())
+                .as("[MdcBackend.SLF4J] capture")
+                .isEqualTo(Collections.singletonMap("foo", "bar"));
+        assertThat(MdcBackend.LOG4J2.capture())
+                .as("[MdcBackend.LOG4J2] capture of an empty MDC")
+                .isSameAs(MdcContext.empty());
+    }
+}
@@ -0,0 +1,91 @@
+package aspects;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.aspirecsl.log.aspects.MdcControl;
+
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test case for {@link MdcControl}
+ */
+public class MdcControlTest {
+
+    private static final String MDC_VALUE_ARG = Slf4jMdcAwareAnnotationClient.class.getName() + ".mdcValueArg";
+
+    private final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+    @After
+    public void afterTest() {
+        MdcControl.setEnabled(true);
+        MdcControl.disabledMethods().forEach(MdcControl::enable);
+    }
+
+    @Test
+    public void adviceCanBeDisabledGlobally() {
+        final MdcSpecializedClient specializedClient = new MdcSpecializedClient();
+        MdcControl.setEnabled(false);
+
+        client.mdcValueArg("bar");
+        specializedClient.formatted("bar", null);
+
+        assertThat(client.mdc)
+                .as("[MdcControl] generic advice disabled")
+                .isNullOrEmpty();
+        assertThat(specializedClient.mdc)
+                .as("[MdcControl] specialized advice disabled")
+                .isNullOrEmpty();
+
+        MdcControl.setEnabled(true);
+        client.mdcValueArg("bar");
+
+        assertThat(client.mdc)
+                .as("[MdcControl] generic advice enabled")
+                .containsOnlyKeys("foo");
+    }
+
+    @Test
+    public void adviceCanBeDisabledPerMethod() {
+        MdcControl.disable(MDC_VALUE_ARG + "(java.lang.Object)");
+
+        client.mdcValueArg("bar");
+        assertThat(client.mdc)
+                .as("[MdcControl] method disabled")
+                .isNullOrEmpty();
+
+        client.mdcValueWithNullabilityArg("bar");
+        assertThat(client.mdc)
+                .as("[MdcControl] other method")
+                .isNotEmpty();
+
+        MdcControl.enable(MDC_VALUE_ARG);
+        client.mdcValueArg("bar");
+        assertThat(client.mdc)
+                .as("[MdcControl] method enabled")
+                .containsOnlyKeys("foo");
+    }
+
+    @Test
+    public void adviceCanBeDisabledViaJmx() throws Exception {
+        final ObjectName name = new ObjectName(MdcControl.OBJECT_NAME);
+        ManagementFactory.getPlatformMBeanServer()
+                .invoke(name, "disableMethod", new Object[] { MDC_VALUE_ARG }, new String[] { String.class.getName() });
+
+        client.mdcValueArg("bar");
+
+        assertThat(client.mdc)
+                .as("[MdcControl] method disabled via JMX")
+                .isNullOrEmpty();
+        assertThat((String[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "DisabledMethods"))
+                .as("[MdcControl] disabled methods via JMX")
+                .containsExactly(MDC_VALUE_ARG);
+    }
+}
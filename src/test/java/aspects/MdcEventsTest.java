@@ -0,0 +1,138 @@
+package aspects;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcEvents;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Unit test case for {@link MdcEvents}
+ */
+public class MdcEventsTest {
+
+    private static final String EVENT_NAME = "com.aspirecsl.log.MdcScope";
+
+    @After
+    public void afterTest() {
+        MdcEvents.setContextKeys();
+        MDC.clear();
+    }
+
+    @Test
+    public void scopesAreRecordedAsFlightRecorderEvents() throws Exception {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+        MdcEvents.setContextKeys("correlationId", "foo", "absent");
+        MDC.put("correlationId", "c-1");
+
+        final Path file = Files.createTempFile("mdc-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            client.mdcValueArg("bar");
+            recording.stop();
+            recording.dump(file);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+                    .stream()
+                    .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                    .collect(Collectors.toList());
+            assertThat(events)
+                    .as("[MdcEvents] recorded events")
+                    .hasSize(1);
+            final RecordedEvent event = events.get(0);
+            assertThat(event.getString("method"))
+                    .as("[MdcEvents] method")
+                    .isEqualTo(Slf4jMdcAwareAnnotationClient.class.getName() + ".mdcValueArg(java.lang.Object)");
+            assertThat(event.getInt("keys"))
+                    .as("[MdcEvents] keys")
+                    .isEqualTo(1);
+            assertThat(event.getString("context"))
+                    .as("[MdcEvents] context")
+                    .isEqualTo("correlationId=c-1, foo=bar");
+            assertThat(event.getLong("extractionTime"))
+                    .as("[MdcEvents] extraction time")
+                    .isNotNegative();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void scopesOfTheSpecializedAdviceAreRecordedAsFlightRecorderEvents() throws Exception {
+        final MdcSpecializedClient client = new MdcSpecializedClient();
+
+        final Path file = Files.createTempFile("mdc-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            client.values(42L, "bar", null, "ignored", 4096, true, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(file);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+                    .stream()
+                    .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                    .collect(Collectors.toList());
+            assertThat(events)
+                    .as("[MdcEvents] recorded events of the specialized advice")
+                    .hasSize(1);
+            assertThat(events.get(0).getString("method"))
+                    .as("[MdcEvents] method of the specialized advice")
+                    .isEqualTo(MdcSpecializedClient.class.getName() + ".values(long,java.lang.String,java.lang.Object,"
+                            + "java.lang.Object,int,java.lang.Boolean,java.util.concurrent.TimeUnit)");
+            assertThat(events.get(0).getInt("keys"))
+                    .as("[MdcEvents] keys added by the specialized advice")
+                    .isEqualTo(6);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void extractionTimeOfRejectedArgumentsIsTheTimeElapsedUntilTheEnd() throws Exception {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        final Path file = Files.createTempFile("mdc-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            final long started = System.nanoTime();
+            assertThat(catchThrowable(() -> client.mdcMapArg("not-a-map")))
+                    .as("[MdcEvents] rejected argument")
+                    .isInstanceOf(IllegalArgumentException.class);
+            final long elapsed = System.nanoTime() - started;
+            recording.stop();
+            recording.dump(file);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+                    .stream()
+                    .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                    .collect(Collectors.toList());
+            assertThat(events)
+                    .as("[MdcEvents] recorded events of the rejected argument")
+                    .hasSize(1);
+            assertThat(events.get(0).getLong("extractionTime"))
+                    .as("[MdcEvents] extraction time of the rejected argument")
+                    .isNotNegative()
+                    .isLessThanOrEqualTo(elapsed);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package aspects;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.MdcExport;
+import com.aspirecsl.log.aspects.MdcContext;
+import com.aspirecsl.log.aspects.MdcExtractor;
+
+import util.DummyExportedObject;
+import util.DummyExportedObject.Priority;
+import util.DummyExportedObject.Status;
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcExport} and {@link MdcExtractor}
+ */
+public class MdcExportTest {
+
+    private final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+    @After
+    public void afterTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void exportedPropertiesOfMdcHolderArgsAreAddedToTheMdc() {
+        client.mdcHolderArg(new DummyExportedObject("o1", 3, Status.CLOSED, "t1"));
+
+        assertThat(client.mdc)
+                .as("[MdcExport] fields, accessors of private fields and methods")
+                .containsOnly(entry("orderId", "o1"), entry("quantity", "3"), entry("status", "CLOSED"),
+                        entry("tenant", "t1"));
+    }
+
+    @Test
+    public void propertiesOfSuperclassesAreAddedAndFailingAccessorsSkipped() {
+        client.mdcHolderArg(new Priority("o2", true));
+
+        assertThat(client.mdc)
+                .as("[MdcExport] subclass with a failing accessor")
+                .containsOnly(entry("orderId", "o2"), entry("quantity", "1"), entry("status", "OPEN"),
+                        entry("urgent", "true"));
+    }
+
+    @Test
+    public void exportedPropertiesAreFilteredAndPrefixed() {
+        client.mdcHolderArgWithExports(new Priority("o3", false));
+
+        assertThat(client.mdc)
+                .as("[MdcExport] MdcHolder with filter and mdcKeyPrefix")
+                .containsOnly(entry("order-orderId", "o3"), entry("order-urgent", "false"));
+    }
+
+    @Test
+    public void specializedAdviceExtractsFinalTypesDirectly() {
+        final MdcSpecializedClient specializedClient = new MdcSpecializedClient();
+
+        specializedClient.exported(new Priority("o4", true));
+
+        assertThat(specializedClient.mdc)
+                .as("[MdcSpecialized] @MdcHolder on a final type with exported properties")
+                .containsOnly(entry("orderId", "o4"), entry("quantity", "1"), entry("status", "OPEN"),
+                        entry("urgent", "true"));
+    }
+
+    @Test
+    public void extractorsAreLookedUpByClass() {
+        final MdcContext.Builder builder = MdcContext.builder();
+        MdcExtractor.of(DummyExportedObject.class).extract(new DummyExportedObject("o5", 2, null, "t5"), builder);
+
+        assertThat(builder.build().mappedDiagnosticContext())
+                .as("[MdcExtractor] programmatic extraction")
+                .containsOnly(entry("orderId", "o5"), entry("quantity", "2"), entry("status", "null"),
+                        entry("tenant", "t5"));
+        assertThat(MdcExtractor.of(String.class))
+                .as("[MdcExtractor] class without exported properties")
+                .isNull();
+    }
+}
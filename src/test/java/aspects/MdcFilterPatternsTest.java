@@ -0,0 +1,104 @@
+package aspects;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.aspects.MdcContext;
+import com.aspirecsl.log.aspects.MdcSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for the globs and the regular expressions in the {@link MdcMap#filter()}
+ */
+public class MdcFilterPatternsTest {
+
+    private static final String[] NONE = new String[0];
+
+    @Test
+    public void globsMatchFamiliesOfKeys() {
+        assertThat(filter("x-b3-*", "tenant.?d", "REGION"))
+                .as("[MdcMap] glob, single character wildcard and name filters")
+                .containsOnly(entry("X-B3-TraceId", "abc"), entry("x-b3-spanid", "1234"), entry("tenant.id", "t1"),
+                        entry("region", "eu"));
+    }
+
+    @Test
+    public void regularExpressionsMatchWholeKeys() {
+        assertThat(filter("/tenant\\.(id|name)/", "/x-b3-[a-z]+id/"))
+                .as("[MdcMap] anchored regular expression filters")
+                .containsOnly(entry("tenant.id", "t1"), entry("tenant.name", "acme"), entry("X-B3-TraceId", "abc"),
+                        entry("x-b3-spanid", "1234"));
+        assertThat(filter("/[a-z]+\\d/", "/[^a-z]+/"))
+                .as("[MdcMap] character classes and escapes")
+                .containsOnly(entry("key1", "v1"), entry("42", "answer"));
+        assertThat(filter("/^(tenant|x-b3)\\.?\\w{2}$/"))
+                .as("[MdcMap] anchors and bounded repetition")
+                .containsOnly(entry("tenant.id", "t1"), entry("tenantid", "t2"));
+    }
+
+    @Test
+    public void escapedWildcardsMatchThemselves() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("what?", "literal");
+        map.put("whatx", "other");
+
+        assertThat(MdcContext.builder().map(map, new String[] { "what\\?" }, NONE, "").build().mappedDiagnosticContext())
+                .as("[MdcMap] escaped wildcard")
+                .containsOnly(entry("what?", "literal"));
+    }
+
+    @Test
+    public void literalNamesAreMatchedLiterally() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("what?", "literal");
+        map.put("whatx", "other");
+        map.put("/path/", "slashes");
+        map.put("path", "plain");
+        map.put("a*b\\c", "mixed");
+        map.put("axxb\\c", "glob");
+
+        final String[] filter = { MdcSpec.literal("what?"), MdcSpec.literal("/path/"), MdcSpec.literal("a*b\\c") };
+        assertThat(filter)
+                .as("[MdcSpec] escaped names")
+                .containsExactly("what\\?", "\\/path/", "a\\*b\\\\c");
+        assertThat(MdcContext.builder().map(map, filter, NONE, "").build().mappedDiagnosticContext())
+                .as("[MdcMap] literal names")
+                .containsOnly(entry("what?", "literal"), entry("/path/", "slashes"), entry("a*b\\c", "mixed"));
+    }
+
+    @Test
+    public void malformedPatternsAreRejected() {
+        assertThatThrownBy(() -> MdcSpec.map(new String[] { "/tenant(/" }, NONE, ""))
+                .as("[MdcSpec] unclosed group")
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid filter '/tenant(/': unclosed '('.");
+        assertThatThrownBy(() -> MdcSpec.holder(new String[] { "/(a)\\1/" }, ""))
+                .as("[MdcSpec] backreference")
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid filter '/(a)\\1/': unsupported escape '\\1'.");
+        assertThatThrownBy(() -> MdcSpec.headers(new String[] { "/*a/" }, ""))
+                .as("[MdcSpec] dangling quantifier")
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid filter '/*a/': dangling '*'.");
+    }
+
+    private static Map<String, String> filter(String... filter) {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("X-B3-TraceId", "abc");
+        map.put("x-b3-spanid", "1234");
+        map.put("x-b3", "none");
+        map.put("tenant.id", "t1");
+        map.put("tenant.name", "acme");
+        map.put("tenantid", "t2");
+        map.put("region", "eu");
+        map.put("key1", "v1");
+        map.put("42", "answer");
+        return MdcContext.builder().map(map, filter, NONE, "").build().mappedDiagnosticContext();
+    }
+}
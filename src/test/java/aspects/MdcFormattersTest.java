@@ -0,0 +1,175 @@
+package aspects;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcScope;
+import com.aspirecsl.log.aspects.MdcSpec;
+import com.aspirecsl.log.format.MdcFormatter;
+import com.aspirecsl.log.format.MdcFormatters;
+
+import util.UpperCaseFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test case for {@link MdcFormatters}
+ */
+public class MdcFormattersTest {
+
+    @Test
+    public void builtInFormatters() {
+        assertThat(MdcFormatters.format(Arrays.asList("a", 1, null)))
+                .as("[MdcFormatters] collection")
+                .isEqualTo("[a, 1, null]");
+        assertThat(MdcFormatters.format(Collections.singletonMap("k", Collections.singletonList("v"))))
+                .as("[MdcFormatters] map")
+                .isEqualTo("{k=[v]}");
+        assertThat(MdcFormatters.format(null))
+                .as("[MdcFormatters] null")
+                .isEqualTo("null");
+    }
+
+    @Test
+    public void otherTypesAreRenderedAsPerToStringByDefault() {
+        final LocalDateTime dateTime = LocalDateTime.of(2020, 1, 1, 10, 0);
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0x0a, (byte) 0xff });
+        final StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            longValue.append(i % 10);
+        }
+
+        assertThat(MdcFormatters.format(dateTime))
+                .as("[MdcFormatters] local date time")
+                .isEqualTo("2020-01-01T10:00");
+        assertThat(MdcFormatters.format(buffer))
+                .as("[MdcFormatters] byte buffer")
+                .isEqualTo(buffer.toString());
+        assertThat(MdcFormatters.format(longValue))
+                .as("[MdcFormatters] uncapped value")
+                .isEqualTo(longValue.toString());
+    }
+
+    @Test
+    public void collectionsWithTheirOwnToStringAreRenderedByIt() {
+        final List<String> batch = new Batch();
+        batch.add("x");
+        batch.add("y");
+
+        assertThat(MdcFormatters.format(batch))
+                .as("[MdcFormatters] collection overriding toString()")
+                .isEqualTo("Batch(size=2)");
+        assertThat(MdcFormatters.format(Collections.singletonList(batch)))
+                .as("[MdcFormatters] element overriding toString()")
+                .isEqualTo("[Batch(size=2)]");
+    }
+
+    @Test
+    public void synchronizedCollectionsAreRenderedUnderTheirLock() throws Exception {
+        final List<Integer> list = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, Integer> map = Collections.synchronizedMap(new HashMap<>());
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; writing.get(); i++) {
+                list.add(i);
+                map.put(Integer.toString(i % 64), i);
+                if (list.size() > 64) {
+                    list.remove(0);
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                MdcFormatters.format(list);
+                MdcFormatters.format(map);
+            }
+        } finally {
+            writing.set(false);
+            writer.join();
+        }
+
+        assertThat(MdcFormatters.format(list))
+                .as("[MdcFormatters] synchronized list")
+                .isEqualTo(list.toString());
+        assertThat(MdcFormatters.format(map))
+                .as("[MdcFormatters] synchronized map")
+                .isEqualTo(map.toString());
+    }
+
+    @Test
+    public void providedFormatters() {
+        assertThat(MdcFormatters.format(new int[] { 1, 2 }, MdcFormatters.ARRAY, 16))
+                .as("[MdcFormatters] array")
+                .isEqualTo("[1, 2]");
+        assertThat(MdcFormatters.format(ByteBuffer.wrap(new byte[] { 0x0a, (byte) 0xff }), MdcFormatters.HEX, 16))
+                .as("[MdcFormatters] byte buffer")
+                .isEqualTo("0aff");
+        assertThat(MdcFormatters.format(Instant.EPOCH, MdcFormatters.temporal(DateTimeFormatter.ISO_INSTANT), 32))
+                .as("[MdcFormatters] instant")
+                .isEqualTo("1970-01-01T00:00:00Z");
+        assertThat(MdcFormatters.format(LocalDateTime.of(2020, 1, 1, 10, 0),
+                MdcFormatters.temporal(DateTimeFormatter.ISO_LOCAL_DATE_TIME), 32))
+                .as("[MdcFormatters] local date time")
+                .isEqualTo("2020-01-01T10:00:00");
+    }
+
+    @Test
+    public void valuesAreCappedToTheMaxLength() {
+        final List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add("element-" + i);
+        }
+        list.add(list);
+
+        assertThat(MdcFormatters.format(list, null, 16))
+                .as("[MdcFormatters] capped collection")
+                .isEqualTo("[element-0, e...");
+        assertThat(MdcFormatters.format("0123456789", null, 8))
+                .as("[MdcFormatters] capped string")
+                .isEqualTo("01234...");
+        assertThat(MdcFormatters.format(ByteBuffer.allocate(100), MdcFormatters.HEX, 6))
+                .as("[MdcFormatters] capped byte buffer")
+                .isEqualTo("000...");
+    }
+
+    @Test
+    public void specsUseTheNamedFormatterAndCap() {
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)
+                .bind(MdcSpec.value("upper", false, UpperCaseFormatter.class, 4), "order")
+                .bind(MdcSpec.value("capped", false, MdcFormatter.class, 5), "0123456789")) {
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcSpec] with formatter and cap")
+                    .containsEntry("upper", "O...")
+                    .containsEntry("capped", "01...");
+            assertThat(scope.size())
+                    .as("[MdcSpec] keys added with formatter and cap")
+                    .isEqualTo(2);
+        }
+    }
+
+    /**
+     * A list with its own <tt>toString()</tt>.
+     */
+    private static final class Batch extends ArrayList<String> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String toString() {
+            return "Batch(size=" + size() + ")";
+        }
+    }
+}
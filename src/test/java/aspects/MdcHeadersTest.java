@@ -0,0 +1,80 @@
+package aspects;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.aspirecsl.log.aspects.MdcContext;
+import com.aspirecsl.log.aspects.MdcSpec;
+import com.aspirecsl.log.aspects.Utf8Sequence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcSpec#headers(String[], String)} and {@link Utf8Sequence}
+ */
+public class MdcHeadersTest {
+
+    @Test
+    public void onlyTheFilteredHeadersAreAdded() {
+        final Map<Object, Object> headers = new LinkedHashMap<>();
+        headers.put(utf8("X-Tenant"), utf8("acme"));
+        headers.put("traceId".getBytes(StandardCharsets.UTF_8), ByteBuffer.allocateDirect(4).put("4bf9".getBytes()).flip());
+        headers.put(utf8("payload"), new Object());
+        headers.put(utf8("customer"), utf8("Zo\u00eb"));
+
+        final MdcContext context = MdcContext.builder()
+                .bind(MdcSpec.headers(new String[] { "x-tenant", "TRACEID", "customer" }, "msg"), headers)
+                .build();
+
+        assertThat(context.mappedDiagnosticContext())
+                .as("[MdcSpec] headers")
+                .containsOnly(entry("msg-X-Tenant", "acme"), entry("msg-traceId", "4bf9"), entry("msg-customer", "Zo\u00eb"));
+        assertThat(((ByteBuffer) headers.get(utf8("customer"))).position())
+                .as("[MdcSpec] position of a header")
+                .isZero();
+    }
+
+    @Test
+    public void headersOfUnsupportedTypesAreRejectedWhenSelected() {
+        final Map<Object, Object> headers = new LinkedHashMap<>();
+        headers.put(utf8("payload"), new Object());
+
+        assertThatIllegalArgumentException()
+                .as("[MdcSpec] unsupported header")
+                .isThrownBy(() -> MdcContext.builder().bind(MdcSpec.headers(), headers))
+                .withMessageStartingWith("MdcSpec.headers() is allowed only on the headers held in ByteBuffer");
+        assertThatIllegalArgumentException()
+                .as("[MdcSpec] not a map")
+                .isThrownBy(() -> MdcContext.builder().bind(MdcSpec.headers(), "headers"))
+                .withMessage("MdcSpec.headers() is allowed only on Map objects.");
+    }
+
+    @Test
+    public void viewIsDecodedLazilyInPlace() {
+        final byte[] bytes = "tenant=acme".getBytes(StandardCharsets.UTF_8);
+        final Utf8Sequence view = Utf8Sequence.of(bytes);
+        final CharSequence value = view.subSequence(7, 11);
+
+        bytes[7] = 'A';
+
+        assertThat(view.length())
+                .as("[Utf8Sequence] length")
+                .isEqualTo(11);
+        assertThat(value.toString())
+                .as("[Utf8Sequence] decoded after the bytes changed")
+                .isEqualTo("Acme");
+        assertThat(Utf8Sequence.of(utf8("Zo\u00eb \ud83d\ude00")).length())
+                .as("[Utf8Sequence] length of non-ASCII bytes")
+                .isEqualTo(6);
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package aspects;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.http.MdcHttpFilter;
+import com.aspirecsl.log.http.MdcHttpInjector;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcHttpFilter} and {@link MdcHttpInjector}
+ */
+public class MdcHttpTest {
+
+    private final List<Map<String, String>> handled = new ArrayList<>();
+
+    private HttpServer server;
+
+    @Before
+    public void beforeTest() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+    }
+
+    @After
+    public void afterTest() {
+        server.stop(0);
+        MDC.clear();
+    }
+
+    @Test
+    public void headersInjectedByTheClientAreAddedToTheMdcOfTheServer() throws IOException {
+        context("/filtered").getFilters().add(MdcHttpFilter.of(MdcBackend.SLF4J, "traceId", "tenant"));
+        MDC.put("traceId", "4bf92f3577b34da6");
+        MDC.put("tenant", "acme");
+        MDC.put("secret", "s3cr3t");
+        MDC.put("forged", "line\r\nX-Admin: true");
+
+        final MdcHttpInjector injector = MdcHttpInjector.of(MdcBackend.SLF4J, "traceId", "tenant", "forged");
+        request("/filtered", connection -> injector.inject(connection::setRequestProperty));
+        request("/filtered", connection -> { });
+
+        assertThat(handled.get(0))
+                .as("[MdcHttpFilter] MDC of the server")
+                .containsOnly(entry("Traceid", "4bf92f3577b34da6"), entry("Tenant", "acme"));
+        assertThat(handled.get(1))
+                .as("[MdcHttpFilter] MDC of the next exchange")
+                .isEmpty();
+    }
+
+    @Test
+    public void entriesThatCannotBeSentAsHeadersAreSkipped() {
+        MDC.put("traceId", "4bf92f3577b34da6");
+        MDC.put("tenant id", "acme");
+        MDC.put("tenant:id", "acme");
+        MDC.put("Host", "evil.example.com");
+        MDC.put("nul", "a\u0000b");
+        MDC.put("rejected", "yes");
+        MDC.put("X-Span", "\tspan 1");
+
+        final Map<String, String> headers = new HashMap<>();
+        MdcHttpInjector.of(MdcBackend.SLF4J).inject((name, value) -> {
+            if (name.equals("rejected")) {
+                throw new IllegalArgumentException("restricted header name: " + name);
+            }
+            headers.put(name, value);
+        });
+
+        assertThat(headers)
+                .as("[MdcHttpInjector] injected headers")
+                .containsOnly(entry("traceId", "4bf92f3577b34da6"), entry("X-Span", "\tspan 1"));
+    }
+
+    @Test
+    public void headersMatchingThePatternsOfTheFilterAreAdded() throws IOException {
+        context("/patterns").getFilters().add(MdcHttpFilter.of(MdcBackend.SLF4J, "tenant", "X-B3-*"));
+
+        request("/patterns", connection -> {
+            connection.setRequestProperty("X-B3-TraceId", "4bf92f3577b34da6");
+            connection.setRequestProperty("X-B3-SpanId", "a3ce929d");
+            connection.setRequestProperty("X-Request-Id", "42");
+            connection.setRequestProperty("Tenant", "acme");
+        });
+
+        assertThat(handled.get(0))
+                .as("[MdcHttpFilter] MDC of the server")
+                .containsOnly(entry("Tenant", "acme"), entry("X-b3-traceid", "4bf92f3577b34da6"),
+                        entry("X-b3-spanid", "a3ce929d"));
+    }
+
+    @Test
+    public void everyHeaderIsAddedWithoutAFilter() throws IOException {
+        context("/all").getFilters().add(MdcHttpFilter.of(MdcBackend.SLF4J, new String[0], "http"));
+
+        request("/all", connection -> connection.setRequestProperty("X-Request-Id", "42"));
+
+        assertThat(handled.get(0))
+                .as("[MdcHttpFilter] MDC of the server")
+                .contains(entry("http-X-request-id", "42"))
+                .allSatisfy((key, value) -> assertThat(key).startsWith("http-"));
+    }
+
+    private HttpContext context(String path) {
+        return server.createContext(path, exchange -> {
+            final Map<String, String> context = MDC.getCopyOfContextMap();
+            handled.add(context == null ? new HashMap<>() : context);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+    }
+
+    private void request(String path, Consumer<HttpURLConnection> headers) throws IOException {
+        final URL url = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        headers.accept(connection);
+        assertThat(connection.getResponseCode())
+                .as("[MdcHttpFilter] response code")
+                .isEqualTo(204);
+        connection.disconnect();
+    }
+}
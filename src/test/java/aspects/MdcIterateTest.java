@@ -0,0 +1,133 @@
+package aspects;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.MdcIterate;
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcScope;
+import com.aspirecsl.log.aspects.MdcSpec;
+
+import util.DummyMdcParamsObject;
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcIterate} and {@link MdcScope#iterate(MdcSpec, Iterable)}
+ */
+public class MdcIterateTest {
+
+    private static final DummyMdcParamsObject ONE = new DummyMdcParamsObject("fn", "v1");
+    private static final DummyMdcParamsObject TWO = new DummyMdcParamsObject("fn", "v2");
+
+    @After
+    public void afterTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void eachElementIsSwappedIntoTheMdcAsItIsConsumed() {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        client.mdcIterateList("b1", Arrays.asList(ONE, null, TWO));
+
+        assertThat(client.mdcs.get(0))
+                .as("[MdcIterate] MDC of the first element")
+                .containsOnly(entry("batch", "b1"), entry("function-name", "fn"), entry("function-version", "v1"));
+        assertThat(client.mdcs.get(1))
+                .as("[MdcIterate] MDC of a null element")
+                .containsOnly(entry("batch", "b1"));
+        assertThat(client.mdcs.get(2))
+                .as("[MdcIterate] MDC of the last element")
+                .containsOnly(entry("batch", "b1"), entry("function-name", "fn"), entry("function-version", "v2"));
+        assertThat(client.mdc)
+                .as("[MdcIterate] MDC after the iteration")
+                .containsOnly(entry("batch", "b1"), entry("function-name", "fn"), entry("function-version", "v2"));
+    }
+
+    @Test
+    public void elementsOfAStreamAreSwappedIn() {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        client.mdcIterateStream(Stream.of(new DummyMdcParamsObject("", "v0"), ONE, new DummyMdcParamsObject("gn", "v3")));
+
+        assertThat(client.mdcs)
+                .as("[MdcIterate] MDC of the streamed elements")
+                .extracting(mdc -> mdc.get("functionName"))
+                .containsExactly("fn", "gn");
+    }
+
+    @Test
+    public void elementsAreSwappedInAsTheyAreTakenFromTheStream() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J);
+             Stream<DummyMdcParamsObject> functions = scope.iterate(MdcSpec.getter("getFunctionVersion", "version"),
+                     Stream.of(ONE, TWO).onClose(() -> closed.set(true)))) {
+            assertThat(functions.map(function -> function.getFunctionVersion() + ":" + MDC.get("version"))
+                    .collect(Collectors.toList()))
+                    .as("[MdcScope] MDC of the streamed elements")
+                    .containsExactly("v1:v1", "v2:v2");
+        }
+        assertThat(closed.get())
+                .as("[MdcScope] source stream is closed with the stream")
+                .isTrue();
+    }
+
+    @Test
+    public void elementsOfASpecializedMethodAreSwappedIn() {
+        final MdcSpecializedClient client = new MdcSpecializedClient();
+
+        client.iterated("b2", Arrays.asList(ONE, TWO));
+
+        assertThat(client.mdcs)
+                .as("[MdcIterate] MDC of a specialized method")
+                .extracting(mdc -> mdc.get("batch") + ":" + mdc.get("version"))
+                .containsExactly("b2:v1", "b2:v2");
+    }
+
+    @Test
+    public void iteratorIsTransparentOnceTheScopeIsClosed() {
+        final Iterator<DummyMdcParamsObject> functions;
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)) {
+            functions = scope.iterate(MdcSpec.getter("getFunctionVersion", "version"), Arrays.asList(ONE, TWO).iterator());
+            functions.next();
+            assertThat(MDC.get("version"))
+                    .as("[MdcScope] value of the consumed element")
+                    .isEqualTo("v1");
+        }
+        MDC.put("version", "unrelated");
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)) {
+            assertThat(functions.next())
+                    .as("[MdcScope] element consumed after the scope is closed")
+                    .isSameAs(TWO);
+            assertThat(scope.size())
+                    .as("[MdcScope] keys added by the next scope")
+                    .isZero();
+            assertThat(MDC.get("version"))
+                    .as("[MdcScope] value after the scope is closed")
+                    .isEqualTo("unrelated");
+        }
+        MDC.remove("version");
+    }
+
+    @Test
+    public void mdcIterateIsRejectedOnOtherParameterTypes() {
+        assertThatIllegalArgumentException()
+                .as("[MdcIterate] on an Object parameter")
+                .isThrownBy(() -> new Slf4jMdcAwareAnnotationClient().mdcIterateOnObject(ONE))
+                .withMessage("@MdcIterate is allowed only on Iterable, Collection, List, Set, Iterator or Stream parameters.");
+    }
+}
@@ -0,0 +1,190 @@
+package aspects;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcLeakDetector;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcLeakDetector}
+ */
+public class MdcLeakDetectorTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @Before
+    public void beforeTest() {
+        appender.start();
+        logger().addAppender(appender);
+    }
+
+    @After
+    public void afterTest() throws Exception {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        logger().detachAppender(appender);
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void leakedKeysAreClearedAndReported() throws Exception {
+        final MdcLeakDetector detector = MdcLeakDetector.create(true);
+
+        pool.submit(detector.wrap(() -> MDC.put("leak", "yes"))).get();
+        final Map<String, String> next = pool.submit(detector.wrap(MDC::getCopyOfContextMap)).get();
+
+        assertThat(next)
+                .as("[MdcLeakDetector] MDC of the next task")
+                .isNullOrEmpty();
+        assertThat(detector.leaks())
+                .as("[MdcLeakDetector] leaks")
+                .isEqualTo(1);
+        assertThat(detector.leakedKeys())
+                .as("[MdcLeakDetector] leaked keys")
+                .isEqualTo(1);
+        assertThat(appender.list)
+                .as("[MdcLeakDetector] reports")
+                .hasSize(1);
+        assertThat(appender.list.get(0).getLevel())
+                .as("[MdcLeakDetector] report level")
+                .isEqualTo(Level.WARN);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .as("[MdcLeakDetector] report")
+                .startsWith("MDC keys leaked by a task: task=")
+                .contains(", keys=[leak], cleared=true; 1 leaking task(s) since the last report");
+    }
+
+    @Test
+    public void keysOfScopesAndOfTheSubmitterAreNotLeaks() throws Exception {
+        final MdcLeakDetector detector = MdcLeakDetector.create(true);
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        pool.submit(detector.wrap(() -> client.mdcValueArg("bar"))).get();
+        // checked by the submitting thread; within an open scope, and with a key that was there before the task
+        client.mdcValueArgRunning("bar", detector::check);
+        MDC.put("before", "yes");
+        try {
+            detector.wrap(() -> MDC.put("before", "again")).run();
+            detector.wrap(() -> MDC.remove("before")).run();
+        } finally {
+            MDC.clear();
+        }
+
+        assertThat(detector.leaks())
+                .as("[MdcLeakDetector] leaks")
+                .isZero();
+        assertThat(appender.list)
+                .as("[MdcLeakDetector] reports")
+                .isEmpty();
+    }
+
+    @Test
+    public void leakedKeysAreKeptUnlessCleared() throws Exception {
+        final MdcLeakDetector detector = MdcLeakDetector.create(false);
+
+        pool.submit(detector.wrap(() -> MDC.put("leak", "yes"))).get();
+        final Map<String, String> next = pool.submit(detector.wrap(() -> {
+            final Map<String, String> context = MDC.getCopyOfContextMap();
+            MDC.clear();
+            return context;
+        })).get();
+
+        assertThat(next)
+                .as("[MdcLeakDetector] MDC of the next task")
+                .containsOnly(entry("leak", "yes"));
+        assertThat(detector.leaks())
+                .as("[MdcLeakDetector] leaks")
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void reportsAreRateLimited() throws Exception {
+        final MdcLeakDetector detector = MdcLeakDetector.create(true, 1, TimeUnit.HOURS);
+
+        for (int i = 0; i < 5; i++) {
+            final String key = "leak" + i;
+            pool.submit(detector.wrap(() -> MDC.put(key, "yes"))).get();
+        }
+
+        assertThat(detector.leaks())
+                .as("[MdcLeakDetector] leaks")
+                .isEqualTo(5);
+        assertThat(appender.list)
+                .as("[MdcLeakDetector] reports")
+                .hasSize(1);
+    }
+
+    @Test
+    public void tasksOfWrappedExecutorsAreChecked() throws Exception {
+        final MdcLeakDetector detector = MdcLeakDetector.create(true);
+        final Executor executor = detector.wrapExecutor(pool);
+
+        final FutureTask<Void> leaking = new FutureTask<>(() -> MDC.put("leak", "yes"), null);
+        executor.execute(leaking);
+        leaking.get();
+        final FutureTask<Map<String, String>> next = new FutureTask<>(MDC::getCopyOfContextMap);
+        executor.execute(next);
+
+        assertThat(next.get())
+                .as("[MdcLeakDetector] MDC of the next task of the wrapped executor")
+                .isNullOrEmpty();
+        assertThat(detector.leaks())
+                .as("[MdcLeakDetector] leaks of the wrapped executor")
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void tasksAreCheckedAfterExecution() throws Exception {
+        final MdcLeakDetector detector = MdcLeakDetector.create(true);
+        final ThreadPoolExecutor checkedPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void afterExecute(Runnable task, Throwable failure) {
+                detector.check();
+            }
+        };
+        try {
+            checkedPool.submit(() -> MDC.put("leak", "yes")).get();
+            checkedPool.submit(() -> MDC.put("leak", "again")).get();
+            final Map<String, String> next = checkedPool.submit(MDC::getCopyOfContextMap).get();
+
+            assertThat(next)
+                    .as("[MdcLeakDetector] MDC of the next task of the pool")
+                    .isNullOrEmpty();
+            assertThat(detector.leaks())
+                    .as("[MdcLeakDetector] leaks of the tasks of the pool")
+                    .isEqualTo(2);
+        } finally {
+            checkedPool.shutdown();
+            checkedPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Logger logger() {
+        return (Logger) LoggerFactory.getLogger(MdcLeakDetector.class);
+    }
+}
@@ -0,0 +1,144 @@
+package aspects;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.aspirecsl.log.MdcMaps;
+import com.aspirecsl.log.aspects.MdcContext;
+import com.aspirecsl.log.aspects.MdcSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcMaps} and {@link MdcSpec#of(MdcSpec...)} combining <tt>MdcMap</tt> specs
+ */
+public class MdcMapsTest {
+
+    private static final String[] NONE = new String[0];
+
+    private static final MdcSpec[] SPECS = {
+            MdcSpec.map(new String[] { "tenant", "region" }, NONE, ""),
+            MdcSpec.map(NONE, new String[] { "headers", "overrides" }, ""),
+            MdcSpec.map(new String[] { "TRACE" }, new String[] { "headers" }, "h"),
+            MdcSpec.map(new String[] { "tenant" }, new String[] { "overrides" }, ""),
+            MdcSpec.map(NONE, new String[] { "headers" }, "all", 2, 3)
+    };
+
+    @Test
+    public void combinedSpecsAddTheSameEntriesAsEachSpecInTurn() {
+        final Map<String, Object> map = map();
+        final MdcContext.Builder expected = MdcContext.builder();
+        for (MdcSpec spec : SPECS) {
+            expected.bind(spec, map);
+        }
+
+        assertThat(MdcContext.builder().bind(MdcSpec.of(SPECS), map).build())
+                .as("[MdcMaps] precedence of the later annotations, nested maps, prefixes and budgets")
+                .isEqualTo(expected.build());
+        assertThat(MdcContext.builder().bind(MdcSpec.of(SPECS), map).build().mappedDiagnosticContext())
+                .as("[MdcMaps] entries added")
+                .contains(entry("tenant", "t-override"), entry("region", "eu"), entry("trace", "abc"),
+                        entry("h-trace", "abc"))
+                .hasSize(7);
+    }
+
+    @Test
+    public void entriesAreOverriddenOnlyIfAdmittedByTheLaterSpec() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("x", "1");
+        map.put("y", "2");
+
+        assertThat(bind(map, MdcSpec.map(), MdcSpec.map(NONE, NONE, "", 1, 0)))
+                .as("[MdcMaps] entries beyond the budget of the later spec")
+                .isEqualTo(bindInTurn(map, MdcSpec.map(), MdcSpec.map(NONE, NONE, "", 1, 0)))
+                .containsOnly(entry("x", "1"), entry("y", "2"));
+    }
+
+    @Test
+    public void budgetIsSpentInTheOrderOfTheNestedMapKeysOfEachSpec() {
+        final Map<String, String> a = new LinkedHashMap<>();
+        a.put("a1", "1");
+        a.put("a2", "2");
+        final Map<String, String> b = new LinkedHashMap<>();
+        b.put("b1", "1");
+        b.put("b2", "2");
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", a);
+        map.put("b", b);
+        final MdcSpec[] specs = {
+                MdcSpec.map(NONE, new String[] { "a" }, "first"),
+                MdcSpec.map(NONE, new String[] { "b", "a" }, "second", 2, 0)
+        };
+
+        assertThat(bind(map, specs))
+                .as("[MdcMaps] entries within the budget of a spec reading the nested maps in another order")
+                .isEqualTo(bindInTurn(map, specs))
+                .containsOnly(entry("first-a1", "1"), entry("first-a2", "2"), entry("second-b1", "1"),
+                        entry("second-b2", "2"));
+    }
+
+    @Test
+    public void eachMapIsWalkedOnce() {
+        final CountingMap headers = new CountingMap();
+        headers.put("trace", "abc");
+        final CountingMap overrides = new CountingMap();
+        overrides.put("tenant", "t-override");
+        final CountingMap map = new CountingMap();
+        map.put("tenant", "t1");
+        map.put("headers", headers);
+        map.put("overrides", overrides);
+
+        MdcContext.builder().bind(MdcSpec.of(SPECS), map).build();
+
+        assertThat(new int[] { map.walks, headers.walks, overrides.walks })
+                .as("[MdcMaps] walks of the outer and the nested maps")
+                .containsExactly(1, 1, 1);
+    }
+
+    private static Map<String, String> bind(Map<String, Object> map, MdcSpec... specs) {
+        return MdcContext.builder().bind(MdcSpec.of(specs), map).build().mappedDiagnosticContext();
+    }
+
+    private static Map<String, String> bindInTurn(Map<String, Object> map, MdcSpec... specs) {
+        final MdcContext.Builder builder = MdcContext.builder();
+        for (MdcSpec spec : specs) {
+            builder.bind(spec, map);
+        }
+        return builder.build().mappedDiagnosticContext();
+    }
+
+    private static Map<String, Object> map() {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("trace", "abc");
+        headers.put("span", "1234");
+        headers.put("tenant", "t-header");
+        final Map<String, String> overrides = new HashMap<>();
+        overrides.put("tenant", "t-override");
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tenant", "t1");
+        map.put("region", "eu");
+        map.put("headers", headers);
+        map.put("overrides", overrides);
+        return map;
+    }
+
+    /**
+     * A map counting the walks over its entries.
+     */
+    private static final class CountingMap extends HashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private int walks;
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            walks++;
+            return super.entrySet();
+        }
+    }
+}
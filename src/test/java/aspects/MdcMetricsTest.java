@@ -0,0 +1,110 @@
+package aspects;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.aspirecsl.log.aspects.MdcMethodStatistics;
+import com.aspirecsl.log.aspects.MdcMetrics;
+
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Unit test case for {@link MdcMetrics}
+ */
+public class MdcMetricsTest {
+
+    private final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+    @Test
+    public void adviceOverheadIsRecordedPerMethod() {
+        final MdcMethodStatistics before = statisticsOf("mdcValueArg(");
+
+        for (int i = 0; i < 256; i++) {
+            client.mdcValueArg("bar");
+        }
+
+        final MdcMethodStatistics after = statisticsOf("mdcValueArg(");
+        assertThat(after.getCalls() - before.getCalls())
+                .as("[MdcMetrics] calls")
+                .isEqualTo(256);
+        assertThat(after.getKeysAdded() - before.getKeysAdded())
+                .as("[MdcMetrics] keys added")
+                .isEqualTo(256);
+        assertThat(after.getBackendOperations() - before.getBackendOperations())
+                .as("[MdcMetrics] backend operations")
+                .isEqualTo(512);
+        // the advice time is measured for one in 16 calls, chosen at random
+        assertThat(after.getSampledCalls() - before.getSampledCalls())
+                .as("[MdcMetrics] sampled calls")
+                .isPositive()
+                .isLessThan(256);
+        assertThat(after.getMaxAdviceNanos())
+                .as("[MdcMetrics] advice time")
+                .isPositive()
+                .isGreaterThanOrEqualTo(after.getP99AdviceNanos())
+                .isGreaterThanOrEqualTo(after.getP50AdviceNanos());
+    }
+
+    @Test
+    public void specializedAdviceIsRecordedAsTheGenericAdvice() {
+        final MdcSpecializedClient specializedClient = new MdcSpecializedClient();
+        final MdcMethodStatistics before = statisticsOf(MdcSpecializedClient.class, "values(");
+
+        for (int i = 0; i < 256; i++) {
+            specializedClient.values(42L, "bar", null, "ignored", 4096, true, TimeUnit.SECONDS);
+        }
+
+        final MdcMethodStatistics after = statisticsOf(MdcSpecializedClient.class, "values(");
+        assertThat(after.getMethod())
+                .as("[MdcMetrics] method of the specialized advice")
+                .isEqualTo(MdcSpecializedClient.class.getName() + ".values(long,java.lang.String,java.lang.Object,"
+                        + "java.lang.Object,int,java.lang.Boolean,java.util.concurrent.TimeUnit)");
+        assertThat(after.getCalls() - before.getCalls())
+                .as("[MdcMetrics] calls of the specialized advice")
+                .isEqualTo(256);
+        assertThat(after.getKeysAdded() - before.getKeysAdded())
+                .as("[MdcMetrics] keys added by the specialized advice")
+                .isEqualTo(256 * 6);
+        assertThat(after.getSampledCalls() - before.getSampledCalls())
+                .as("[MdcMetrics] sampled calls of the specialized advice")
+                .isPositive()
+                .isLessThan(256);
+    }
+
+    @Test
+    public void rejectedArgumentsAreCountedAsValidationFailures() throws Exception {
+        final long before = MdcMetrics.validationFailures();
+
+        assertThat(catchThrowable(() -> client.mdcMapArg("not-a-map")))
+                .as("[MdcMetrics] rejected argument")
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(MdcMetrics.validationFailures() - before)
+                .as("[MdcMetrics] validation failures")
+                .isEqualTo(1);
+        assertThat((Long) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(MdcMetrics.OBJECT_NAME), "ValidationFailures"))
+                .as("[MdcMetrics] validation failures via JMX")
+                .isEqualTo(MdcMetrics.validationFailures());
+    }
+
+    private static MdcMethodStatistics statisticsOf(String method) {
+        return statisticsOf(Slf4jMdcAwareAnnotationClient.class, method);
+    }
+
+    private static MdcMethodStatistics statisticsOf(Class<?> type, String method) {
+        return MdcMetrics.statistics()
+                .stream()
+                .filter(s -> s.getMethod().startsWith(type.getName() + "." + method))
+                .findFirst()
+                .orElse(new MdcMethodStatistics(method, 0, 0, 0, 0, 0, 0, 0, 0, 0));
+    }
+}
@@ -0,0 +1,122 @@
+package aspects;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.aspects.MdcContext;
+import com.aspirecsl.log.aspects.MdcSpec;
+
+import util.DummyMdcParamsObject;
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcParam#path()} and {@link MdcSpec#path(String, String)}
+ */
+public class MdcParamPathTest {
+
+    private final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+    @After
+    public void afterTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void nestedPropertiesAreAddedToTheMdc() {
+        client.mdcParamWithPath(new Order(new Customer(true, new Address("EC1A 1BB"))));
+
+        assertThat(client.mdc)
+                .as("[MdcParam] path of getters and inherited fields")
+                .containsOnly(entry("postcode", "EC1A 1BB"), entry("getCustomer.isVip", "true"));
+    }
+
+    @Test
+    public void pathShortCircuitsOnNullProperties() {
+        client.mdcParamWithPath(new Order(new Customer(false, null)));
+
+        assertThat(client.mdc)
+                .as("[MdcParam] path through a null property")
+                .containsOnly(entry("getCustomer.isVip", "false"));
+    }
+
+    @Test
+    public void specializedAdviceBindsPaths() {
+        final MdcSpecializedClient specializedClient = new MdcSpecializedClient();
+
+        specializedClient.paths(new DummyMdcParamsObject("fn", "v1.2"));
+
+        assertThat(specializedClient.mdc)
+                .as("[MdcSpecialized] @MdcParam(path)")
+                .containsOnly(entry("versionLength", "4"));
+    }
+
+    @Test
+    public void specBindsPathsAndRejectsInvalidOnes() {
+        final MdcContext context = MdcContext.builder()
+                .bind(MdcSpec.path("customer.address.postcode"), new Order(new Customer(true, new Address("SW1A 2AA"))))
+                .bind(MdcSpec.path("customer.absent", "absent"), new Order(new Customer(true, null)))
+                .build();
+
+        assertThat(context.mappedDiagnosticContext())
+                .as("[MdcSpec] path")
+                .containsOnly(entry("customer.address.postcode", "SW1A 2AA"));
+        assertThatIllegalArgumentException()
+                .as("[MdcSpec] invalid path")
+                .isThrownBy(() -> MdcSpec.path("customer..id"))
+                .withMessage("path() 'customer..id' should be a dot-separated list of property names.");
+    }
+
+    private static final class Order {
+        private final Customer customer;
+
+        Order(Customer customer) {
+            this.customer = customer;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+    }
+
+    private static class Party {
+        private final Address address;
+
+        Party(Address address) {
+            this.address = address;
+        }
+    }
+
+    private static final class Customer extends Party {
+        private final boolean vip;
+
+        Customer(boolean vip, Address address) {
+            super(address);
+            this.vip = vip;
+        }
+
+        boolean isVip() {
+            return vip;
+        }
+    }
+
+    private static final class Address {
+        private final String postcode;
+
+        Address(String postcode) {
+            this.postcode = postcode;
+        }
+
+        String getPostcode() {
+            return postcode;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package aspects;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcRegistry;
+import com.aspirecsl.log.aspects.MdcThreadContext;
+
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcRegistry}
+ */
+public class MdcRegistryTest {
+
+    private final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+    @Before
+    public void beforeTest() {
+        MdcRegistry.setEnabled(true);
+    }
+
+    @After
+    public void afterTest() {
+        MdcRegistry.setEnabled(false);
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void threadsInAdvisedMethodsAreDumped() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread worker = new Thread(() -> client.mdcValueArgRunning("bar", () -> {
+            new Slf4jMdcAwareAnnotationClient().mdcValueArgRunning("baz", () -> {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignore) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }), "registry-worker");
+        worker.start();
+        entered.await();
+
+        try {
+            assertThat(MdcRegistry.threads())
+                    .as("[MdcRegistry] threads")
+                    .filteredOn(t -> t.getThreadId() == worker.getId())
+                    .hasSize(1)
+                    .first()
+                    .satisfies(t -> {
+                        assertThat(t.getMethods())
+                                .as("[MdcRegistry] methods")
+                                .hasSize(2)
+                                .allMatch(m -> m.endsWith(".mdcValueArgRunning(java.lang.Object,java.lang.Runnable)"));
+                        assertThat(t.getContext())
+                                .as("[MdcRegistry] context")
+                                .containsOnly(entry("foo", "baz"));
+                    });
+            assertThat((String) ManagementFactory.getPlatformMBeanServer()
+                    .invoke(new ObjectName(MdcRegistry.OBJECT_NAME), "dumpThreads", null, null))
+                    .as("[MdcRegistry] dump via JMX")
+                    .contains("\"registry-worker\" #" + worker.getId())
+                    .contains("    at util.Slf4jMdcAwareAnnotationClient.mdcValueArgRunning(")
+                    .contains("    mdc {foo=baz}");
+        } finally {
+            release.countDown();
+            worker.join();
+        }
+
+        assertThat(MdcRegistry.threads())
+                .as("[MdcRegistry] threads after the worker completes")
+                .extracting(MdcThreadContext::getThreadId)
+                .doesNotContain(worker.getId());
+    }
+
+    @Test
+    public void scopeIsUnpublishedWhenClosed() {
+        final MdcSpecializedClient specializedClient = new MdcSpecializedClient();
+        final long threadId = Thread.currentThread().getId();
+        final MdcThreadContext[] captured = new MdcThreadContext[1];
+
+        client.mdcValueArgRunning("bar", () -> {
+            specializedClient.timed(42L);
+            captured[0] = MdcRegistry.threads()
+                    .stream()
+                    .filter(t -> t.getThreadId() == threadId)
+                    .findFirst()
+                    .orElse(null);
+        });
+
+        assertThat(captured[0])
+                .as("[MdcRegistry] within the advised method")
+                .isNotNull();
+        assertThat(captured[0].getMethods())
+                .as("[MdcRegistry] inner scope is unpublished")
+                .hasSize(1);
+        assertThat(MdcRegistry.threads())
+                .as("[MdcRegistry] after the advised method")
+                .extracting(MdcThreadContext::getThreadId)
+                .doesNotContain(threadId);
+    }
+}
@@ -0,0 +1,174 @@
+package aspects;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcScope;
+import com.aspirecsl.log.aspects.MdcSpec;
+
+import util.DummyMdcParamsObject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test case for {@link MdcScope} and {@link MdcSpec}
+ */
+public class MdcScopeTest {
+
+    private static final MdcSpec FILTERED_AND_PREFIXED_MAP =
+            MdcSpec.map(new String[] { "FOO-ONE" }, new String[0], "custom");
+
+    private static final MdcSpec NESTED_MAPS = MdcSpec.map(new String[0], new String[] { "nested1", "nested2" }, "");
+
+    private static final MdcSpec FUNCTION =
+            MdcSpec.of(MdcSpec.field("functionName"), MdcSpec.getter("getFunctionVersion", "version"));
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Before
+    public void beforeTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty before test")
+                .isNullOrEmpty();
+    }
+
+    @After
+    public void afterTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+        assertThat(ThreadContext.getImmutableContext())
+                .as("Log4J ThreadContext is empty after test")
+                .isEmpty();
+    }
+
+    @Test
+    public void scopeAddsAndRemovesValuesAsPerSpecs() {
+        final DummyMdcParamsObject function = new DummyMdcParamsObject("fn", "v1");
+        final HasDiagnosticContext holder = () -> Slf4jMdcAspectTest.MDC_MAP_TWO;
+
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)
+                .bind(FILTERED_AND_PREFIXED_MAP, Slf4jMdcAspectTest.MDC_MAP_ONE)
+                .bind(NESTED_MAPS, Slf4jMdcAspectTest.MAP_WITH_NESTED_MDC_ONE)
+                .bind(FUNCTION, function)
+                .bind(MdcSpec.holder(new String[] { "this-two" }, ""), holder)
+                .bind(MdcSpec.value("absent"), null)) {
+
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcScope] with specs")
+                    .containsOnlyKeys("custom-foo-one", "nested1-foo-one", "nested1-foo-two", "nested2-foo-one",
+                            "nested2-foo-two", "functionName", "version", "this-two");
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcScope] with specs")
+                    .extractingByKeys("custom-foo-one", "functionName", "version", "this-two")
+                    .containsExactly("bar-one", "fn", "v1", "that-two");
+            assertThat(scope.size())
+                    .as("[MdcScope] keys added with specs")
+                    .isEqualTo(8);
+        }
+    }
+
+    @Test
+    public void scopeDoesNotRemoveUnRelatedEntries() {
+        ThreadContext.put("external", "value");
+
+        try (MdcScope scope = MdcScope.open(MdcBackend.LOG4J2, MdcSpec.map(), Log4j2MdcAspectTest.MDC_MAP_ONE)) {
+            assertThat(ThreadContext.getImmutableContext())
+                    .as("[MdcScope] Log4j2")
+                    .containsOnlyKeys("external", "foo-one", "foo-two");
+            assertThat(scope.size())
+                    .as("[MdcScope] keys added to Log4j2")
+                    .isEqualTo(2);
+        }
+
+        assertThat(ThreadContext.getImmutableContext())
+                .as("[MdcScope] Log4j2 after close")
+                .containsOnlyKeys("external");
+        ThreadContext.remove("external");
+    }
+
+    @Test
+    public void closingAnOuterScopeClosesTheInnerScopes() {
+        final MdcScope outer = MdcScope.open(MdcBackend.SLF4J);
+        outer.put("outer", "1");
+        final MdcScope inner = MdcScope.open(MdcBackend.SLF4J);
+        inner.put("inner", "2");
+
+        outer.close();
+
+        assertThat(MDC.getCopyOfContextMap())
+                .as("[MdcScope] closing an outer scope")
+                .isNullOrEmpty();
+
+        inner.close();
+    }
+
+    @Test
+    public void scopeRendersPrimitivesAndEnums() {
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)) {
+            scope.putInt("small", -128);
+            scope.putInt("large", 1024);
+            scope.putLong("long", Long.MIN_VALUE);
+            scope.putBoolean("flag", false);
+            scope.putEnum("unit", TimeUnit.MILLISECONDS);
+            scope.putEnum("none", null);
+            scope.bind(MdcSpec.value("boxed"), 1023);
+
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcScope] primitives and enums")
+                    .extractingByKeys("small", "large", "long", "flag", "unit", "none", "boxed")
+                    .containsExactly("-128", "1024", "-9223372036854775808", "false", "MILLISECONDS", "null", "1023");
+        }
+    }
+
+    @Test
+    public void scopesArePooled() {
+        final MdcScope first = MdcScope.open(MdcBackend.SLF4J, MdcSpec.value("foo"), "bar");
+        first.close();
+        final MdcScope second = MdcScope.open(MdcBackend.SLF4J, MdcSpec.value("foo"), "bar");
+        second.close();
+
+        assertThat(second)
+                .as("[MdcScope] is reused once closed")
+                .isSameAs(first);
+    }
+
+    @Test
+    public void scopeIsClosedWhenTheSpecIsIncompatibleWithTheValue() {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("@MdcMap is allowed only on Map<String,String> objects");
+
+        final Map<String, Object> map = new HashMap<>();
+        map.put("nested1", "not-a-map");
+        MdcScope.open(MdcBackend.SLF4J, NESTED_MAPS, map);
+    }
+
+    @Test
+    public void putIsRejectedOnAClosedScope() {
+        exception.expect(IllegalStateException.class);
+
+        final MdcScope scope = MdcScope.open(MdcBackend.SLF4J);
+        scope.close();
+        scope.put("foo", "bar");
+    }
+
+    @Test
+    public void paramSpecRequiresAFieldOrAGetter() {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Either field() or getter() should be specified.");
+
+        MdcSpec.field("");
+    }
+}
@@ -0,0 +1,127 @@
+package aspects;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcAspect;
+
+import util.DummyMdcParamsObject;
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test case for the advice generated for <tt>MdcSpecialized</tt> methods
+ */
+public class MdcSpecializedAdviceTest {
+
+    private final MdcSpecializedClient client = new MdcSpecializedClient();
+
+    @After
+    public void afterTest() {
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+        assertThat(ThreadContext.getImmutableContext())
+                .as("Log4J ThreadContext is empty after test")
+                .isEmpty();
+    }
+
+    @Test
+    public void specializedAdviceAddsValues() {
+        client.values(42L, null, null, "ignored", 4096, true, TimeUnit.SECONDS);
+
+        assertThat(client.mdc)
+                .as("[MdcSpecialized] @MdcValue")
+                .containsOnlyKeys("id", "nullable", "shard", "active", "unit")
+                .containsEntry("id", "42")
+                .containsEntry("nullable", "null")
+                .containsEntry("shard", "4096")
+                .containsEntry("active", "true")
+                .containsEntry("unit", "SECONDS");
+    }
+
+    @Test
+    public void specializedAdviceAddsParams() {
+        client.params(new DummyMdcParamsObject("fn", "v1"), new MdcSpecializedClient.Status(7, true));
+
+        assertThat(client.mdc)
+                .as("[MdcSpecialized] @MdcParam")
+                .containsOnlyKeys("version", "functionName", "code", "isActive")
+                .containsEntry("version", "v1")
+                .containsEntry("functionName", "fn")
+                .containsEntry("code", "7")
+                .containsEntry("isActive", "true");
+    }
+
+    @Test
+    public void specializedAdviceIgnoresNullParams() {
+        client.params(null, null);
+
+        assertThat(client.mdc)
+                .as("[MdcSpecialized] @MdcParam with null arguments")
+                .isEmpty();
+    }
+
+    @Test
+    public void specializedAdviceAddsMapsAndHolders() {
+        final Map<String, String> holderMap = new HashMap<>();
+        holderMap.put("this-one", "that-one");
+
+        client.mapAndHolder(Slf4jMdcAspectTest.MDC_MAP_ONE, () -> holderMap);
+
+        assertThat(client.mdc)
+                .as("[MdcSpecialized] @MdcMap and @MdcHolder on both backends")
+                .containsOnlyKeys("custom-foo-one", "this-one")
+                .containsEntry("custom-foo-one", "bar-one")
+                .containsEntry("this-one", "that-one");
+    }
+
+    @Test
+    public void specializedAdviceUsesTheNamedFormatterAndCap() {
+        client.formatted("order", Arrays.asList("one", "two", "three"));
+
+        assertThat(client.mdc)
+                .as("[MdcSpecialized] @MdcValue with formatter and cap")
+                .containsEntry("upper", "ORDER")
+                .containsEntry("list", "[one,...");
+    }
+
+    @Test
+    public void methodWithoutParameterAnnotationIsNotAdvised() {
+        client.withoutParameterAnnotation(Collections.singletonMap("foo", "bar"));
+
+        assertThat(client.mdc)
+                .as("[MdcSpecialized] without parameter annotations")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void genericAdviceStepsAsideOnlyForTheClassesWithGeneratedAdvice() {
+        assertThat(MdcAspect.specializedAdviceGenerated(joinPoint(MdcSpecializedClient.class)))
+                .as("[MdcSpecialized] class with generated advice")
+                .isTrue();
+        assertThat(MdcAspect.specializedAdviceGenerated(joinPoint(Slf4jMdcAwareAnnotationClient.class)))
+                .as("[MdcSpecialized] class without generated advice; advised by the generic advice")
+                .isFalse();
+    }
+
+    private static JoinPoint.StaticPart joinPoint(Class<?> type) {
+        final Factory factory = new Factory(type.getSimpleName() + ".java", type);
+        return factory.makeSJP(JoinPoint.METHOD_EXECUTION,
+                factory.makeMethodSig(Modifier.PUBLIC, "method", type, new Class<?>[0], new String[0], new Class<?>[0],
+                        void.class), 1);
+    }
+}
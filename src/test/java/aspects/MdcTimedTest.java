@@ -0,0 +1,166 @@
+package aspects;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcBackend;
+import com.aspirecsl.log.aspects.MdcLatencyStatistics;
+import com.aspirecsl.log.aspects.MdcMetrics;
+import com.aspirecsl.log.aspects.MdcScope;
+import com.aspirecsl.log.aspects.MdcTimer;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import util.MdcSpecializedClient;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit test case for {@link com.aspirecsl.log.MdcTimed}, {@link MdcTimer} and the latency histograms of {@link MdcMetrics}
+ */
+public class MdcTimedTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @Before
+    public void beforeTest() {
+        appender.start();
+        logger(Slf4jMdcAwareAnnotationClient.class).addAppender(appender);
+        logger(MdcSpecializedClient.class).addAppender(appender);
+    }
+
+    @After
+    public void afterTest() {
+        logger(Slf4jMdcAwareAnnotationClient.class).detachAppender(appender);
+        logger(MdcSpecializedClient.class).detachAppender(appender);
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+        assertThat(ThreadContext.getImmutableContext())
+                .as("Log4J ThreadContext is empty after test")
+                .isEmpty();
+    }
+
+    @Test
+    public void slowCallIsReportedWithTheElapsedTimeAndOutcome() {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        client.timedMdcValueArg("bar");
+
+        assertThat(client.mdc)
+                .as("[MdcTimed] MDC within the method")
+                .containsOnly(entry("foo", "bar"));
+        assertThat(appender.list)
+                .as("[MdcTimed] slow call reports")
+                .hasSize(1);
+        final ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getLevel())
+                .as("[MdcTimed] slow call report level")
+                .isEqualTo(Level.WARN);
+        assertThat(event.getFormattedMessage())
+                .as("[MdcTimed] slow call report")
+                .startsWith("Slow call: method=util.Slf4jMdcAwareAnnotationClient.timedMdcValueArg(java.lang.Object), "
+                        + "threshold=1 NANOSECONDS, elapsed=")
+                .endsWith(", foo=bar, outcome=success");
+        assertThat(event.getMDCPropertyMap())
+                .as("[MdcTimed] MDC of the slow call report")
+                .containsKeys("elapsed")
+                .contains(entry("foo", "bar"), entry("outcome", "success"));
+    }
+
+    @Test
+    public void failureIsRecordedAsTheOutcome() {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        assertThatThrownBy(() -> client.timedAndFailing("input"))
+                .as("[MdcTimed] failure is rethrown")
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(appender.list)
+                .as("[MdcTimed] slow call reports")
+                .hasSize(1);
+        assertThat(appender.list.get(0).getMDCPropertyMap())
+                .as("[MdcTimed] MDC of the slow call report")
+                .containsOnlyKeys("took", "result")
+                .contains(entry("result", IllegalStateException.class.getName()));
+    }
+
+    @Test
+    public void specializedAdviceIsTimed() {
+        final MdcSpecializedClient client = new MdcSpecializedClient();
+
+        client.timed(42L);
+
+        assertThat(client.mdc)
+                .as("[MdcTimed] MDC within the specialized method")
+                .containsOnly(entry("id", "42"));
+        assertThat(appender.list)
+                .as("[MdcTimed] slow call reports")
+                .hasSize(1);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .as("[MdcTimed] slow call report")
+                .startsWith("Slow call: method=util.MdcSpecializedClient.timed(long), threshold=1 NANOSECONDS")
+                .endsWith(", id=42, outcome=success");
+    }
+
+    @Test
+    public void fastCallIsNotReported() {
+        final MdcTimer timer = MdcTimer.of(MdcTimedTest.class.getName(), "block", "elapsed", "outcome", TimeUnit.HOURS, 1);
+        logger(MdcTimedTest.class).addAppender(appender);
+        try (MdcScope scope = MdcScope.open(MdcBackend.SLF4J)) {
+            timer.stop(MdcBackend.SLF4J, scope, System.nanoTime(), null);
+
+            assertThat(MDC.getCopyOfContextMap())
+                    .as("[MdcTimer] programmatic scope")
+                    .containsOnly(entry("elapsed", "0"), entry("outcome", "success"));
+        } finally {
+            logger(MdcTimedTest.class).detachAppender(appender);
+        }
+
+        assertThat(appender.list)
+                .as("[MdcTimer] fast call reports")
+                .isEmpty();
+    }
+
+    @Test
+    public void latenciesAreSegmentedByTheSegmentKey() throws Exception {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+
+        for (String tenant : new String[] { "acme", "globex", "acme", "initech", "umbrella", null }) {
+            client.timedPerTenant(tenant);
+        }
+
+        assertThat(MdcMetrics.latencies())
+                .as("[MdcTimed] latency histograms")
+                .filteredOn(s -> s.getMethod().endsWith(".timedPerTenant(java.lang.String)"))
+                .extracting(MdcLatencyStatistics::getSegmentKey, MdcLatencyStatistics::getSegment,
+                        MdcLatencyStatistics::getCalls)
+                .containsExactly(tuple("tenant", "acme", 2L), tuple("tenant", "globex", 1L),
+                        tuple("tenant", MdcLatencyStatistics.OVERFLOW, 3L));
+        assertThat((CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(MdcMetrics.OBJECT_NAME), "Latencies"))
+                .as("[MdcTimed] latency histograms via JMX")
+                .hasSize(MdcMetrics.latencies().size())
+                .anySatisfy(c -> assertThat(c.get("p99Nanos")).isInstanceOf(Long.class));
+    }
+
+    private static Logger logger(Class<?> type) {
+        return (Logger) LoggerFactory.getLogger(type);
+    }
+}
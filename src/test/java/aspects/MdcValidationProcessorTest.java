@@ -0,0 +1,160 @@
+package aspects;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.aspirecsl.log.processor.MdcExportProcessor;
+import com.aspirecsl.log.processor.MdcValidationProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test case for {@link MdcValidationProcessor}
+ */
+public class MdcValidationProcessorTest {
+
+    private static final String HEADER = "import java.util.Map;\n"
+            + "import com.aspirecsl.log.*;\n"
+            + "import util.DummyMdcParamsObject;\n"
+            + "public class Client {\n";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void validAnnotationsAreAccepted() throws IOException {
+        assertThat(compile("@Slf4jMdcAware public void valid(@MdcMap Map<String, String> map, @MdcHolder Object holder,"
+                + " @MdcParam(getter = \"getFunctionVersion\") @MdcParam(field = \"functionName\")"
+                + " @MdcParam(path = \"functionName.length\") DummyMdcParamsObject p,"
+                + " @MdcHolder util.DummyExportedObject exported) {}"))
+                .as("[MdcValidationProcessor] valid annotations")
+                .isEmpty();
+    }
+
+    @Test
+    public void misconfiguredAnnotationsAreRejected() throws IOException {
+        assertThat(compile("@Slf4jMdcAware public void a(@MdcValue(name = \"a\") @MdcMap Object a) {}",
+                "@Log4j2MdcAware public void b(@MdcHolder String b) {}",
+                "@Slf4jMdcAware public void c(@MdcMap Map<String, Integer> c) {}",
+                "@Slf4jMdcAware public void d(@MdcParam(getter = \"getAbsent\") DummyMdcParamsObject d) {}",
+                "@Slf4jMdcAware public void e(@MdcParam(field = \"absent\") DummyMdcParamsObject e) {}",
+                "@Slf4jMdcAware public void f(@MdcParam Object f) {}",
+                "@Slf4jMdcAware public void g(@MdcIterate(@MdcParam(field = \"id\")) Map<String, String> g) {}",
+                "@Slf4jMdcAware public void h(@MdcIterate(@MdcParam(field = \"absent\")) "
+                        + "java.util.List<DummyMdcParamsObject> h) {}",
+                "@Slf4jMdcAware public void i(@MdcParam(path = \"functionName.absent\") DummyMdcParamsObject i) {}",
+                "@Slf4jMdcAware public void j(@MdcParam(field = \"functionName\", path = \"functionName\") Object j) {}"))
+                .as("[MdcValidationProcessor] misconfigured annotations")
+                .containsExactlyInAnyOrder("MDC parameter annotations are mutually exclusive.",
+                        "@MdcHolder is allowed only on com.aspirecsl.log.HasDiagnosticContext parameters, or the types "
+                                + "with @MdcExport members.",
+                        "@MdcMap is allowed only on Map<String,String> parameters.",
+                        "Getter 'getAbsent()' is not a member of util.DummyMdcParamsObject.",
+                        "Field 'absent' is not a member of util.DummyMdcParamsObject.",
+                        "Either field() or getter() should be specified.",
+                        "@MdcIterate is allowed only on Iterable, Collection, List, Set, Iterator or Stream parameters.",
+                        "Field 'absent' is not a member of util.DummyMdcParamsObject.",
+                        "Property 'absent' of path 'functionName.absent' is not a member of java.lang.String.",
+                        "Exactly one of field(), getter() or path() should be specified.");
+    }
+
+    @Test
+    public void malformedFilterPatternsAreRejected() throws IOException {
+        assertThat(compile("@Slf4jMdcAware public void a(@MdcMap(filter = { \"x-b3-*\", \"/tenant\\\\.[a-z]+/\" }) "
+                        + "Map<String, String> a) {}",
+                "@Slf4jMdcAware public void b(@MdcMap(filter = \"/tenant(/\") Map<String, String> b) {}",
+                "@Slf4jMdcAware public void c(@MdcHolder(filter = \"/\\\\bx/\") Object c) {}"))
+                .as("[MdcValidationProcessor] malformed filter patterns")
+                .containsExactlyInAnyOrder("Invalid filter '/tenant(/': unclosed '('.",
+                        "Invalid filter '/\\bx/': unsupported escape '\\b'.");
+    }
+
+    @Test
+    public void checksCanBeSuppressed() throws IOException {
+        assertThat(compile("@Slf4jMdcAware @SuppressWarnings(\"MdcAnnotations\") public void a(@MdcHolder String a) {}"))
+                .as("[MdcValidationProcessor] suppressed checks")
+                .isEmpty();
+    }
+
+    @Test
+    public void misconfiguredExportsAreRejected() throws IOException {
+        assertThat(compile(new MdcExportProcessor(), "@MdcExport private String secret;",
+                "@MdcExport static int count;",
+                "@MdcExport void run() {}",
+                "@MdcExport(name = \"id\") public String id;",
+                "@MdcExport(name = \"id\") public String getId() { return id; }"))
+                .as("[MdcExportProcessor] misconfigured exports")
+                .containsExactlyInAnyOrder("@MdcExport requires a non-private accessor of the private field 'secret'.",
+                        "@MdcExport is not allowed on static members.",
+                        "@MdcExport is allowed only on non-private no-arg methods returning a value.",
+                        "Duplicate MDC key 'id' exported by Client.");
+    }
+
+    @Test
+    public void checksAreRunOnlyIfEnabled() throws IOException {
+        assertThat(compile(new MdcValidationProcessor(), false, "@Slf4jMdcAware public void a(@MdcHolder String a) {}"))
+                .as("[MdcValidationProcessor] without the option")
+                .isEmpty();
+    }
+
+    /**
+     * Compiles a class declaring the specified methods, and returns the error messages reported.
+     */
+    private List<String> compile(String... methods) throws IOException {
+        return compile(new MdcValidationProcessor(), methods);
+    }
+
+    /**
+     * Compiles a class declaring the specified members with the specified <tt>processor</tt>, and returns the error messages
+     * reported.
+     */
+    private List<String> compile(Processor processor, String... members) throws IOException {
+        return compile(processor, true, members);
+    }
+
+    /**
+     * Compiles a class declaring the specified members with the specified <tt>processor</tt>, with or without the
+     * <tt>validation</tt> option; and returns the error messages reported.
+     */
+    private List<String> compile(Processor processor, boolean validation, String... members) throws IOException {
+        final String source = HEADER + String.join("\n", members) + "\n}\n";
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final File output = temporaryFolder.newFolder("mdc-validation");
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-A" + MdcValidationProcessor.OPTION + "=" + validation, "-d", output.getPath(),
+                        "-cp", System.getProperty("java.class.path")),
+                null,
+                Collections.singletonList(new SimpleJavaFileObject(URI.create("string:///Client.java"),
+                        JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return source;
+                    }
+                }));
+        task.setProcessors(Collections.singletonList(processor));
+        task.call();
+        return diagnostics.getDiagnostics()
+                .stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+}
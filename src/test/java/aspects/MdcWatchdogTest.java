@@ -0,0 +1,100 @@
+package aspects;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.aspects.MdcRegistry;
+import com.aspirecsl.log.aspects.MdcWatchdog;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import util.Slf4jMdcAwareAnnotationClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit test case for {@link MdcWatchdog}
+ */
+public class MdcWatchdogTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @Before
+    public void beforeTest() {
+        appender.start();
+        logger().addAppender(appender);
+        MdcWatchdog.start(50, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void afterTest() {
+        MdcWatchdog.stop();
+        logger().detachAppender(appender);
+        assertThat(MDC.getCopyOfContextMap())
+                .as("Slf4j MDC context is empty after test")
+                .isNullOrEmpty();
+    }
+
+    @Test
+    public void stuckCallIsReportedOnceWithItsStackAndContext() throws Exception {
+        final Slf4jMdcAwareAnnotationClient client = new Slf4jMdcAwareAnnotationClient();
+        final CountDownLatch reported = new CountDownLatch(1);
+        final Thread worker = new Thread(() -> client.mdcValueArgRunning("bar", () -> {
+            try {
+                // stuck until reported; and then for a few more periods of the watchdog
+                while (appender.list.isEmpty()) {
+                    Thread.sleep(10);
+                }
+                reported.countDown();
+                Thread.sleep(100);
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+            }
+        }), "stuck-worker");
+        worker.start();
+
+        // the context is reported without enabling the registry
+        assertThat(MdcRegistry.enabled())
+                .as("[MdcWatchdog] registry is disabled")
+                .isFalse();
+        assertThat(reported.await(5, TimeUnit.SECONDS))
+                .as("[MdcWatchdog] stuck call is reported")
+                .isTrue();
+        worker.join();
+        // a call completing within the threshold is not reported
+        client.mdcValueArgRunning("fast", () -> { });
+
+        assertThat(appender.list)
+                .as("[MdcWatchdog] reports")
+                .hasSize(1);
+        final ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getLevel())
+                .as("[MdcWatchdog] report level")
+                .isEqualTo(Level.WARN);
+        assertThat(event.getFormattedMessage())
+                .as("[MdcWatchdog] report")
+                .startsWith("Stuck call: thread=\"stuck-worker\" #" + worker.getId() + ", method="
+                        + "util.Slf4jMdcAwareAnnotationClient.mdcValueArgRunning(java.lang.Object,java.lang.Runnable), "
+                        + "open for at least ")
+                .endsWith(" ms, mdc={foo=bar}");
+        assertThat(event.getMDCPropertyMap())
+                .as("[MdcWatchdog] context of the report")
+                .containsOnly(entry("foo", "bar"));
+        assertThat(event.getThrowableProxy().getStackTraceElementProxyArray())
+                .as("[MdcWatchdog] stack of the stuck thread")
+                .anyMatch(e -> e.getStackTraceElement().getMethodName().equals("mdcValueArgRunning"));
+    }
+
+    private static Logger logger() {
+        return (Logger) LoggerFactory.getLogger(MdcWatchdog.class);
+    }
+}
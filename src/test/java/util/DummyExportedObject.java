@@ -0,0 +1,67 @@
+package util;
+
+import com.aspirecsl.log.MdcExport;
+import com.aspirecsl.log.MdcHolder;
+
+/**
+ * A dummy class with {@link MdcExport} annotated members; which can be the target of {@link MdcHolder} annotations.
+ * <p>This class has no real-world use and only exists to facilitate the unit testing of the generated extractors.
+ *
+ * @author anoopr
+ * @version 1d
+ * @since 1d
+ */
+public class DummyExportedObject {
+
+    public enum Status {
+        OPEN, CLOSED
+    }
+
+    @MdcExport(name = "orderId")
+    private final String id;
+
+    @MdcExport
+    final int quantity;
+
+    @MdcExport
+    private final Status status;
+
+    private final String tenant;
+
+    public DummyExportedObject(String id, int quantity, Status status, String tenant) {
+        this.id = id;
+        this.quantity = quantity;
+        this.status = status;
+        this.tenant = tenant;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    @MdcExport(name = "tenant")
+    public String tenant() {
+        if (tenant == null) {
+            throw new IllegalStateException("No tenant");
+        }
+        return tenant;
+    }
+
+    /**
+     * A final subclass adding its own exported <tt>properties</tt> to those of the superclass.
+     */
+    public static final class Priority extends DummyExportedObject {
+
+        @MdcExport
+        public final boolean urgent;
+
+        public Priority(String id, boolean urgent) {
+            super(id, 1, Status.OPEN, null);
+            this.urgent = urgent;
+        }
+    }
+}
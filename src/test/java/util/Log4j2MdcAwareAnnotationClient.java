@@ -344,9 +344,10 @@ public class Log4j2MdcAwareAnnotationClient {
         mdc = ThreadContext.getImmutableContext();
     }
 
-    // illegal MDC annotation uses
+    // illegal MDC annotation uses; rejected at build time unless the MdcValidationProcessor checks are suppressed
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcValueUsedSimultaneously(
             @MdcHolder
             @MdcValue(name = "foo")
@@ -355,6 +356,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcMapUsedOnSameArg(
             @MdcHolder
             @MdcMap
@@ -363,6 +365,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcParamUsedOnSameArg(
             @MdcHolder
             @MdcParam(field = "functionVersion")
@@ -371,6 +374,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcParamsUsedOnSameArg(
             @MdcHolder
             @MdcParams(@MdcParam(field = "functionVersion"))
@@ -379,6 +383,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcValueAndMdcMapUsedOnSameArg(
             @MdcValue(name = "foo")
             @MdcMap
@@ -387,6 +392,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcValueAndMdcParamsUsedOnSameArg(
             @MdcValue(name = "foo")
             @MdcParams(@MdcParam(field = "functionName"))
@@ -395,6 +401,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcValueAndMdcParamUsedOnSameArg(
             @MdcValue(name = "foo")
             @MdcParam(field = "functionName")
@@ -403,6 +410,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcMapAndMdcParamUsedOnSameArg(
             @MdcMap
             @MdcParam(field = "functionName")
@@ -411,6 +419,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcMapAndMdcParamsUsedOnSameArg(
             @MdcMap
             @MdcParams(@MdcParam(field = "functionName"))
@@ -419,6 +428,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcParamsAndMdcParamUsedOnTheSameArg(
             @MdcParams(@MdcParam(field = "bar"))
             @MdcParam(field = "foo")
@@ -427,6 +437,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcParamUseWithoutFieldOrGetter(
             @MdcParam
                     Object foo) {
@@ -434,6 +445,7 @@ public class Log4j2MdcAwareAnnotationClient {
     }
 
     @Log4j2MdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcParamUseWithFieldAndGetter(
             @MdcParam(field = "functionName", getter = "getFunctionName")
                     Object foo) {
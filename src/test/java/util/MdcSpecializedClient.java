@@ -0,0 +1,175 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.slf4j.MDC;
+
+import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.Log4j2MdcAware;
+import com.aspirecsl.log.MdcAccounting;
+import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcIterate;
+import com.aspirecsl.log.MdcMap;
+import com.aspirecsl.log.MdcParam;
+import com.aspirecsl.log.MdcSpecialized;
+import com.aspirecsl.log.MdcTimed;
+import com.aspirecsl.log.MdcValue;
+import com.aspirecsl.log.Slf4jMdcAware;
+
+/**
+ * Uses {@link MdcSpecialized} annotation.
+ * <p>This class has no <em>real-world</em> use and only exists to facilitate the unit testing of the advice generated for
+ * <tt>MdcSpecialized</tt> methods.
+ *
+ * @author anoopr
+ * @version 1d
+ * @since 1d
+ */
+@SuppressWarnings("unused")
+public class MdcSpecializedClient {
+
+    /**
+     * Holds the MDC from the logging framework to be verified in tests.
+     */
+    public Map<String, String> mdc = Collections.emptyMap();
+
+    /**
+     * Holds the MDC from the logging framework for each element consumed by a batch method, to be verified in tests.
+     */
+    public final List<Map<String, String>> mdcs = new ArrayList<>();
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    public void values(
+            @MdcValue(name = "id")
+                    long id,
+            @MdcValue(name = "name")
+                    String name,
+            @MdcValue(name = "nullable", nullable = true)
+                    Object nullable,
+            Object notAnnotated,
+            @MdcValue(name = "shard")
+                    int shard,
+            @MdcValue(name = "active")
+                    Boolean active,
+            @MdcValue(name = "unit")
+                    TimeUnit unit) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Log4j2MdcAware
+    @MdcSpecialized
+    public void params(
+            @MdcParam(getter = "getFunctionVersion", label = "version")
+            @MdcParam(field = "functionName")
+                    DummyMdcParamsObject function,
+            @MdcParam(field = "code")
+            @MdcParam(getter = "isActive")
+                    Status status) {
+        mdc = ThreadContext.getContext();
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    public void paths(
+            @MdcParam(path = "functionVersion.length", label = "versionLength")
+                    DummyMdcParamsObject function) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @Log4j2MdcAware
+    @MdcSpecialized
+    public void mapAndHolder(
+            @MdcMap(filter = { "foo-one" }, mdcKeyPrefix = "custom")
+                    Map<String, String> map,
+            @MdcHolder
+                    HasDiagnosticContext holder) {
+        mdc = MDC.getCopyOfContextMap();
+        mdc.putAll(ThreadContext.getContext());
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    public void formatted(
+            @MdcValue(name = "upper", formatter = UpperCaseFormatter.class)
+                    String upper,
+            @MdcValue(name = "list", maxLength = 8)
+                    List<String> list) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    public void withoutParameterAnnotation(Object input) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware(correlationKey = "correlationId")
+    @MdcSpecialized
+    public void correlated(Object input) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    @MdcAccounting(segmentKey = "tenant")
+    public void accounted(
+            @MdcValue(name = "tenant")
+                    String tenant) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    @MdcTimed(slowThreshold = 1, unit = TimeUnit.NANOSECONDS)
+    public void timed(
+            @MdcValue(name = "id")
+                    long id) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    public void iterated(
+            @MdcValue(name = "batch")
+                    String batch,
+            @MdcIterate(@MdcParam(getter = "getFunctionVersion", label = "version"))
+                    Iterable<DummyMdcParamsObject> functions) {
+        for (DummyMdcParamsObject function : functions) {
+            mdcs.add(MDC.getCopyOfContextMap());
+        }
+    }
+
+    @Slf4jMdcAware
+    @MdcSpecialized
+    public void exported(
+            @MdcHolder
+                    DummyExportedObject.Priority priority) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    /**
+     * A nested type that is the target of <tt>MdcParam</tt> annotations.
+     */
+    public static final class Status {
+
+        public final int code;
+
+        private final boolean active;
+
+        public Status(int code, boolean active) {
+            this.code = code;
+            this.active = active;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package util;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.slf4j.MDC;
 
 import com.aspirecsl.log.HasDiagnosticContext;
+import com.aspirecsl.log.MdcAccounting;
 import com.aspirecsl.log.MdcHolder;
+import com.aspirecsl.log.MdcIterate;
 import com.aspirecsl.log.MdcMap;
 import com.aspirecsl.log.MdcMaps;
 import com.aspirecsl.log.MdcParam;
 import com.aspirecsl.log.MdcParams;
+import com.aspirecsl.log.MdcTimed;
 import com.aspirecsl.log.MdcValue;
 import com.aspirecsl.log.Slf4jMdcAware;
 
@@ -31,6 +38,16 @@ public class Slf4jMdcAwareAnnotationClient {
      */
     public Map<String, String> mdc = Collections.emptyMap();
 
+    /**
+     * Holds the MDC from the logging framework for each element consumed by a batch method, to be verified in tests.
+     */
+    public final List<Map<String, String>> mdcs = new ArrayList<>();
+
+    /**
+     * Holds the array allocated by an accounted method; so that the allocation is not eliminated.
+     */
+    public byte[] allocated;
+
     @Slf4jMdcAware
     public void slf4jMdcAwareWithoutParameterAnnotation(Object input) {
         mdc = MDC.getCopyOfContextMap();
@@ -244,6 +261,14 @@ public class Slf4jMdcAwareAnnotationClient {
         mdc = MDC.getCopyOfContextMap();
     }
 
+    @Slf4jMdcAware
+    public void mdcParamWithPath(
+            @MdcParam(path = "customer.address.postcode", label = "postcode")
+            @MdcParam(path = "getCustomer.isVip")
+                    Object order) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
     // MdcValue uses
 
     @Slf4jMdcAware
@@ -323,12 +348,93 @@ public class Slf4jMdcAwareAnnotationClient {
         mdc = MDC.getCopyOfContextMap();
     }
 
+    @Slf4jMdcAware
+    public void mdcHolderArgWithExports(
+            @MdcHolder(filter = { "orderId", "urgent" }, mdcKeyPrefix = "order")
+                    DummyExportedObject order) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
     public void mdcHolderWithoutSlf4jMdcAware(
             @MdcHolder
                     HasDiagnosticContext one) {
         mdc = MDC.getCopyOfContextMap();
     }
 
+    // correlation id uses
+
+    @Slf4jMdcAware(correlationKey = "correlationId")
+    public void correlated(Object input) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware(correlationKey = "correlationId")
+    public void correlatedMdcValueArg(
+            @MdcValue(name = "foo")
+                    Object foo,
+            Slf4jMdcAwareAnnotationClient inner) {
+        inner.correlated("inner");
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    public void mdcValueArgRunning(
+            @MdcValue(name = "foo")
+                    Object foo,
+            Runnable task) {
+        task.run();
+    }
+
+    // MdcTimed uses
+
+    @Slf4jMdcAware
+    @MdcTimed(slowThreshold = 1, unit = TimeUnit.NANOSECONDS)
+    public void timedMdcValueArg(
+            @MdcValue(name = "foo")
+                    Object foo) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @MdcTimed(segmentKey = "tenant", maxSegments = 2)
+    public void timedPerTenant(
+            @MdcValue(name = "tenant")
+                    String tenant) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @MdcTimed(elapsedKey = "took", outcomeKey = "result", slowThreshold = 1, unit = TimeUnit.NANOSECONDS)
+    public void timedAndFailing(Object input) {
+        mdc = MDC.getCopyOfContextMap();
+        throw new IllegalStateException("failed");
+    }
+
+    // MdcAccounting uses
+
+    @Slf4jMdcAware
+    @MdcAccounting(segmentKey = "tenant", maxSegments = 1)
+    public void accountedPerTenant(
+            @MdcValue(name = "tenant")
+                    String tenant,
+            int bytes) {
+        mdc = MDC.getCopyOfContextMap();
+        allocated = new byte[bytes];
+    }
+
+    // budget uses
+
+    @Slf4jMdcAware(maxKeys = 2, maxValueLength = 5)
+    public void budgetedMdcMapAndMdcValueArgs(
+            @MdcMap(maxKeys = 1)
+                    Map<?, ?> map,
+            @MdcValue(name = "foo")
+                    Object foo,
+            @MdcValue(name = "bar")
+                    Object bar) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
     // all annotations used
 
     @Slf4jMdcAware
@@ -344,9 +450,33 @@ public class Slf4jMdcAwareAnnotationClient {
         mdc = MDC.getCopyOfContextMap();
     }
 
-    // illegal MDC annotation uses
+    // MdcIterate uses
 
     @Slf4jMdcAware
+    public void mdcIterateList(
+            @MdcValue(name = "batch")
+                    String batch,
+            @MdcIterate({ @MdcParam(field = "functionName", label = "function-name"),
+                    @MdcParam(getter = "getFunctionVersion", label = "function-version") })
+                    List<DummyMdcParamsObject> functions) {
+        for (DummyMdcParamsObject function : functions) {
+            mdcs.add(MDC.getCopyOfContextMap());
+        }
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    public void mdcIterateStream(
+            @MdcIterate(@MdcParam(field = "functionName"))
+                    Stream<DummyMdcParamsObject> functions) {
+        functions.filter(function -> !function.getFunctionName().isEmpty())
+                .forEach(function -> mdcs.add(MDC.getCopyOfContextMap()));
+    }
+
+    // illegal MDC annotation uses; rejected at build time unless the MdcValidationProcessor checks are suppressed
+
+    @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcValueUsedSimultaneously(
             @MdcHolder
             @MdcValue(name = "foo")
@@ -355,6 +485,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcMapUsedOnSameArg(
             @MdcHolder
             @MdcMap
@@ -363,6 +494,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcParamUsedOnSameArg(
             @MdcHolder
             @MdcParam(field = "functionVersion")
@@ -371,6 +503,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcHolderAndMdcParamsUsedOnSameArg(
             @MdcHolder
             @MdcParams(@MdcParam(field = "functionVersion"))
@@ -379,6 +512,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcValueAndMdcMapUsedOnSameArg(
             @MdcValue(name = "foo")
             @MdcMap
@@ -387,6 +521,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcValueAndMdcParamsUsedOnSameArg(
             @MdcValue(name = "foo")
             @MdcParams(@MdcParam(field = "functionName"))
@@ -395,6 +530,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcValueAndMdcParamUsedOnSameArg(
             @MdcValue(name = "foo")
             @MdcParam(field = "functionName")
@@ -403,6 +539,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcMapAndMdcParamUsedOnSameArg(
             @MdcMap
             @MdcParam(field = "functionName")
@@ -411,6 +548,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcMapAndMdcParamsUsedOnSameArg(
             @MdcMap
             @MdcParams(@MdcParam(field = "functionName"))
@@ -419,6 +557,15 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
+    public void mdcIterateOnObject(
+            @MdcIterate(@MdcParam(field = "functionName"))
+                    Object any) {
+        mdc = MDC.getCopyOfContextMap();
+    }
+
+    @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcParamsAndMdcParamUsedOnTheSameArg(
             @MdcParams(@MdcParam(field = "bar"))
             @MdcParam(field = "foo")
@@ -427,6 +574,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcParamUseWithoutFieldOrGetter(
             @MdcParam
                     Object foo) {
@@ -434,6 +582,7 @@ public class Slf4jMdcAwareAnnotationClient {
     }
 
     @Slf4jMdcAware
+    @SuppressWarnings("MdcAnnotations")
     public void mdcParamUseWithFieldAndGetter(
             @MdcParam(field = "functionName", getter = "getFunctionName")
                     Object foo) {
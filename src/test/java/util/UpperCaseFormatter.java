@@ -0,0 +1,19 @@
+package util;
+
+import com.aspirecsl.log.format.MdcFormatter;
+
+/**
+ * A formatter rendering the values in upper case.
+ * <p>This class has no real-world use and only exists to facilitate the unit testing of <tt>MdcFormatter</tt>.
+ *
+ * @author anoopr
+ * @version 1d
+ * @since 1d
+ */
+public final class UpperCaseFormatter implements MdcFormatter<Object> {
+
+    @Override
+    public void formatTo(Object value, StringBuilder out, int maxLength) {
+        out.append(value.toString().toUpperCase());
+    }
+}